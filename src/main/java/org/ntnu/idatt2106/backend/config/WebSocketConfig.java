@@ -0,0 +1,81 @@
+package org.ntnu.idatt2106.backend.config;
+
+import org.ntnu.idatt2106.backend.security.StompAuthorizationInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * Configuration class for the STOMP over WebSocket message broker.
+ * Clients connect to {@code /ws} and subscribe to topics under {@code /topic},
+ * e.g. {@code /topic/news} for all news or {@code /topic/news/{district}} for a single district.
+ * Household topics, {@code /topic/households/{id}/**}, are only open to members of the household,
+ * who authenticate with an {@code Authorization: Bearer <JWT>} header on CONNECT.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+  private final StompAuthorizationInterceptor stompAuthorizationInterceptor;
+
+  /**
+   * Constructor for the WebSocketConfig
+   *
+   * @param stompAuthorizationInterceptor the interceptor authorizing the frames sent by clients
+   */
+  @Autowired
+  public WebSocketConfig(StompAuthorizationInterceptor stompAuthorizationInterceptor) {
+    this.stompAuthorizationInterceptor = stompAuthorizationInterceptor;
+  }
+
+  /**
+   * Registers the WebSocket endpoint, with a SockJS fallback for clients without WebSocket support.
+   *
+   * @param registry the {@link StompEndpointRegistry} to configure
+   */
+  @Override
+  public void registerStompEndpoints(StompEndpointRegistry registry) {
+    registry.addEndpoint("/ws")
+        .setAllowedOrigins("http://localhost:5173")
+        .withSockJS();
+  }
+
+  /**
+   * Enables the in-memory broker for topic destinations.
+   *
+   * @param registry the {@link MessageBrokerRegistry} to configure
+   */
+  @Override
+  public void configureMessageBroker(MessageBrokerRegistry registry) {
+    registry.enableSimpleBroker("/topic");
+    registry.setApplicationDestinationPrefixes("/app");
+  }
+
+  /**
+   * Authenticates CONNECT frames and authorizes subscriptions and sends before they reach the broker.
+   *
+   * @param registration the {@link ChannelRegistration} of the client inbound channel
+   */
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(stompAuthorizationInterceptor);
+  }
+
+  /**
+   * Limits how long and how much a slow client may buffer before its session is closed,
+   * so one slow client cannot hold up messages to the others.
+   *
+   * @param registration the {@link WebSocketTransportRegistration} to configure
+   */
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    registration
+        .setSendTimeLimit(10_000)
+        .setSendBufferSizeLimit(512 * 1024);
+  }
+}
@@ -1,24 +1,32 @@
 package org.ntnu.idatt2106.backend.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.ntnu.idatt2106.backend.dto.map.BunkerImportSummary;
+import org.ntnu.idatt2106.backend.security.JWT_token;
 import org.ntnu.idatt2106.backend.service.BunkerImportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * This class is used to handle all requests related to importing bunker data.
- * It contains an endpoint for importing bunker data from a JSON file.
+ * It contains endpoints for importing bunker data from the bundled JSON file and from an uploaded file.
  *
  * @author Erlend Eide Zindel
  * @since 0.1
@@ -30,16 +38,20 @@ public class BunkerImportController {
     @Autowired
     private BunkerImportService bunkerImportService;
 
+    @Autowired
+    private JWT_token jwt;
+
     /**
      * Endpoint to import bunker data from a JSON file.
      *
-     * @return a response entity containing a success message if the import was successful,
+     * @return a response entity containing a summary of the applied changes if the import was successful,
      *         or an error message if the import failed.
      */
     @PostMapping("/import")
     @Operation(
             summary = "Import bunker data",
-            description = "Imports bunker data from a JSON file."
+            description = "Imports bunker data from a JSON file. Only bunkers that are new, changed "
+                + "or no longer in the dataset are written, and a summary of the changes is returned."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -47,7 +59,7 @@ public class BunkerImportController {
                 description = "Bunker data imported successfully",
                 content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(example = "Bunker data imported successfully"))
+                    schema = @Schema(implementation = BunkerImportSummary.class))
             ),
             @ApiResponse(
                 responseCode = "500",
@@ -68,10 +80,84 @@ public class BunkerImportController {
                       })
             )
     })
-    public ResponseEntity<String> importBunkerData() {
+    public ResponseEntity<?> importBunkerData() {
         try {
-            bunkerImportService.importBunkerDataFromJson("Samfunnssikkerhet_0000_Norge_25833_TilfluktsromOffentlige_GeoJSON.json");
-            return ResponseEntity.ok("Bunker data imported successfully");
+            BunkerImportSummary summary = bunkerImportService.importBunkerDataFromJson(
+                BunkerImportService.DEFAULT_DATASET);
+            return ResponseEntity.ok(summary);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Import failed due to IO error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Import failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to import bunker data from an uploaded GeoJSON file.
+     * The upload is parsed while it is read, so new editions of the dataset can be loaded
+     * without rebuilding the application and without copying the upload.
+     *
+     * @param authorizationHeader the authorization header containing the admin JWT token
+     * @param file the GeoJSON file to import
+     * @return a response entity containing a summary of the applied changes if the import was successful,
+     *         or an error message if the import failed.
+     */
+    @PostMapping(value = "/import/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Import uploaded bunker data",
+            description = "Imports bunker data from an uploaded GeoJSON file. Only admin users can import bunker data."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Bunker data imported successfully",
+                content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = BunkerImportSummary.class))
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "No file uploaded",
+                content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(example = "Error: No file uploaded"))
+            ),
+            @ApiResponse(
+                responseCode = "401",
+                description = "Unauthorized access, must be admin user",
+                content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(example = "Error: Unauthorized"))
+            ),
+            @ApiResponse(
+                responseCode = "500",
+                description = "Import failed",
+                content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(example = "Import failed due to IO error: <error message>"))
+            )
+    })
+    public ResponseEntity<?> importUploadedBunkerData(
+            @Parameter(
+                    name = "Authorization",
+                    description = "Bearer token in the format `Bearer <JWT>`",
+                    required = true,
+                    example = "Bearer eyJhbGciOiJIUzI1N.iIsInR5cCI6IkpXVCJ9..."
+            ) @RequestHeader("Authorization") String authorizationHeader,
+            @Parameter(
+                    description = "GeoJSON file with the public shelters",
+                    required = true
+            ) @RequestParam("file") MultipartFile file) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")
+                || jwt.getAdminUserByToken(authorizationHeader.substring(7)) == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+        }
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: No file uploaded");
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(bunkerImportService.importBunkerDataFromStream(inputStream));
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Import failed due to IO error: " + e.getMessage());
         } catch (Exception e) {
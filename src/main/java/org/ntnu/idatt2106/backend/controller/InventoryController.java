@@ -7,25 +7,41 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.ntnu.idatt2106.backend.dto.item.CatalogProductResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryChangesResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryTotalResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemAmountRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemAmountResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchResponse;
 import org.ntnu.idatt2106.backend.dto.item.ItemCreateRequest;
 import org.ntnu.idatt2106.backend.dto.item.ItemGenericDTO;
+import org.ntnu.idatt2106.backend.dto.item.ItemPageResponse;
 import org.ntnu.idatt2106.backend.exceptions.UserNotFoundException;
 import org.ntnu.idatt2106.backend.security.JWT_token;
 import org.ntnu.idatt2106.backend.service.CategoryService;
+import org.ntnu.idatt2106.backend.service.InventoryExporter;
+import org.ntnu.idatt2106.backend.service.ItemCursor;
 import org.ntnu.idatt2106.backend.service.ItemService;
+import org.ntnu.idatt2106.backend.service.ProductCatalog;
 import org.ntnu.idatt2106.backend.service.UnitService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller class for handling inventory-related operations.
@@ -39,6 +55,9 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/emergency/items")
 public class InventoryController {
 
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int DEFAULT_LOOKUP_SIZE = 10;
+
   // Service classes
   @Autowired
   ItemService itemService;
@@ -49,6 +68,9 @@ public class InventoryController {
   @Autowired
   CategoryService categoryService;
 
+  @Autowired
+  InventoryExporter inventoryExporter;
+
   @Autowired
   JWT_token jwtToken;
 
@@ -185,6 +207,75 @@ public class InventoryController {
     }
   }
 
+  /**
+   * Endpoint for applying a batch of inventory changes to a household.
+   * @param batchRequest the request body containing the household and the operations
+   * @param authorizationHeader the Authorization header containing the JWT token
+   * @return a response entity containing the result of each operation
+   */
+  @PostMapping("/batch")
+  @Operation(
+      summary = "Apply a batch of inventory changes",
+      description = "Endpoint for creating, updating and deleting many items of a household in one "
+          + "transaction. The batch is only applied if all operations are valid."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Batch applied successfully",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(implementation = ItemBatchResponse.class)
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Invalid batch or operations, nothing was applied",
+          content = @Content(
+              mediaType = "application/json",
+              examples = {
+                  @ExampleObject(
+                      name = "Invalid operations",
+                      value = "{\"applied\": false, \"results\": [{\"index\": 0, \"type\": \"CREATE\", "
+                          + "\"itemId\": null, \"success\": false, \"error\": \"Unit not found\"}]}"
+                  ),
+                  @ExampleObject(
+                      name = "Too many operations",
+                      value = "Error: A batch can contain at most 500 operations"
+                  ),
+                  @ExampleObject(
+                      name = "Not a member of the household",
+                      value = "Error: User is not a member of the specified household"
+                  )
+              }
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      )
+  })
+  public ResponseEntity<?> applyBatch(
+      @RequestBody ItemBatchRequest batchRequest,
+      @RequestHeader("Authorization") String authorizationHeader) {
+    try {
+      int userId = getUserIdFromRequest(authorizationHeader);
+      ItemBatchResponse response = itemService.applyBatch(batchRequest, userId);
+      return ResponseEntity.status(response.isApplied() ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+          .body(response);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (UserNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+    }
+  }
+
   /**
    * Endpoint for updating an existing item in the inventory.
    * @param itemData the request body containing updated item details
@@ -194,7 +285,8 @@ public class InventoryController {
   @PutMapping("")
   @Operation(
       summary = "Update an item",
-      description = "Endpoint for updating an existing item in the inventory"
+      description = "Endpoint for updating an existing item in the inventory. Send the version of "
+          + "the item that was read, to reject the update if the item was changed since."
   )
   @ApiResponses(value = {
       @ApiResponse(
@@ -234,6 +326,14 @@ public class InventoryController {
               schema = @Schema(example = "Error: Invalid item data")
           )
       ),
+      @ApiResponse(
+          responseCode = "409",
+          description = "The item was changed since it was read",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Item was changed by another user")
+          )
+      ),
       @ApiResponse(
           responseCode = "401",
           description = "Unauthorized",
@@ -253,6 +353,81 @@ public class InventoryController {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
     } catch (IllegalArgumentException e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (OptimisticLockingFailureException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: Item was changed by another user");
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+    }
+  }
+
+  /**
+   * Endpoint for adding to or subtracting from the amount of an item.
+   * @param id the ID of the item
+   * @param amountRequest the request body containing the change of the amount
+   * @param authorizationHeader the Authorization header containing the JWT token
+   * @return a response entity containing the new amount of the item
+   */
+  @PatchMapping("/{id}/amount")
+  @Operation(
+      summary = "Change the amount of an item",
+      description = "Endpoint for restocking or consuming an item. The change is applied atomically, "
+          + "so concurrent changes by other household members are never lost."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Amount changed successfully",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(implementation = ItemAmountResponse.class)
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Invalid change, item not found, or the user is not authorized for the item",
+          content = @Content(
+              mediaType = "application/json",
+              examples = {
+                  @ExampleObject(
+                      name = "Negative amount",
+                      value = "Error: Amount cannot be negative"
+                  ),
+                  @ExampleObject(
+                      name = "Item not found",
+                      value = "Error: Item not found"
+                  )
+              }
+          )
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "User not found",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: User not found")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      )
+  })
+  public ResponseEntity<?> changeAmount(
+      @Parameter(description = "The id of the item", example = "1")
+      @PathVariable int id,
+      @RequestBody ItemAmountRequest amountRequest,
+      @RequestHeader("Authorization") String authorizationHeader) {
+    try {
+      int userId = getUserIdFromRequest(authorizationHeader);
+      return ResponseEntity.ok(itemService.changeAmount(id, amountRequest.getDelta(), userId));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (UserNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
     }
@@ -380,15 +555,22 @@ public class InventoryController {
   }
 
   /**
-   * Endpoint for retrieving all items associated with a household.
+   * Endpoint for retrieving the items associated with a household.
+   * Returns all items as a list, or a page of items if a limit or cursor is given.
    * @param id the ID of the household
+   * @param sort the order of the items
+   * @param cursor the cursor of the previous page
+   * @param limit the maximum number of items on the page
    * @param authorizationHeader the Authorization header containing the JWT token
-   * @return a response entity containing the list of items associated with the household
+   * @return a response entity containing the list or page of items associated with the household
    */
   @GetMapping("/household/{id}")
   @Operation(
-      summary = "Get all items associated with a household",
-      description = "Endpoint for retrieving all items associated with a household"
+      summary = "Get the items associated with a household",
+      description = "Endpoint for retrieving the items associated with a household, sorted by "
+          + "expiration date, name or category. Without limit and cursor all items are returned as "
+          + "a list. With a limit, a page of items is returned; pass its nextCursor as cursor, with "
+          + "the same sort, to get the next page."
   )
   @ApiResponses(value = {
       @ApiResponse(
@@ -396,7 +578,15 @@ public class InventoryController {
           description = "Items retrieved successfully",
           content = @Content(
               mediaType = "application/json",
-              schema = @Schema(implementation = ItemGenericDTO.class)
+              schema = @Schema(oneOf = {ItemGenericDTO[].class, ItemPageResponse.class})
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Invalid sort, cursor or limit",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Invalid cursor")
           )
       ),
       @ApiResponse(
@@ -417,6 +607,164 @@ public class InventoryController {
       )
   })
   public ResponseEntity<?> getInventoryForHousehold(
+      @Parameter(
+          description = "The id of the household",
+          example = "1")
+      @PathVariable int id,
+      @Parameter(
+          description = "The order of the items: expiration, name or category",
+          example = "expiration"
+      ) @RequestParam(defaultValue = "expiration") String sort,
+      @Parameter(
+          description = "The nextCursor of the previous page, omit for the first page"
+      ) @RequestParam(required = false) String cursor,
+      @Parameter(
+          description = "The maximum number of items on the page (1-100), omit for all items",
+          example = "20"
+      ) @RequestParam(required = false) Integer limit,
+      @RequestHeader("Authorization") String authorizationHeader) {
+    boolean paged = limit != null || cursor != null;
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    try {
+      if (paged) {
+        itemService.validatePageRequest(sort, cursor, pageSize);
+      } else {
+        ItemCursor.Sort.parse(sort);
+      }
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    }
+    try {
+      int userId = getUserIdFromRequest(authorizationHeader);
+      if (paged) {
+        return ResponseEntity.ok(itemService.getItemPageByHouseholdId(id, userId, sort, cursor, pageSize));
+      }
+      return ResponseEntity.ok(itemService.getItemsByHouseholdId(id, userId, sort));
+    } catch (UserNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+    }
+  }
+
+  /**
+   * Endpoint for retrieving the changes to the inventory of a household since a revision.
+   * @param id the ID of the household
+   * @param since the revision the client has
+   * @param authorizationHeader the Authorization header containing the JWT token
+   * @return a response entity containing the current revision and the changed and removed items
+   */
+  @GetMapping("/household/{id}/changes")
+  @Operation(
+      summary = "Get the changes to the inventory of a household",
+      description = "Endpoint for syncing the inventory of a household incrementally. Returns the "
+          + "current revision, the current state of the items added or changed after the given "
+          + "revision and the ids of the items removed after it. Pass 0 to get the whole inventory, "
+          + "and the returned revision on the next sync."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Changes retrieved successfully",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(implementation = InventoryChangesResponse.class)
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Invalid revision, or the user is not a member of the household",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Revision is ahead of the household")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "User not found",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: User not found")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      )
+  })
+  public ResponseEntity<?> getInventoryChanges(
+      @Parameter(
+          description = "The id of the household",
+          example = "1")
+      @PathVariable int id,
+      @Parameter(
+          description = "The revision returned by the previous sync, or 0 for the whole inventory",
+          example = "42"
+      ) @RequestParam long since,
+      @RequestHeader("Authorization") String authorizationHeader) {
+    try {
+      int userId = getUserIdFromRequest(authorizationHeader);
+      return ResponseEntity.ok(itemService.getChangesSince(id, userId, since));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (UserNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+    }
+  }
+
+  /**
+   * Endpoint for retrieving the totals of the items of a household per category and unit.
+   * @param id the ID of the household
+   * @param authorizationHeader the Authorization header containing the JWT token
+   * @return a response entity containing the totals of each category and unit
+   */
+  @GetMapping("/household/{id}/totals")
+  @Operation(
+      summary = "Get the totals of the inventory of a household",
+      description = "Endpoint for retrieving the number of items, the total amount and the earliest "
+          + "expiration date of each category and unit in the inventory of a household"
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Totals retrieved successfully",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(implementation = InventoryTotalResponse[].class)
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "The user is not a member of the household",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: User is not a member of the specified household")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "User not found",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: User not found")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      )
+  })
+  public ResponseEntity<?> getInventoryTotals(
       @Parameter(
           description = "The id of the household",
           example = "1")
@@ -424,11 +772,214 @@ public class InventoryController {
       @RequestHeader("Authorization") String authorizationHeader) {
     try {
       int userId = getUserIdFromRequest(authorizationHeader);
-      return ResponseEntity.ok(itemService.getItemsByHouseholdId(id, userId));
+      return ResponseEntity.ok(itemService.getTotalsByHouseholdId(id, userId));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
     } catch (UserNotFoundException e) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Streams the inventory of a household as NDJSON or CSV
+   *
+   * @param id                  the ID of the household
+   * @param format              the format of the export, ndjson or csv
+   * @param authorizationHeader the Authorization header containing the JWT token
+   * @return a response entity streaming one line per item
+   */
+  @GetMapping("/household/{id}/export")
+  @Operation(
+      summary = "Export the inventory of a household",
+      description = "Streams the items of a household, ordered by id, as newline-delimited JSON or as CSV "
+          + "with a header line. The rows are written as they are read from the database."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Inventory streamed successfully",
+          content = {
+              @Content(
+                  mediaType = "application/x-ndjson",
+                  schema = @Schema(example = "{\"householdId\":1,\"id\":3,\"name\":\"Water\",\"amount\":12.0,"
+                      + "\"unitId\":1,\"categoryId\":1,\"expirationDate\":\"2025-06-01T00:00:00.000+00:00\",\"version\":2}")
+              ),
+              @Content(
+                  mediaType = "text/csv",
+                  schema = @Schema(example = "householdId,id,name,amount,unitId,categoryId,expirationDate,version\n"
+                      + "1,3,Water,12.0,1,1,2025-06-01T00:00:00Z,2")
+              )
+          }
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Invalid format, or the user is not a member of the household",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: User is not a member of the specified household")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "User not found",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: User not found")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      )
+  })
+  public ResponseEntity<?> exportHousehold(
+      @Parameter(
+          description = "The id of the household",
+          example = "1")
+      @PathVariable int id,
+      @Parameter(
+          description = "The format of the export, ndjson or csv",
+          example = "csv")
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestHeader("Authorization") String authorizationHeader) {
+    try {
+      int userId = getUserIdFromRequest(authorizationHeader);
+      InventoryExporter.Format exportFormat = InventoryExporter.Format.parse(format);
+      inventoryExporter.validateHouseholdExport(id, userId);
+
+      StreamingResponseBody body = out -> inventoryExporter.exportHousehold(id, userId, exportFormat, out);
+      return ResponseEntity.status(HttpStatus.OK)
+          .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+          .body(body);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (UserNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+    }
+  }
+
+  /**
+   * Streams every item in the system as NDJSON or CSV, only for admin users
+   *
+   * @param format              the format of the export, ndjson or csv
+   * @param authorizationHeader the Authorization header containing the JWT token of an admin
+   * @return a response entity streaming one line per item and household
+   */
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export all inventories",
+      description = "Streams every item in the system with each of its households, ordered by item and "
+          + "household, as newline-delimited JSON or as CSV with a header line. Items without a household "
+          + "have an empty household id. Only admin users can export all inventories."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Inventories streamed successfully",
+          content = {
+              @Content(mediaType = "application/x-ndjson"),
+              @Content(mediaType = "text/csv")
+          }
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Invalid format",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Invalid format, must be ndjson or csv")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized access, must be admin user",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      )
+  })
+  public ResponseEntity<?> exportAll(
+      @Parameter(
+          description = "The format of the export, ndjson or csv",
+          example = "csv")
+      @RequestParam(defaultValue = "ndjson") String format,
+      @Parameter(
+          name = "Authorization",
+          description = "Bearer token in the format `Bearer <JWT>`",
+          required = true,
+          example = "Bearer eyJhbGciOiJIUzI1N.iIsInR5cCI6IkpXVCJ9..."
+      ) @RequestHeader("Authorization") String authorizationHeader) {
+    try {
+      if (jwtToken.getAdminUserByToken(authorizationHeader.substring(7)) == null) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+      }
+      InventoryExporter.Format exportFormat = InventoryExporter.Format.parse(format);
+
+      StreamingResponseBody body = out -> inventoryExporter.exportAll(exportFormat, out);
+      return ResponseEntity.status(HttpStatus.OK)
+          .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+          .body(body);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+    }
+  }
+
+  /**
+   * Looks up products in the product catalog by barcode or by the start of their name
+   *
+   * @param q     a barcode, or the start of a word in the name of a product
+   * @param limit the maximum number of products
+   * @return a response entity containing the matching products
+   */
+  @GetMapping("/lookup")
+  @Operation(
+      summary = "Look up products in the product catalog",
+      description = "Endpoint for finding products to prefill a new item. A query of 8, 12 or 13 digits is "
+          + "looked up as a barcode, any other query finds the products with a word in their name starting "
+          + "with it. Products whose name starts with the query come first."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Products found successfully, empty if none match",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(implementation = CatalogProductResponse[].class)
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Blank query or invalid limit",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Query must not be blank")
+          )
+      )
+  })
+  public ResponseEntity<?> lookupProducts(
+      @Parameter(
+          description = "A barcode, or the start of a word in the name of a product",
+          required = true,
+          example = "water")
+      @RequestParam String q,
+      @Parameter(
+          description = "The maximum number of products, at most " + ProductCatalog.MAX_RESULTS,
+          example = "10")
+      @RequestParam(required = false) Integer limit) {
+    try {
+      return ResponseEntity.ok(itemService.lookupProducts(q, limit == null ? DEFAULT_LOOKUP_SIZE : limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    }
+  }
+}
@@ -11,14 +11,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.persistence.EntityNotFoundException;
 import org.ntnu.idatt2106.backend.dto.news.NewsCreateRequest;
 import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
 import org.ntnu.idatt2106.backend.exceptions.AlreadyInUseException;
 import org.ntnu.idatt2106.backend.security.JWT_token;
 import org.ntnu.idatt2106.backend.service.NewsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -39,13 +44,15 @@ public class NewsController {
   private JWT_token jwt;
 
   /**
-   * Get all news from the database
-   * @return List of NewsGetResponse
+   * Get a page of the most recent news of each case
+   * @param cursor the cursor of the previous page
+   * @param limit the maximum number of cases on the page
+   * @return NewsPageResponse
    */
   @GetMapping("")
   @Operation(
       summary = "Get all news",
-      description = "Returns a list containing all the news from the database, groups them by case ID, sort by date, and returns the most recent news from each case."
+      description = "Returns a page of the most recent news from each case, sorted by date with the newest first. Pass the nextCursor of a page as cursor to get the next page."
   )
   @ApiResponses(value = {
       @ApiResponse(
@@ -53,17 +60,15 @@ public class NewsController {
           description = "News retrieved successfully",
           content = @Content(
               mediaType = "application/json",
-              array = @ArraySchema(
-                  schema = @Schema(implementation = NewsGetResponse.class)
-              )
+              schema = @Schema(implementation = NewsPageResponse.class)
           )
       ),
       @ApiResponse(
-          responseCode = "404",
-          description = "Error: No news found",
+          responseCode = "400",
+          description = "Error: Invalid cursor or limit",
           content = @Content(
               mediaType = "application/json",
-              schema = @Schema(example = "Error: No news found")
+              schema = @Schema(example = "Error: Invalid cursor")
           )
       ),
       @ApiResponse(
@@ -75,15 +80,22 @@ public class NewsController {
           )
       )
   })
-  public ResponseEntity<?> getNews() {
+  public ResponseEntity<?> getNews(
+          @Parameter(
+              description = "Cursor from the previous page, omit for the first page",
+              example = "MTc0NjQ0MjE4NDMyMzo0Mg"
+          ) @RequestParam(required = false) String cursor,
+          @Parameter(
+              description = "Maximum number of news on the page, between 1 and 100",
+              example = "20"
+          ) @RequestParam(defaultValue = "20") int limit
+  ) {
     try {
-      List<NewsGetResponse> news = newsService.getAllNews();
-      List<List<NewsGetResponse>> groupedNews = newsService.groupNewsByCaseIdAndSort(news); // group the news by case
-      List<NewsGetResponse> recentNews = newsService.getRecentFromGroupedNews(groupedNews); // get the most recent news from each case
+      NewsPageResponse recentNews = newsService.getLatestNewsPerCase(cursor, limit); // the most recent news from each case
 
       return ResponseEntity.status(HttpStatus.OK).body(recentNews);
-    } catch (EntityNotFoundException e) {
-      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error retrieving news");
     }
@@ -127,14 +139,16 @@ public class NewsController {
   }
 
   /**
-   * Get all news from the database with the given district
+   * Get a page of the most recent news of each case in the given district
    * @param district the district to get news from
-   * @return List of NewsGetResponse
+   * @param cursor the cursor of the previous page
+   * @param limit the maximum number of cases on the page
+   * @return NewsPageResponse
    */
   @GetMapping("district/{district}")
   @Operation(
           summary = "Get news by district",
-          description = "Returns a list containing all the news from the database with the given district, groups them by case ID, sort by date, and returns the most recent news from each case."
+          description = "Returns a page of the most recent news from each case in the given district, sorted by date with the newest first. Pass the nextCursor of a page as cursor to get the next page."
   )
   @ApiResponses(value = {
       @ApiResponse(
@@ -142,17 +156,15 @@ public class NewsController {
           description = "News retrieved successfully",
           content = @Content(
               mediaType = "application/json",
-              array = @ArraySchema(
-                  schema = @Schema(implementation = NewsGetResponse.class)
-              )
+              schema = @Schema(implementation = NewsPageResponse.class)
           )
       ),
       @ApiResponse(
-          responseCode = "404",
-          description = "Error: No news found for district",
+          responseCode = "400",
+          description = "Error: Invalid cursor or limit",
           content = @Content(
               mediaType = "application/json",
-              schema = @Schema(example = "Error: No news found for district")
+              schema = @Schema(example = "Error: Invalid cursor")
           )
       ),
       @ApiResponse(
@@ -182,32 +194,107 @@ public class NewsController {
                   @ExampleObject(name = "Troms",            value = "Troms"),
                   @ExampleObject(name = "Finnmark",         value = "Finnmark")
               }
-          ) @PathVariable String district
+          ) @PathVariable String district,
+          @Parameter(
+              description = "Cursor from the previous page, omit for the first page",
+              example = "MTc0NjQ0MjE4NDMyMzo0Mg"
+          ) @RequestParam(required = false) String cursor,
+          @Parameter(
+              description = "Maximum number of news on the page, between 1 and 100",
+              example = "20"
+          ) @RequestParam(defaultValue = "20") int limit
   ){
     try {
       String fullDistrict = district + " Politidistrikt";
-      List<NewsGetResponse> newsByDistrict = newsService.getByDistrict(fullDistrict);
-      List<List<NewsGetResponse>> groupedNews = newsService.groupNewsByCaseIdAndSort(newsByDistrict);
+      byte[] recentNews = newsService.getByDistrictCached(fullDistrict, cursor, limit);
 
-      List<NewsGetResponse> recentNews = newsService.getRecentFromGroupedNews(groupedNews);
+      return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(recentNews);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error retrieving news for district: " + district);
+    }
+  }
 
-      return ResponseEntity.status(HttpStatus.OK).body(recentNews);
+  /**
+   * Search the title and content of news
+   * @param q the search query
+   * @param limit the maximum number of results
+   * @return List of NewsGetResponse
+   */
+  @GetMapping("/search")
+  @Operation(
+      summary = "Search news",
+      description = "Returns news whose title or content matches the query, best match first. Inflected Norwegian words match their base form, e.g. 'brannen' matches 'brann'."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "News retrieved successfully",
+          content = @Content(
+              mediaType = "application/json",
+              array = @ArraySchema(
+                  schema = @Schema(implementation = NewsGetResponse.class)
+              )
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Error: Invalid query or limit",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Search query must contain at least one searchable word")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "404",
+          description = "Error: No news found matching the query",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: No news found matching: brann")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "500",
+          description = "Error: Error retrieving news",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Error retrieving news")
+          )
+      )
+  })
+  public ResponseEntity<?> searchNews(
+          @Parameter(description = "Search query", required = true, example = "brann")
+          @RequestParam String q,
+          @Parameter(description = "Maximum number of results", example = "20")
+          @RequestParam(defaultValue = "20") int limit
+  ) {
+    try {
+      if (limit < 1) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: Limit must be positive");
+      }
+      List<NewsGetResponse> news = newsService.searchNews(q, limit);
+      return ResponseEntity.status(HttpStatus.OK).body(news);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
     } catch (EntityNotFoundException e) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
     } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error retrieving news for district: " + district);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error retrieving news");
     }
   }
 
   /**
-   * Get all news from the database with the given case id
-   * @param caseId the case id to get news from
+   * Get news near a point
+   * @param lat the latitude of the point
+   * @param lng the longitude of the point
+   * @param radius the radius in kilometers
    * @return List of NewsGetResponse
    */
-  @GetMapping("case/{caseId}")
+  @GetMapping("/near")
   @Operation(
-      summary = "Get news by case ID",
-      description = "Returns a list containing all the news from the database with the given case ID"
+      summary = "Get news near a point",
+      description = "Returns all news within the given radius of a point, closest first. Ingested news is geocoded to the municipality or police district it mentions."
   )
   @ApiResponses(value = {
       @ApiResponse(
@@ -220,12 +307,78 @@ public class NewsController {
               )
           )
       ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Error: Invalid coordinates or radius",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Invalid coordinates")
+          )
+      ),
       @ApiResponse(
           responseCode = "404",
-          description = "Error: No news found for case ID",
+          description = "Error: No news found near the point",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: No news found within 10.0 km")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "500",
+          description = "Error: Error retrieving news",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Error retrieving news")
+          )
+      )
+  })
+  public ResponseEntity<?> getNewsNear(
+          @Parameter(description = "Latitude of the point", required = true, example = "63.4305")
+          @RequestParam double lat,
+          @Parameter(description = "Longitude of the point", required = true, example = "10.3951")
+          @RequestParam double lng,
+          @Parameter(description = "Radius in kilometers", example = "10")
+          @RequestParam(defaultValue = "10") double radius
+  ) {
+    try {
+      List<NewsGetResponse> news = newsService.getNewsNear(lat, lng, radius);
+      return ResponseEntity.status(HttpStatus.OK).body(news);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (EntityNotFoundException e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error retrieving news");
+    }
+  }
+
+  /**
+   * Get a page of the news with the given case id
+   * @param caseId the case id to get news from
+   * @param cursor the cursor of the previous page
+   * @param limit the maximum number of news on the page
+   * @return NewsPageResponse
+   */
+  @GetMapping("case/{caseId}")
+  @Operation(
+      summary = "Get news by case ID",
+      description = "Returns a page of the news with the given case ID, sorted by date with the newest first. Pass the nextCursor of a page as cursor to get the next page."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "News retrieved successfully",
           content = @Content(
               mediaType = "application/json",
-              schema = @Schema(example = "Error: No news found for case ID: <caseId>")
+              schema = @Schema(implementation = NewsPageResponse.class)
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Error: Invalid cursor or limit",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Invalid cursor")
           )
       ),
       @ApiResponse(
@@ -242,14 +395,22 @@ public class NewsController {
               description = "Case ID to get news from",
               required = true,
               example = "25h7fg"
-          ) @PathVariable String caseId
+          ) @PathVariable String caseId,
+          @Parameter(
+              description = "Cursor from the previous page, omit for the first page",
+              example = "MTc0NjQ0MjE4NDMyMzo0Mg"
+          ) @RequestParam(required = false) String cursor,
+          @Parameter(
+              description = "Maximum number of news on the page, between 1 and 100",
+              example = "20"
+          ) @RequestParam(defaultValue = "20") int limit
   ){
     try {
-      List<NewsGetResponse> newsByCaseId = newsService.getByCaseId(caseId);
+      NewsPageResponse newsByCaseId = newsService.getByCaseId(caseId, cursor, limit);
 
       return ResponseEntity.status(HttpStatus.OK).body(newsByCaseId);
-    } catch (EntityNotFoundException e) {
-      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error retrieving news for case ID: " + caseId);
     }
@@ -332,6 +493,81 @@ public class NewsController {
     }
   }
 
+  /**
+   * Stream archived news
+   * @param authorizationHeader the authorization header
+   * @param from the first day of the period
+   * @param to the last day of the period
+   * @return the archived news as NDJSON
+   */
+  @GetMapping("/archive")
+  @Operation(
+      summary = "Stream archived news",
+      description = "Streams the expired news published in the given period from the archive as newline-delimited JSON, one news per line, oldest day first. Days are in Norwegian time. Only admin users can read the archive."
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Archived news streamed successfully",
+          content = @Content(
+              mediaType = "application/x-ndjson",
+              schema = @Schema(example = "{\"id\":42,\"caseId\":\"25abc1\",\"title\":\"Trafikkulykke\",\"content\":\"To biler involvert\",\"latitude\":59.91,\"longitude\":10.75,\"district\":\"Oslo politidistrikt\",\"date\":\"2025-05-05T10:49:44Z\"}")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Error: Invalid period",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: From must not be after to")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "401",
+          description = "Unauthorized access, must be admin user",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Unauthorized")
+          )
+      ),
+      @ApiResponse(
+          responseCode = "500",
+          description = "Error reading the archive",
+          content = @Content(
+              mediaType = "application/json",
+              schema = @Schema(example = "Error: Error reading the news archive")
+          )
+      )
+  })
+  public ResponseEntity<?> getArchive(
+          @Parameter(
+                  name = "Authorization",
+                  description = "Bearer token in the format `Bearer <JWT>`",
+                  required = true,
+                  example = "Bearer eyJhbGciOiJIUzI1N.iIsInR5cCI6IkpXVCJ9..."
+          ) @RequestHeader("Authorization") String authorizationHeader,
+          @Parameter(description = "First day of the period, inclusive", required = true, example = "2025-05-01")
+          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+          @Parameter(description = "Last day of the period, inclusive", required = true, example = "2025-05-07")
+          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+  ) {
+    try {
+      if (jwt.getAdminUserByToken(authorizationHeader.substring(7)) == null) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Unauthorized");
+      }
+      newsService.validateArchivePeriod(from, to);
+
+      StreamingResponseBody body = out -> newsService.streamArchive(from, to, out);
+      return ResponseEntity.status(HttpStatus.OK)
+          .contentType(MediaType.parseMediaType("application/x-ndjson"))
+          .body(body);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Error reading the news archive");
+    }
+  }
+
   /**
    * Delete news from the database by id
    *
@@ -0,0 +1,30 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for a product of the product catalog, used to prefill a new item.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "A product of the product catalog")
+public class CatalogProductResponse {
+  @Schema(description = "The barcode of the product", example = "2001000000029")
+  private String ean;
+  @Schema(description = "The name of the product", example = "Bottled Water 1.5 L")
+  private String name;
+  @Schema(description = "The English name of the category of the product", example = "Water")
+  private String category;
+  @Schema(description = "The English name of the unit of the product", example = "L")
+  private String unit;
+  @Schema(description = "The energy per unit of the product, null if it has none", example = "3600")
+  private Integer kcalPerUnit;
+  @Schema(description = "The typical number of days from purchase to expiration", example = "365")
+  private int shelfLifeDays;
+}
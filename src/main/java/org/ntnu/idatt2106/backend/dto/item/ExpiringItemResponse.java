@@ -0,0 +1,27 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for an item that expires soon.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "An item that expires soon")
+public class ExpiringItemResponse {
+  @Schema(description = "ID of the item", example = "1")
+  private int id;
+  @Schema(description = "Name of the item", example = "Water")
+  private String name;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  @Schema(description = "Expiration date of the item", example = "2025-04-25")
+  private Date expirationDate;
+}
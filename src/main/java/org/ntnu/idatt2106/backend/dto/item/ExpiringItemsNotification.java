@@ -0,0 +1,23 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the notification of the items of a household that expire soon.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "Notification of the items of a household that expire soon")
+public class ExpiringItemsNotification {
+  @Schema(description = "The id of the household", example = "1")
+  private int householdId;
+  @Schema(description = "The items expiring soon, soonest first")
+  private List<ExpiringItemResponse> items;
+}
@@ -0,0 +1,26 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the changes to the inventory of a household since a revision.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "The changes to the inventory of a household since a revision")
+public class InventoryChangesResponse {
+  @Schema(description = "The revision of the inventory including these changes, pass it as since on the next sync",
+      example = "42")
+  private long revision;
+  @Schema(description = "The current state of the items added or changed since the revision")
+  private List<ItemGenericDTO> items;
+  @Schema(description = "The ids of the items removed from the inventory since the revision", example = "[3, 7]")
+  private List<Integer> deletedItemIds;
+}
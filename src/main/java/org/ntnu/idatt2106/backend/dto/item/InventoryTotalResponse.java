@@ -0,0 +1,31 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the total of the items of one category and unit in an inventory.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "The total of the items of one category and unit in an inventory")
+public class InventoryTotalResponse {
+  @Schema(description = "The category id of the items", example = "1")
+  private int categoryId;
+  @Schema(description = "The unit id of the items", example = "3")
+  private int unitId;
+  @Schema(description = "The number of items", example = "4")
+  private long itemCount;
+  @Schema(description = "The sum of the amounts of the items", example = "12.5")
+  private double totalAmount;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  @Schema(description = "The earliest expiration date of the items", example = "2025-04-25")
+  private Date earliestExpirationDate;
+}
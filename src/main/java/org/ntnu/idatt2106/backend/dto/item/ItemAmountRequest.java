@@ -0,0 +1,22 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for a change of the amount of an item.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for a change of the amount of an item")
+public class ItemAmountRequest {
+  @Schema(description = "The amount to add, negative to consume", example = "-0.5")
+  private double delta;
+}
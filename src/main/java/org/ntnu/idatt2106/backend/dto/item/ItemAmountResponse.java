@@ -0,0 +1,24 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the amount of an item after a change.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "The amount of an item after a change")
+public class ItemAmountResponse {
+  @Schema(description = "ID of the item", example = "1")
+  private int id;
+  @Schema(description = "The new amount of the item", example = "9.5")
+  private double amount;
+  @Schema(description = "The new version of the item", example = "5")
+  private long version;
+}
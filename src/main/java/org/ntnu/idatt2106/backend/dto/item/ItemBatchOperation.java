@@ -0,0 +1,51 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for one operation of a batch of inventory changes.
+ * Created items are added to the household of the batch. Updates replace all fields of the item
+ * and keep its households, and are rejected if a version is given and the item was changed since
+ * that version. Deletes only need the id of the item.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One operation of a batch of inventory changes")
+public class ItemBatchOperation {
+
+  /**
+   * Type of an inventory operation
+   */
+  public enum Type {
+    CREATE, UPDATE, DELETE
+  }
+
+  @Schema(description = "The type of the operation", example = "CREATE")
+  private Type type;
+  @Schema(description = "ID of the item to update or delete", example = "1")
+  private Integer itemId;
+  @Schema(description = "Name of the item", example = "Water")
+  private String name;
+  @Schema(description = "Amount of the item", example = "10.0")
+  private double amount;
+  @Schema(description = "The unit id of the item", example = "3")
+  private int unitId;
+  @Schema(description = "The category id of the item", example = "1")
+  private int categoryId;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  @Schema(description = "Expiration date of the item", example = "2025-04-25")
+  private Date expirationDate;
+  @Schema(description = "Version of the item to update. Send it back to reject the update if the "
+      + "item was changed since it was read", example = "4")
+  private Long version;
+}
@@ -0,0 +1,25 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for a batch of inventory changes to one household.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for a batch of inventory changes to a household")
+public class ItemBatchRequest {
+  @Schema(description = "The id of the household", example = "1")
+  private int householdId;
+  @Schema(description = "The operations, applied in order")
+  private List<ItemBatchOperation> operations;
+}
@@ -0,0 +1,24 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the outcome of a batch of inventory changes.
+ * A batch is only applied if all of its operations are valid.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "Response object for a batch of inventory changes")
+public class ItemBatchResponse {
+  @Schema(description = "Whether the batch was applied", example = "true")
+  private boolean applied;
+  @Schema(description = "The result of each operation, in order")
+  private List<ItemBatchResult> results;
+}
@@ -0,0 +1,28 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the result of one operation of a batch of inventory changes.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "Result of one operation of a batch of inventory changes")
+public class ItemBatchResult {
+  @Schema(description = "Position of the operation in the batch", example = "0")
+  private int index;
+  @Schema(description = "The type of the operation", example = "CREATE")
+  private ItemBatchOperation.Type type;
+  @Schema(description = "ID of the created, updated or deleted item", example = "1")
+  private Integer itemId;
+  @Schema(description = "Whether the operation is valid", example = "true")
+  private boolean success;
+  @Schema(description = "Why the operation is invalid", example = "Unit not found")
+  private String error;
+}
@@ -20,16 +20,16 @@ import java.util.Date;
 @Setter
 @Schema(description = "Request object for creating an item")
 public class ItemCreateRequest {
-  @Schema(description = "Name of the item", example = "Water")
+  @Schema(description = "Name of the item, or the barcode of a product in the product catalog", example = "Water")
   private String name;
   @Schema(description = "Amount of the item", example = "10.0")
   private double amount;
-  @Schema(description = "The unit id of the item", example = "3")
+  @Schema(description = "The unit id of the item, 0 to take it from the product catalog", example = "3")
     private int unitId;
-  @Schema(description = "The category id of the item", example = "1")
+  @Schema(description = "The category id of the item, 0 to take it from the product catalog", example = "1")
   private int categoryId;
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
-  @Schema(description = "Expiration date of the item", example = "2025-04-25")
+  @Schema(description = "Expiration date of the item, left out to take the shelf life from the product catalog", example = "2025-04-25")
   private Date expirationDate;
   @Schema(description = "The household ids of the item", example = "[1, 2, 3]")
   private List<Integer> householdIds;
@@ -35,4 +35,7 @@ public class ItemGenericDTO {
   private Date expirationDate;
   @Schema(description = "The household ids of the item", example = "[1, 2, 3]")
   private List<Integer> householdIds;
+  @Schema(description = "Version of the item. Send it back when updating the item, to reject the "
+      + "update if the item was changed since it was read", example = "4")
+  private Long version;
 }
@@ -0,0 +1,24 @@
+package org.ntnu.idatt2106.backend.dto.item;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for a page of the items of a household.
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Schema(description = "A page of the items of a household")
+public class ItemPageResponse {
+  @Schema(description = "The items on this page")
+  private List<ItemGenericDTO> items;
+  @Schema(description = "Cursor of the next page, or null if this is the last page",
+      example = "RVhQSVJBVElPTjo0MjoxNzQ1NTM5MjAwMDAw")
+  private String nextCursor;
+}
@@ -0,0 +1,40 @@
+package org.ntnu.idatt2106.backend.dto.map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data transfer object summarizing a bunker import.
+ * It includes the number of bunkers that were inserted, updated, deleted and left unchanged
+ * when the dataset was compared with the bunkers already stored in the database.
+ *
+ * @author Erlend Eide Zindel
+ * @since 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Summary of the changes applied by a bunker import")
+public class BunkerImportSummary {
+  @Schema(description = "Number of bunkers that were not stored before", example = "3")
+  private int inserted;
+
+  @Schema(description = "Number of stored bunkers whose content changed", example = "12")
+  private int updated;
+
+  @Schema(description = "Number of stored bunkers that are no longer in the dataset", example = "1")
+  private int deleted;
+
+  @Schema(description = "Number of stored bunkers that were left untouched", example = "18230")
+  private int unchanged;
+
+  @Override
+  public String toString() {
+    return inserted + " inserted, " + updated + " updated, "
+        + deleted + " deleted, " + unchanged + " unchanged";
+  }
+}
@@ -0,0 +1,27 @@
+package org.ntnu.idatt2106.backend.dto.news;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * DTO for a page of news
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Schema(description = "A page of news, newest first")
+@Getter
+@Setter
+@AllArgsConstructor
+@ToString
+public class NewsPageResponse {
+  @Schema(description = "The news on this page")
+  private List<NewsGetResponse> items;
+  @Schema(description = "Cursor of the next page, or null if this is the last page", example = "MTc0NjQ0MjE4NDMyMzo0Mg")
+  private String nextCursor;
+}
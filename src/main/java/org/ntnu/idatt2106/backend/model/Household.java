@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.util.ArrayList;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -34,12 +35,8 @@ public class Household {
   @OneToMany(mappedBy = "household", orphanRemoval = true)
   private List<HouseholdMembers> members = new ArrayList<>();
 
-  @ManyToMany
-  @JoinTable(
-          name = "inventory",
-          joinColumns = @JoinColumn(name = "household_id"),
-          inverseJoinColumns = @JoinColumn(name = "item_id")
-  )
+  // Read only, the inventory join table is written through Item.household
+  @ManyToMany(mappedBy = "household")
   private List<Item> inventory;
 
   @Column
@@ -51,6 +48,11 @@ public class Household {
   @Column
   private int unregisteredPetCount;
 
+  // Only written by HouseholdRepo.incrementInventoryRevision, so saving a household never resets it
+  @ColumnDefault("0")
+  @Column(nullable = false, insertable = false, updatable = false)
+  private long inventoryRevision;
+
   /**
    * Blank constructor for the Household model
    */
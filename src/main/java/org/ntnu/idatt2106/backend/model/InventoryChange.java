@@ -0,0 +1,74 @@
+package org.ntnu.idatt2106.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.util.Date;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * InventoryChange model for the database.
+ * An entry of the append-only change log of the inventory of a household. Every change gets the
+ * next revision of the household, so clients can fetch the changes after the revision they have.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(
+    name = "inventory_change",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inventory_change_household_revision",
+            columnNames = {"household_id", "revision"})
+    }
+)
+public class InventoryChange {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "household_id", nullable = false)
+  private int householdId;
+
+  @Column(nullable = false)
+  private long revision;
+
+  @Column(nullable = false)
+  private int itemId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private InventoryChangeType type;
+
+  @Column(nullable = false)
+  private Date changedAt;
+
+  /**
+   * Constructor for the InventoryChange model.
+   *
+   * @param householdId the id of the household whose inventory changed
+   * @param revision the revision of the household after the change
+   * @param itemId the id of the changed item
+   * @param type the type of the change
+   * @param changedAt the time of the change
+   */
+  public InventoryChange(int householdId, long revision, int itemId, InventoryChangeType type, Date changedAt) {
+    this.householdId = householdId;
+    this.revision = revision;
+    this.itemId = itemId;
+    this.type = type;
+    this.changedAt = changedAt;
+  }
+}
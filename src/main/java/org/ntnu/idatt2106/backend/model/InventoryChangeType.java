@@ -0,0 +1,12 @@
+package org.ntnu.idatt2106.backend.model;
+
+/**
+ * Enum for the different types of changes to the inventory of a household.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ */
+public enum InventoryChangeType {
+  UPSERT,
+  DELETE
+}
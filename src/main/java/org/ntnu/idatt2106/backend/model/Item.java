@@ -3,9 +3,11 @@ package org.ntnu.idatt2106.backend.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 
 /**
@@ -14,7 +16,12 @@ import java.util.List;
  * @since 0.1
  */
 @Entity
-@Table(name = "item")
+@Table(
+    name = "item",
+    indexes = {
+        @Index(name = "idx_item_expiration_date", columnList = "expirationDate")
+    }
+)
 @Getter
 @Setter
 public class Item {
@@ -36,18 +43,27 @@ public class Item {
   @Column(nullable = false)
   private Date expirationDate;
 
+  // Owning side of the inventory join table. As a set, the table gets a primary key on both
+  // columns and a change only writes the added and removed rows instead of recreating all of them.
   @ManyToMany
   @JoinTable(
           name = "inventory",
           joinColumns = @JoinColumn(name = "item_id"),
-          inverseJoinColumns = @JoinColumn(name = "household_id")
+          inverseJoinColumns = @JoinColumn(name = "household_id"),
+          indexes = @Index(name = "idx_inventory_household_id", columnList = "household_id")
   )
-  private List<Household> household;
+  @OrderBy("id ASC")
+  private Set<Household> household = new LinkedHashSet<>();
 
   @ManyToOne
   @JoinColumn(name = "category_id", nullable = false)
   private Category category;
 
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private long version;
+
   /**
    * Blank constructor for the Item model
    */
@@ -14,7 +14,15 @@ import java.util.Date;
  * @version 0.2
  */
 @Entity
-@Table(name = "news")
+@Table(
+    name = "news",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"title", "date"}),
+    indexes = {
+        @Index(name = "idx_news_date", columnList = "date"),
+        @Index(name = "idx_news_location", columnList = "latitude, longitude"),
+        @Index(name = "idx_news_district_date", columnList = "district, date"),
+        @Index(name = "idx_news_case_date", columnList = "caseId, date")
+    })
 @Getter
 @Setter
 @AllArgsConstructor
@@ -34,6 +34,9 @@ public class MapEntity {
   @Column(unique = true)
   private String localID;
 
+  @Column(length = 64)
+  private String contentHash;
+
   @Column
   private int severityLevel;
 
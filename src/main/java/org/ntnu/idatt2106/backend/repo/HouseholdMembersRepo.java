@@ -7,6 +7,8 @@ import org.ntnu.idatt2106.backend.model.HouseholdMembers;
 import org.ntnu.idatt2106.backend.model.HouseholdMembersId;
 import org.ntnu.idatt2106.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for accessing household data in the database.
@@ -71,4 +73,13 @@ public interface HouseholdMembersRepo extends JpaRepository<HouseholdMembers, In
    * @return true if the HouseholdMember exists, false otherwise.
    */
   Boolean existsByUserIdAndHouseholdIdAndIsAdminIsTrue(int userId, int householdId);
-}
\ No newline at end of file
+
+  /**
+   * Finds the ids of the households a user is a member of.
+   *
+   * @param userId The ID of the user.
+   * @return The ids of the households of the user.
+   */
+  @Query("SELECT m.household.id FROM HouseholdMembers m WHERE m.user.id = :userId")
+  List<Integer> findHouseholdIdsByUserId(@Param("userId") int userId);
+}
@@ -2,6 +2,9 @@ package org.ntnu.idatt2106.backend.repo;
 
 import org.ntnu.idatt2106.backend.model.Household;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -25,4 +28,26 @@ public interface HouseholdRepo extends JpaRepository<Household, Integer> {
      * @return An Optional containing the household if found, or empty if not.
      */
     Optional<Household> findByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * Increments the inventory revision of a household.
+     * The update locks the household row until the transaction ends, so concurrent changes to
+     * the same inventory get consecutive revisions.
+     *
+     * @param id The ID of the household.
+     * @param count The number of revisions to add.
+     * @return The number of updated households, 0 if the household does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Household h SET h.inventoryRevision = h.inventoryRevision + :count WHERE h.id = :id")
+    int incrementInventoryRevision(@Param("id") int id, @Param("count") long count);
+
+    /**
+     * Finds the inventory revision of a household.
+     *
+     * @param id The ID of the household.
+     * @return An Optional containing the revision if the household exists, or empty if not.
+     */
+    @Query("SELECT h.inventoryRevision FROM Household h WHERE h.id = :id")
+    Optional<Long> findInventoryRevisionById(@Param("id") int id);
+}
@@ -0,0 +1,42 @@
+package org.ntnu.idatt2106.backend.repo;
+
+import org.ntnu.idatt2106.backend.model.InventoryChange;
+import org.ntnu.idatt2106.backend.model.InventoryChangeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for the InventoryChange model
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+public interface InventoryChangeRepo extends JpaRepository<InventoryChange, Long> {
+
+  /**
+   * Finds the changes to the inventory of a household in a range of revisions, oldest first.
+   * Uses the unique index on household and revision.
+   * @param householdId the id of the household
+   * @param since the revision the client has, exclusive
+   * @param until the last revision to include
+   * @return the item and type of each change
+   */
+  @Query("SELECT c.itemId AS itemId, c.type AS type FROM InventoryChange c "
+      + "WHERE c.householdId = :householdId AND c.revision > :since AND c.revision <= :until "
+      + "ORDER BY c.revision ASC")
+  List<ChangeRow> findChanges(@Param("householdId") int householdId,
+                              @Param("since") long since,
+                              @Param("until") long until);
+
+  /**
+   * Projection of the item and type of a change
+   */
+  interface ChangeRow {
+    int getItemId();
+
+    InventoryChangeType getType();
+  }
+}
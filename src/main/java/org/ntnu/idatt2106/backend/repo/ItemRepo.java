@@ -1,15 +1,69 @@
 package org.ntnu.idatt2106.backend.repo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.ntnu.idatt2106.backend.model.Item;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Item entity.
  */
 public interface ItemRepo extends JpaRepository<Item, Integer> {
+
+  /**
+   * Selects the rows of the items of a household, without loading the items
+   */
+  String ITEM_ROWS = "SELECT i.id AS id, i.name AS name, i.amount AS amount, i.unit.id AS unitId, "
+      + "i.category.id AS categoryId, i.expirationDate AS expirationDate, i.version AS version "
+      + "FROM Item i JOIN i.household h WHERE h.id = :householdId";
+
+  /**
+   * Orders of the item rows, each broken by the item id
+   */
+  String BY_EXPIRATION = " ORDER BY i.expirationDate ASC, i.id ASC";
+  String BY_NAME = " ORDER BY i.name ASC, i.id ASC";
+  String BY_CATEGORY = " ORDER BY i.category.id ASC, i.id ASC";
+
+  /**
+   * Selects the items expiring in a period with each of their households
+   */
+  String EXPIRING_ROWS = "SELECT h.id AS householdId, i.id AS itemId, i.name AS name, "
+      + "i.expirationDate AS expirationDate FROM Item i JOIN i.household h "
+      + "WHERE i.expirationDate >= :from AND i.expirationDate < :to";
+
+  String BY_HOUSEHOLD = " ORDER BY h.id ASC, i.id ASC";
+
+  String TOTALS = "SELECT c.id AS categoryId, c.englishName AS categoryName, c.kcalPerUnit AS kcalPerUnit, "
+      + "u.id AS unitId, u.englishName AS unitName, COUNT(i) AS itemCount, SUM(i.amount) AS totalAmount, "
+      + "MIN(i.expirationDate) AS earliestExpirationDate "
+      + "FROM Item i JOIN i.household h JOIN i.category c JOIN i.unit u WHERE h.id = :householdId";
+
+  String BY_CATEGORY_AND_UNIT = " GROUP BY c.id, c.englishName, c.kcalPerUnit, u.id, u.englishName "
+      + "ORDER BY c.id ASC, u.id ASC";
+
+  /**
+   * Selects the rows of the items with each of their households, one row per item and household
+   */
+  String EXPORT_ROWS = "SELECT h.id AS householdId, i.id AS id, i.name AS name, i.amount AS amount, "
+      + "i.unit.id AS unitId, i.category.id AS categoryId, i.expirationDate AS expirationDate, "
+      + "i.version AS version FROM Item i LEFT JOIN i.household h";
+
+  /**
+   * Number of rows fetched from the database in one round trip while streaming an export
+   */
+  String EXPORT_FETCH_SIZE = "500";
+
   /**
    * Finds an item by its id.
    * @param id the id of the item
@@ -39,6 +93,14 @@ public interface ItemRepo extends JpaRepository<Item, Integer> {
    */
   Optional<List<Item>> findByCategory_IdAndHousehold_Id(int categoryId, int householdId);
 
+  /**
+   * Finds the items with the given IDs that belong to a household.
+   * @param ids the IDs of the items
+   * @param householdId the ID of the household
+   * @return the items with the given IDs belonging to the household
+   */
+  List<Item> findAllByIdInAndHousehold_Id(Collection<Integer> ids, int householdId);
+
   /**
    * Finds all items in the repository.
    * @return a {@link List} of all items
@@ -52,4 +114,288 @@ public interface ItemRepo extends JpaRepository<Item, Integer> {
    * @return true if the item is found in the category, false otherwise
    */
   List<Item> findByCategoryId(int id);
+
+  /**
+   * Finds the first page of the items of a household, soonest expiring first.
+   * @param householdId the ID of the household
+   * @param pageable the page size
+   * @return the rows of the items
+   */
+  @Query(ITEM_ROWS + BY_EXPIRATION)
+  List<ItemRow> findRowsByHouseholdOrderByExpiration(@Param("householdId") int householdId,
+                                                     Pageable pageable);
+
+  /**
+   * Finds the page of the items of a household after the given cursor, soonest expiring first.
+   * @param householdId the ID of the household
+   * @param expirationDate the expiration date of the cursor
+   * @param id the item id of the cursor
+   * @param pageable the page size
+   * @return the rows of the items
+   */
+  @Query(ITEM_ROWS + " AND (i.expirationDate > :expirationDate "
+      + "OR (i.expirationDate = :expirationDate AND i.id > :id))" + BY_EXPIRATION)
+  List<ItemRow> findRowsByHouseholdOrderByExpirationAfter(@Param("householdId") int householdId,
+                                                          @Param("expirationDate") Date expirationDate,
+                                                          @Param("id") int id,
+                                                          Pageable pageable);
+
+  /**
+   * Finds the first page of the items of a household, ordered by name.
+   * @param householdId the ID of the household
+   * @param pageable the page size
+   * @return the rows of the items
+   */
+  @Query(ITEM_ROWS + BY_NAME)
+  List<ItemRow> findRowsByHouseholdOrderByName(@Param("householdId") int householdId,
+                                               Pageable pageable);
+
+  /**
+   * Finds the page of the items of a household after the given cursor, ordered by name.
+   * @param householdId the ID of the household
+   * @param name the name of the cursor
+   * @param id the item id of the cursor
+   * @param pageable the page size
+   * @return the rows of the items
+   */
+  @Query(ITEM_ROWS + " AND (i.name > :name OR (i.name = :name AND i.id > :id))" + BY_NAME)
+  List<ItemRow> findRowsByHouseholdOrderByNameAfter(@Param("householdId") int householdId,
+                                                    @Param("name") String name,
+                                                    @Param("id") int id,
+                                                    Pageable pageable);
+
+  /**
+   * Finds the first page of the items of a household, grouped by category.
+   * @param householdId the ID of the household
+   * @param pageable the page size
+   * @return the rows of the items
+   */
+  @Query(ITEM_ROWS + BY_CATEGORY)
+  List<ItemRow> findRowsByHouseholdOrderByCategory(@Param("householdId") int householdId,
+                                                   Pageable pageable);
+
+  /**
+   * Finds the page of the items of a household after the given cursor, grouped by category.
+   * @param householdId the ID of the household
+   * @param categoryId the category id of the cursor
+   * @param id the item id of the cursor
+   * @param pageable the page size
+   * @return the rows of the items
+   */
+  @Query(ITEM_ROWS + " AND (i.category.id > :categoryId "
+      + "OR (i.category.id = :categoryId AND i.id > :id))" + BY_CATEGORY)
+  List<ItemRow> findRowsByHouseholdOrderByCategoryAfter(@Param("householdId") int householdId,
+                                                        @Param("categoryId") int categoryId,
+                                                        @Param("id") int id,
+                                                        Pageable pageable);
+
+  /**
+   * Finds the rows of the given items of a household.
+   * @param householdId the ID of the household
+   * @param itemIds the IDs of the items
+   * @return the rows of the items that are in the household
+   */
+  @Query(ITEM_ROWS + " AND i.id IN :itemIds ORDER BY i.id ASC")
+  List<ItemRow> findRowsByHouseholdAndIdIn(@Param("householdId") int householdId,
+                                           @Param("itemIds") Collection<Integer> itemIds);
+
+  /**
+   * Finds the households of the given items.
+   * @param itemIds the IDs of the items
+   * @return a row for each household of each item
+   */
+  @Query("SELECT i.id AS itemId, h.id AS householdId FROM Item i JOIN i.household h WHERE i.id IN :itemIds")
+  List<ItemHousehold> findHouseholdsByItemIds(@Param("itemIds") Collection<Integer> itemIds);
+
+  /**
+   * Finds the households of all items of a household.
+   * @param householdId the ID of the household
+   * @return a row for each household of each item in the household
+   */
+  @Query("SELECT i.id AS itemId, o.id AS householdId FROM Item i JOIN i.household h JOIN i.household o "
+      + "WHERE h.id = :householdId")
+  List<ItemHousehold> findHouseholdsOfItemsInHousehold(@Param("householdId") int householdId);
+
+  /**
+   * Finds the first chunk of items expiring in a period, with one row per household of each item,
+   * ordered by household. Uses the index on the expiration date.
+   * @param from the start of the period, inclusive
+   * @param to the end of the period, exclusive
+   * @param pageable the chunk size
+   * @return the rows of the expiring items
+   */
+  @Query(EXPIRING_ROWS + BY_HOUSEHOLD)
+  List<ExpiringItemRow> findExpiring(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+  /**
+   * Finds the chunk of items expiring in a period after the given household and item.
+   * @param from the start of the period, inclusive
+   * @param to the end of the period, exclusive
+   * @param householdId the household id of the last row of the previous chunk
+   * @param itemId the item id of the last row of the previous chunk
+   * @param pageable the chunk size
+   * @return the rows of the expiring items
+   */
+  @Query(EXPIRING_ROWS + " AND (h.id > :householdId OR (h.id = :householdId AND i.id > :itemId))"
+      + BY_HOUSEHOLD)
+  List<ExpiringItemRow> findExpiringAfter(@Param("from") Date from, @Param("to") Date to,
+                                          @Param("householdId") int householdId,
+                                          @Param("itemId") int itemId,
+                                          Pageable pageable);
+
+  /**
+   * Adds to the amount of an item in one statement, if the user is a member of one of the
+   * households of the item and the amount does not become negative. The version of the item is
+   * incremented, so full updates based on the old amount are rejected.
+   * @param id the ID of the item
+   * @param userId the ID of the user changing the amount
+   * @param delta the amount to add, negative to subtract
+   * @return the number of updated items, 0 if a condition is not met
+   */
+  @Modifying
+  @Query("UPDATE Item i SET i.amount = i.amount + :delta, i.version = i.version + 1 "
+      + "WHERE i.id = :id AND i.amount + :delta >= 0 AND EXISTS (SELECT 1 FROM Item j JOIN j.household h, "
+      + "HouseholdMembers m WHERE j.id = i.id AND m.household.id = h.id AND m.user.id = :userId)")
+  int addToAmount(@Param("id") int id, @Param("userId") int userId, @Param("delta") double delta);
+
+  /**
+   * Finds the amount and version of an item.
+   * @param id the ID of the item
+   * @return the amount and version of the item, if it exists
+   */
+  @Query("SELECT i.id AS id, i.amount AS amount, i.version AS version FROM Item i WHERE i.id = :id")
+  Optional<ItemAmount> findAmountById(@Param("id") int id);
+
+  /**
+   * Finds the totals of the items of a household per category and unit.
+   * @param householdId the ID of the household
+   * @return a row for each category and unit in the inventory
+   */
+  @Query(TOTALS + BY_CATEGORY_AND_UNIT)
+  List<CategoryUnitTotal> findTotalsByHousehold(@Param("householdId") int householdId);
+
+  /**
+   * Finds the totals of the items of a household per category and unit, leaving out the items
+   * that expired before the given date.
+   * @param householdId the ID of the household
+   * @param from the earliest expiration date to include
+   * @return a row for each category and unit with items expiring at or after the date
+   */
+  @Query(TOTALS + " AND i.expirationDate >= :from" + BY_CATEGORY_AND_UNIT)
+  List<CategoryUnitTotal> findTotalsByHouseholdExpiringFrom(@Param("householdId") int householdId,
+                                                            @Param("from") Date from);
+
+  /**
+   * Streams the rows of the items of a household, ordered by id.
+   * The stream must be read and closed inside a transaction.
+   * @param householdId the ID of the household
+   * @return the rows of the items
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+  @Query(EXPORT_ROWS + " WHERE h.id = :householdId ORDER BY i.id ASC")
+  Stream<ExportRow> streamExportRowsByHousehold(@Param("householdId") int householdId);
+
+  /**
+   * Streams the rows of all items with each of their households, ordered by item and household.
+   * Items without a household have one row without a household id.
+   * The stream must be read and closed inside a transaction.
+   * @return the rows of the items
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+  @Query(EXPORT_ROWS + " ORDER BY i.id ASC, h.id ASC")
+  Stream<ExportRow> streamExportRows();
+
+  /**
+   * Projection of the fields of an item in a listing
+   */
+  interface ItemRow {
+    int getId();
+
+    String getName();
+
+    double getAmount();
+
+    int getUnitId();
+
+    int getCategoryId();
+
+    Date getExpirationDate();
+
+    long getVersion();
+  }
+
+  /**
+   * Projection of the amount and version of an item
+   */
+  interface ItemAmount {
+    int getId();
+
+    double getAmount();
+
+    long getVersion();
+  }
+
+  /**
+   * Projection of the totals of the items of one category and unit
+   */
+  interface CategoryUnitTotal {
+    int getCategoryId();
+
+    String getCategoryName();
+
+    Integer getKcalPerUnit();
+
+    int getUnitId();
+
+    String getUnitName();
+
+    long getItemCount();
+
+    double getTotalAmount();
+
+    Date getEarliestExpirationDate();
+  }
+
+  /**
+   * Projection of an expiring item and one of its households
+   */
+  interface ExpiringItemRow {
+    int getHouseholdId();
+
+    int getItemId();
+
+    String getName();
+
+    Date getExpirationDate();
+  }
+
+  /**
+   * Projection of an item and one of its households in an export
+   */
+  interface ExportRow {
+    Integer getHouseholdId();
+
+    int getId();
+
+    String getName();
+
+    double getAmount();
+
+    int getUnitId();
+
+    int getCategoryId();
+
+    Date getExpirationDate();
+
+    long getVersion();
+  }
+
+  /**
+   * Projection of an item and one of its households
+   */
+  interface ItemHousehold {
+    int getItemId();
+
+    int getHouseholdId();
+  }
 }
@@ -1,7 +1,10 @@
 package org.ntnu.idatt2106.backend.repo;
 
 import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Date;
 import java.util.List;
@@ -15,6 +18,17 @@ import java.util.Optional;
  */
 public interface NewsRepo extends JpaRepository<News, Integer> {
 
+  /**
+   * Condition that only keeps the most recent news of each case
+   */
+  String LATEST_OF_CASE = "NOT EXISTS (SELECT m FROM News m WHERE m.caseId = n.caseId "
+      + "AND (m.date > n.date OR (m.date = n.date AND m.id > n.id)))";
+
+  /**
+   * Condition that only keeps news after a (date, id) cursor, newest first
+   */
+  String AFTER_CURSOR = "(n.date < :date OR (n.date = :date AND n.id < :id))";
+
   /**
    * Finds a news article by its id.
    * @param id the id of the news article
@@ -37,6 +51,24 @@ public interface NewsRepo extends JpaRepository<News, Integer> {
    */
   boolean existsByTitleAndDate(String title, Date date);
 
+  /**
+   * Finds the title and date of all news articles published at or after the given date.
+   * Used to detect duplicates in the news feed with a single query.
+   * @param date the earliest date to include
+   * @return the title and date of the news articles
+   */
+  List<TitleAndDate> findByDateGreaterThanEqual(Date date);
+
+  /**
+   * Finds the oldest news articles published before the given date, oldest first.
+   * Used to move expired news to the archive in batches, using the date index.
+   * @param cutoff the date before which news articles are expired
+   * @param pageable the batch size
+   * @return a list of expired news articles
+   */
+  @Query("SELECT n FROM News n WHERE n.date < :cutoff ORDER BY n.date ASC, n.id ASC")
+  List<News> findExpired(@Param("cutoff") Date cutoff, Pageable pageable);
+
   /**
    * Finds all news articles
    * @return a list of news articles
@@ -45,13 +77,6 @@ public interface NewsRepo extends JpaRepository<News, Integer> {
   List<News> findAll();
 
 
-  /**
-   * Finds all news articles by district
-   * @param district the district of the news article
-   * @return a list of news articles in the given district
-   */
-  List<News> findByDistrict(String district);
-
   /**
    * Finds all news articles by case id
    * @param caseId the case id of the news article
@@ -59,4 +84,73 @@ public interface NewsRepo extends JpaRepository<News, Integer> {
    */
   List<News> findByCaseId(String caseId);
 
+  /**
+   * Finds all news articles inside a bounding box, using the index on latitude and longitude.
+   * @param minLatitude the southern edge of the box
+   * @param maxLatitude the northern edge of the box
+   * @param minLongitude the western edge of the box
+   * @param maxLongitude the eastern edge of the box
+   * @return a list of news articles inside the box
+   */
+  List<News> findByLatitudeBetweenAndLongitudeBetween(
+      double minLatitude, double maxLatitude, double minLongitude, double maxLongitude);
+
+  /**
+   * Finds the first page of the most recent news of each case in a district, newest first.
+   * Uses the (district, date) index for the page and the (caseId, date) index to check for newer news.
+   * @param district the district of the news articles
+   * @param pageable the page size
+   * @return a list of news articles
+   */
+  @Query("SELECT n FROM News n WHERE n.district = :district AND " + LATEST_OF_CASE
+      + " ORDER BY n.date DESC, n.id DESC")
+  List<News> findLatestPerCaseByDistrict(@Param("district") String district, Pageable pageable);
+
+  /**
+   * Finds the page of the most recent news of each case in a district after the given cursor.
+   * @param district the district of the news articles
+   * @param date the date of the last news article on the previous page
+   * @param id the id of the last news article on the previous page
+   * @param pageable the page size
+   * @return a list of news articles
+   */
+  @Query("SELECT n FROM News n WHERE n.district = :district AND " + LATEST_OF_CASE
+      + " AND " + AFTER_CURSOR + " ORDER BY n.date DESC, n.id DESC")
+  List<News> findLatestPerCaseByDistrictAfter(@Param("district") String district,
+                                              @Param("date") Date date,
+                                              @Param("id") int id,
+                                              Pageable pageable);
+
+  /**
+   * Finds the first page of news articles of a case, newest first, using the (caseId, date) index.
+   * @param caseId the case id of the news articles
+   * @param pageable the page size
+   * @return a list of news articles
+   */
+  @Query("SELECT n FROM News n WHERE n.caseId = :caseId ORDER BY n.date DESC, n.id DESC")
+  List<News> findPageByCaseId(@Param("caseId") String caseId, Pageable pageable);
+
+  /**
+   * Finds the page of news articles of a case after the given cursor.
+   * @param caseId the case id of the news articles
+   * @param date the date of the last news article on the previous page
+   * @param id the id of the last news article on the previous page
+   * @param pageable the page size
+   * @return a list of news articles
+   */
+  @Query("SELECT n FROM News n WHERE n.caseId = :caseId AND " + AFTER_CURSOR
+      + " ORDER BY n.date DESC, n.id DESC")
+  List<News> findPageByCaseIdAfter(@Param("caseId") String caseId,
+                                   @Param("date") Date date,
+                                   @Param("id") int id,
+                                   Pageable pageable);
+
+  /**
+   * Projection of the fields that identify a news article
+   */
+  interface TitleAndDate {
+    String getTitle();
+
+    Date getDate();
+  }
 }
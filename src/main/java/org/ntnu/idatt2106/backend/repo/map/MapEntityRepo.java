@@ -2,8 +2,12 @@ package org.ntnu.idatt2106.backend.repo.map;
 
 import org.ntnu.idatt2106.backend.model.map.MapEntity;
 import org.ntnu.idatt2106.backend.model.map.MapEntityType;
+import org.ntnu.idatt2106.backend.model.map.MapMarkerType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +40,26 @@ public interface MapEntityRepo extends JpaRepository<MapEntity, Long> {
    */
   MapEntity findByLocalID(String localID);
 
+  /**
+   * Finds the local id and content hash of all imported map entities of the given marker type,
+   * without loading the entities themselves.
+   *
+   * @param mapMarkerType the marker type of the imported entities
+   * @return the local id and content hash of each map entity with a local id and the given marker type
+   */
+  @Query("SELECT e.localID AS localID, e.contentHash AS contentHash FROM MapEntity e "
+      + "WHERE e.localID IS NOT NULL AND e.mapMarkerType = :mapMarkerType")
+  List<ImportedHash> findImportedHashesByMapMarkerType(@Param("mapMarkerType") MapMarkerType mapMarkerType);
+
+  /**
+   * Finds the map entities with the given local ids, with their coordinates fetched in the same query.
+   *
+   * @param localIDs the local ids of the map entities
+   * @return the map entities with one of the given local ids
+   */
+  @Query("SELECT e FROM MapEntity e LEFT JOIN FETCH e.coordinatePoint WHERE e.localID IN :localIDs")
+  List<MapEntity> findAllByLocalIDIn(@Param("localIDs") Collection<String> localIDs);
+
   /**
    * Finds map entities by its type.
    *
@@ -44,4 +68,12 @@ public interface MapEntityRepo extends JpaRepository<MapEntity, Long> {
    */
   List<MapEntity> findAllByMapEntityType_Name(String name);
 
+  /**
+   * Projection of the local id and content hash of an imported map entity
+   */
+  interface ImportedHash {
+    String getLocalID();
+
+    String getContentHash();
+  }
 }
@@ -0,0 +1,122 @@
+package org.ntnu.idatt2106.backend.security;
+
+import java.security.Principal;
+import java.util.List;
+import org.ntnu.idatt2106.backend.exceptions.UnauthorizedException;
+import org.ntnu.idatt2106.backend.service.ExpiryNotificationDispatcher;
+import org.ntnu.idatt2106.backend.service.HouseholdMembershipIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authorizes the STOMP frames sent by WebSocket clients.
+ * A client may connect without a token to receive the public news topics. A client that sends
+ * an {@code Authorization: Bearer <JWT>} header on CONNECT is authenticated as the user of the
+ * token for the rest of the session, and only such a user may subscribe to the topics of the
+ * households they are a member of, {@code /topic/households/{id}/**}.
+ * Destination patterns are rejected, since the broker would match them against every household,
+ * and clients may only send to application destinations, so they cannot publish to a topic.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Component
+public class StompAuthorizationInterceptor implements ChannelInterceptor {
+  static final String APPLICATION_PREFIX = "/app/";
+  private static final String HOUSEHOLD_PREFIX = ExpiryNotificationDispatcher.HOUSEHOLD_TOPIC + "/";
+
+  private final JWT_token jwtToken;
+  private final HouseholdMembershipIndex membershipIndex;
+
+  /**
+   * Constructor for the StompAuthorizationInterceptor
+   * @param jwtToken the token service used to authenticate users on CONNECT
+   * @param membershipIndex the index used to check that a user is a member of a household
+   */
+  @Autowired
+  public StompAuthorizationInterceptor(JWT_token jwtToken, HouseholdMembershipIndex membershipIndex) {
+    this.jwtToken = jwtToken;
+    this.membershipIndex = membershipIndex;
+  }
+
+  /**
+   * Authenticates CONNECT frames and authorizes SUBSCRIBE and SEND frames before they reach the broker
+   * @param message the inbound message
+   * @param channel the client inbound channel
+   * @return the message
+   * @throws UnauthorizedException if the token is invalid or the user may not use the destination
+   */
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    if (accessor == null || accessor.getCommand() == null) {
+      return message;
+    }
+    switch (accessor.getCommand()) {
+      case CONNECT, STOMP -> authenticate(accessor);
+      case SUBSCRIBE -> authorizeSubscription(accessor.getDestination(), accessor.getUser());
+      case SEND -> {
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(APPLICATION_PREFIX)) {
+          throw new UnauthorizedException("Clients may only send to " + APPLICATION_PREFIX + " destinations");
+        }
+      }
+      default -> {
+      }
+    }
+    return message;
+  }
+
+  /**
+   * Sets the user of the session from the token of a CONNECT frame, if it has one
+   */
+  private void authenticate(StompHeaderAccessor accessor) {
+    String authorizationHeader = accessor.getFirstNativeHeader("Authorization");
+    if (authorizationHeader == null) {
+      return;
+    }
+    if (!authorizationHeader.startsWith("Bearer ")) {
+      throw new UnauthorizedException("Invalid authorization header");
+    }
+    String userId = jwtToken.extractIdFromJwt(authorizationHeader.substring(7));
+    if (userId == null) {
+      throw new UnauthorizedException("Invalid or expired token");
+    }
+    accessor.setUser(new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+  }
+
+  /**
+   * Checks that a subscription is to a concrete destination, and that only members of a household
+   * subscribe to the topics of the household
+   */
+  private void authorizeSubscription(String destination, Principal user) {
+    if (destination == null || destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0
+        || destination.indexOf('{') >= 0) {
+      throw new UnauthorizedException("Invalid destination: " + destination);
+    }
+    if (!destination.startsWith(HOUSEHOLD_PREFIX)) {
+      return;
+    }
+    if (user == null) {
+      throw new UnauthorizedException("Household topics require an authenticated user");
+    }
+    int end = destination.indexOf('/', HOUSEHOLD_PREFIX.length());
+    int householdId;
+    try {
+      householdId = Integer.parseInt(destination.substring(HOUSEHOLD_PREFIX.length(),
+          end < 0 ? destination.length() : end));
+    } catch (NumberFormatException e) {
+      throw new UnauthorizedException("Invalid destination: " + destination);
+    }
+    if (!membershipIndex.isMember(Integer.parseInt(user.getName()), householdId)) {
+      throw new UnauthorizedException("User is not a member of the specified household");
+    }
+  }
+}
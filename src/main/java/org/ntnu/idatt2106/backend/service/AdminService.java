@@ -42,6 +42,9 @@ public class AdminService {
   @Autowired
   private UserSettingsRepo userSettingsRepo;
 
+  @Autowired
+  private HouseholdMembershipIndex membershipIndex;
+
   @Autowired
   private VerificationTokenRepo verificationTokenRepo;
 
@@ -478,6 +481,7 @@ public class AdminService {
         userSettingsRepo.delete(user.get().getUserSettings());
       }
       userRepo.delete(user.get());
+      membershipIndex.evict(user.get().getId());
     } catch (UnauthorizedException e) {
       throw new UnauthorizedException("You are not authorized to delete a user");
     }
@@ -1,7 +1,13 @@
 package org.ntnu.idatt2106.backend.service;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.ntnu.idatt2106.backend.dto.map.BunkerImportSummary;
 import org.ntnu.idatt2106.backend.model.map.Coordinate;
 import org.ntnu.idatt2106.backend.model.map.MapEntity;
 import org.ntnu.idatt2106.backend.model.map.MapEntityType;
@@ -9,12 +15,31 @@ import org.ntnu.idatt2106.backend.model.map.MapMarkerType;
 import org.ntnu.idatt2106.backend.repo.map.MapEntityRepo;
 import org.ntnu.idatt2106.backend.repo.map.MapEntityTypeRepo;
 import org.ntnu.idatt2106.backend.repo.map.MapMarkerTypeRepo;
+import org.ntnu.idatt2106.backend.service.BunkerSnapshotService.BunkerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for importing bunker data from a JSON file.
@@ -24,10 +49,19 @@ import java.io.InputStream;
  */
 @Service
 public class BunkerImportService {
+    /**
+     * The public shelter dataset bundled with the application.
+     */
+    public static final String DEFAULT_DATASET =
+        "Samfunnssikkerhet_0000_Norge_25833_TilfluktsromOffentlige_GeoJSON.json";
+    private static final int BATCH_SIZE = 500;
+
     private final MapEntityRepo mapEntityRepo;
     private final MapMarkerTypeRepo mapMarkerTypeRepo;
     private final ObjectMapper objectMapper;
     private final MapEntityTypeRepo mapEntityTypeRepo;
+    private final BunkerSnapshotService bunkerSnapshotService;
+    private final EntityManager entityManager;
 
     /**
      * Constructor for BunkerImportService.
@@ -35,27 +69,164 @@ public class BunkerImportService {
      * @param mapEntityRepo The repository for MapEntity entities.
      * @param mapMarkerTypeRepo The repository for MapMarkerType entities.
      * @param objectMapper The ObjectMapper for parsing JSON data.
+     * @param mapEntityTypeRepo The repository for MapEntityType entities.
+     * @param bunkerSnapshotService The service for reading and writing binary bunker snapshots.
+     * @param entityManager The entity manager flushed and cleared between chunks of an import.
      */
     @Autowired
     public BunkerImportService(MapEntityRepo mapEntityRepo,
                                MapMarkerTypeRepo mapMarkerTypeRepo,
                                ObjectMapper objectMapper,
-                               MapEntityTypeRepo mapEntityTypeRepo) {
+                               MapEntityTypeRepo mapEntityTypeRepo,
+                               BunkerSnapshotService bunkerSnapshotService,
+                               EntityManager entityManager) {
         this.mapEntityRepo = mapEntityRepo;
         this.mapMarkerTypeRepo = mapMarkerTypeRepo;
         this.objectMapper = objectMapper;
         this.mapEntityTypeRepo = mapEntityTypeRepo;
+        this.bunkerSnapshotService = bunkerSnapshotService;
+        this.entityManager = entityManager;
+    }
+
+    @Value("${bunker.import.on-startup:false}")
+    private boolean importOnStartup;
+
+    /**
+     * On application startup, import the bundled bunker dataset if enabled.
+     * After the first run this reads the binary snapshot instead of the JSON file.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void importOnStartup() {
+        if (!importOnStartup) {
+            return;
+        }
+        try {
+            importBunkerDataFromJson(DEFAULT_DATASET);
+        } catch (Exception e) {
+            System.err.println("Error importing bunker data on startup: " + e.getMessage());
+        }
     }
 
     /**
-     * Imports bunker data from a JSON file and saves it to the database.
+     * Imports bunker data from a JSON file and applies the differences to the database.
+     * Each feature is compared with the stored bunker with the same local ID through a content hash,
+     * so only new, changed and removed bunkers are written.
+     * The converted bunkers are kept in a binary snapshot, so later imports of the same file
+     * skip JSON parsing and coordinate conversion.
      *
      * @param fileName The name of the JSON file to import.
+     * @return A summary of the inserted, updated, deleted and unchanged bunkers.
      * @throws IOException If an error occurs while reading the file.
      */
-    public void importBunkerDataFromJson(String fileName) throws IOException {
+    @Transactional
+    public BunkerImportSummary importBunkerDataFromJson(String fileName) throws IOException {
+        String sourceHash = getSourceHash(fileName);
+        Optional<List<BunkerRecord>> snapshot = sourceHash == null
+            ? Optional.empty()
+            : bunkerSnapshotService.load(sourceHash);
+        if (snapshot.isPresent()) {
+            return importRecords(snapshot.get().iterator());
+        }
+
         JsonNode rootNode = readJsonFromFile(fileName);
+        List<BunkerRecord> records = new ArrayList<>();
+        Iterator<JsonNode> features = rootNode.get("features").iterator();
+        while (features.hasNext()) {
+            records.add(toRecord(features.next()));
+        }
+        if (sourceHash != null) {
+            bunkerSnapshotService.store(sourceHash, records);
+        }
+        return importRecords(records.iterator());
+    }
+
+    /**
+     * Imports bunker data from a GeoJSON file on the local file system.
+     * The file is read through a memory-mapped channel and parsed one feature at a time,
+     * so the whole document is never held on the heap.
+     *
+     * @param path The path of the GeoJSON file to import.
+     * @return A summary of the inserted, updated, deleted and unchanged bunkers.
+     * @throws IOException If an error occurs while reading or parsing the file.
+     */
+    @Transactional
+    public BunkerImportSummary importBunkerDataFromFile(Path path) throws IOException {
+        try (InputStream inputStream = new MappedFileInputStream(path)) {
+            return importBunkerDataFromStream(inputStream);
+        }
+    }
+
+    /**
+     * Imports bunker data from a GeoJSON document read from a stream, such as an uploaded file.
+     * The document is parsed one feature at a time while it is read, so neither the document nor
+     * the parsed bunkers are held on the heap as a whole.
+     *
+     * @param inputStream The stream of the GeoJSON document, left open.
+     * @return A summary of the inserted, updated, deleted and unchanged bunkers.
+     * @throws IOException If an error occurs while reading or parsing the document.
+     */
+    @Transactional
+    public BunkerImportSummary importBunkerDataFromStream(InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            Iterator<JsonNode> features = streamFeatures(parser);
+            return importRecords(new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return features.hasNext();
+                }
+
+                @Override
+                public BunkerRecord next() {
+                    return toRecord(features.next());
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Converts a GeoJSON feature to a bunker record with latitude and longitude.
+     * The capacity is kept as the text of the dataset, and a capacity that is missing or not a
+     * whole number is logged so it can be corrected at the source.
+     *
+     * @param feature The GeoJSON feature to convert.
+     * @return The converted bunker record.
+     */
+    private BunkerRecord toRecord(JsonNode feature) {
+        JsonNode properties = feature.get("properties");
+        JsonNode geometry = feature.get("geometry");
+
+        String localID = properties.get("lokalId").asText();
+        String address = properties.get("adresse").asText();
+        JsonNode capacityNode = properties.get("plasser");
+        String capacity = capacityNode == null || capacityNode.isNull() ? "" : capacityNode.asText();
+        if (!capacity.matches("\\d+")) {
+            System.err.println("Bunker " + localID + " has an invalid capacity: '" + capacity + "'");
+        }
+
+        double utmx = geometry.get("coordinates").get(0).asDouble();
+        double utmy = geometry.get("coordinates").get(1).asDouble();
 
+        // Convert UTM coordinates to latitude and longitude (UTM zone 33 for Norway).
+        double[] latlon = UTMConverterService.utmToLatLon(utmx, utmy, 33);
+
+        return new BunkerRecord(localID, address, capacity, latlon[0], latlon[1],
+            computeContentHash(address, capacity, utmx, utmy));
+    }
+
+    /**
+     * Applies the given bunkers to the stored bunkers.
+     * Only the local ID and content hash of the stored bunkers are loaded up front. Changed bunkers
+     * are written in chunks of {@link #BATCH_SIZE}, and the persistence context is flushed and cleared
+     * after each chunk, so the number of entities in memory does not grow with the dataset.
+     *
+     * @param records The bunkers to import.
+     * @return A summary of the inserted, updated, deleted and unchanged bunkers.
+     */
+    private BunkerImportSummary importRecords(Iterator<BunkerRecord> records) {
         MapMarkerType bunkerMapMarkerType = mapMarkerTypeRepo.findByName("Bunker").orElseGet(() -> {
             MapMarkerType newMapMarkerType = new MapMarkerType("Bunker");
             return mapMarkerTypeRepo.save(newMapMarkerType);
@@ -66,35 +237,208 @@ public class BunkerImportService {
             return mapEntityTypeRepo.save(newMapEntityType);
         });
 
-        for (JsonNode feature : rootNode.get("features")) {
-            JsonNode properties = feature.get("properties");
-            JsonNode geometry = feature.get("geometry");
+        Map<String, String> storedHashes = new HashMap<>();
+        for (MapEntityRepo.ImportedHash stored : mapEntityRepo.findImportedHashesByMapMarkerType(bunkerMapMarkerType)) {
+            storedHashes.put(stored.getLocalID(), stored.getContentHash());
+        }
 
-            String localID = properties.get("lokalId").asText();
-            String address = properties.get("adresse").asText();
-            String capacity = properties.get("plasser").asText();
+        Set<String> seen = new HashSet<>();
+        List<BunkerRecord> chunk = new ArrayList<>(BATCH_SIZE);
+        List<String> storedInChunk = new ArrayList<>(BATCH_SIZE);
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
 
-            double utmx = geometry.get("coordinates").get(0).asDouble();
-            double utmy = geometry.get("coordinates").get(1).asDouble();
+        while (records.hasNext()) {
+            BunkerRecord record = records.next();
 
-            // Convert UTM coordinates to latitude and longitude (UTM zone 33 for Norway).
-            double[] latlon = UTMConverterService.utmToLatLon(utmx, utmy, 33);
-            double latitude = latlon[0];
-            double longitude = latlon[1];
+            // Local IDs are unique, so only the first feature with a local ID is imported, as before.
+            if (!seen.add(record.localID())) {
+                System.err.println("Skipping duplicate bunker " + record.localID() + " in the dataset");
+                continue;
+            }
 
-            if (mapEntityRepo.findByLocalID(localID) == null) {
-                MapEntity service = new MapEntity();
-                service.setName("Bunker " + localID);
-                service.setDescription("Bunker with capacity: " + capacity);
-                service.setAddress(address);
+            if (storedHashes.containsKey(record.localID())) {
+                String storedHash = storedHashes.remove(record.localID());
+                if (record.contentHash().equals(storedHash)) {
+                    unchanged++;
+                    continue;
+                }
+                storedInChunk.add(record.localID());
+                updated++;
+            } else {
+                inserted++;
+            }
+            chunk.add(record);
+
+            if (chunk.size() == BATCH_SIZE) {
+                saveChunk(chunk, storedInChunk, entityType, bunkerMapMarkerType);
+                chunk.clear();
+                storedInChunk.clear();
+            }
+        }
+        saveChunk(chunk, storedInChunk, entityType, bunkerMapMarkerType);
+
+        // Whatever is left in the map was not part of this edition of the dataset.
+        List<String> removed = new ArrayList<>(storedHashes.keySet());
+        for (int i = 0; i < removed.size(); i += BATCH_SIZE) {
+            mapEntityRepo.deleteAll(mapEntityRepo.findAllByLocalIDIn(
+                removed.subList(i, Math.min(i + BATCH_SIZE, removed.size()))));
+            flushAndClear();
+        }
+
+        BunkerImportSummary summary = new BunkerImportSummary(inserted, updated, removed.size(), unchanged);
+        System.out.println("Bunker import finished: " + summary);
+        return summary;
+    }
+
+    /**
+     * Inserts the new bunkers and updates the stored bunkers of a chunk, then flushes and clears
+     * the persistence context.
+     *
+     * @param chunk The new and changed bunkers.
+     * @param storedLocalIDs The local IDs of the bunkers in the chunk that are already stored.
+     * @param entityType The entity type of new bunkers.
+     * @param bunkerMapMarkerType The marker type of new bunkers.
+     */
+    private void saveChunk(List<BunkerRecord> chunk, List<String> storedLocalIDs,
+                           MapEntityType entityType, MapMarkerType bunkerMapMarkerType) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<String, MapEntity> stored = new HashMap<>();
+        if (!storedLocalIDs.isEmpty()) {
+            for (MapEntity entity : mapEntityRepo.findAllByLocalIDIn(storedLocalIDs)) {
+                stored.put(entity.getLocalID(), entity);
+            }
+        }
+
+        List<MapEntity> toSave = new ArrayList<>(chunk.size());
+        for (BunkerRecord record : chunk) {
+            MapEntity service = stored.get(record.localID());
+            if (service == null) {
+                service = new MapEntity();
+                service.setName("Bunker " + record.localID());
                 service.setMapEntityType(entityType);
                 service.setMapMarkerType(bunkerMapMarkerType);
-                service.setCoordinatePoint(new Coordinate(latitude, longitude));
-                service.setLocalID(localID);
+                service.setCoordinatePoint(new Coordinate(record.latitude(), record.longitude()));
+                service.setLocalID(record.localID());
+            } else if (service.getCoordinatePoint() == null) {
+                service.setCoordinatePoint(new Coordinate(record.latitude(), record.longitude()));
+            } else {
+                service.getCoordinatePoint().setLatitude(record.latitude());
+                service.getCoordinatePoint().setLongitude(record.longitude());
+            }
+            service.setDescription("Bunker with capacity: " + record.capacity());
+            service.setAddress(record.address());
+            service.setContentHash(record.contentHash());
+            toSave.add(service);
+        }
+        mapEntityRepo.saveAll(toSave);
+        flushAndClear();
+    }
 
-                mapEntityRepo.save(service);
+    /**
+     * Writes the pending changes and detaches all entities, so a chunk can be garbage collected
+     * once it is written.
+     */
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Computes a hash of the fields of a bunker feature that are stored in the database.
+     * The raw UTM coordinates are hashed, so the hash does not depend on the coordinate conversion.
+     *
+     * @param address The address of the bunker.
+     * @param capacity The capacity of the bunker.
+     * @param utmx The UTM easting of the bunker.
+     * @param utmy The UTM northing of the bunker.
+     * @return The hex encoded SHA-256 hash of the fields.
+     */
+    public static String computeContentHash(String address, String capacity, double utmx, double utmy) {
+        String content = address + '\u001F' + capacity + '\u001F' + utmx + '\u001F' + utmy;
+        return HexFormat.of().formatHex(sha256().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a SHA-256 message digest.
+     *
+     * @return A new SHA-256 message digest.
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Advances the parser to the features array of a GeoJSON document and returns an iterator
+     * that reads one feature at a time.
+     *
+     * @param parser The parser positioned at the start of the document.
+     * @return An iterator over the features of the document.
+     * @throws IOException If the document is malformed or has no features array.
+     */
+    protected Iterator<JsonNode> streamFeatures(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a GeoJSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("features".equals(field) && value == JsonToken.START_ARRAY) {
+                return new Iterator<>() {
+                    private JsonToken next = parser.nextToken();
+
+                    @Override
+                    public boolean hasNext() {
+                        return next == JsonToken.START_OBJECT;
+                    }
+
+                    @Override
+                    public JsonNode next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        try {
+                            JsonNode feature = objectMapper.readTree(parser);
+                            next = parser.nextToken();
+                            return feature;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+            }
+            parser.skipChildren();
+        }
+        throw new JsonParseException(parser, "GeoJSON document has no features array");
+    }
+
+    /**
+     * Computes the SHA-256 hash of the content of the classpath file, which identifies its edition
+     * regardless of where the file is packaged or when it was last modified.
+     * Can be mocked in tests for easier testing.
+     *
+     * @param fileName The name of the JSON file.
+     * @return The hex encoded hash, or null if the file cannot be read.
+     */
+    protected String getSourceHash(String fileName) {
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new ClassPathResource(fileName).getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
             }
+        } catch (IOException e) {
+            return null;
         }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     /**
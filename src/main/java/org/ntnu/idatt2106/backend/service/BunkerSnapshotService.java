@@ -0,0 +1,258 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service for writing and reading binary snapshots of converted bunker data.
+ * A snapshot holds the bunkers after JSON parsing and UTM conversion, so an import of an
+ * unchanged dataset only needs a memory-mapped read of the snapshot file.
+ *
+ * <p>The file starts with a header (magic, version, SHA-256 hash of the source dataset, record count
+ * and the offset of the string table), followed by fixed-width records and a table of length-prefixed
+ * UTF-8 strings. Records refer to their local ID, address and capacity by index in the string table.</p>
+ *
+ * @author Erlend Eide Zindel
+ * @since 1.0
+ */
+@Service
+public class BunkerSnapshotService {
+  private static final int MAGIC = 0x424E4B52; // "BNKR"
+  private static final int VERSION = 2;
+  private static final int HASH_SIZE = 32;
+  private static final int HEADER_SIZE = 4 + 4 + HASH_SIZE + 4 + 8;
+  private static final int RECORD_SIZE = 4 + 4 + 4 + 8 + 8 + HASH_SIZE;
+
+  private final Path snapshotPath;
+
+  /**
+   * A bunker after parsing and coordinate conversion.
+   *
+   * @param localID The local ID of the bunker in the dataset.
+   * @param address The address of the bunker.
+   * @param capacity The number of places in the bunker, as given in the dataset.
+   * @param latitude The latitude of the bunker.
+   * @param longitude The longitude of the bunker.
+   * @param contentHash The hex encoded SHA-256 content hash of the bunker.
+   */
+  public record BunkerRecord(String localID,
+                             String address,
+                             String capacity,
+                             double latitude,
+                             double longitude,
+                             String contentHash) {
+  }
+
+  /**
+   * Constructor for BunkerSnapshotService.
+   *
+   * @param snapshotPath The path of the snapshot file.
+   */
+  public BunkerSnapshotService(
+      @Value("${bunker.snapshot.path:${java.io.tmpdir}/idatt2106-backend/bunker-snapshot.bin}") String snapshotPath) {
+    this.snapshotPath = Path.of(snapshotPath);
+  }
+
+  /**
+   * Loads the snapshot if it was written from the source with the given content hash.
+   *
+   * @param sourceHash The hex encoded SHA-256 hash of the source dataset.
+   * @return The bunkers in the snapshot, or empty if there is no usable snapshot.
+   */
+  public Optional<List<BunkerRecord>> load(String sourceHash) {
+    try {
+      return read(snapshotPath, sourceHash);
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Ignoring unreadable bunker snapshot " + snapshotPath + ": " + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the given bunkers as the snapshot for the source with the given content hash.
+   * Failing to write the snapshot is logged and otherwise ignored.
+   *
+   * @param sourceHash The hex encoded SHA-256 hash of the source dataset.
+   * @param records The bunkers to store.
+   */
+  public void store(String sourceHash, List<BunkerRecord> records) {
+    try {
+      write(snapshotPath, sourceHash, records);
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Could not write bunker snapshot " + snapshotPath + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes a snapshot file. The file is written next to the target and moved into place,
+   * so readers never see a partially written snapshot.
+   *
+   * @param path The path of the snapshot file.
+   * @param sourceHash The hex encoded SHA-256 hash of the source dataset.
+   * @param records The bunkers to write.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(Path path, String sourceHash, List<BunkerRecord> records) throws IOException {
+    HexFormat hex = HexFormat.of();
+    byte[] source = parseHash(hex, sourceHash);
+    List<byte[]> strings = new ArrayList<>();
+    Map<String, Integer> stringIndex = new HashMap<>();
+    int[] localIdIndex = new int[records.size()];
+    int[] addressIndex = new int[records.size()];
+    int[] capacityIndex = new int[records.size()];
+    for (int i = 0; i < records.size(); i++) {
+      localIdIndex[i] = intern(records.get(i).localID(), strings, stringIndex);
+      addressIndex[i] = intern(records.get(i).address(), strings, stringIndex);
+      capacityIndex[i] = intern(records.get(i).capacity(), strings, stringIndex);
+    }
+
+    long stringTableOffset = HEADER_SIZE + (long) RECORD_SIZE * records.size();
+    long stringTableSize = 4;
+    for (byte[] string : strings) {
+      stringTableSize += 4 + string.length;
+    }
+    long fileSize = stringTableOffset + stringTableSize;
+    if (fileSize > Integer.MAX_VALUE) {
+      throw new IOException("Bunker snapshot would be too large: " + fileSize + " bytes");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) fileSize);
+    buffer.putInt(MAGIC)
+        .putInt(VERSION)
+        .put(source)
+        .putInt(records.size())
+        .putLong(stringTableOffset);
+    for (int i = 0; i < records.size(); i++) {
+      BunkerRecord record = records.get(i);
+      byte[] hash = parseHash(hex, record.contentHash());
+      buffer.putInt(localIdIndex[i])
+          .putInt(addressIndex[i])
+          .putInt(capacityIndex[i])
+          .putDouble(record.latitude())
+          .putDouble(record.longitude())
+          .put(hash);
+    }
+    buffer.putInt(strings.size());
+    for (byte[] string : strings) {
+      buffer.putInt(string.length).put(string);
+    }
+    buffer.flip();
+
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path tempFile = Files.createTempFile(parent, "bunker-snapshot", ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Reads a snapshot file through a memory-mapped channel.
+   *
+   * @param path The path of the snapshot file.
+   * @param sourceHash The hex encoded SHA-256 hash of the source dataset the snapshot must match.
+   * @return The bunkers in the snapshot, or empty if the snapshot was written from another source.
+   * @throws IOException If the file cannot be read or is not a valid snapshot.
+   */
+  public Optional<List<BunkerRecord>> read(Path path, String sourceHash) throws IOException {
+    HexFormat hex = HexFormat.of();
+    byte[] source = parseHash(hex, sourceHash);
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Not a bunker snapshot of version " + VERSION);
+      }
+      byte[] storedSource = new byte[HASH_SIZE];
+      buffer.get(storedSource);
+      if (!Arrays.equals(storedSource, source)) {
+        return Optional.empty();
+      }
+      int recordCount = buffer.getInt();
+      long stringTableOffset = buffer.getLong();
+      if (stringTableOffset != HEADER_SIZE + (long) RECORD_SIZE * recordCount) {
+        throw new IOException("Corrupt bunker snapshot header");
+      }
+
+      buffer.position((int) stringTableOffset);
+      String[] strings = new String[buffer.getInt()];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      buffer.position(HEADER_SIZE);
+      byte[] hash = new byte[HASH_SIZE];
+      List<BunkerRecord> records = new ArrayList<>(recordCount);
+      for (int i = 0; i < recordCount; i++) {
+        String localID = strings[buffer.getInt()];
+        String address = strings[buffer.getInt()];
+        String capacity = strings[buffer.getInt()];
+        double latitude = buffer.getDouble();
+        double longitude = buffer.getDouble();
+        buffer.get(hash);
+        records.add(new BunkerRecord(localID, address, capacity, latitude, longitude, hex.formatHex(hash)));
+      }
+      return Optional.of(records);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new IOException("Corrupt bunker snapshot", e);
+    }
+  }
+
+  /**
+   * Parses a hex encoded SHA-256 hash.
+   *
+   * @throws IllegalArgumentException If the value is not a hex encoded SHA-256 hash.
+   */
+  private static byte[] parseHash(HexFormat hex, String value) {
+    byte[] hash = hex.parseHex(value);
+    if (hash.length != HASH_SIZE) {
+      throw new IllegalArgumentException("Hash must be " + HASH_SIZE + " bytes");
+    }
+    return hash;
+  }
+
+  /**
+   * Adds a string to the string table if it is not there already.
+   *
+   * @return The index of the string in the string table.
+   */
+  private static int intern(String value, List<byte[]> strings, Map<String, Integer> stringIndex) {
+    return stringIndex.computeIfAbsent(value, key -> {
+      strings.add(key.getBytes(StandardCharsets.UTF_8));
+      return strings.size() - 1;
+    });
+  }
+}
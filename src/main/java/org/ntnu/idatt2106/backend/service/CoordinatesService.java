@@ -1,4 +1,178 @@
 package org.ntnu.idatt2106.backend.service;
 
+import org.ntnu.idatt2106.backend.dto.map.CoordinatesDTO;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service for offline geocoding of places in Norway.
+ * Police districts and municipalities are loaded from a bundled gazetteer into in-memory maps,
+ * so geocoding a news entry is a handful of hash lookups and never calls an external service.
+ *
+ * @author Jonas Reiher
+ * @since 0.3
+ */
+@Service
 public class CoordinatesService {
+  public static final String GAZETTEER = "gazetteer/norway.csv";
+  private static final double EARTH_RADIUS_KM = 6371.0;
+  private static final Locale NORWEGIAN = Locale.forLanguageTag("no");
+
+  private record Place(String district, double latitude, double longitude) {
+  }
+
+  private final Map<String, Place> districts = new HashMap<>();
+  private final Map<String, List<Place>> municipalities = new HashMap<>();
+
+  /**
+   * Constructor for CoordinatesService, loading the bundled gazetteer.
+   */
+  public CoordinatesService() {
+    try (Reader reader = new InputStreamReader(
+        new ClassPathResource(GAZETTEER).getInputStream(), StandardCharsets.UTF_8)) {
+      load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not load gazetteer " + GAZETTEER, e);
+    }
+  }
+
+  /**
+   * Constructor for CoordinatesService, loading the gazetteer from the given reader.
+   *
+   * @param gazetteer lines of {@code kind;name;district;latitude;longitude}
+   * @throws IOException if the gazetteer cannot be read
+   */
+  CoordinatesService(Reader gazetteer) throws IOException {
+    load(gazetteer);
+  }
+
+  private void load(Reader gazetteer) throws IOException {
+    BufferedReader reader = new BufferedReader(gazetteer);
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(";");
+      if (fields.length != 5) {
+        throw new IOException("Invalid gazetteer line " + lineNumber + ": " + line);
+      }
+      Place place = new Place(normalize(fields[2]),
+          Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+      switch (fields[0]) {
+        case "district" -> districts.put(normalize(fields[1]), place);
+        case "municipality" -> municipalities
+            .computeIfAbsent(normalize(fields[1]), key -> new ArrayList<>(1))
+            .add(place);
+        default -> throw new IOException("Unknown place kind on gazetteer line " + lineNumber + ": " + fields[0]);
+      }
+    }
+  }
+
+  /**
+   * Geocodes a news entry. A municipality named in the text is preferred over the centroid of
+   * the police district. When the district is known, only municipalities in that district are
+   * considered, so common words that are also place names are not mistaken for places elsewhere.
+   *
+   * @param district the police district of the entry, e.g. "Oslo politidistrikt"
+   * @param text the text of the entry to look for municipality names in
+   * @return the coordinates, or empty if neither the district nor a municipality is known
+   */
+  public Optional<CoordinatesDTO> geocode(String district, String text) {
+    String districtKey = district == null ? null : normalizeDistrict(district);
+    Place districtPlace = districtKey == null ? null : districts.get(districtKey);
+
+    Place municipality = text == null ? null
+        : findMunicipality(text, districtPlace == null ? null : districtKey);
+    Place place = municipality != null ? municipality : districtPlace;
+    return Optional.ofNullable(place)
+        .map(found -> new CoordinatesDTO(found.latitude(), found.longitude()));
+  }
+
+  /**
+   * Finds the first municipality named in a text. Names of one and two words are recognized.
+   *
+   * @param text the text to search
+   * @param districtKey the normalized district the municipality must be in, or null for any district
+   * @return the municipality, or null if none is named
+   */
+  private Place findMunicipality(String text, String districtKey) {
+    String[] words = normalize(text).split("[^\\p{L}-]+");
+    for (int i = 0; i < words.length; i++) {
+      if (words[i].isEmpty()) {
+        continue;
+      }
+      if (i + 1 < words.length) {
+        Place place = pick(municipalities.get(words[i] + " " + words[i + 1]), districtKey);
+        if (place != null) {
+          return place;
+        }
+      }
+      Place place = pick(municipalities.get(words[i]), districtKey);
+      if (place != null) {
+        return place;
+      }
+    }
+    return null;
+  }
+
+  private static Place pick(List<Place> candidates, String districtKey) {
+    if (candidates == null) {
+      return null;
+    }
+    for (Place candidate : candidates) {
+      if (districtKey == null || candidate.district().equals(districtKey)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Calculates the great-circle distance between two points with the haversine formula.
+   *
+   * @param lat1 latitude of the first point
+   * @param lng1 longitude of the first point
+   * @param lat2 latitude of the second point
+   * @param lng2 longitude of the second point
+   * @return the distance in kilometers
+   */
+  public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLng = Math.toRadians(lng2 - lng1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+        * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  /**
+   * Normalizes a district name, e.g. "Sør-Øst politidistrikt" becomes "sør-øst".
+   */
+  private static String normalizeDistrict(String district) {
+    String key = normalize(district);
+    if (key.endsWith("politidistrikt")) {
+      key = key.substring(0, key.length() - "politidistrikt".length()).trim();
+    }
+    return key;
+  }
+
+  private static String normalize(String value) {
+    return value.trim().toLowerCase(NORWEGIAN).replaceAll("\\s+", " ");
+  }
 }
@@ -185,16 +185,14 @@ public class DataSeeder implements CommandLineRunner {
     addHouseholdMember(household2, albert, true, true);
 
     List<Item> items = createItemsForHouseholdOne();
-    household.setInventory(items);
-    householdRepo.save(household);
+    addItemsToHousehold(household, items);
 
 
     UserStoreSettingsRequest defaultSettings = new UserStoreSettingsRequest(true, true);
     userSettingsService.saveUserSettings(albert.getId(), defaultSettings);
     
     List<Item> items2 = createItemsForHouseholdTwo();
-    household2.setInventory(items2);
-    householdRepo.save(household2);
+    addItemsToHousehold(household2, items2);
   }
 
   /**
@@ -208,8 +206,7 @@ public class DataSeeder implements CommandLineRunner {
     addHouseholdMember(household, krekar, true, false);
 
     List<Item> items = createItemsForHouseholdTwo();
-    household.setInventory(items);
-    householdRepo.save(household);
+    addItemsToHousehold(household, items);
   }
 
   /**
@@ -223,8 +220,7 @@ public class DataSeeder implements CommandLineRunner {
     addHouseholdMember(household, kalle, true, true );
 
     List<Item> items = createItemsForHouseholdThree();
-    household.setInventory(items);
-    householdRepo.save(household);
+    addItemsToHousehold(household, items);
   }
 
   /**
@@ -238,8 +234,7 @@ public class DataSeeder implements CommandLineRunner {
     addHouseholdMember(household, kare, true, true);
 
     List<Item> items = createItemsForHouseholdFour();
-    household.setInventory(items);
-    householdRepo.save(household);
+    addItemsToHousehold(household, items);
   }
 
   /**
@@ -312,6 +307,21 @@ public class DataSeeder implements CommandLineRunner {
     }
   }
 
+  /**
+   * Adds items to the inventory of the given household.
+   * The items own the inventory, so they are saved with the household added.
+   *
+   * @param household The household to add the items to
+   * @param items     The items to add
+   */
+  public void addItemsToHousehold(Household household, List<Item> items) {
+    for (Item item : items) {
+      item.getHousehold().add(household);
+    }
+    household.setInventory(items);
+    itemRepo.saveAll(items);
+  }
+
   /**
    * Creates items for household one.
    *
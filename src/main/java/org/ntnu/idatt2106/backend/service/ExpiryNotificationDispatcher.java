@@ -0,0 +1,149 @@
+package org.ntnu.idatt2106.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.ntnu.idatt2106.backend.dto.item.ExpiringItemsNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends expiring item notifications to the topic of each household,
+ * {@code /topic/households/{id}/expiring}, which only members of the household may subscribe to
+ * (see {@link org.ntnu.idatt2106.backend.security.StompAuthorizationInterceptor}).
+ * Notifications are queued in a bounded queue and sent by a single virtual thread in batches,
+ * paced to at most a configured number of messages per second, so a large scan never floods the
+ * broker. When the queue is full, {@link #dispatch} blocks until there is room.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class ExpiryNotificationDispatcher {
+  public static final String HOUSEHOLD_TOPIC = "/topic/households";
+
+  private final SimpMessageSendingOperations messagingTemplate;
+  private final BlockingQueue<ExpiringItemsNotification> queue;
+  private final int batchSize;
+  private final long nanosPerMessage;
+  private final AtomicLong sentCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final Thread worker;
+
+  /**
+   * Constructor for the ExpiryNotificationDispatcher, starting the dispatcher thread
+   * @param messagingTemplate the template used to send messages to the broker
+   * @param queueCapacity the maximum number of notifications waiting to be sent
+   * @param batchSize the maximum number of notifications sent in one batch
+   * @param maxPerSecond the maximum number of notifications sent per second
+   */
+  @Autowired
+  public ExpiryNotificationDispatcher(
+      SimpMessageSendingOperations messagingTemplate,
+      @Value("${inventory.expiry.queue-capacity:10000}") int queueCapacity,
+      @Value("${inventory.expiry.batch-size:100}") int batchSize,
+      @Value("${inventory.expiry.max-per-second:1000}") int maxPerSecond) {
+    if (queueCapacity < 1 || batchSize < 1 || maxPerSecond < 1) {
+      throw new IllegalArgumentException("Queue capacity, batch size and rate must be positive");
+    }
+    this.messagingTemplate = messagingTemplate;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSize = batchSize;
+    this.nanosPerMessage = TimeUnit.SECONDS.toNanos(1) / maxPerSecond;
+    this.worker = Thread.ofVirtual().name("expiry-dispatcher").start(this::run);
+  }
+
+  /**
+   * Queues a notification, waiting for room if the queue is full
+   * @param notification the notification to send
+   * @throws InterruptedException if interrupted while waiting for room
+   */
+  public void dispatch(ExpiringItemsNotification notification) throws InterruptedException {
+    queue.put(notification);
+  }
+
+  /**
+   * Returns the topic of a household
+   * @param householdId the id of the household
+   * @return the topic of the household
+   */
+  public static String getHouseholdTopic(int householdId) {
+    return HOUSEHOLD_TOPIC + "/" + householdId + "/expiring";
+  }
+
+  /**
+   * Returns the number of notifications sent
+   * @return the number of sent notifications
+   */
+  public long getSentCount() {
+    return sentCount.get();
+  }
+
+  /**
+   * Returns the number of notifications that could not be sent
+   * @return the number of failed notifications
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Returns the number of notifications waiting to be sent
+   * @return the number of queued notifications
+   */
+  public int getQueuedCount() {
+    return queue.size();
+  }
+
+  /**
+   * Sends queued notifications in batches until interrupted. After a batch of n notifications,
+   * the next batch waits until n times the interval per message has passed.
+   */
+  private void run() {
+    List<ExpiringItemsNotification> batch = new ArrayList<>(batchSize);
+    long nextBatchAt = System.nanoTime();
+    try {
+      while (true) {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        long wait = nextBatchAt - System.nanoTime();
+        if (wait > 0) {
+          TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        for (ExpiringItemsNotification notification : batch) {
+          try {
+            messagingTemplate.convertAndSend(getHouseholdTopic(notification.getHouseholdId()), notification);
+            sentCount.incrementAndGet();
+          } catch (Exception e) {
+            failedCount.incrementAndGet();
+            System.err.println("Error sending expiring items notification: " + e.getMessage());
+          }
+        }
+        nextBatchAt = Math.max(nextBatchAt, System.nanoTime() - nanosPerMessage * batch.size())
+            + nanosPerMessage * batch.size();
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Stops the dispatcher thread, dropping notifications that are not sent yet
+   */
+  @PreDestroy
+  public void shutdown() {
+    worker.interrupt();
+    if (!queue.isEmpty()) {
+      System.out.println("Dropping " + queue.size() + " unsent expiring items notifications");
+    }
+  }
+}
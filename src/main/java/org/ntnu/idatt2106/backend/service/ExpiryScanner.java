@@ -0,0 +1,134 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.dto.item.ExpiringItemResponse;
+import org.ntnu.idatt2106.backend.dto.item.ExpiringItemsNotification;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
+import org.ntnu.idatt2106.backend.repo.ItemRepo.ExpiringItemRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scans the inventories for items that expire soon and notifies their households.
+ * The items expiring within the window are read through the index on the expiration date,
+ * ordered by household, in chunks continuing after the last household and item of the previous
+ * chunk. The items of a household are sent as one notification through the
+ * {@link ExpiryNotificationDispatcher}.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class ExpiryScanner {
+
+  private final ItemRepo itemRepo;
+  private final ExpiryNotificationDispatcher dispatcher;
+  private final long windowMillis;
+  private final int chunkSize;
+  private final AtomicBoolean scanInProgress = new AtomicBoolean(false);
+
+  /**
+   * Constructor for the ExpiryScanner
+   * @param itemRepo the repository the expiring items are read from
+   * @param dispatcher the dispatcher the notifications are sent through
+   * @param windowDays the number of days ahead an item counts as expiring
+   * @param chunkSize the number of items read in one query
+   */
+  @Autowired
+  public ExpiryScanner(ItemRepo itemRepo,
+                       ExpiryNotificationDispatcher dispatcher,
+                       @Value("${inventory.expiry.window-days:3}") int windowDays,
+                       @Value("${inventory.expiry.chunk-size:1000}") int chunkSize) {
+    if (windowDays < 1 || chunkSize < 1) {
+      throw new IllegalArgumentException("Window and chunk size must be positive");
+    }
+    this.itemRepo = itemRepo;
+    this.dispatcher = dispatcher;
+    this.windowMillis = TimeUnit.DAYS.toMillis(windowDays);
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Scheduled method to notify households of expiring items
+   * This method is called every morning. The scan runs on its own virtual thread, so it never
+   * blocks the scheduler thread, and a new scan is skipped while one is in progress.
+   */
+  @Scheduled(cron = "${inventory.expiry.cron:0 0 7 * * *}", zone = "Europe/Oslo")
+  public void scheduledScan() {
+    if (!scanInProgress.compareAndSet(false, true)) {
+      System.out.println("Skipping expiry scan - previous scan still in progress.");
+      return;
+    }
+    Thread.ofVirtual().name("expiry-scanner").start(() -> {
+      try {
+        scan(new Date());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        System.err.println("Error scanning for expiring items: " + e.getMessage());
+      } finally {
+        scanInProgress.set(false);
+      }
+    });
+  }
+
+  /**
+   * Notifies every household with items expiring from now until the end of the window
+   * @param now the start of the window
+   * @return the number of households notified
+   * @throws InterruptedException if interrupted while waiting for the dispatcher
+   */
+  public int scan(Date now) throws InterruptedException {
+    long start = System.nanoTime();
+    Date to = new Date(now.getTime() + windowMillis);
+    PageRequest chunk = PageRequest.ofSize(chunkSize);
+
+    int households = 0;
+    int items = 0;
+    int householdId = 0;
+    List<ExpiringItemResponse> householdItems = new ArrayList<>();
+    List<ExpiringItemRow> rows = itemRepo.findExpiring(now, to, chunk);
+    while (!rows.isEmpty()) {
+      for (ExpiringItemRow row : rows) {
+        // The rows are ordered by household, so a household is complete when the next one starts
+        if (row.getHouseholdId() != householdId && !householdItems.isEmpty()) {
+          notifyHousehold(householdId, householdItems);
+          households++;
+          householdItems = new ArrayList<>();
+        }
+        householdId = row.getHouseholdId();
+        householdItems.add(new ExpiringItemResponse(row.getItemId(), row.getName(), row.getExpirationDate()));
+        items++;
+      }
+      if (rows.size() < chunkSize) {
+        break;
+      }
+      ExpiringItemRow last = rows.getLast();
+      rows = itemRepo.findExpiringAfter(now, to, last.getHouseholdId(), last.getItemId(), chunk);
+    }
+    if (!householdItems.isEmpty()) {
+      notifyHousehold(householdId, householdItems);
+      households++;
+    }
+
+    System.out.println("Expiry scan found " + items + " expiring items in " + households + " households in "
+        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    return households;
+  }
+
+  private void notifyHousehold(int householdId, List<ExpiringItemResponse> items) throws InterruptedException {
+    items.sort(Comparator.comparing(ExpiringItemResponse::getExpirationDate)
+        .thenComparingInt(ExpiringItemResponse::getId));
+    dispatcher.dispatch(new ExpiringItemsNotification(householdId, items));
+  }
+}
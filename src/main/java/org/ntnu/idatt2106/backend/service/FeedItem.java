@@ -0,0 +1,18 @@
+package org.ntnu.idatt2106.backend.service;
+
+import java.util.Date;
+
+/**
+ * An entry of a news feed after parsing, before it is normalized into a {@link org.ntnu.idatt2106.backend.model.News}.
+ *
+ * @param title the title of the entry
+ * @param description the description of the entry, may be null
+ * @param published the publication date of the entry, may be null
+ * @param category the first category of the entry, may be null
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+public record FeedItem(String title, String description, Date published, String category) {
+}
@@ -0,0 +1,101 @@
+package org.ntnu.idatt2106.backend.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.ntnu.idatt2106.backend.repo.HouseholdMembersRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of the households each user is a member of, used to authorize household and
+ * item operations without loading households and their members.
+ * The households of a user are held as a sorted int array, loaded from the database on the first
+ * check of the user and updated when the user joins, leaves or is kicked from a household.
+ * Reads are lock-free, updates of a user are serialized.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Component
+public class HouseholdMembershipIndex {
+
+  private final HouseholdMembersRepo householdMembersRepo;
+  private final Map<Integer, int[]> householdsByUser = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for the HouseholdMembershipIndex
+   * @param householdMembersRepo the repository the memberships of a user are loaded from
+   */
+  @Autowired
+  public HouseholdMembershipIndex(HouseholdMembersRepo householdMembersRepo) {
+    this.householdMembersRepo = householdMembersRepo;
+  }
+
+  /**
+   * Checks if a user is a member of a household
+   * @param userId the id of the user
+   * @param householdId the id of the household
+   * @return true if the user is a member of the household, false otherwise
+   */
+  public boolean isMember(int userId, int householdId) {
+    return Arrays.binarySearch(householdsOf(userId), householdId) >= 0;
+  }
+
+  /**
+   * Records that a user joined a household
+   * @param userId the id of the user
+   * @param householdId the id of the household
+   */
+  public void add(int userId, int householdId) {
+    // Users that are not loaded yet read the stored membership on their first check
+    householdsByUser.computeIfPresent(userId, (id, households) -> {
+      int index = Arrays.binarySearch(households, householdId);
+      if (index >= 0) {
+        return households;
+      }
+      int insertAt = -index - 1;
+      int[] updated = new int[households.length + 1];
+      System.arraycopy(households, 0, updated, 0, insertAt);
+      updated[insertAt] = householdId;
+      System.arraycopy(households, insertAt, updated, insertAt + 1, households.length - insertAt);
+      return updated;
+    });
+  }
+
+  /**
+   * Records that a user left or was kicked from a household
+   * @param userId the id of the user
+   * @param householdId the id of the household
+   */
+  public void remove(int userId, int householdId) {
+    householdsByUser.computeIfPresent(userId, (id, households) -> {
+      int index = Arrays.binarySearch(households, householdId);
+      if (index < 0) {
+        return households;
+      }
+      int[] updated = new int[households.length - 1];
+      System.arraycopy(households, 0, updated, 0, index);
+      System.arraycopy(households, index + 1, updated, index, households.length - index - 1);
+      return updated;
+    });
+  }
+
+  /**
+   * Removes a user from the index, so its memberships are loaded again on the next check
+   * @param userId the id of the user
+   */
+  public void evict(int userId) {
+    householdsByUser.remove(userId);
+  }
+
+  private int[] householdsOf(int userId) {
+    return householdsByUser.computeIfAbsent(userId, id -> householdMembersRepo.findHouseholdIdsByUserId(id)
+        .stream()
+        .mapToInt(Integer::intValue)
+        .sorted()
+        .distinct()
+        .toArray());
+  }
+}
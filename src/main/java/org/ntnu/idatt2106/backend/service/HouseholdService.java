@@ -49,6 +49,9 @@ public class HouseholdService {
   @Autowired
   UserRepo userRepo;
 
+  @Autowired
+  HouseholdMembershipIndex membershipIndex;
+
   private static final long EXPIRATION_TIME = 24 * 60 * 60 * 100; // 24 hours
   private static final int JOIN_CODE_LENGTH = 8;
   private static final int MAX_TRIES = 1000;
@@ -116,6 +119,7 @@ public class HouseholdService {
     }
     HouseholdMembers householdMembers = new HouseholdMembers(user, household,false, false);
     householdMembersRepo.save(householdMembers);
+    membershipIndex.add(user.getId(), household.getId());
     user.getHouseholdMemberships().add(householdMembers);
     household.getMembers().add(householdMembers);
   }
@@ -133,6 +137,7 @@ public class HouseholdService {
     }
     HouseholdMembers householdMembers = new HouseholdMembers(user, household, isAdmin, isPrimary);
     householdMembersRepo.save(householdMembers);
+    membershipIndex.add(user.getId(), household.getId());
     user.getHouseholdMemberships().add(householdMembers);
     household.getMembers().add(householdMembers);
   }
@@ -164,6 +169,7 @@ public class HouseholdService {
       return;
     }
     householdMembersRepo.delete(householdMembers.get());
+    membershipIndex.remove(user.getId(), household.getId());
     user.getHouseholdMemberships().remove(householdMembers.get());
     household.getMembers().remove(householdMembers.get());
     householdRepo.save(household);
@@ -0,0 +1,96 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.model.InventoryChange;
+import org.ntnu.idatt2106.backend.model.InventoryChangeType;
+import org.ntnu.idatt2106.backend.repo.HouseholdRepo;
+import org.ntnu.idatt2106.backend.repo.InventoryChangeRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the append-only change log of the inventories.
+ * Each household has a revision that is incremented by every change to its inventory, and each
+ * change is stored with the revision it produced. The changes are written in the transaction of the
+ * inventory change, so the log never contains changes that were rolled back.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class InventoryChangeLog {
+
+  private final HouseholdRepo householdRepo;
+  private final InventoryChangeRepo inventoryChangeRepo;
+
+  /**
+   * Constructor for the InventoryChangeLog
+   * @param householdRepo the repository holding the revision of each household
+   * @param inventoryChangeRepo the repository the changes are written to
+   */
+  @Autowired
+  public InventoryChangeLog(HouseholdRepo householdRepo, InventoryChangeRepo inventoryChangeRepo) {
+    this.householdRepo = householdRepo;
+    this.inventoryChangeRepo = inventoryChangeRepo;
+  }
+
+  /**
+   * Records a change of an item in the inventories of the given households
+   * @param householdIds the ids of the households
+   * @param itemId the id of the item
+   * @param type the type of the change
+   */
+  @Transactional
+  public void record(Collection<Integer> householdIds, int itemId, InventoryChangeType type) {
+    for (int householdId : householdIds) {
+      record(householdId, Map.of(itemId, type));
+    }
+  }
+
+  /**
+   * Records changes of items in the inventory of a household, with one revision per item
+   * @param householdId the id of the household
+   * @param changes the type of the change of each item, in the order the revisions are given
+   * @throws IllegalArgumentException if the household does not exist
+   */
+  @Transactional
+  public void record(int householdId, Map<Integer, InventoryChangeType> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    if (householdRepo.incrementInventoryRevision(householdId, changes.size()) == 0) {
+      throw new IllegalArgumentException("Household not found");
+    }
+    long revision = householdRepo.findInventoryRevisionById(householdId)
+        .orElseThrow(() -> new IllegalArgumentException("Household not found")) - changes.size();
+
+    Date now = new Date();
+    List<InventoryChange> entries = new ArrayList<>(changes.size());
+    for (Map.Entry<Integer, InventoryChangeType> change : changes.entrySet()) {
+      entries.add(new InventoryChange(householdId, ++revision, change.getKey(), change.getValue(), now));
+    }
+    inventoryChangeRepo.saveAll(entries);
+  }
+
+  /**
+   * Reduces changes to the last change of each item, keeping the order of the last changes
+   * @param changes the changes, oldest first
+   * @return the last type of change of each item
+   */
+  public static Map<Integer, InventoryChangeType> lastChangePerItem(List<InventoryChangeRepo.ChangeRow> changes) {
+    Map<Integer, InventoryChangeType> last = new LinkedHashMap<>();
+    for (InventoryChangeRepo.ChangeRow change : changes) {
+      last.remove(change.getItemId());
+      last.put(change.getItemId(), change.getType());
+    }
+    return last;
+  }
+}
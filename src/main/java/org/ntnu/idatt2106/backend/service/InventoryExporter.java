@@ -0,0 +1,221 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
+import org.ntnu.idatt2106.backend.repo.ItemRepo.ExportRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Exports inventories as newline-delimited JSON or CSV, one line per item and household.
+ * The rows are read from a streamed query with a fixed fetch size and written as they arrive,
+ * so an export never holds more than one fetch of rows in memory and the client receives the
+ * first rows before the last ones are read.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class InventoryExporter {
+  static final String CSV_HEADER = "householdId,id,name,amount,unitId,categoryId,expirationDate,version";
+  private static final int FLUSH_INTERVAL = Integer.parseInt(ItemRepo.EXPORT_FETCH_SIZE);
+
+  private final ItemRepo itemRepo;
+  private final HouseholdMembershipIndex membershipIndex;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The formats an inventory can be exported in
+   */
+  public enum Format {
+    NDJSON("application/x-ndjson"), CSV("text/csv");
+
+    private final String mediaType;
+
+    Format(String mediaType) {
+      this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the media type of the format
+     * @return the media type
+     */
+    public String getMediaType() {
+      return mediaType;
+    }
+
+    /**
+     * Parses a format received from a client, ignoring case
+     * @param value the format
+     * @return the format
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    public static Format parse(String value) {
+      try {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException e) {
+        throw new IllegalArgumentException("Invalid format, must be ndjson or csv");
+      }
+    }
+  }
+
+  /**
+   * Constructor for the InventoryExporter
+   * @param itemRepo the repository the items are streamed from
+   * @param membershipIndex the index used to check that a user is a member of a household
+   * @param objectMapper the object mapper used to write items as JSON
+   */
+  @Autowired
+  public InventoryExporter(ItemRepo itemRepo, HouseholdMembershipIndex membershipIndex,
+                           ObjectMapper objectMapper) {
+    this.itemRepo = itemRepo;
+    this.membershipIndex = membershipIndex;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Checks that a user may export the inventory of a household before a response is committed
+   * @param householdId the id of the household
+   * @param userId the id of the user
+   * @throws IllegalArgumentException if the user is not a member of the household
+   */
+  public void validateHouseholdExport(int householdId, int userId) {
+    if (!membershipIndex.isMember(userId, householdId)) {
+      throw new IllegalArgumentException("User is not a member of the specified household");
+    }
+  }
+
+  /**
+   * Writes the inventory of a household, ordered by item id
+   * @param householdId the id of the household
+   * @param userId the id of the user exporting the inventory
+   * @param format the format to write
+   * @param out the stream to write to, left open
+   * @return the number of rows written
+   * @throws IllegalArgumentException if the user is not a member of the household
+   * @throws IOException if the stream cannot be written
+   */
+  @Transactional(readOnly = true)
+  public long exportHousehold(int householdId, int userId, Format format, OutputStream out) throws IOException {
+    validateHouseholdExport(householdId, userId);
+    try (Stream<ExportRow> rows = itemRepo.streamExportRowsByHousehold(householdId)) {
+      return write(rows, format, out, "household " + householdId);
+    }
+  }
+
+  /**
+   * Writes every item in the system with each of its households, ordered by item and household
+   * @param format the format to write
+   * @param out the stream to write to, left open
+   * @return the number of rows written
+   * @throws IOException if the stream cannot be written
+   */
+  @Transactional(readOnly = true)
+  public long exportAll(Format format, OutputStream out) throws IOException {
+    try (Stream<ExportRow> rows = itemRepo.streamExportRows()) {
+      return write(rows, format, out, "all households");
+    }
+  }
+
+  private long write(Stream<ExportRow> rows, Format format, OutputStream out, String source) throws IOException {
+    long start = System.nanoTime();
+    long count = switch (format) {
+      case NDJSON -> writeNdjson(rows.iterator(), out);
+      case CSV -> writeCsv(rows.iterator(), out);
+    };
+    System.out.println("Exported " + count + " inventory rows of " + source + " in "
+        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    return count;
+  }
+
+  private long writeNdjson(Iterator<ExportRow> rows, OutputStream out) throws IOException {
+    long count = 0;
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Each row ends its own line, so no separator is written between the rows
+      generator.setRootValueSeparator(null);
+      while (rows.hasNext()) {
+        ExportRow row = rows.next();
+        generator.writeStartObject();
+        if (row.getHouseholdId() == null) {
+          generator.writeNullField("householdId");
+        } else {
+          generator.writeNumberField("householdId", row.getHouseholdId());
+        }
+        generator.writeNumberField("id", row.getId());
+        generator.writeStringField("name", row.getName());
+        generator.writeNumberField("amount", row.getAmount());
+        generator.writeNumberField("unitId", row.getUnitId());
+        generator.writeNumberField("categoryId", row.getCategoryId());
+        generator.writePOJOField("expirationDate", row.getExpirationDate());
+        generator.writeNumberField("version", row.getVersion());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        if (++count % FLUSH_INTERVAL == 0) {
+          generator.flush();
+        }
+      }
+    }
+    return count;
+  }
+
+  private long writeCsv(Iterator<ExportRow> rows, OutputStream out) throws IOException {
+    long count = 0;
+    // The writer is flushed but not closed, so the response stream stays open
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    while (rows.hasNext()) {
+      ExportRow row = rows.next();
+      writer.write(row.getHouseholdId() == null ? "" : row.getHouseholdId().toString());
+      writer.write(',');
+      writer.write(String.valueOf(row.getId()));
+      writer.write(',');
+      writer.write(csvField(row.getName()));
+      writer.write(',');
+      writer.write(String.valueOf(row.getAmount()));
+      writer.write(',');
+      writer.write(String.valueOf(row.getUnitId()));
+      writer.write(',');
+      writer.write(String.valueOf(row.getCategoryId()));
+      writer.write(',');
+      writer.write(Instant.ofEpochMilli(row.getExpirationDate().getTime()).toString());
+      writer.write(',');
+      writer.write(String.valueOf(row.getVersion()));
+      writer.write('\n');
+      if (++count % FLUSH_INTERVAL == 0) {
+        writer.flush();
+      }
+    }
+    writer.flush();
+    return count;
+  }
+
+  /**
+   * Quotes a CSV field if it contains a separator, quote or line break
+   */
+  static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
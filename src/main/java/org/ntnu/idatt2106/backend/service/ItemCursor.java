@@ -0,0 +1,115 @@
+package org.ntnu.idatt2106.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Locale;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
+
+/**
+ * Position in a list of items ordered by a sort key and id, ascending.
+ * Pages continue strictly after the cursor, so items added while a client pages never shift the
+ * following pages. Encoded as an opaque URL-safe string for clients, and only valid for the sort
+ * it was created with.
+ *
+ * @param sort the sort of the list
+ * @param key the sort key of the last item on the previous page
+ * @param id the id of the last item on the previous page
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+public record ItemCursor(Sort sort, String key, int id) {
+
+  /**
+   * Orders of an item list, each broken by the item id
+   */
+  public enum Sort {
+    EXPIRATION, NAME, CATEGORY;
+
+    /**
+     * Parses a sort received from a client, ignoring case
+     * @param value the sort
+     * @return the sort
+     * @throws IllegalArgumentException if the sort is unknown
+     */
+    public static Sort parse(String value) {
+      try {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException e) {
+        throw new IllegalArgumentException("Invalid sort, must be expiration, name or category");
+      }
+    }
+  }
+
+  /**
+   * Creates a cursor pointing at the given item
+   * @param sort the sort of the list
+   * @param item the last item on a page
+   * @return the cursor
+   */
+  public static ItemCursor of(Sort sort, ItemRepo.ItemRow item) {
+    String key = switch (sort) {
+      case EXPIRATION -> String.valueOf(item.getExpirationDate().getTime());
+      case NAME -> item.getName();
+      case CATEGORY -> String.valueOf(item.getCategoryId());
+    };
+    return new ItemCursor(sort, key, item.getId());
+  }
+
+  /**
+   * Decodes a cursor received from a client
+   * @param encoded the encoded cursor
+   * @param sort the sort of the requested page
+   * @return the cursor
+   * @throws IllegalArgumentException if the cursor is malformed or belongs to another sort
+   */
+  public static ItemCursor decode(String encoded, Sort sort) {
+    ItemCursor cursor;
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8)
+          .split(":", 3);
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      cursor = new ItemCursor(Sort.valueOf(parts[0]), parts[2], Integer.parseInt(parts[1]));
+      if (cursor.sort() == Sort.EXPIRATION) {
+        cursor.toDate();
+      } else if (cursor.sort() == Sort.CATEGORY) {
+        cursor.toCategoryId();
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+    if (cursor.sort() != sort) {
+      throw new IllegalArgumentException("Cursor belongs to another sort");
+    }
+    return cursor;
+  }
+
+  /**
+   * Encodes the cursor for a client
+   * @return the encoded cursor
+   */
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((sort + ":" + id + ":" + key).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the expiration date of an expiration cursor
+   * @return the date
+   */
+  public Date toDate() {
+    return new Date(Long.parseLong(key));
+  }
+
+  /**
+   * Returns the category id of a category cursor
+   * @return the category id
+   */
+  public int toCategoryId() {
+    return Integer.parseInt(key);
+  }
+}
@@ -1,21 +1,43 @@
 package org.ntnu.idatt2106.backend.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.ntnu.idatt2106.backend.dto.item.CatalogProductResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryChangesResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryTotalResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemAmountResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchOperation;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchResult;
 import org.ntnu.idatt2106.backend.dto.item.ItemCreateRequest;
 import org.ntnu.idatt2106.backend.dto.item.ItemGenericDTO;
+import org.ntnu.idatt2106.backend.dto.item.ItemPageResponse;
 import org.ntnu.idatt2106.backend.model.Category;
 import org.ntnu.idatt2106.backend.model.Household;
+import org.ntnu.idatt2106.backend.model.InventoryChangeType;
 import org.ntnu.idatt2106.backend.model.Item;
 import org.ntnu.idatt2106.backend.model.Unit;
 import org.ntnu.idatt2106.backend.repo.CategoryRepo;
 import org.ntnu.idatt2106.backend.repo.HouseholdRepo;
+import org.ntnu.idatt2106.backend.repo.InventoryChangeRepo;
 import org.ntnu.idatt2106.backend.repo.ItemRepo;
 import org.ntnu.idatt2106.backend.repo.UnitRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for handling item-related operations. This class is responsible for the business
@@ -28,26 +50,43 @@ import org.springframework.stereotype.Service;
 @Service
 public class ItemService {
 
+  public static final int MAX_BATCH_OPERATIONS = 500;
+  public static final int MAX_PAGE_SIZE = 100;
+
   private final ItemRepo itemRepo;
   private final CategoryRepo categoryRepo;
   private final UnitRepo unitRepo;
   private final HouseholdRepo householdRepo;
+  private final HouseholdMembershipIndex membershipIndex;
+  private final InventoryChangeLog changeLog;
+  private final InventoryChangeRepo inventoryChangeRepo;
+  private final ProductCatalog productCatalog;
 
   /**
    * Constructor injection for repositories
    *
-   * @param itemRepo      Repository for items
-   * @param categoryRepo  Repository for categories
-   * @param unitRepo      Repository for units
-   * @param householdRepo Repository for households
+   * @param itemRepo        Repository for items
+   * @param categoryRepo    Repository for categories
+   * @param unitRepo        Repository for units
+   * @param householdRepo   Repository for households
+   * @param membershipIndex Index of the households of each user
+   * @param changeLog       Change log of the inventories
+   * @param inventoryChangeRepo Repository for the changes of the inventories
+   * @param productCatalog  Catalog of products used to prefill new items
    */
   @Autowired
   public ItemService(ItemRepo itemRepo, CategoryRepo categoryRepo, UnitRepo unitRepo,
-      HouseholdRepo householdRepo) {
+      HouseholdRepo householdRepo, HouseholdMembershipIndex membershipIndex,
+      InventoryChangeLog changeLog, InventoryChangeRepo inventoryChangeRepo,
+      ProductCatalog productCatalog) {
     this.itemRepo = itemRepo;
     this.categoryRepo = categoryRepo;
     this.unitRepo = unitRepo;
     this.householdRepo = householdRepo;
+    this.membershipIndex = membershipIndex;
+    this.changeLog = changeLog;
+    this.inventoryChangeRepo = inventoryChangeRepo;
+    this.productCatalog = productCatalog;
   }
 
   /**
@@ -72,32 +111,209 @@ public class ItemService {
         item.getUnit().getId(),
         item.getCategory().getId(),
         item.getExpirationDate(),
-        getIdsByHousehold(item.getHousehold()));
+        getIdsByHousehold(item.getHousehold()),
+        item.getVersion());
   }
 
   /**
-   * Retrieves all items associated with a household
+   * Retrieves all items associated with a household.
+   * The items are read as rows with one query, and their households with a second one.
    *
    * @param id     the ID of the household
    * @param userId the ID of the user requesting the items
+   * @param sort   the order of the items: expiration, name or category
    * @return a list of items associated with a household
-   * @throws IllegalArgumentException if no items are found
+   * @throws IllegalArgumentException if the sort is invalid
    * @throws IllegalArgumentException if the user is not authorized
    */
-  public List<ItemGenericDTO> getItemsByHouseholdId(int id, int userId) {
+  public List<ItemGenericDTO> getItemsByHouseholdId(int id, int userId, String sort) {
+    ItemCursor.Sort order = ItemCursor.Sort.parse(sort);
     isUserInHousehold(userId, id);
 
-    List<Item> items = itemRepo.findByHousehold_Id(id)
-        .orElseThrow(() -> new IllegalArgumentException("No items found for this household"));
+    List<ItemRepo.ItemRow> rows = findItemRows(id, order, null, Pageable.unpaged());
+    if (rows.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return toItemDTOs(rows, itemRepo.findHouseholdsOfItemsInHousehold(id));
+  }
 
-    return items.stream().map(item -> new ItemGenericDTO(
-        item.getId(),
-        item.getName(),
-        item.getAmount(),
-        item.getUnit().getId(),
-        item.getCategory().getId(),
-        item.getExpirationDate(),
-        getIdsByHousehold(item.getHousehold())
+  /**
+   * Retrieves a page of the items associated with a household, using keyset pagination.
+   * A page costs two queries, regardless of the size of the inventory.
+   *
+   * @param id     the ID of the household
+   * @param userId the ID of the user requesting the items
+   * @param sort   the order of the items: expiration, name or category
+   * @param cursor the cursor of the previous page, or null for the first page
+   * @param limit  the maximum number of items on the page
+   * @return the page of items
+   * @throws IllegalArgumentException if the sort, cursor or limit is invalid
+   * @throws IllegalArgumentException if the user is not authorized
+   */
+  public ItemPageResponse getItemPageByHouseholdId(int id, int userId, String sort, String cursor,
+      int limit) {
+    validatePageRequest(sort, cursor, limit);
+    ItemCursor.Sort order = ItemCursor.Sort.parse(sort);
+    isUserInHousehold(userId, id);
+
+    ItemCursor after = cursor == null ? null : ItemCursor.decode(cursor, order);
+    List<ItemRepo.ItemRow> rows = findItemRows(id, order, after, PageRequest.ofSize(limit + 1));
+    String nextCursor = null;
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      nextCursor = ItemCursor.of(order, rows.getLast()).encode();
+    }
+    if (rows.isEmpty()) {
+      return new ItemPageResponse(new ArrayList<>(), null);
+    }
+    List<Integer> itemIds = rows.stream().map(ItemRepo.ItemRow::getId).toList();
+    return new ItemPageResponse(toItemDTOs(rows, itemRepo.findHouseholdsByItemIds(itemIds)), nextCursor);
+  }
+
+  /**
+   * Retrieves the changes to the inventory of a household since a revision.
+   * Items changed several times are returned once, in their current state. A revision of 0
+   * returns the whole inventory, so clients can start syncing from any state.
+   *
+   * @param id     the ID of the household
+   * @param userId the ID of the user requesting the changes
+   * @param since  the revision the client has
+   * @return the current revision, the added or changed items and the IDs of the removed items
+   * @throws IllegalArgumentException if the revision is negative or ahead of the household
+   * @throws IllegalArgumentException if the user is not authorized
+   */
+  @Transactional(readOnly = true)
+  public InventoryChangesResponse getChangesSince(int id, int userId, long since) {
+    if (since < 0) {
+      throw new IllegalArgumentException("Revision cannot be negative");
+    }
+    isUserInHousehold(userId, id);
+
+    // The revision is read first, so changes made during the sync are at worst sent twice
+    long revision = householdRepo.findInventoryRevisionById(id)
+        .orElseThrow(() -> new IllegalArgumentException("Household not found"));
+    if (since > revision) {
+      throw new IllegalArgumentException("Revision is ahead of the household");
+    }
+    if (since == 0) {
+      return new InventoryChangesResponse(revision, getItemsByHouseholdId(id, userId, "expiration"),
+          new ArrayList<>());
+    }
+    if (since == revision) {
+      return new InventoryChangesResponse(revision, new ArrayList<>(), new ArrayList<>());
+    }
+
+    Map<Integer, InventoryChangeType> changes = InventoryChangeLog.lastChangePerItem(
+        inventoryChangeRepo.findChanges(id, since, revision));
+    List<Integer> changedIds = new ArrayList<>();
+    List<Integer> deletedIds = new ArrayList<>();
+    changes.forEach((itemId, type) -> (type == InventoryChangeType.DELETE ? deletedIds : changedIds).add(itemId));
+
+    List<ItemGenericDTO> items = new ArrayList<>();
+    if (!changedIds.isEmpty()) {
+      List<ItemRepo.ItemRow> rows = itemRepo.findRowsByHouseholdAndIdIn(id, changedIds);
+      if (!rows.isEmpty()) {
+        items = toItemDTOs(rows, itemRepo.findHouseholdsByItemIds(
+            rows.stream().map(ItemRepo.ItemRow::getId).toList()));
+      }
+      // Items removed by a change after the revision was read are reported as removed
+      Set<Integer> found = items.stream().map(ItemGenericDTO::getId).collect(Collectors.toSet());
+      changedIds.stream().filter(itemId -> !found.contains(itemId)).forEach(deletedIds::add);
+    }
+    return new InventoryChangesResponse(revision, items, deletedIds);
+  }
+
+  /**
+   * Retrieves the totals of the items of a household per category and unit.
+   * The totals are computed by the database, so no items are loaded.
+   *
+   * @param id     the ID of the household
+   * @param userId the ID of the user requesting the totals
+   * @return the number of items, the total amount and the earliest expiration date of each
+   *         category and unit, ordered by category and unit
+   * @throws IllegalArgumentException if the user is not authorized
+   */
+  public List<InventoryTotalResponse> getTotalsByHouseholdId(int id, int userId) {
+    isUserInHousehold(userId, id);
+
+    return itemRepo.findTotalsByHousehold(id).stream()
+        .map(total -> new InventoryTotalResponse(
+            total.getCategoryId(),
+            total.getUnitId(),
+            total.getItemCount(),
+            total.getTotalAmount(),
+            total.getEarliestExpirationDate()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Checks the parameters of a page of items before a response is committed
+   *
+   * @param sort   the order of the items
+   * @param cursor the cursor of the previous page, or null
+   * @param limit  the maximum number of items on the page
+   * @throws IllegalArgumentException if the sort, cursor or limit is invalid
+   */
+  public void validatePageRequest(String sort, String cursor, int limit) {
+    ItemCursor.Sort order = ItemCursor.Sort.parse(sort);
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if (cursor != null) {
+      ItemCursor.decode(cursor, order);
+    }
+  }
+
+  /**
+   * Finds the rows of the items of a household in the given order
+   *
+   * @param householdId the ID of the household
+   * @param order       the order of the items
+   * @param after       the cursor to continue after, or null for the first page
+   * @param page        the page size
+   * @return the rows of the items
+   */
+  private List<ItemRepo.ItemRow> findItemRows(int householdId, ItemCursor.Sort order,
+      ItemCursor after, Pageable page) {
+    if (after == null) {
+      return switch (order) {
+        case EXPIRATION -> itemRepo.findRowsByHouseholdOrderByExpiration(householdId, page);
+        case NAME -> itemRepo.findRowsByHouseholdOrderByName(householdId, page);
+        case CATEGORY -> itemRepo.findRowsByHouseholdOrderByCategory(householdId, page);
+      };
+    }
+    return switch (order) {
+      case EXPIRATION -> itemRepo.findRowsByHouseholdOrderByExpirationAfter(
+          householdId, after.toDate(), after.id(), page);
+      case NAME -> itemRepo.findRowsByHouseholdOrderByNameAfter(
+          householdId, after.key(), after.id(), page);
+      case CATEGORY -> itemRepo.findRowsByHouseholdOrderByCategoryAfter(
+          householdId, after.toCategoryId(), after.id(), page);
+    };
+  }
+
+  /**
+   * Builds item DTOs from item rows and the households of the items
+   *
+   * @param rows       the rows of the items
+   * @param households the households of the items
+   * @return the item DTOs, in the order of the rows
+   */
+  private static List<ItemGenericDTO> toItemDTOs(List<ItemRepo.ItemRow> rows,
+      List<ItemRepo.ItemHousehold> households) {
+    Map<Integer, List<Integer>> householdIds = households.stream()
+        .collect(Collectors.groupingBy(ItemRepo.ItemHousehold::getItemId,
+            Collectors.mapping(ItemRepo.ItemHousehold::getHouseholdId, Collectors.toList())));
+
+    return rows.stream().map(row -> new ItemGenericDTO(
+        row.getId(),
+        row.getName(),
+        row.getAmount(),
+        row.getUnitId(),
+        row.getCategoryId(),
+        row.getExpirationDate(),
+        householdIds.getOrDefault(row.getId(), new ArrayList<>()),
+        row.getVersion()
     )).collect(Collectors.toList());
   }
 
@@ -119,8 +335,11 @@ public class ItemService {
     List<Item> items = itemRepo.findByCategory_IdAndHousehold_Id(id, houseHoldId)
         .orElseThrow(() -> new IllegalArgumentException("No items found for this category"));
 
+    // All items belong to the household, so members are authorized for every item
+    boolean isMember = membershipIndex.isMember(userId, houseHoldId);
+
     return items.stream()
-        .filter(item -> isUserAuthorizedForItem(userId, item))
+        .filter(item -> isMember || isUserAuthorizedForItem(userId, item))
         .map(item -> new ItemGenericDTO(
             item.getId(),
             item.getName(),
@@ -128,7 +347,8 @@ public class ItemService {
             item.getUnit().getId(),
             item.getCategory().getId(),
             item.getExpirationDate(),
-            getIdsByHousehold(item.getHousehold())
+            getIdsByHousehold(item.getHousehold()),
+            item.getVersion()
         )).collect(Collectors.toList());
   }
 
@@ -136,7 +356,10 @@ public class ItemService {
    * Retrieves all items in the database
    *
    * @return a list of all items
+   * @deprecated loads every item and its households into memory, use
+   *     {@link InventoryExporter#exportAll} to stream all items instead
    */
+  @Deprecated
   public List<ItemGenericDTO> getAllItems() {
     List<Item> items = itemRepo.findAll();
 
@@ -147,43 +370,86 @@ public class ItemService {
         item.getUnit().getId(),
         item.getCategory().getId(),
         item.getExpirationDate(),
-        getIdsByHousehold(item.getHousehold())
+        getIdsByHousehold(item.getHousehold()),
+        item.getVersion()
     )).collect(Collectors.toList());
   }
 
+  /**
+   * Finds the products of the product catalog matching a barcode or the start of a name
+   *
+   * @param query a barcode, or the start of a word in the name of a product
+   * @param limit the maximum number of products
+   * @return the matching products
+   * @throws IllegalArgumentException if the query is blank or the limit is invalid
+   */
+  public List<CatalogProductResponse> lookupProducts(String query, int limit) {
+    List<ProductCatalog.Product> products = query != null && ProductCatalog.isEan(query.trim())
+        ? productCatalog.findByEan(query).stream().toList()
+        : productCatalog.search(query, limit);
+
+    return products.stream()
+        .map(product -> new CatalogProductResponse(
+            product.ean(),
+            product.name(),
+            product.category(),
+            product.unit(),
+            product.kcalPerUnit(),
+            product.shelfLifeDays()))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Adds a new item to the database.
    *
+   * If the name is a barcode or the name of a product in the product catalog, the unit and
+   * category left as 0 and a missing expiration date are taken from the product, and a barcode is
+   * replaced by the name of the product.
+   *
    * @param itemCreateRequest the data of the item to be added
    * @param userId the ID of the user adding the item
    * @return the created item
    * @throws IllegalArgumentException if any referenced entity is not found
    */
+  @Transactional
   public ItemGenericDTO addItem(ItemCreateRequest itemCreateRequest, int userId)
       throws IllegalArgumentException {
     Item item = new Item();
 
-    item.setName(itemCreateRequest.getName());
+    String name = itemCreateRequest.getName();
+    ProductCatalog.Product product = name == null ? null : productCatalog.find(name).orElse(null);
+    if (product != null && ProductCatalog.isEan(name.trim())) {
+      name = product.name();
+    }
+    item.setName(name);
     item.setAmount(itemCreateRequest.getAmount());
 
-    Unit unit = unitRepo.findById(itemCreateRequest.getUnitId())
+    Unit unit = (product != null && itemCreateRequest.getUnitId() == 0
+        ? unitRepo.findByEnglishName(product.unit())
+        : unitRepo.findById(itemCreateRequest.getUnitId()))
         .orElseThrow(() -> new IllegalArgumentException("Unit not found"));
     item.setUnit(unit);
 
-    Category category = categoryRepo.findById(itemCreateRequest.getCategoryId())
+    Category category = (product != null && itemCreateRequest.getCategoryId() == 0
+        ? categoryRepo.findByEnglishName(product.category())
+        : categoryRepo.findById(itemCreateRequest.getCategoryId()))
         .orElseThrow(() -> new IllegalArgumentException("Category not found"));
     item.setCategory(category);
 
-    item.setExpirationDate(itemCreateRequest.getExpirationDate());
+    Date expirationDate = itemCreateRequest.getExpirationDate();
+    if (expirationDate == null && product != null) {
+      expirationDate = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(product.shelfLifeDays()));
+    }
+    item.setExpirationDate(expirationDate);
 
     for (Integer householdId : itemCreateRequest.getHouseholdIds()) {
       isUserInHousehold(userId, householdId);
     }
 
-    List<Household> households = getHouseholdsByIds(itemCreateRequest.getHouseholdIds());
-    item.setHousehold(households);
+    item.getHousehold().addAll(getHouseholdsByIds(itemCreateRequest.getHouseholdIds()));
 
     Item savedItem = itemRepo.save(item);
+    changeLog.record(itemCreateRequest.getHouseholdIds(), savedItem.getId(), InventoryChangeType.UPSERT);
 
     List<Integer> responseHouseholdIds = itemCreateRequest.getHouseholdIds() != null ?
         itemCreateRequest.getHouseholdIds() : new ArrayList<>();
@@ -195,23 +461,33 @@ public class ItemService {
         savedItem.getUnit().getId(),
         savedItem.getCategory().getId(),
         savedItem.getExpirationDate(),
-        responseHouseholdIds);
+        responseHouseholdIds,
+        savedItem.getVersion());
   }
 
   /**
    * Updates an existing item in the database.
    *
+   * If a version is given, the update is rejected when the item was changed since that version.
+   * Concurrent updates of the same version are rejected by the version check of the database.
+   *
    * @param itemData the data of the item to be updated
    * @param userId   the ID of the user updating the item
    * @return the updated item
    * @throws IllegalArgumentException if any referenced entity is not found
+   * @throws ObjectOptimisticLockingFailureException if the item was changed since it was read
    */
+  @Transactional
   public ItemGenericDTO updateItem(ItemGenericDTO itemData, int userId)
       throws IllegalArgumentException {
     Item item = itemRepo.findById(itemData.getId())
         .orElseThrow(() -> new IllegalArgumentException("Item not found"));
 
     validateOperation(userId, itemData.getId());
+    if (itemData.getVersion() != null && itemData.getVersion() != item.getVersion()) {
+      throw new ObjectOptimisticLockingFailureException(Item.class, item.getId());
+    }
+    List<Integer> previousHouseholdIds = item.getHousehold().stream().map(Household::getId).toList();
 
     item.setName(itemData.getName());
     item.setAmount(itemData.getAmount());
@@ -231,11 +507,19 @@ public class ItemService {
         isUserInHousehold(userId, householdId);
       }
 
+      // Changed in place, so only the added and removed households are written to the join table
       List<Household> households = getHouseholdsByIds(itemData.getHouseholdIds());
-      item.setHousehold(households);
+      item.getHousehold().retainAll(households);
+      item.getHousehold().addAll(households);
     }
 
-    Item savedItem = itemRepo.save(item);
+    // Flushed to increment the version returned to the client
+    Item savedItem = itemRepo.saveAndFlush(item);
+
+    List<Integer> householdIds = getIdsByHousehold(savedItem.getHousehold());
+    changeLog.record(householdIds, savedItem.getId(), InventoryChangeType.UPSERT);
+    changeLog.record(previousHouseholdIds.stream().filter(id -> !householdIds.contains(id)).toList(),
+        savedItem.getId(), InventoryChangeType.DELETE);
 
     return new ItemGenericDTO(
         savedItem.getId(),
@@ -244,7 +528,8 @@ public class ItemService {
         savedItem.getUnit().getId(),
         savedItem.getCategory().getId(),
         savedItem.getExpirationDate(),
-        getIdsByHousehold(savedItem.getHousehold())
+        householdIds,
+        savedItem.getVersion()
     );
   }
 
@@ -255,18 +540,230 @@ public class ItemService {
    * @param userId the ID of the user deleting the item
    * @throws IllegalArgumentException if the item is not found, or if the user is not authorized
    */
+  @Transactional
   public void deleteItem(int id, int userId) throws IllegalArgumentException {
     Item item = itemRepo.findById(id)
         .orElseThrow(() -> new IllegalArgumentException("Item not found"));
 
     validateOperation(userId, id);
+    changeLog.record(item.getHousehold().stream().map(Household::getId).toList(), id,
+        InventoryChangeType.DELETE);
 
-    item.getHousehold().clear();
-    itemRepo.save(item);
-
+    // Removes the rows of the item from the join table with one statement before the item
     itemRepo.delete(item);
   }
 
+  /**
+   * Adds to the amount of an item with one conditional update, so concurrent changes of the
+   * amount are never lost. The update is only made if the user is a member of one of the
+   * households of the item and the amount does not become negative.
+   *
+   * @param id     the ID of the item
+   * @param delta  the amount to add, negative to subtract
+   * @param userId the ID of the user changing the amount
+   * @return the new amount and version of the item
+   * @throws IllegalArgumentException if the change is zero, the item is not found, the user is
+   *                                  not authorized, or the amount would become negative
+   */
+  @Transactional
+  public ItemAmountResponse changeAmount(int id, double delta, int userId) {
+    if (delta == 0 || !Double.isFinite(delta)) {
+      throw new IllegalArgumentException("Amount change must be a non-zero number");
+    }
+    if (itemRepo.addToAmount(id, userId, delta) == 0) {
+      // Only failed updates load the item, to tell why
+      validateOperation(userId, id);
+      throw new IllegalArgumentException("Amount cannot be negative");
+    }
+
+    ItemRepo.ItemAmount amount = itemRepo.findAmountById(id)
+        .orElseThrow(() -> new IllegalArgumentException("Item not found"));
+    changeLog.record(itemRepo.findHouseholdsByItemIds(List.of(id)).stream()
+        .map(ItemRepo.ItemHousehold::getHouseholdId).toList(), id, InventoryChangeType.UPSERT);
+    return new ItemAmountResponse(amount.getId(), amount.getAmount(), amount.getVersion());
+  }
+
+  /**
+   * Applies a batch of inventory changes to a household in one transaction.
+   * The membership of the user is checked once and the units, categories and items of all
+   * operations are loaded with one query each. The batch is only applied if every operation is
+   * valid, otherwise nothing is changed and the results tell which operations are invalid.
+   * Like {@link #updateItem}, an update with a version is invalid if the item was changed since.
+   *
+   * @param request the household and the operations, applied in order
+   * @param userId  the ID of the user changing the inventory
+   * @return whether the batch was applied, and the result of each operation
+   * @throws IllegalArgumentException if the batch is empty or too large, or the user is not
+   *                                  authorized for the household
+   */
+  @Transactional
+  public ItemBatchResponse applyBatch(ItemBatchRequest request, int userId) {
+    List<ItemBatchOperation> operations = request.getOperations();
+    if (operations == null || operations.isEmpty()) {
+      throw new IllegalArgumentException("No operations given");
+    }
+    if (operations.size() > MAX_BATCH_OPERATIONS) {
+      throw new IllegalArgumentException(
+          "A batch can contain at most " + MAX_BATCH_OPERATIONS + " operations");
+    }
+    isUserInHousehold(userId, request.getHouseholdId());
+
+    Set<Integer> unitIds = new HashSet<>();
+    Set<Integer> categoryIds = new HashSet<>();
+    Set<Integer> itemIds = new HashSet<>();
+    for (ItemBatchOperation operation : operations) {
+      if (operation.getType() == ItemBatchOperation.Type.CREATE
+          || operation.getType() == ItemBatchOperation.Type.UPDATE) {
+        unitIds.add(operation.getUnitId());
+        categoryIds.add(operation.getCategoryId());
+      }
+      if (operation.getType() != ItemBatchOperation.Type.CREATE && operation.getItemId() != null) {
+        itemIds.add(operation.getItemId());
+      }
+    }
+    Map<Integer, Unit> units = unitRepo.findAllById(unitIds).stream()
+        .collect(Collectors.toMap(Unit::getId, Function.identity()));
+    Map<Integer, Category> categories = categoryRepo.findAllById(categoryIds).stream()
+        .collect(Collectors.toMap(Category::getId, Function.identity()));
+    Map<Integer, Item> items = itemIds.isEmpty() ? Map.of()
+        : itemRepo.findAllByIdInAndHousehold_Id(itemIds, request.getHouseholdId()).stream()
+            .collect(Collectors.toMap(Item::getId, Function.identity(), (first, second) -> first));
+
+    List<ItemBatchResult> results = new ArrayList<>(operations.size());
+    Set<Integer> deletedIds = new HashSet<>();
+    boolean valid = true;
+    for (int i = 0; i < operations.size(); i++) {
+      ItemBatchOperation operation = operations.get(i);
+      String error = validateBatchOperation(operation, units, categories, items, deletedIds);
+      Integer itemId = operation.getType() == ItemBatchOperation.Type.CREATE ? null : operation.getItemId();
+      results.add(new ItemBatchResult(i, operation.getType(), itemId, error == null, error));
+      valid &= error == null;
+    }
+    if (!valid) {
+      return new ItemBatchResponse(false, results);
+    }
+
+    // Updated and deleted items can be shared with other households, whose inventories change too
+    Map<Integer, Map<Integer, InventoryChangeType>> changes = new LinkedHashMap<>();
+    Map<Integer, List<Integer>> otherHouseholds = items.isEmpty() ? Map.of()
+        : itemRepo.findHouseholdsByItemIds(items.keySet()).stream()
+            .filter(row -> row.getHouseholdId() != request.getHouseholdId())
+            .collect(Collectors.groupingBy(ItemRepo.ItemHousehold::getItemId,
+                Collectors.mapping(ItemRepo.ItemHousehold::getHouseholdId, Collectors.toList())));
+
+    Household household = householdRepo.getReferenceById(request.getHouseholdId());
+    List<Item> created = new ArrayList<>();
+    List<ItemBatchResult> createdResults = new ArrayList<>();
+    List<Item> deleted = new ArrayList<>();
+    for (int i = 0; i < operations.size(); i++) {
+      ItemBatchOperation operation = operations.get(i);
+      switch (operation.getType()) {
+        case CREATE -> {
+          Item item = new Item(operation.getName(), operation.getAmount(),
+              units.get(operation.getUnitId()), operation.getExpirationDate(),
+              categories.get(operation.getCategoryId()));
+          item.getHousehold().add(household);
+          created.add(item);
+          createdResults.add(results.get(i));
+        }
+        // Managed items are written on commit
+        case UPDATE -> {
+          Item item = items.get(operation.getItemId());
+          item.setName(operation.getName());
+          item.setAmount(operation.getAmount());
+          item.setUnit(units.get(operation.getUnitId()));
+          item.setCategory(categories.get(operation.getCategoryId()));
+          item.setExpirationDate(operation.getExpirationDate());
+        }
+        case DELETE -> deleted.add(items.get(operation.getItemId()));
+      }
+      if (operation.getType() != ItemBatchOperation.Type.CREATE) {
+        InventoryChangeType type = operation.getType() == ItemBatchOperation.Type.DELETE
+            ? InventoryChangeType.DELETE : InventoryChangeType.UPSERT;
+        recordBatchChange(changes, request.getHouseholdId(), operation.getItemId(), type);
+        for (int otherId : otherHouseholds.getOrDefault(operation.getItemId(), List.of())) {
+          recordBatchChange(changes, otherId, operation.getItemId(), type);
+        }
+      }
+    }
+    List<Item> saved = itemRepo.saveAll(created);
+    for (int i = 0; i < saved.size(); i++) {
+      createdResults.get(i).setItemId(saved.get(i).getId());
+      recordBatchChange(changes, request.getHouseholdId(), saved.get(i).getId(), InventoryChangeType.UPSERT);
+    }
+    // One statement for the join table rows and one for the items, however many are deleted
+    if (!deleted.isEmpty()) {
+      itemRepo.deleteAllByIdInBatch(deleted.stream().map(Item::getId).toList());
+    }
+    changes.forEach(changeLog::record);
+    return new ItemBatchResponse(true, results);
+  }
+
+  /**
+   * Adds a change to the changes of a batch, replacing an earlier change of the same item
+   *
+   * @param changes     the changes of each household
+   * @param householdId the ID of the household
+   * @param itemId      the ID of the item
+   * @param type        the type of the change
+   */
+  private static void recordBatchChange(Map<Integer, Map<Integer, InventoryChangeType>> changes,
+      int householdId, int itemId, InventoryChangeType type) {
+    Map<Integer, InventoryChangeType> householdChanges =
+        changes.computeIfAbsent(householdId, id -> new LinkedHashMap<>());
+    householdChanges.remove(itemId);
+    householdChanges.put(itemId, type);
+  }
+
+  /**
+   * Validates one operation of a batch against the loaded reference data
+   *
+   * @param operation  the operation to validate
+   * @param units      the units of the batch by ID
+   * @param categories the categories of the batch by ID
+   * @param items      the items of the batch in the household by ID
+   * @param deletedIds the IDs of the items deleted by earlier operations, updated by deletes
+   * @return why the operation is invalid, or null if it is valid
+   */
+  private String validateBatchOperation(ItemBatchOperation operation, Map<Integer, Unit> units,
+      Map<Integer, Category> categories, Map<Integer, Item> items, Set<Integer> deletedIds) {
+    if (operation.getType() == null) {
+      return "Operation type is required";
+    }
+    if (operation.getType() != ItemBatchOperation.Type.CREATE) {
+      if (operation.getItemId() == null) {
+        return "Item id is required";
+      }
+      if (!items.containsKey(operation.getItemId())) {
+        return "Item not found";
+      }
+      if (deletedIds.contains(operation.getItemId())) {
+        return "Item is deleted by an earlier operation";
+      }
+      if (operation.getType() == ItemBatchOperation.Type.UPDATE && operation.getVersion() != null
+          && operation.getVersion() != items.get(operation.getItemId()).getVersion()) {
+        return "Item was changed since it was read";
+      }
+    }
+    if (operation.getType() == ItemBatchOperation.Type.DELETE) {
+      deletedIds.add(operation.getItemId());
+      return null;
+    }
+    if (operation.getName() == null || operation.getName().isBlank()) {
+      return "Name is required";
+    }
+    if (operation.getExpirationDate() == null) {
+      return "Expiration date is required";
+    }
+    if (!units.containsKey(operation.getUnitId())) {
+      return "Unit not found";
+    }
+    if (!categories.containsKey(operation.getCategoryId())) {
+      return "Category not found";
+    }
+    return null;
+  }
+
   /**
    * Get householdIds from households
    *
@@ -274,7 +771,7 @@ public class ItemService {
    * @return a list of household IDs
    * @throws IllegalArgumentException if any household is not found
    */
-  private List<Integer> getIdsByHousehold(List<Household> households) {
+  private List<Integer> getIdsByHousehold(Collection<Household> households) {
     if (households == null || households.isEmpty()) {
       throw new IllegalArgumentException("No households found");
     }
@@ -327,21 +824,14 @@ public class ItemService {
    * @return true if the user is authorized, false otherwise
    */
   private boolean isUserAuthorizedForItem(int userId, Item item) {
-    List<Household> itemHouseholds = item.getHousehold();
+    Set<Household> itemHouseholds = item.getHousehold();
 
     if (itemHouseholds == null || itemHouseholds.isEmpty()) {
       return false;
     }
 
     return itemHouseholds.stream()
-        .anyMatch(household -> {
-          try {
-            isUserInHousehold(userId, household.getId());
-            return true;
-          } catch (IllegalArgumentException e) {
-            return false;
-          }
-        });
+        .anyMatch(household -> membershipIndex.isMember(userId, household.getId()));
   }
 
   /**
@@ -349,17 +839,10 @@ public class ItemService {
    *
    * @param userId      the ID of the user
    * @param householdId the ID of the household
-   * @throws IllegalArgumentException if the user is not in the household
-   * @throws NoSuchElementException   if the household is not found
+   * @throws IllegalArgumentException if the user is not in the household, or the household is not found
    */
   private void isUserInHousehold(int userId, int householdId) {
-    Household household = householdRepo.findById(householdId)
-        .orElseThrow(() -> new NoSuchElementException("Household not found"));
-
-    boolean isInHousehold = household.getMembers().stream()
-        .anyMatch(member -> member.getUser().getId() == userId);
-
-    if (!isInHousehold) {
+    if (!membershipIndex.isMember(userId, householdId)) {
       throw new IllegalArgumentException("User is not a member of the specified household");
     }
   }
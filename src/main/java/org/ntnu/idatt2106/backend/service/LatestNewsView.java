@@ -0,0 +1,161 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory view of the most recent news of each case, ordered by date with the newest first.
+ * The view is updated incrementally when news is ingested, added or deleted, so reading the
+ * first k cases is O(k) instead of grouping and sorting the whole news table.
+ * Reads are lock-free, writes are serialized.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Component
+public class LatestNewsView {
+
+  /**
+   * Position of a case in the view
+   * @param date the date of the latest news of the case, in millis
+   * @param id the id of the latest news of the case
+   * @param caseId the case id
+   */
+  private record Key(long date, int id, String caseId) {
+  }
+
+  private static final Comparator<Key> NEWEST_FIRST = Comparator
+      .comparingLong(Key::date).reversed()
+      .thenComparing(Comparator.comparingInt(Key::id).reversed())
+      .thenComparing(Key::caseId);
+
+  private final ConcurrentSkipListMap<Key, NewsGetResponse> byDate = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+  private final Map<String, Key> keyByCase = new ConcurrentHashMap<>();
+
+  /**
+   * Replaces the content of the view with the latest news of each case in the given news
+   * @param news all news to build the view from
+   */
+  public synchronized void rebuild(Collection<News> news) {
+    byDate.clear();
+    keyByCase.clear();
+    news.forEach(this::accept);
+  }
+
+  /**
+   * Updates the view with a stored news, if it is the latest news of its case
+   * @param news the stored news
+   */
+  public synchronized void accept(News news) {
+    Key key = new Key(news.getDate().getTime(), news.getId(), news.getCaseId());
+    Key current = keyByCase.get(key.caseId());
+    if (current != null && NEWEST_FIRST.compare(current, key) <= 0) {
+      return;
+    }
+    // Insert before removing, so readers never miss the case
+    byDate.put(key, toResponse(news));
+    if (current != null) {
+      byDate.remove(current);
+    }
+    keyByCase.put(key.caseId(), key);
+  }
+
+  /**
+   * Removes a case from the view
+   * @param caseId the case id
+   */
+  public synchronized void removeCase(String caseId) {
+    Key current = keyByCase.remove(caseId);
+    if (current != null) {
+      byDate.remove(current);
+    }
+  }
+
+  /**
+   * Removes all cases whose latest news is older than the cutoff.
+   * All news of such a case is older than the cutoff, so the whole case is expired.
+   * @param cutoff the date before which news is expired
+   */
+  public synchronized void evictOlderThan(Date cutoff) {
+    Iterator<Key> oldestFirst = byDate.descendingKeySet().iterator();
+    while (oldestFirst.hasNext()) {
+      Key key = oldestFirst.next();
+      if (key.date() >= cutoff.getTime()) {
+        break;
+      }
+      oldestFirst.remove();
+      keyByCase.remove(key.caseId(), key);
+    }
+  }
+
+  /**
+   * Returns the latest news of the most recently updated cases
+   * @param limit the maximum number of cases to return
+   * @return the latest news of each case, newest first
+   */
+  public List<NewsGetResponse> getLatest(int limit) {
+    return byDate.values().stream().limit(limit).toList();
+  }
+
+  /**
+   * Returns a page of the latest news of each case, continuing after the cursor
+   * @param after the cursor of the previous page, or null for the first page
+   * @param limit the maximum number of cases on the page
+   * @return the page, newest first
+   */
+  public NewsPageResponse getPage(NewsCursor after, int limit) {
+    Map<Key, NewsGetResponse> remaining = after == null
+        ? byDate
+        : byDate.tailMap(new Key(after.date(), after.id(), ""), true);
+    List<Map.Entry<Key, NewsGetResponse>> entries = remaining.entrySet().stream()
+        .filter(entry -> after == null
+            || entry.getKey().date() != after.date() || entry.getKey().id() != after.id())
+        .limit(limit + 1L)
+        .toList();
+
+    String nextCursor = null;
+    if (entries.size() > limit) {
+      entries = entries.subList(0, limit);
+      Key last = entries.getLast().getKey();
+      nextCursor = new NewsCursor(last.date(), last.id()).encode();
+    }
+    return new NewsPageResponse(entries.stream().map(Map.Entry::getValue).toList(), nextCursor);
+  }
+
+  /**
+   * Returns the number of cases in the view
+   * @return the number of cases
+   */
+  public int size() {
+    return keyByCase.size();
+  }
+
+  /**
+   * Converts a news to its response DTO
+   * @param news the news
+   * @return the response
+   */
+  static NewsGetResponse toResponse(News news) {
+    return new NewsGetResponse(
+        news.getId(),
+        news.getCaseId(),
+        news.getTitle(),
+        news.getContent(),
+        news.getLatitude(),
+        news.getLongitude(),
+        news.getDistrict(),
+        news.getDate().toString());
+  }
+}
@@ -0,0 +1,111 @@
+package org.ntnu.idatt2106.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream that reads a file through a memory-mapped {@link FileChannel}.
+ * The file is mapped in windows of a fixed size, so large files can be read
+ * without copying them onto the heap and without hitting the 2 GB mapping limit.
+ *
+ * @author Erlend Eide Zindel
+ * @since 1.0
+ */
+public class MappedFileInputStream extends InputStream {
+  private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long size;
+  private final long windowSize;
+  private long windowStart;
+  private MappedByteBuffer window;
+
+  /**
+   * Opens the file at the given path for reading.
+   *
+   * @param path The path of the file to read.
+   * @throws IOException If the file cannot be opened or mapped.
+   */
+  public MappedFileInputStream(Path path) throws IOException {
+    this(path, WINDOW_SIZE);
+  }
+
+  /**
+   * Opens the file at the given path for reading with a custom window size.
+   *
+   * @param path The path of the file to read.
+   * @param windowSize The number of bytes mapped at a time.
+   * @throws IOException If the file cannot be opened or mapped.
+   */
+  MappedFileInputStream(Path path, long windowSize) throws IOException {
+    if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Window size must be between 1 and " + Integer.MAX_VALUE);
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.windowSize = windowSize;
+    this.windowStart = 0;
+    mapWindow();
+  }
+
+  /**
+   * Maps the window starting at {@code windowStart}.
+   */
+  private void mapWindow() throws IOException {
+    long length = Math.min(windowSize, size - windowStart);
+    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+  }
+
+  /**
+   * Moves to the next window if the current one is exhausted.
+   *
+   * @return true if there are bytes left to read, false at the end of the file.
+   */
+  private boolean ensureRemaining() throws IOException {
+    if (window.hasRemaining()) {
+      return true;
+    }
+    long nextStart = windowStart + window.capacity();
+    if (nextStart >= size) {
+      return false;
+    }
+    windowStart = nextStart;
+    mapWindow();
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureRemaining()) {
+      return -1;
+    }
+    return window.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!ensureRemaining()) {
+      return -1;
+    }
+    int count = Math.min(length, window.remaining());
+    window.get(buffer, offset, count);
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return window.remaining();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
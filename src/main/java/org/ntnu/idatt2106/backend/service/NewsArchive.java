@@ -0,0 +1,306 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only archive of expired news on local disk.
+ * News is stored as NDJSON in one segment file per day of publication, {@code news-<day>.ndjson.gz}.
+ * Every archived batch is appended to its segment as a separate gzip member, so earlier members
+ * are never rewritten and a segment decompresses as one stream of lines.
+ *
+ * <p>A small index file lists the number of news and the size of every segment. It is rewritten
+ * atomically after each append, and readers never read past the indexed size, so a segment being
+ * appended to is read consistently. A missing index is rebuilt from the segments.</p>
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class NewsArchive {
+  public static final ZoneId ZONE = ZoneId.of("Europe/Oslo");
+  static final String INDEX_FILE = "index.tsv";
+  private static final String SEGMENT_PREFIX = "news-";
+  private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+
+  /**
+   * A news as stored in the archive
+   */
+  record ArchivedNews(int id, String caseId, String title, String content,
+                      double latitude, double longitude, String district, String date) {
+  }
+
+  /**
+   * An archive segment
+   * @param day the day of publication of the news in the segment
+   * @param count the number of news in the segment
+   * @param size the size of the segment file in bytes
+   */
+  public record Segment(LocalDate day, long count, long size) {
+  }
+
+  private final Path directory;
+  private final ObjectMapper objectMapper;
+  private final TreeMap<LocalDate, Segment> index = new TreeMap<>();
+
+  /**
+   * Constructor for the NewsArchive, loading the index of the archive directory
+   * @param directory the directory of the archive
+   * @param objectMapper the object mapper used to write news as JSON
+   * @throws IOException if the archive directory cannot be read
+   */
+  @Autowired
+  public NewsArchive(@Value("${news.archive.path:data/news-archive}") String directory,
+                     ObjectMapper objectMapper) throws IOException {
+    this.directory = Path.of(directory);
+    this.objectMapper = objectMapper;
+    loadIndex();
+  }
+
+  /**
+   * Appends news to the segments of their days of publication
+   * @param news the news to archive
+   * @throws IOException if the news cannot be written; segments already appended to stay valid
+   */
+  public synchronized void append(Collection<News> news) throws IOException {
+    Map<LocalDate, List<News>> byDay = news.stream()
+        .collect(Collectors.groupingBy(NewsArchive::dayOf, TreeMap::new, Collectors.toList()));
+    if (byDay.isEmpty()) {
+      return;
+    }
+    Files.createDirectories(directory);
+    for (Map.Entry<LocalDate, List<News>> day : byDay.entrySet()) {
+      Path segment = segmentPath(day.getKey());
+      Segment previous = index.get(day.getKey());
+      long previousSize = previous == null ? 0 : previous.size();
+      // Drop anything an interrupted append left past the indexed size
+      truncate(segment, previousSize);
+      try (OutputStream file = Files.newOutputStream(segment, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+           GZIPOutputStream gzip = new GZIPOutputStream(file, 64 * 1024);
+           SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(gzip)) {
+        for (News item : day.getValue()) {
+          writer.write(toArchived(item));
+        }
+        writer.flush();
+        gzip.write('\n');
+      } catch (IOException | RuntimeException e) {
+        truncate(segment, previousSize);
+        throw e;
+      }
+      long count = (previous == null ? 0 : previous.count()) + day.getValue().size();
+      index.put(day.getKey(), new Segment(day.getKey(), count, Files.size(segment)));
+    }
+    writeIndex();
+  }
+
+  /**
+   * Returns the segments of the archive, oldest first
+   * @return the segments
+   */
+  public synchronized List<Segment> getSegments() {
+    return List.copyOf(index.values());
+  }
+
+  /**
+   * Writes the archived news published between two days as NDJSON, oldest day first
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @param out the stream to write to, left open
+   * @return the number of segments written
+   * @throws IOException if a segment cannot be read or the stream cannot be written
+   */
+  public int stream(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+    List<Segment> segments;
+    synchronized (this) {
+      segments = List.copyOf(index.subMap(from, true, to, true).values());
+    }
+    for (Segment segment : segments) {
+      try (InputStream in = new GZIPInputStream(
+          new LimitedInputStream(Files.newInputStream(segmentPath(segment.day())), segment.size()), 64 * 1024)) {
+        in.transferTo(out);
+      }
+    }
+    out.flush();
+    return segments.size();
+  }
+
+  /**
+   * Cuts a partially written gzip member off a segment
+   */
+  private static void truncate(Path segment, long size) throws IOException {
+    if (!Files.exists(segment)) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(size);
+    }
+  }
+
+  private static LocalDate dayOf(News news) {
+    return news.getDate().toInstant().atZone(ZONE).toLocalDate();
+  }
+
+  private static ArchivedNews toArchived(News news) {
+    return new ArchivedNews(news.getId(), news.getCaseId(), news.getTitle(), news.getContent(),
+        news.getLatitude(), news.getLongitude(), news.getDistrict(), news.getDate().toInstant().toString());
+  }
+
+  private Path segmentPath(LocalDate day) {
+    return directory.resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX);
+  }
+
+  /**
+   * Loads the index, or rebuilds it from the segments if it is missing or unreadable
+   */
+  private void loadIndex() throws IOException {
+    Path indexPath = directory.resolve(INDEX_FILE);
+    if (Files.exists(indexPath)) {
+      try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isBlank()) {
+            continue;
+          }
+          String[] fields = line.split("\t");
+          LocalDate day = LocalDate.parse(fields[0]);
+          index.put(day, new Segment(day, Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+        }
+        return;
+      } catch (RuntimeException e) {
+        System.err.println("Rebuilding unreadable news archive index " + indexPath + ": " + e.getMessage());
+        index.clear();
+      }
+    }
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    rebuildIndex();
+  }
+
+  private void rebuildIndex() throws IOException {
+    List<Path> segments;
+    try (Stream<Path> files = Files.list(directory)) {
+      segments = files.filter(file -> {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+      }).toList();
+    }
+    for (Path segment : segments) {
+      String name = segment.getFileName().toString();
+      LocalDate day = LocalDate.parse(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+      long count = 0;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+          new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (!line.isEmpty()) {
+            count++;
+          }
+        }
+      }
+      index.put(day, new Segment(day, count, Files.size(segment)));
+    }
+    if (!index.isEmpty()) {
+      writeIndex();
+    }
+  }
+
+  /**
+   * Writes the index next to its target and moves it into place
+   */
+  private void writeIndex() throws IOException {
+    Path indexPath = directory.resolve(INDEX_FILE);
+    Path tempFile = Files.createTempFile(directory, "index", ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        List<String> lines = new ArrayList<>(index.size());
+        for (Segment segment : index.values()) {
+          lines.add(segment.day() + "\t" + segment.count() + "\t" + segment.size());
+        }
+        writer.write(String.join("\n", lines));
+        writer.write('\n');
+      }
+      Files.move(tempFile, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Input stream that ends after a number of bytes, so a segment is only read up to its indexed size
+   */
+  private static final class LimitedInputStream extends FilterInputStream {
+    private long remaining;
+
+    LimitedInputStream(InputStream in, long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int value = super.read();
+      if (value != -1) {
+        remaining--;
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+      if (read != -1) {
+        remaining -= read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(Math.min(n, remaining));
+      remaining -= skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(super.available(), remaining);
+    }
+  }
+}
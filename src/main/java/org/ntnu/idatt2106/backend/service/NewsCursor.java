@@ -0,0 +1,66 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in a list of news ordered by date and id, newest first.
+ * Pages continue strictly after the cursor, so rows inserted while a client pages
+ * never shift the following pages. Encoded as an opaque URL-safe string for clients.
+ *
+ * @param date the date of the last news on the previous page, in millis
+ * @param id the id of the last news on the previous page
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+public record NewsCursor(long date, int id) {
+
+  /**
+   * Creates a cursor pointing at the given news
+   * @param news the last news on a page
+   * @return the cursor
+   */
+  public static NewsCursor of(News news) {
+    return new NewsCursor(news.getDate().getTime(), news.getId());
+  }
+
+  /**
+   * Decodes a cursor received from a client
+   * @param encoded the encoded cursor
+   * @return the cursor
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static NewsCursor decode(String encoded) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split(":");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new NewsCursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+
+  /**
+   * Encodes the cursor for a client
+   * @return the encoded cursor
+   */
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((date + ":" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the date of the cursor
+   * @return the date
+   */
+  public Date toDate() {
+    return new Date(date);
+  }
+}
@@ -0,0 +1,210 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Fetches the raw Politiloggen RSS feed over HTTP.
+ * Requests are conditional on the ETag and Last-Modified headers of the last ingested response,
+ * so an unchanged feed only costs a 304 response. The headers of a new response are kept pending
+ * until {@link #commitValidators()} is called once its entries are ingested, so a feed that fails
+ * to be ingested is fetched in full again instead of being answered with a 304. Failed requests are retried with exponential
+ * backoff on a delayed executor, so no thread is blocked while waiting for the next attempt.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class NewsFeedFetcher {
+  private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+  private final HttpClient httpClient;
+  private final URI feedUri;
+  private final Duration readTimeout;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+
+  private volatile Validators validators = new Validators(null, null);
+  private volatile Validators pendingValidators;
+
+  /**
+   * The ETag and Last-Modified headers of a response, either may be null
+   */
+  private record Validators(String entityTag, String lastModified) {
+  }
+
+  /**
+   * Constructor for the NewsFeedFetcher
+   * @param feedUrl the URL of the RSS feed
+   * @param connectTimeoutMillis the maximum time to wait for a connection, in milliseconds
+   * @param readTimeoutMillis the maximum time to wait for a response, in milliseconds
+   * @param maxAttempts the maximum number of attempts per fetch
+   * @param initialBackoffMillis the delay before the first retry, doubled for every further retry
+   */
+  @Autowired
+  public NewsFeedFetcher(
+      @Value("${news.feed.url:https://api.politiet.no/politiloggen/v1/rss}") String feedUrl,
+      @Value("${news.feed.connect-timeout-ms:5000}") long connectTimeoutMillis,
+      @Value("${news.feed.read-timeout-ms:10000}") long readTimeoutMillis,
+      @Value("${news.feed.max-attempts:5}") int maxAttempts,
+      @Value("${news.feed.initial-backoff-ms:1000}") long initialBackoffMillis) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("Max attempts must be at least 1");
+    }
+    this.httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+    this.feedUri = URI.create(feedUrl);
+    this.readTimeout = Duration.ofMillis(readTimeoutMillis);
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+  }
+
+  /**
+   * Fetches the feed if it changed since the last successful fetch
+   * @return a future with the body of the feed, or an empty optional if the feed is not modified.
+   *         The future fails with an IOException if the feed cannot be fetched.
+   */
+  public CompletableFuture<Optional<byte[]>> fetch() {
+    return attempt(1);
+  }
+
+  /**
+   * Sends a single request and schedules a retry if it fails
+   * @param attempt the number of the attempt, starting at 1
+   * @return a future with the result of this or a later attempt
+   */
+  private CompletableFuture<Optional<byte[]>> attempt(int attempt) {
+    return httpClient.sendAsync(buildRequest(), HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(this::handleResponse)
+        .handle((body, error) -> error == null
+            ? CompletableFuture.completedFuture(body)
+            : retryOrFail(unwrap(error), attempt))
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * Builds a conditional GET request for the feed
+   * @return the request
+   */
+  private HttpRequest buildRequest() {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(feedUri)
+        .timeout(readTimeout)
+        .GET();
+    Validators current = validators;
+    if (current.entityTag() != null) {
+      builder.header("If-None-Match", current.entityTag());
+    }
+    if (current.lastModified() != null) {
+      builder.header("If-Modified-Since", current.lastModified());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Handles the response to a feed request
+   * @param response the response
+   * @return the body of the feed, or an empty optional if the feed is not modified
+   * @throws CompletionException wrapping a FeedStatusException if the status is not 200 or 304
+   */
+  private Optional<byte[]> handleResponse(HttpResponse<byte[]> response) {
+    int status = response.statusCode();
+    if (status == 304) {
+      return Optional.empty();
+    }
+    if (status != 200) {
+      throw new CompletionException(new FeedStatusException(status));
+    }
+    pendingValidators = new Validators(response.headers().firstValue("ETag").orElse(null),
+        response.headers().firstValue("Last-Modified").orElse(null));
+    return Optional.of(response.body());
+  }
+
+  /**
+   * Makes the following requests conditional on the last fetched feed.
+   * Called once the entries of the feed are ingested, does nothing if no new feed was fetched.
+   */
+  public void commitValidators() {
+    Validators pending = pendingValidators;
+    if (pending != null) {
+      validators = pending;
+      pendingValidators = null;
+    }
+  }
+
+  /**
+   * Schedules the next attempt after a backoff delay, or fails if the error is not retryable
+   * @param error the error of the failed attempt
+   * @param attempt the number of the failed attempt
+   * @return a future with the result of the next attempt, or a failed future
+   */
+  private CompletableFuture<Optional<byte[]>> retryOrFail(Throwable error, int attempt) {
+    if (attempt >= maxAttempts || !isRetryable(error)) {
+      return CompletableFuture.failedFuture(
+          new IOException("Failed to load feed after " + attempt + " attempts", error));
+    }
+    Executor delayed = CompletableFuture.delayedExecutor(getBackoffMillis(attempt), TimeUnit.MILLISECONDS);
+    return CompletableFuture.supplyAsync(() -> attempt(attempt + 1), delayed)
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * Returns the delay before the attempt following the given attempt
+   * @param attempt the number of the failed attempt, starting at 1
+   * @return the delay in milliseconds
+   */
+  long getBackoffMillis(int attempt) {
+    long delay = initialBackoffMillis << Math.min(attempt - 1, 20);
+    return Math.min(delay, MAX_BACKOFF_MILLIS);
+  }
+
+  /**
+   * Checks if a failed attempt should be retried.
+   * Network errors, timeouts, rate limiting and server errors are retried, other statuses are not.
+   */
+  private static boolean isRetryable(Throwable error) {
+    if (error instanceof FeedStatusException statusException) {
+      return statusException.getStatus() == 429 || statusException.getStatus() >= 500;
+    }
+    return error instanceof IOException;
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    while (error instanceof CompletionException && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+
+  /**
+   * Exception for feed responses with an unexpected status code
+   */
+  static class FeedStatusException extends IOException {
+    private final int status;
+
+    FeedStatusException(int status) {
+      super("Unexpected response status " + status);
+      this.status = status;
+    }
+
+    int getStatus() {
+      return status;
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline that ingests news from all {@link NewsSource}s.
+ * Every cycle fetches, parses and normalizes the sources concurrently, each on its own virtual
+ * thread. The normalized news is handed in batches through a bounded queue to a single consumer,
+ * which deduplicates, persists and publishes it, so database writes are never concurrent and a
+ * slow database holds back the sources instead of filling the heap.
+ *
+ * <p>A source that fails is skipped for a backoff period that doubles with every consecutive
+ * failure, so a feed that is down does not slow down every cycle.</p>
+ *
+ * <p>The date of the newest news of a source is remembered once all its batches are persisted,
+ * and passed to the source on the next cycle, so it can stop parsing at the news already ingested.
+ * The source is then also told that its feed is ingested, see {@link NewsSource#onIngested()}.</p>
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class NewsIngestionPipeline {
+  static final int BATCH_SIZE = 100;
+
+  private final List<NewsSource> sources;
+  private final int queueCapacity;
+  private final long cycleTimeoutMillis;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final Map<String, SourceState> states = new ConcurrentHashMap<>();
+  private final Map<String, Date> watermarks = new ConcurrentHashMap<>();
+
+  /**
+   * A batch of normalized news from a source. A batch without news marks the end of the source,
+   * and is complete if the source was fetched and parsed without errors.
+   */
+  private record Batch(NewsSource source, List<News> news, boolean complete) {
+  }
+
+  /**
+   * Backoff state of a source
+   */
+  private record SourceState(int failures, long nextAttemptMillis) {
+  }
+
+  /**
+   * Constructor for the NewsIngestionPipeline
+   * @param sources the news sources
+   * @param queueCapacity the maximum number of batches waiting to be persisted
+   * @param cycleTimeoutMillis the maximum duration of a cycle, in milliseconds
+   * @param initialBackoffMillis the time a source is skipped after its first failure, in milliseconds
+   * @param maxBackoffMillis the maximum time a source is skipped, in milliseconds
+   */
+  @Autowired
+  public NewsIngestionPipeline(
+      List<NewsSource> sources,
+      @Value("${news.pipeline.queue-capacity:16}") int queueCapacity,
+      @Value("${news.pipeline.cycle-timeout-ms:240000}") long cycleTimeoutMillis,
+      @Value("${news.pipeline.initial-backoff-ms:300000}") long initialBackoffMillis,
+      @Value("${news.pipeline.max-backoff-ms:3600000}") long maxBackoffMillis) {
+    this.sources = List.copyOf(sources);
+    this.queueCapacity = queueCapacity;
+    this.cycleTimeoutMillis = cycleTimeoutMillis;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * Runs one ingestion cycle on a virtual thread
+   * @param sink the consumer that deduplicates, persists and publishes a batch of news
+   * @return a future that completes when all sources are ingested or the cycle timed out
+   */
+  public CompletableFuture<Void> runCycle(Consumer<List<News>> sink) {
+    return CompletableFuture.runAsync(() -> run(sink),
+        runnable -> Thread.ofVirtual().name("news-pipeline").start(runnable));
+  }
+
+  /**
+   * Runs one ingestion cycle on the calling thread
+   * @param sink the consumer that deduplicates, persists and publishes a batch of news
+   */
+  void run(Consumer<List<News>> sink) {
+    long start = System.currentTimeMillis();
+    List<NewsSource> dueSources = sources.stream()
+        .filter(source -> isDue(source, start))
+        .toList();
+    if (dueSources.isEmpty()) {
+      return;
+    }
+
+    BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+    ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("news-source-", 0).factory());
+    try {
+      for (NewsSource source : dueSources) {
+        executor.execute(() -> produce(source, queue));
+      }
+
+      long deadline = start + cycleTimeoutMillis;
+      int finishedSources = 0;
+      Map<String, Date> newestSaved = new HashMap<>();
+      Set<String> failedSaves = new HashSet<>();
+      while (finishedSources < dueSources.size()) {
+        Batch batch = queue.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        if (batch == null) {
+          System.err.println("News ingestion cycle timed out after " + cycleTimeoutMillis + " ms");
+          break;
+        }
+        String name = batch.source().getName();
+        if (batch.news() == null) {
+          finishedSources++;
+          if (!batch.complete() || failedSaves.contains(name)) {
+            continue;
+          }
+          Date newest = newestSaved.get(name);
+          if (newest != null) {
+            watermarks.merge(name, newest, (previous, next) -> next.after(previous) ? next : previous);
+          }
+          batch.source().onIngested();
+          continue;
+        }
+        try {
+          sink.accept(batch.news());
+          batch.news().stream()
+              .map(News::getDate)
+              .max(Comparator.naturalOrder())
+              .ifPresent(date -> newestSaved.merge(name, date,
+                  (previous, next) -> next.after(previous) ? next : previous));
+        } catch (RuntimeException e) {
+          failedSaves.add(name);
+          System.err.println("Error saving news from " + name + ": " + e.getMessage());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Fetches, parses and normalizes a source and queues its news in batches
+   * @param source the source
+   * @param queue the queue to the persisting stage
+   */
+  private void produce(NewsSource source, BlockingQueue<Batch> queue) {
+    boolean complete = false;
+    try {
+      Optional<byte[]> body = source.fetch();
+      if (body.isEmpty()) {
+        System.out.println("News source " + source.getName() + " not modified since last retrieval.");
+      } else {
+        List<FeedItem> items = source.parse(body.get(), watermarks.get(source.getName()));
+        List<News> batch = new ArrayList<>(Math.min(items.size(), BATCH_SIZE));
+        for (FeedItem item : items) {
+          source.normalize(item).ifPresent(batch::add);
+          if (batch.size() == BATCH_SIZE) {
+            queue.put(new Batch(source, batch, false));
+            batch = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+        if (!batch.isEmpty()) {
+          queue.put(new Batch(source, batch, false));
+        }
+        System.out.println("News source " + source.getName() + " returned " + items.size() + " items.");
+      }
+      states.remove(source.getName());
+      complete = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (Exception e) {
+      recordFailure(source, e);
+    }
+
+    try {
+      queue.put(new Batch(source, null, complete));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Checks if a source should be fetched in a cycle starting at the given time
+   */
+  private boolean isDue(NewsSource source, long now) {
+    SourceState state = states.get(source.getName());
+    return state == null || now >= state.nextAttemptMillis();
+  }
+
+  private void recordFailure(NewsSource source, Exception error) {
+    SourceState state = states.merge(source.getName(),
+        new SourceState(1, System.currentTimeMillis() + getBackoffMillis(1)),
+        (previous, ignored) -> new SourceState(previous.failures() + 1,
+            System.currentTimeMillis() + getBackoffMillis(previous.failures() + 1)));
+    System.err.println("Error retrieving news from " + source.getName() + " (" + state.failures()
+        + " consecutive failures, skipping for " + getBackoffMillis(state.failures()) + " ms): "
+        + error.getMessage());
+  }
+
+  /**
+   * Returns the time a source is skipped after the given number of consecutive failures
+   * @param failures the number of consecutive failures, starting at 1
+   * @return the backoff in milliseconds
+   */
+  long getBackoffMillis(int failures) {
+    long backoff = initialBackoffMillis << Math.min(failures - 1, 20);
+    return Math.min(backoff, maxBackoffMillis);
+  }
+
+  /**
+   * Returns the date of the newest persisted news of a source
+   * @param sourceName the name of the source
+   * @return the date, or null if no news of the source is persisted yet
+   */
+  public Date getWatermark(String sourceName) {
+    return watermarks.get(sourceName);
+  }
+
+  /**
+   * Returns the number of consecutive failures of a source
+   * @param sourceName the name of the source
+   * @return the number of consecutive failures, 0 if the last attempt succeeded
+   */
+  public int getConsecutiveFailures(String sourceName) {
+    SourceState state = states.get(sourceName);
+    return state == null ? 0 : state.failures();
+  }
+}
@@ -0,0 +1,107 @@
+package org.ntnu.idatt2106.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes new news to connected WebSocket clients.
+ * Every news is sent to {@code /topic/news} and to the topic of its district,
+ * {@code /topic/news/{district}}. Messages are handed to a single dispatcher thread through a
+ * bounded queue, so publishing never blocks ingestion. When the queue is full the news is
+ * dropped for push clients; it is still stored and served by the REST endpoints.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class NewsPublisher {
+  public static final String NEWS_TOPIC = "/topic/news";
+
+  private final SimpMessageSendingOperations messagingTemplate;
+  private final ThreadPoolExecutor dispatcher;
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  /**
+   * Constructor for the NewsPublisher
+   * @param messagingTemplate the template used to send messages to the broker
+   * @param queueCapacity the maximum number of news waiting to be sent
+   */
+  @Autowired
+  public NewsPublisher(
+      SimpMessageSendingOperations messagingTemplate,
+      @Value("${news.push.queue-capacity:1000}") int queueCapacity) {
+    this.messagingTemplate = messagingTemplate;
+    this.dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "news-publisher");
+          thread.setDaemon(true);
+          return thread;
+        },
+        (runnable, executor) -> {
+          droppedCount.incrementAndGet();
+          System.err.println("News push queue is full, dropping news update");
+        });
+  }
+
+  /**
+   * Queues a stored news for publication to subscribed clients
+   * @param news the stored news
+   */
+  public void publish(News news) {
+    NewsGetResponse response = LatestNewsView.toResponse(news);
+    String districtTopic = getDistrictTopic(news.getDistrict());
+    dispatcher.execute(() -> {
+      try {
+        messagingTemplate.convertAndSend(NEWS_TOPIC, response);
+        messagingTemplate.convertAndSend(districtTopic, response);
+      } catch (Exception e) {
+        System.err.println("Error publishing news: " + e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Returns the topic of a district. The district name is lower-cased and whitespace
+   * is replaced with dashes, e.g. "Oslo Politidistrikt" becomes
+   * {@code /topic/news/oslo-politidistrikt}.
+   * @param district the district name
+   * @return the topic of the district
+   */
+  public static String getDistrictTopic(String district) {
+    return NEWS_TOPIC + "/" + district.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", "-");
+  }
+
+  /**
+   * Returns the number of news dropped because the queue was full
+   * @return the number of dropped news
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * Stops accepting news and waits briefly for queued news to be sent
+   */
+  @PreDestroy
+  public void shutdown() {
+    dispatcher.shutdown();
+    try {
+      dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized news pages per district.
+ * News only changes when news is ingested, added, deleted or expired, so between those writes a
+ * district page is served as the JSON it was serialized to on the first request, without querying
+ * the database or serializing it again. The write paths invalidate the districts they change.
+ * The cache holds at most a configured number of pages and evicts the least recently used page.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Component
+public class NewsResponseCache {
+
+  private record Key(String district, String cursor, int limit) {
+  }
+
+  private final ObjectMapper objectMapper;
+  private final Map<Key, byte[]> pages;
+  /** Incremented on every invalidation of a district, so a page loaded before it is not stored */
+  private final Map<String, Long> versions = new HashMap<>();
+  /** Incremented on every invalidation of all districts */
+  private long epoch;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Constructor for the NewsResponseCache
+   * @param objectMapper the object mapper used to serialize pages
+   * @param maxEntries the maximum number of cached pages
+   */
+  @Autowired
+  public NewsResponseCache(ObjectMapper objectMapper, @Value("${news.cache.max-entries:256}") int maxEntries) {
+    this.objectMapper = objectMapper;
+    this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns a serialized page of a district, loading and caching it on a miss
+   * @param district the district
+   * @param cursor the cursor of the page, or null for the first page
+   * @param limit the page size
+   * @param loader loads the page from the database
+   * @return the page serialized as JSON
+   */
+  public byte[] get(String district, String cursor, int limit, Supplier<NewsPageResponse> loader) {
+    Key key = new Key(district, cursor, limit);
+    long loadEpoch;
+    long version;
+    synchronized (this) {
+      byte[] page = pages.get(key);
+      if (page != null) {
+        hitCount.incrementAndGet();
+        return page;
+      }
+      loadEpoch = epoch;
+      version = versions.getOrDefault(district, 0L);
+    }
+    missCount.incrementAndGet();
+
+    byte[] page = serialize(loader.get());
+    synchronized (this) {
+      if (epoch == loadEpoch && versions.getOrDefault(district, 0L) == version) {
+        pages.put(key, page);
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Removes all pages of a district
+   * @param district the district whose news changed
+   */
+  public synchronized void invalidate(String district) {
+    versions.merge(district, 1L, Long::sum);
+    pages.keySet().removeIf(key -> key.district().equals(district));
+  }
+
+  /**
+   * Removes all pages
+   */
+  public synchronized void invalidateAll() {
+    epoch++;
+    pages.clear();
+  }
+
+  private byte[] serialize(NewsPageResponse page) {
+    try {
+      return objectMapper.writeValueAsBytes(page);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException("Could not serialize news page", e);
+    }
+  }
+
+  /**
+   * Returns the number of requests served from the cache
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of requests that loaded the page from the database
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of cached pages
+   * @return the number of pages
+   */
+  public synchronized int size() {
+    return pages.size();
+  }
+}
@@ -0,0 +1,246 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the title and content of news, ranked with BM25.
+ * Text is tokenized with Norwegian stop words and a light Norwegian suffix stemmer,
+ * so "brannen", "branner" and "brann" match each other. Title terms count twice.
+ * The index is updated when news is ingested, added, deleted or expired, and rebuilt on startup.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Component
+public class NewsSearchIndex {
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final int TITLE_WEIGHT = 2;
+  private static final int MIN_STEM_LENGTH = 3;
+
+  private static final Set<String> STOP_WORDS = Set.of(
+      "og", "i", "på", "er", "det", "den", "de", "en", "et", "ei", "som", "til", "av", "med",
+      "for", "har", "ble", "blir", "var", "om", "fra", "ved", "at", "kl", "seg", "så", "men",
+      "ikke", "vi", "han", "hun", "der", "etter", "mot", "ut", "inn", "opp", "over", "under",
+      "noe", "nå", "skal", "kan", "vil", "også");
+
+  /** Suffixes removed by the stemmer, longest first */
+  private static final String[] SUFFIXES = {
+      "hetene", "hetens", "heten", "endes", "ende", "ande", "edes", "enes", "erte",
+      "ede", "ene", "ane", "ens", "ers", "ets", "het", "ert", "ast",
+      "en", "ar", "er", "as", "es", "et", "a", "e", "s"};
+
+  private record Document(NewsGetResponse response, long date, int length) {
+  }
+
+  private record Hit(int id, double score, long date) {
+  }
+
+  private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+  private final Map<Integer, Document> documents = new HashMap<>();
+  private final Map<Integer, Set<String>> termsByDocument = new HashMap<>();
+  private long totalLength;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Replaces the content of the index with the given news
+   * @param news all news to index
+   */
+  public void rebuild(Collection<News> news) {
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      documents.clear();
+      termsByDocument.clear();
+      totalLength = 0;
+      news.forEach(this::add);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a stored news to the index, replacing an earlier version of it
+   * @param news the stored news
+   */
+  public void accept(News news) {
+    lock.writeLock().lock();
+    try {
+      remove(news.getId());
+      add(news);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes news from the index
+   * @param ids the ids of the news to remove
+   */
+  public void removeAll(Collection<Integer> ids) {
+    lock.writeLock().lock();
+    try {
+      ids.forEach(this::remove);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes all news older than the cutoff from the index
+   * @param cutoff the date before which news is expired
+   */
+  public void evictOlderThan(Date cutoff) {
+    lock.writeLock().lock();
+    try {
+      List<Integer> expired = documents.entrySet().stream()
+          .filter(entry -> entry.getValue().date() < cutoff.getTime())
+          .map(Map.Entry::getKey)
+          .toList();
+      expired.forEach(this::remove);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Searches the index. News matching more query terms, rarer terms and more occurrences
+   * rank higher; ties are broken by date with the newest first.
+   * @param query the search query
+   * @param limit the maximum number of results
+   * @return the matching news, best match first
+   */
+  public List<NewsGetResponse> search(String query, int limit) {
+    Set<String> terms = new LinkedHashSet<>(tokenize(query));
+    lock.readLock().lock();
+    try {
+      if (terms.isEmpty() || documents.isEmpty()) {
+        return List.of();
+      }
+      double averageLength = (double) totalLength / documents.size();
+      Map<Integer, Double> scores = new HashMap<>();
+      for (String term : terms) {
+        Map<Integer, Integer> termPostings = postings.get(term);
+        if (termPostings == null) {
+          continue;
+        }
+        double idf = Math.log(1 + (documents.size() - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+        termPostings.forEach((id, frequency) -> {
+          int length = documents.get(id).length();
+          double score = idf * frequency * (K1 + 1)
+              / (frequency + K1 * (1 - B + B * length / averageLength));
+          scores.merge(id, score, Double::sum);
+        });
+      }
+
+      Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::date);
+      PriorityQueue<Hit> best = new PriorityQueue<>(ranking);
+      scores.forEach((id, score) -> {
+        best.add(new Hit(id, score, documents.get(id).date()));
+        if (best.size() > limit) {
+          best.poll();
+        }
+      });
+      List<NewsGetResponse> results = new ArrayList<>(best.size());
+      while (!best.isEmpty()) {
+        results.add(documents.get(best.poll().id()).response());
+      }
+      return results.reversed();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of news in the index
+   * @return the number of news
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void add(News news) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    List<String> titleTerms = tokenize(news.getTitle());
+    List<String> contentTerms = tokenize(news.getContent());
+    titleTerms.forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+    contentTerms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+    int length = titleTerms.size() * TITLE_WEIGHT + contentTerms.size();
+    frequencies.forEach((term, frequency) ->
+        postings.computeIfAbsent(term, key -> new HashMap<>()).put(news.getId(), frequency));
+    documents.put(news.getId(), new Document(LatestNewsView.toResponse(news), news.getDate().getTime(), length));
+    termsByDocument.put(news.getId(), frequencies.keySet());
+    totalLength += length;
+  }
+
+  private void remove(int id) {
+    Document document = documents.remove(id);
+    if (document == null) {
+      return;
+    }
+    totalLength -= document.length();
+    for (String term : termsByDocument.remove(id)) {
+      Map<Integer, Integer> termPostings = postings.get(term);
+      termPostings.remove(id);
+      if (termPostings.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+
+  /**
+   * Splits a text into lower-cased, stemmed terms, skipping stop words
+   * @param text the text to tokenize
+   * @return the terms in the order they appear
+   */
+  static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+    for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (word.isEmpty() || STOP_WORDS.contains(word)) {
+        continue;
+      }
+      terms.add(stem(word));
+    }
+    return terms;
+  }
+
+  /**
+   * Removes the longest known inflection suffix, keeping a stem of at least three letters
+   * @param word the lower-cased word
+   * @return the stem
+   */
+  static String stem(String word) {
+    for (String suffix : SUFFIXES) {
+      if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+        return word.substring(0, word.length() - suffix.length());
+      }
+    }
+    return word;
+  }
+}
@@ -1,27 +1,32 @@
 package org.ntnu.idatt2106.backend.service;
 
-import com.rometools.rome.feed.synd.SyndCategory;
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
 import jakarta.persistence.EntityNotFoundException;
 import org.ntnu.idatt2106.backend.dto.news.NewsCreateRequest;
 import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
 import org.ntnu.idatt2106.backend.exceptions.AlreadyInUseException;
 import org.ntnu.idatt2106.backend.model.News;
 import org.ntnu.idatt2106.backend.repo.NewsRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.net.URL;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -36,116 +41,194 @@ public class NewsService {
   @Autowired
   private NewsRepo newsRepo;
 
+  @Autowired
+  private NewsIngestionPipeline newsIngestionPipeline;
+
+  @Autowired
+  private LatestNewsView latestNewsView;
+
+  @Autowired
+  private NewsPublisher newsPublisher;
+
+  @Autowired
+  private NewsSearchIndex newsSearchIndex;
+
+  @Autowired
+  private NewsResponseCache newsResponseCache;
+
+  @Autowired
+  private NewsArchive newsArchive;
+
+  @Value("${news.retention-ms:86400000}")
+  private long retentionMillis = 86_400_000; // 1 day(s) in millis
+
+  @Value("${news.archive.batch-size:500}")
+  private int archiveBatchSize = 500;
+
+  private static final double KM_PER_DEGREE = 111.32;
+  private static final double MAX_RADIUS_KM = 500;
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final int MAX_ARCHIVE_DAYS = 366;
+
+  private final AtomicBoolean feedRetrievalInProgress = new AtomicBoolean(false);
+
   /**
-   * On application startup, retrieve news from the Politiloggen API
+   * On application startup, rebuild the in-memory views and retrieve news from all news sources
    */
   @EventListener(ApplicationReadyEvent.class)
   public void initOnStartup() {
-    retrieveNewsFromAPIFeed();
     clearExpiredNews();
+    List<News> allNews = newsRepo.findAll();
+    latestNewsView.rebuild(allNews);
+    newsSearchIndex.rebuild(allNews);
+    retrieveNewsFromAPIFeed();
   }
 
   /**
-   * Method to get all news from the database
-   * @return List of NewsGetResponse
-   * @throws EntityNotFoundException if no news is found
+   * Method to get a page of the most recent news of each case, newest first.
+   * Served from the in-memory view that is kept up to date on ingest, add and delete.
+   * @param cursor the cursor of the previous page, or null for the first page
+   * @param limit the maximum number of cases on the page
+   * @return NewsPageResponse
+   * @throws IllegalArgumentException if the cursor or limit is invalid
    */
-  public List<NewsGetResponse> getAllNews() throws EntityNotFoundException {
-    List<NewsGetResponse> allNews = newsRepo.findAll().stream()
-        .map(news -> new NewsGetResponse(
-            news.getId(), news.getCaseId(),
-            news.getTitle(),
-            news.getContent(),
-            news.getLatitude(),
-            news.getLongitude(),
-            news.getDistrict(),
-            news.getDate().toString()
-    )).toList();
-
-    if (allNews.isEmpty()) {
-      throw new EntityNotFoundException("No news found");
-    }
-
-    return allNews;
+  public NewsPageResponse getLatestNewsPerCase(String cursor, int limit) {
+    validatePageSize(limit);
+    return latestNewsView.getPage(cursor == null ? null : NewsCursor.decode(cursor), limit);
   }
 
   /**
-   * Method to get news by district
+   * Method to get a page of the most recent news of each case in a district, newest first
    * @param district the district to get news from
-   * @return List of NewsGetResponse
-   * @throws EntityNotFoundException if no news is found
+   * @param cursor the cursor of the previous page, or null for the first page
+   * @param limit the maximum number of cases on the page
+   * @return NewsPageResponse
+   * @throws IllegalArgumentException if the cursor or limit is invalid
    */
-  public List<NewsGetResponse> getByDistrict(String district) {
-    List<NewsGetResponse> newsByDistrict =  newsRepo.findByDistrict(district).stream()
-        .map(news -> new NewsGetResponse(
-            news.getId(),
-            news.getCaseId(),
-            news.getTitle(),
-            news.getContent(),
-            news.getLatitude(),
-            news.getLongitude(),
-            news.getDistrict(),
-            news.getDate().toString()
-        )).toList();
-
-    if (newsByDistrict.isEmpty()) {
-      throw new EntityNotFoundException("No news found in district: " + district);
+  public NewsPageResponse getByDistrict(String district, String cursor, int limit) {
+    validatePageSize(limit);
+    Pageable page = PageRequest.ofSize(limit + 1);
+    List<News> news;
+    if (cursor == null) {
+      news = newsRepo.findLatestPerCaseByDistrict(district, page);
+    } else {
+      NewsCursor after = NewsCursor.decode(cursor);
+      news = newsRepo.findLatestPerCaseByDistrictAfter(district, after.toDate(), after.id(), page);
     }
-    return newsByDistrict;
+    return toPage(news, limit);
   }
 
   /**
-   * Method to get news by case ID
+   * Method to get a page of the most recent news of each case in a district as JSON.
+   * Served from the response cache between writes, which invalidate the districts they change.
+   * @param district the district to get news from
+   * @param cursor the cursor of the previous page, or null for the first page
+   * @param limit the maximum number of cases on the page
+   * @return the NewsPageResponse serialized as JSON
+   * @throws IllegalArgumentException if the cursor or limit is invalid
+   */
+  public byte[] getByDistrictCached(String district, String cursor, int limit) {
+    return newsResponseCache.get(district, cursor, limit, () -> getByDistrict(district, cursor, limit));
+  }
+
+  /**
+   * Method to get a page of the news of a case, newest first
    * @param caseId the case ID to get news from
-   * @return List of NewsGetResponse
-   * @throws EntityNotFoundException if no news is found
+   * @param cursor the cursor of the previous page, or null for the first page
+   * @param limit the maximum number of news on the page
+   * @return NewsPageResponse
+   * @throws IllegalArgumentException if the cursor or limit is invalid
    */
-  public List<NewsGetResponse> getByCaseId(String caseId) {
-    List<NewsGetResponse> newsByCaseId =  newsRepo.findByCaseId(caseId).stream()
-        .map(news -> new NewsGetResponse(
-            news.getId(),
-            news.getCaseId(),
-            news.getTitle(),
-            news.getContent(),
-            news.getLatitude(),
-            news.getLongitude(),
-            news.getDistrict(),
-            news.getDate().toString()
-        )).toList();
-
-    if (newsByCaseId.isEmpty()) {
-      throw new EntityNotFoundException("No news found with case ID: " + caseId);
+  public NewsPageResponse getByCaseId(String caseId, String cursor, int limit) {
+    validatePageSize(limit);
+    Pageable page = PageRequest.ofSize(limit + 1);
+    List<News> news;
+    if (cursor == null) {
+      news = newsRepo.findPageByCaseId(caseId, page);
+    } else {
+      NewsCursor after = NewsCursor.decode(cursor);
+      news = newsRepo.findPageByCaseIdAfter(caseId, after.toDate(), after.id(), page);
     }
-    return newsByCaseId;
+    return toPage(news, limit);
   }
 
   /**
-   * Method to group news by case ID and sort by date
-   * @param news the list of news to group and sort
-   * @return List of grouped and sorted news
+   * Method to create a page from news fetched with one row more than the page size,
+   * where the extra row tells that there is a next page
+   * @param news the news, newest first
+   * @param limit the page size
+   * @return NewsPageResponse
    */
-  public List<List<NewsGetResponse>> groupNewsByCaseIdAndSort(List<NewsGetResponse> news) {
-    return news.stream()
-            .collect(Collectors.groupingBy(NewsGetResponse::getCaseId))
-            .values().stream()
-            .map(list -> list.stream()
-                    .sorted(Comparator.comparing(NewsGetResponse::getDate).reversed())
-                    .collect(Collectors.toList()))
-            .toList().stream()
-                .sorted(Comparator.comparing(
-                        (List<NewsGetResponse> l) -> l.getFirst().getDate()).reversed()
-                ).collect(Collectors.toList());
+  private static NewsPageResponse toPage(List<News> news, int limit) {
+    String nextCursor = null;
+    if (news.size() > limit) {
+      news = news.subList(0, limit);
+      nextCursor = NewsCursor.of(news.getLast()).encode();
+    }
+    return new NewsPageResponse(news.stream().map(LatestNewsView::toResponse).toList(), nextCursor);
+  }
+
+  private static void validatePageSize(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
   }
 
   /**
-   * Method to get the most recent news from grouped news
-   * @param groupedNews the grouped news to get the most recent from
-   * @return List of most recent news
+   * Method to get news within a radius of a point, closest first.
+   * The candidates are found with a bounding box query on the location index,
+   * and only they are filtered on the exact distance.
+   * @param latitude the latitude of the point
+   * @param longitude the longitude of the point
+   * @param radiusKm the radius in kilometers
+   * @return List of NewsGetResponse
+   * @throws IllegalArgumentException if the point or radius is invalid
+   * @throws EntityNotFoundException if no news is found
    */
-  public List<NewsGetResponse> getRecentFromGroupedNews(List<List<NewsGetResponse>> groupedNews) {
-    return groupedNews.stream()
-            .map(List::getFirst)
-            .collect(Collectors.toList());
+  public List<NewsGetResponse> getNewsNear(double latitude, double longitude, double radiusKm) {
+    if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+      throw new IllegalArgumentException("Invalid coordinates");
+    }
+    if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+      throw new IllegalArgumentException("Radius must be between 0 and " + MAX_RADIUS_KM + " km");
+    }
+
+    double latDelta = radiusKm / KM_PER_DEGREE;
+    double lngDelta = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+    List<NewsGetResponse> newsNear = newsRepo.findByLatitudeBetweenAndLongitudeBetween(
+            latitude - latDelta, latitude + latDelta, longitude - lngDelta, longitude + lngDelta).stream()
+        .filter(news -> news.getLatitude() != 0.0 || news.getLongitude() != 0.0) // not geocoded
+        .filter(news -> CoordinatesService.distanceKm(
+            latitude, longitude, news.getLatitude(), news.getLongitude()) <= radiusKm)
+        .sorted(Comparator.comparingDouble(news -> CoordinatesService.distanceKm(
+            latitude, longitude, news.getLatitude(), news.getLongitude())))
+        .map(LatestNewsView::toResponse)
+        .toList();
+
+    if (newsNear.isEmpty()) {
+      throw new EntityNotFoundException("No news found within " + radiusKm + " km");
+    }
+    return newsNear;
+  }
+
+  /**
+   * Method to search the title and content of news.
+   * Served from the in-memory inverted index, so no LIKE scan over the content is needed.
+   * @param query the search query
+   * @param limit the maximum number of results
+   * @return List of NewsGetResponse, best match first
+   * @throws IllegalArgumentException if the query has no searchable words
+   * @throws EntityNotFoundException if no news matches the query
+   */
+  public List<NewsGetResponse> searchNews(String query, int limit) {
+    if (query == null || NewsSearchIndex.tokenize(query).isEmpty()) {
+      throw new IllegalArgumentException("Search query must contain at least one searchable word");
+    }
+    List<NewsGetResponse> results = newsSearchIndex.search(query, limit);
+    if (results.isEmpty()) {
+      throw new EntityNotFoundException("No news found matching: " + query);
+    }
+    return results;
   }
 
   /**
@@ -173,129 +256,166 @@ public class NewsService {
             newsCreateRequest.getDistrict(),
             now);
     System.out.println("Adding news: " + news.getTitle() + " " + news.getContent() + " " + news.getDistrict() + " " + news.getDate() + " " + news.getCaseId() + " " + news.getLatitude() + " " + news.getLongitude());
-    newsRepo.save(news);
+    onNewsStored(newsRepo.save(news));
   }
 
   /**
-   * Method to get the SyndFeedInput object
-   * @return SyndFeedInput
+   * Scheduled method to retrieve news from all news sources
+   * This method is called every 5 minutes. The sources are ingested asynchronously by the
+   * ingestion pipeline, so retries never block the scheduler thread, and a new retrieval is
+   * skipped while one is in progress.
    */
-  protected SyndFeedInput getSyndFeedInput() {
-    return new SyndFeedInput();
+  @Scheduled(fixedRate = 300_000) // 5 minutes
+  public void retrieveNewsFromAPIFeed() {
+    if (!feedRetrievalInProgress.compareAndSet(false, true)) {
+      System.out.println("Skipping news retrieval - previous retrieval still in progress.");
+      return;
+    }
+    try {
+      newsIngestionPipeline.runCycle(this::saveNews).whenComplete((ignored, error) -> {
+        if (error != null) {
+          System.err.println("Error retrieving news from API: " + error.getMessage());
+        }
+        feedRetrievalInProgress.set(false);
+      });
+    } catch (Exception e) {
+      feedRetrievalInProgress.set(false);
+      System.err.println("Error retrieving news from API: " + e.getMessage());
+    }
   }
 
   /**
-   * Method to get the feed URL from the Politiloggen API
-   * @return URL of the feed
-   * @throws Exception if the URL cannot be created
+   * Method to save the news from a source that is not already in the database.
+   * The title and date of stored news in the time window of the batch are loaded in one query,
+   * and only the new news is saved.
+   * @param feedNews the normalized news to save
    */
-  protected URL getFeedUrl() throws Exception {
-    return new URL("https://api.politiet.no/politiloggen/v1/rss");
-  }
+  protected void saveNews(List<News> feedNews) {
+    if (feedNews.isEmpty()) {
+      return;
+    }
 
-  /**
-   * Method to load the feed from the Politiloggen API
-   * @param maxAttempts the maximum number of attempts to load the feed
-   * @return SyndFeed
-   * @throws Exception if the feed cannot be loaded
-   */
-  protected SyndFeed loadFeed(int maxAttempts) throws Exception {
-    int attemptCount = 0;
-
-    while (attemptCount < maxAttempts) {
-      try {
-        URL feedUrl = getFeedUrl();
-        SyndFeedInput input = getSyndFeedInput();
-        return input.build(new XmlReader(feedUrl));
-      } catch (Exception e) {
-        attemptCount++;
-        if (attemptCount >= maxAttempts) {
-          break;
+    Date oldest = feedNews.stream()
+        .map(News::getDate)
+        .min(Comparator.naturalOrder())
+        .orElseThrow();
+    Set<String> existingKeys = newsRepo.findByDateGreaterThanEqual(oldest).stream()
+        .map(key -> getDedupeKey(key.getTitle(), key.getDate()))
+        .collect(Collectors.toCollection(HashSet::new));
+
+    List<News> newNews = feedNews.stream()
+        .filter(news -> existingKeys.add(getDedupeKey(news.getTitle(), news.getDate())))
+        .toList();
+    if (newNews.isEmpty()) {
+      return;
+    }
+    System.out.println("Saving " + newNews.size() + " new news");
+
+    try {
+      newsRepo.saveAll(newNews).forEach(this::onNewsStored);
+    } catch (DataIntegrityViolationException e) {
+      // Another writer stored some of the same news in the meantime, save the rest one by one.
+      for (News news : newNews) {
+        // The rolled back batch left generated ids on the news, which would make save merge
+        // them as detached rows that do not exist, so they are saved as new news again.
+        news.setId(0);
+        try {
+          onNewsStored(newsRepo.save(news));
+        } catch (DataIntegrityViolationException ignored) {
+          // Already stored
         }
-        Thread.sleep(1000);
       }
     }
-    throw new RuntimeException("Failed to load feed after " + maxAttempts + " attempts");
   }
 
+  /**
+   * Method to update the in-memory views, invalidate the cached pages of the district
+   * and push a newly stored news to subscribed clients.
+   * A case is reported by one district, so only the district of the news changes.
+   * @param news the stored news
+   */
+  private void onNewsStored(News news) {
+    latestNewsView.accept(news);
+    newsSearchIndex.accept(news);
+    newsResponseCache.invalidate(news.getDistrict());
+    newsPublisher.publish(news);
+  }
 
   /**
-   * Method to load the feed from the Politiloggen API
-   * @return SyndFeed
-   * @throws Exception if the feed cannot be loaded
+   * Method to create the key used to detect duplicate news
+   * @param title the title of the news
+   * @param date the date of the news
+   * @return the key of the news
    */
-  protected SyndFeed loadFeed() throws Exception {
-    return loadFeed(10);
+  private static String getDedupeKey(String title, Date date) {
+    return date.getTime() + "|" + title;
   }
 
   /**
-   * Scheduled method to retrieve news from the Politiloggen API
-   * This method is called every 5 minutes
-   * @throws RuntimeException if the feed cannot be loaded
+   * Scheduled method to clear expired news
+   * This method is called every hour and moves all news older than the retention window to the
+   * archive, in batches of the oldest news. A batch is only deleted from the database after it is
+   * appended to the archive, so news is never lost when the archive cannot be written.
+   * The latest news view and the search index only evict the news that was deleted, so news kept
+   * in the database because the archive failed is still listed and searchable.
    */
-  @Scheduled(fixedRate = 300_000) // 5 minutes
-  public void retrieveNewsFromAPIFeed() {
+  @Scheduled(fixedRate = 3_600_000) // 1 hour
+  public void clearExpiredNews() {
+    System.out.println("Archiving expired news...");
+    Date cutoff = new Date(System.currentTimeMillis() - retentionMillis);
+    Date evictBefore = cutoff;
+    Date lastDeleted = null;
+    int archived = 0;
     try {
-      SyndFeed feed = loadFeed(10);
-
-      System.out.println("Retrieving news from API...");
-      System.out.println("Feed items length: " + feed.getEntries().size());
-
-      for (SyndEntry entry : feed.getEntries()) {
-        String rawTitle = entry.getTitle();
-        String content = entry.getDescription().getValue();
-        Date publishedDate = entry.getPublishedDate();
-
-        List<SyndCategory> categories = entry.getCategories();
-        String district = categories.isEmpty() ? "Ukjent distrikt" : categories.get(0).getName();
-
-        double lat = 0.0;
-        double lon = 0.0;
-
-        String caseId = "";
-        String title = rawTitle;
-        if (rawTitle != null && rawTitle.contains("(ID:")) {
-          int start = rawTitle.indexOf("(ID:");
-          int end = rawTitle.indexOf(")", start);
-          if (start != -1 && end != -1) {
-            caseId = rawTitle.substring(start + 5, end).trim();
-            title = rawTitle.substring(0, start).trim();
-          }
-        }
-
-        News news = new News();
-        news.setTitle(title);
-        news.setContent(content);
-        news.setLatitude(lat);
-        news.setLongitude(lon);
-        news.setDistrict(district);
-        news.setDate(publishedDate);
-        news.setCaseId(caseId);
-
-        if (!newsRepo.existsByTitleAndDate(title, publishedDate)) {
-          newsRepo.save(news);
-        }
+      List<News> expired;
+      while (!(expired = newsRepo.findExpired(cutoff, PageRequest.ofSize(archiveBatchSize))).isEmpty()) {
+        newsArchive.append(expired);
+        newsRepo.deleteAllByIdInBatch(expired.stream().map(News::getId).toList());
+        archived += expired.size();
+        lastDeleted = expired.get(expired.size() - 1).getDate();
       }
-
-    } catch (Exception e) {
-      System.err.println("Error retrieving news from API: " + e.getMessage());
+    } catch (IOException e) {
+      System.err.println("Error archiving expired news, keeping the rest in the database: " + e.getMessage());
+      // Batches are deleted oldest first, so all news older than the last news deleted is gone
+      evictBefore = lastDeleted;
+    }
+    if (evictBefore != null) {
+      latestNewsView.evictOlderThan(evictBefore);
+      newsSearchIndex.evictOlderThan(evictBefore);
     }
+    if (archived > 0) {
+      newsResponseCache.invalidateAll();
+    }
+    System.out.println("Archived " + archived + " expired news");
+    System.out.println("News response cache: " + newsResponseCache.getHitCount() + " hits, "
+        + newsResponseCache.getMissCount() + " misses, " + newsResponseCache.size() + " pages");
   }
 
   /**
-   * Scheduled method to clear expired news
-   * This method is called every 24 hours
+   * Method to stream archived news published between two days as NDJSON, oldest first
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @param out the stream to write to
+   * @throws IllegalArgumentException if the period is invalid
+   * @throws IOException if the archive cannot be read or the stream cannot be written
    */
-  @Scheduled(fixedRate = 3_600_000) // 1 hour
-  public void clearExpiredNews() {
-    System.out.println("Clearing expired news...");
-    long timeAlive = 86_400_000; // 1 day(s) in millis
-    Date now = new Date();
-    List<News> expiredNews = newsRepo.findAll().stream()
-            .filter(news -> now.getTime() - news.getDate().getTime() > timeAlive)
-            .toList();
-    if (!expiredNews.isEmpty()) {
-      newsRepo.deleteAll(expiredNews);
+  public void streamArchive(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+    validateArchivePeriod(from, to);
+    newsArchive.stream(from, to, out);
+  }
+
+  /**
+   * Method to check a period of the archive before a response is committed
+   * @param from the first day, inclusive
+   * @param to the last day, inclusive
+   * @throws IllegalArgumentException if the period is invalid
+   */
+  public void validateArchivePeriod(LocalDate from, LocalDate to) {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("From must not be after to");
+    }
+    if (ChronoUnit.DAYS.between(from, to) >= MAX_ARCHIVE_DAYS) {
+      throw new IllegalArgumentException("Period must be at most " + MAX_ARCHIVE_DAYS + " days");
     }
   }
 
@@ -310,5 +430,8 @@ public class NewsService {
     }
 
     newsRepo.deleteAll(news);
+    latestNewsView.removeCase(id);
+    newsSearchIndex.removeAll(news.stream().map(News::getId).toList());
+    news.stream().map(News::getDistrict).distinct().forEach(newsResponseCache::invalidate);
   }
 }
@@ -0,0 +1,61 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A source of news for the {@link NewsIngestionPipeline}.
+ * A source implements the source-specific stages of the pipeline: fetching the raw feed,
+ * parsing it into feed items and normalizing the items into news. Deduplication, persisting
+ * and publishing are shared by all sources. Every {@code NewsSource} bean is picked up by the
+ * pipeline, so a new feed is added by adding a new implementation.
+ * Sources are fetched on virtual threads, so the methods may block.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+public interface NewsSource {
+
+  /**
+   * Returns the name of the source, used in logs and to track backoff
+   * @return the name of the source
+   */
+  String getName();
+
+  /**
+   * Fetches the raw feed
+   * @return the raw feed, or an empty optional if it is not modified since the last fetch
+   * @throws IOException if the feed cannot be fetched
+   */
+  Optional<byte[]> fetch() throws IOException;
+
+  /**
+   * Parses the raw feed into feed items. Items published before {@code since} are already
+   * ingested, so a source whose feed is ordered newest first may stop parsing at the first of them.
+   * @param body the raw feed
+   * @param since the date of the newest ingested item of the source, or null if none is ingested
+   * @return the items of the feed
+   * @throws IOException if the feed cannot be parsed
+   */
+  List<FeedItem> parse(byte[] body, Date since) throws IOException;
+
+  /**
+   * Normalizes a feed item into a news
+   * @param item the feed item
+   * @return the news, or an empty optional if the item should be skipped
+   */
+  Optional<News> normalize(FeedItem item);
+
+  /**
+   * Called once all news of a fetched feed is persisted. A source that fetches conditionally
+   * should only make later fetches conditional on a feed once this is called, so a feed that
+   * failed to be ingested is fetched again.
+   */
+  default void onIngested() {
+  }
+}
@@ -0,0 +1,102 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.ntnu.idatt2106.backend.dto.map.CoordinatesDTO;
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+/**
+ * News source for the Politiloggen RSS feed of the Norwegian police.
+ * Titles carry the case ID as "(ID: ...)", which is split off into the case ID of the news,
+ * and the first category of an entry is its police district. The feed lists the newest entries
+ * first and is parsed with the streaming {@link RssFeedParser}.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Component
+public class PolitiloggenNewsSource implements NewsSource {
+  static final String UNKNOWN_DISTRICT = "Ukjent distrikt";
+
+  private final NewsFeedFetcher newsFeedFetcher;
+  private final CoordinatesService coordinatesService;
+
+  /**
+   * Constructor for the PolitiloggenNewsSource
+   * @param newsFeedFetcher the fetcher for the Politiloggen feed
+   * @param coordinatesService the service used to geocode entries
+   */
+  @Autowired
+  public PolitiloggenNewsSource(NewsFeedFetcher newsFeedFetcher, CoordinatesService coordinatesService) {
+    this.newsFeedFetcher = newsFeedFetcher;
+    this.coordinatesService = coordinatesService;
+  }
+
+  @Override
+  public String getName() {
+    return "politiloggen";
+  }
+
+  @Override
+  public Optional<byte[]> fetch() throws IOException {
+    try {
+      return newsFeedFetcher.fetch().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException("Failed to load feed", e.getCause());
+    }
+  }
+
+  @Override
+  public void onIngested() {
+    newsFeedFetcher.commitValidators();
+  }
+
+  @Override
+  public List<FeedItem> parse(byte[] body, Date since) throws IOException {
+    return RssFeedParser.parse(body, since);
+  }
+
+  @Override
+  public Optional<News> normalize(FeedItem item) {
+    String rawTitle = item.title();
+    if (rawTitle == null || item.published() == null) {
+      return Optional.empty();
+    }
+    String content = item.description() == null ? "" : item.description();
+    String district = item.category() == null ? UNKNOWN_DISTRICT : item.category();
+
+    String caseId = "";
+    String title = rawTitle;
+    if (rawTitle.contains("(ID:")) {
+      int start = rawTitle.indexOf("(ID:");
+      int end = rawTitle.indexOf(")", start);
+      if (start != -1 && end != -1) {
+        caseId = rawTitle.substring(start + 5, end).trim();
+        title = rawTitle.substring(0, start).trim();
+      }
+    }
+
+    CoordinatesDTO coordinates = coordinatesService.geocode(district, title + " " + content)
+        .orElse(new CoordinatesDTO(0.0, 0.0));
+
+    News news = new News();
+    news.setTitle(title);
+    news.setContent(content);
+    news.setLatitude(coordinates.getLatitude());
+    news.setLongitude(coordinates.getLongitude());
+    news.setDistrict(district);
+    news.setDate(item.published());
+    news.setCaseId(caseId);
+    return Optional.of(news);
+  }
+}
@@ -6,6 +6,7 @@ import org.ntnu.idatt2106.backend.exceptions.UserNotFoundException;
 import org.ntnu.idatt2106.backend.model.*;
 import org.ntnu.idatt2106.backend.repo.HouseholdMembersRepo;
 import org.ntnu.idatt2106.backend.repo.HouseholdRepo;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
 import org.ntnu.idatt2106.backend.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -34,8 +35,13 @@ public class PreparednessService {
     @Autowired
     private HouseholdMembersRepo householdMembersRepo;
 
+    @Autowired
+    private ItemRepo itemRepo;
+
     /**
      * Calculates the preparedness status of a given household.
+     * The unexpired inventory is summed per category and unit by the database, so the items
+     * of the household are never loaded.
      *
      * @param household The household to evaluate.
      * @return A {@link PreparednessStatus} object containing the preparedness percentage,
@@ -52,13 +58,10 @@ public class PreparednessService {
 
         Date today = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
 
-        for (Item item : household.getInventory()) {
-            if (item.getExpirationDate().before(today)) continue;
-
-            Category category = item.getCategory();
-            double amount = item.getAmount();
-            String unit = item.getUnit().getEnglishName().toLowerCase();
-            String catName = category.getEnglishName().toLowerCase();
+        for (ItemRepo.CategoryUnitTotal total : itemRepo.findTotalsByHouseholdExpiringFrom(household.getId(), today)) {
+            double amount = total.getTotalAmount();
+            String unit = total.getUnitName().toLowerCase();
+            String catName = total.getCategoryName().toLowerCase();
 
             // Beregn vann
             if ((catName.equals("vann") || catName.equals("water")) && unit.equals("l")) {
@@ -67,8 +70,8 @@ public class PreparednessService {
             }
 
             // Beregn kalorier (hvis tilgjengelig)
-            if (category.getKcalPerUnit() != null) {
-                totalKcal += amount * category.getKcalPerUnit();
+            if (total.getKcalPerUnit() != null) {
+                totalKcal += amount * total.getKcalPerUnit();
             }
         }
 
@@ -0,0 +1,294 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline catalog of products for item entry.
+ * Products are loaded from a bundled file into arrays that are never changed after loading:
+ * an open-addressing hash table from barcode to product, and the sorted name keys of the products
+ * for prefix search. Each word of a name starts a key, so "water" finds "Bottled Water 1.5 L".
+ * A lookup is a hash probe or a binary search and never touches the database.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+@Service
+public class ProductCatalog {
+  public static final String CATALOG = "catalog/products.csv";
+  public static final int MAX_RESULTS = 50;
+  private static final Locale NORWEGIAN = Locale.forLanguageTag("no");
+
+  /**
+   * A product of the catalog
+   * @param ean the barcode of the product, 8, 12 or 13 digits
+   * @param name the name of the product
+   * @param category the English name of the category of the product
+   * @param unit the English name of the unit of the product
+   * @param kcalPerUnit the energy per unit, or null if the product has no energy content
+   * @param shelfLifeDays the typical number of days from purchase to expiration
+   */
+  public record Product(String ean, String name, String category, String unit,
+                        Integer kcalPerUnit, int shelfLifeDays) {
+  }
+
+  private Product[] products;
+  private String[] normalizedNames;
+  private long[] eanTable;
+  private int[] eanProducts;
+  private String[] nameKeys;
+  private int[] nameProducts;
+
+  /**
+   * Constructor for the ProductCatalog, loading the bundled catalog
+   */
+  public ProductCatalog() {
+    try (Reader reader = new InputStreamReader(
+        new ClassPathResource(CATALOG).getInputStream(), StandardCharsets.UTF_8)) {
+      load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not load product catalog " + CATALOG, e);
+    }
+  }
+
+  /**
+   * Constructor for the ProductCatalog, loading the catalog from the given reader
+   * @param catalog lines of {@code ean;name;category;unit;kcalPerUnit;shelfLifeDays}
+   * @throws IOException if the catalog cannot be read or is invalid
+   */
+  ProductCatalog(Reader catalog) throws IOException {
+    load(catalog);
+  }
+
+  private void load(Reader catalog) throws IOException {
+    BufferedReader reader = new BufferedReader(catalog);
+    List<Product> loaded = new ArrayList<>();
+    // Categories and units repeat on every line, so each distinct name is stored once
+    Map<String, String> names = new HashMap<>();
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(";", -1);
+      if (fields.length != 6 || !isEan(fields[0]) || fields[1].isBlank()) {
+        throw new IOException("Invalid product catalog line " + lineNumber + ": " + line);
+      }
+      try {
+        loaded.add(new Product(fields[0], fields[1].trim(),
+            names.computeIfAbsent(fields[2].trim(), String::toString),
+            names.computeIfAbsent(fields[3].trim(), String::toString),
+            fields[4].isBlank() ? null : Integer.valueOf(fields[4].trim()),
+            Integer.parseInt(fields[5].trim())));
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid number on product catalog line " + lineNumber + ": " + line, e);
+      }
+    }
+    products = loaded.toArray(new Product[0]);
+    indexEans();
+    indexNames();
+    System.out.println("Loaded " + products.length + " products into the product catalog");
+  }
+
+  /**
+   * Builds the barcode table with linear probing, at most half full
+   */
+  private void indexEans() throws IOException {
+    int capacity = Integer.highestOneBit(Math.max(products.length, 1) * 2 - 1) << 1;
+    eanTable = new long[capacity];
+    eanProducts = new int[capacity];
+    Arrays.fill(eanProducts, -1);
+    for (int i = 0; i < products.length; i++) {
+      long key = Long.parseLong(products[i].ean());
+      int slot = slot(key);
+      while (eanProducts[slot] >= 0) {
+        if (eanTable[slot] == key) {
+          throw new IOException("Duplicate barcode in product catalog: " + products[i].ean());
+        }
+        slot = (slot + 1) & (capacity - 1);
+      }
+      eanTable[slot] = key;
+      eanProducts[slot] = i;
+    }
+  }
+
+  /**
+   * Builds the sorted name keys, one for each word of each name and the rest of the name after it
+   */
+  private void indexNames() {
+    List<String> keys = new ArrayList<>();
+    List<Integer> keyProducts = new ArrayList<>();
+    normalizedNames = new String[products.length];
+    for (int i = 0; i < products.length; i++) {
+      String name = normalize(products[i].name());
+      normalizedNames[i] = name;
+      int start = 0;
+      while (start >= 0) {
+        keys.add(name.substring(start));
+        keyProducts.add(i);
+        int space = name.indexOf(' ', start);
+        start = space < 0 ? -1 : space + 1;
+      }
+    }
+    Integer[] order = new Integer[keys.size()];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, Comparator.comparing(keys::get));
+    nameKeys = new String[order.length];
+    nameProducts = new int[order.length];
+    for (int i = 0; i < order.length; i++) {
+      nameKeys[i] = keys.get(order[i]);
+      nameProducts[i] = keyProducts.get(order[i]);
+    }
+  }
+
+  /**
+   * Returns the number of products in the catalog
+   * @return the number of products
+   */
+  public int size() {
+    return products.length;
+  }
+
+  /**
+   * Finds a product by its barcode. 12 digit UPC-A codes are read as the equal EAN-13 code.
+   * @param ean the barcode
+   * @return the product, or empty if the barcode is not in the catalog
+   */
+  public Optional<Product> findByEan(String ean) {
+    if (ean == null || !isEan(ean.trim())) {
+      return Optional.empty();
+    }
+    long key = Long.parseLong(ean.trim());
+    for (int slot = slot(key); eanProducts[slot] >= 0; slot = (slot + 1) & (eanTable.length - 1)) {
+      if (eanTable[slot] == key) {
+        return Optional.of(products[eanProducts[slot]]);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Finds a product by its full name, ignoring case and repeated whitespace
+   * @param name the name
+   * @return the product, or empty if no product has the name
+   */
+  public Optional<Product> findByName(String name) {
+    if (name == null || name.isBlank()) {
+      return Optional.empty();
+    }
+    String key = normalize(name);
+    for (int i = lowerBound(key); i < nameKeys.length && nameKeys[i].equals(key); i++) {
+      // Keys that start inside a name can equal a full name, so the product name is compared too
+      if (normalizedNames[nameProducts[i]].equals(key)) {
+        return Optional.of(products[nameProducts[i]]);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Finds a product by what a user entered as the name of an item, a barcode or a product name
+   * @param nameOrEan the barcode or name
+   * @return the product, or empty if the entry matches no product
+   */
+  public Optional<Product> find(String nameOrEan) {
+    return isEan(nameOrEan == null ? "" : nameOrEan.trim()) ? findByEan(nameOrEan) : findByName(nameOrEan);
+  }
+
+  /**
+   * Finds the products with a word in their name starting with the given prefix.
+   * Products whose name starts with the prefix come first, ordered by name, followed by the
+   * products with a later word starting with the prefix, ordered by that word.
+   * @param prefix the prefix, ignoring case and repeated whitespace
+   * @param limit the maximum number of products
+   * @return the matching products
+   * @throws IllegalArgumentException if the prefix is blank or the limit is not between 1 and {@link #MAX_RESULTS}
+   */
+  public List<Product> search(String prefix, int limit) {
+    if (prefix == null || prefix.isBlank()) {
+      throw new IllegalArgumentException("Query must not be blank");
+    }
+    if (limit < 1 || limit > MAX_RESULTS) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS);
+    }
+    String key = normalize(prefix);
+    List<Product> nameMatches = new ArrayList<>();
+    List<Product> wordMatches = new ArrayList<>();
+    BitSet found = new BitSet(products.length);
+    for (int i = lowerBound(key); i < nameKeys.length && nameKeys[i].startsWith(key)
+        && nameMatches.size() < limit; i++) {
+      int product = nameProducts[i];
+      if (found.get(product)) {
+        continue;
+      }
+      found.set(product);
+      if (normalizedNames[product].startsWith(key)) {
+        nameMatches.add(products[product]);
+      } else {
+        wordMatches.add(products[product]);
+      }
+    }
+    for (int i = 0; nameMatches.size() < limit && i < wordMatches.size(); i++) {
+      nameMatches.add(wordMatches.get(i));
+    }
+    return nameMatches;
+  }
+
+  /**
+   * Checks if a value has the form of an EAN-8, UPC-A or EAN-13 barcode
+   * @param value the value
+   * @return true if the value is 8, 12 or 13 digits
+   */
+  public static boolean isEan(String value) {
+    int length = value.length();
+    if (length != 8 && length != 12 && length != 13) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int lowerBound(String key) {
+    int index = Arrays.binarySearch(nameKeys, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+    // Several keys can be equal, so the first of them is found
+    while (index > 0 && nameKeys[index - 1].equals(key)) {
+      index--;
+    }
+    return index;
+  }
+
+  private int slot(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash >>> 32) & (eanTable.length - 1);
+  }
+
+  private static String normalize(String value) {
+    return value.trim().toLowerCase(NORWEGIAN).replaceAll("\\s+", " ");
+  }
+}
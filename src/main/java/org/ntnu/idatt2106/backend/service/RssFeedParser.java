@@ -0,0 +1,129 @@
+package org.ntnu.idatt2106.backend.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Streaming parser for RSS 2.0 feeds.
+ * The feed is read with StAX, one event at a time, and only the title, description, publication
+ * date and first category of each item are kept, so no DOM or feed object graph is built.
+ * Parsing stops at the first item published before a given date, as feeds list the newest items
+ * first and the older items are already ingested.
+ *
+ * @Author Jonas Reiher
+ * @since 0.3
+ * @version 0.3
+ */
+public final class RssFeedParser {
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  private RssFeedParser() {
+  }
+
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    // Feeds are untrusted input, so DTDs and external entities are never resolved
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * Parses the items of an RSS feed
+   * @param body the raw feed
+   * @param since the date to stop at, or null to parse all items
+   * @return the items published at or after {@code since}, in feed order
+   * @throws IOException if the feed is not a well-formed RSS feed
+   */
+  public static List<FeedItem> parse(byte[] body, Date since) throws IOException {
+    XMLStreamReader reader = null;
+    try {
+      reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(body));
+      reader.nextTag();
+      if (!"rss".equals(reader.getLocalName())) {
+        throw new IOException("Invalid feed: root element is " + reader.getLocalName() + ", not rss");
+      }
+
+      List<FeedItem> items = new ArrayList<>();
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT && "item".equals(reader.getLocalName())) {
+          FeedItem item = readItem(reader);
+          if (since != null && item.published() != null && item.published().before(since)) {
+            break;
+          }
+          items.add(item);
+        }
+      }
+      return items;
+    } catch (XMLStreamException e) {
+      throw new IOException("Invalid feed: " + e.getMessage(), e);
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException ignored) {
+          // Nothing to release for an in-memory feed
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads an item, with the reader positioned at its start tag
+   */
+  private static FeedItem readItem(XMLStreamReader reader) throws XMLStreamException {
+    String title = null;
+    String description = null;
+    Date published = null;
+    String category = null;
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        if (depth > 1 || reader.getNamespaceURI() != null && !reader.getNamespaceURI().isEmpty()) {
+          depth++;
+          continue;
+        }
+        switch (reader.getLocalName()) {
+          case "title" -> title = reader.getElementText().trim();
+          case "description" -> description = reader.getElementText();
+          case "pubDate" -> published = parseDate(reader.getElementText());
+          case "category" -> {
+            String name = reader.getElementText().trim();
+            if (category == null) {
+              category = name;
+            }
+          }
+          default -> depth++;
+        }
+      }
+    }
+    return new FeedItem(title, description, published, category);
+  }
+
+  /**
+   * Parses an RFC 822 date, as used by RSS
+   * @param value the date
+   * @return the date, or null if it cannot be parsed
+   */
+  static Date parseDate(String value) {
+    try {
+      return Date.from(ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
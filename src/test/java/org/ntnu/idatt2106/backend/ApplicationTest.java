@@ -8,7 +8,6 @@ import org.mockito.MockitoAnnotations;
 import org.ntnu.idatt2106.backend.service.NewsService;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.util.Collections;
 
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
@@ -33,7 +32,6 @@ class ApplicationTest {
   @DisplayName("Application main method runs without exceptions")
   void testMainMethod() {
     doNothing().when(newsService).retrieveNewsFromAPIFeed();
-    when(newsService.getAllNews()).thenReturn(Collections.emptyList());
 
     Application.main(new String[] {});
 
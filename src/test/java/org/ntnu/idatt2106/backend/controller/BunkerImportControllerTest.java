@@ -4,11 +4,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.ntnu.idatt2106.backend.dto.map.BunkerImportSummary;
+import org.ntnu.idatt2106.backend.model.Admin;
+import org.ntnu.idatt2106.backend.security.JWT_token;
 import org.ntnu.idatt2106.backend.service.BunkerImportService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +26,9 @@ class BunkerImportControllerTest {
     @Mock
     private BunkerImportService bunkerImportService;
 
+    @Mock
+    private JWT_token jwt;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -28,10 +37,13 @@ class BunkerImportControllerTest {
     @Test
     @DisplayName("Should return 200 when bunker data is imported successfully")
     void testImportBunkerDataSuccess() throws Exception {
-        ResponseEntity<String> response = bunkerImportController.importBunkerData();
+        BunkerImportSummary summary = new BunkerImportSummary(1, 2, 3, 4);
+        when(bunkerImportService.importBunkerDataFromJson(anyString())).thenReturn(summary);
+
+        ResponseEntity<?> response = bunkerImportController.importBunkerData();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("Bunker data imported successfully", response.getBody());
+        assertSame(summary, response.getBody());
         verify(bunkerImportService, times(1))
                 .importBunkerDataFromJson("Samfunnssikkerhet_0000_Norge_25833_TilfluktsromOffentlige_GeoJSON.json");
     }
@@ -42,10 +54,10 @@ class BunkerImportControllerTest {
         doThrow(new RuntimeException("Import error")).when(bunkerImportService)
                 .importBunkerDataFromJson(anyString());
 
-        ResponseEntity<String> response = bunkerImportController.importBunkerData();
+        ResponseEntity<?> response = bunkerImportController.importBunkerData();
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        assertTrue(response.getBody().contains("Import failed:"));
+        assertTrue(response.getBody().toString().contains("Import failed:"));
     }
 
     @Test
@@ -57,13 +69,67 @@ class BunkerImportControllerTest {
                 .importBunkerDataFromJson(anyString());
 
         // Act
-        ResponseEntity<String> response = bunkerImportController.importBunkerData();
+        ResponseEntity<?> response = bunkerImportController.importBunkerData();
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        assertTrue(response.getBody().contains("Import failed due to IO error:"));
-        assertTrue(response.getBody().contains("Simulated IO failure"));
+        assertTrue(response.getBody().toString().contains("Import failed due to IO error:"));
+        assertTrue(response.getBody().toString().contains("Simulated IO failure"));
+    }
+
+    @Test
+    @DisplayName("Should import uploaded file when admin token is valid")
+    void testImportUploadedBunkerDataSuccess() throws Exception {
+        BunkerImportSummary summary = new BunkerImportSummary(1, 0, 0, 0);
+        when(jwt.getAdminUserByToken("token")).thenReturn(new Admin());
+        when(bunkerImportService.importBunkerDataFromStream(any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream inputStream = invocation.getArgument(0);
+            assertEquals("{\"features\": []}", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            return summary;
+        });
+        MockMultipartFile file = new MockMultipartFile("file", "bunkers.json",
+            "application/json", "{\"features\": []}".getBytes());
+
+        ResponseEntity<?> response = bunkerImportController.importUploadedBunkerData("Bearer token", file);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(summary, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return 401 when uploading without admin token")
+    void testImportUploadedBunkerDataUnauthorized() throws Exception {
+        when(jwt.getAdminUserByToken("token")).thenReturn(null);
+        MockMultipartFile file = new MockMultipartFile("file", "{}".getBytes());
+
+        ResponseEntity<?> response = bunkerImportController.importUploadedBunkerData("Bearer token", file);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(bunkerImportService, never()).importBunkerDataFromStream(any());
     }
 
+    @Test
+    @DisplayName("Should return 400 when uploaded file is empty")
+    void testImportUploadedBunkerDataEmptyFile() throws Exception {
+        when(jwt.getAdminUserByToken("token")).thenReturn(new Admin());
+        MockMultipartFile file = new MockMultipartFile("file", new byte[0]);
+
+        ResponseEntity<?> response = bunkerImportController.importUploadedBunkerData("Bearer token", file);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should return 500 when import of uploaded file fails")
+    void testImportUploadedBunkerDataIOException() throws Exception {
+        when(jwt.getAdminUserByToken("token")).thenReturn(new Admin());
+        when(bunkerImportService.importBunkerDataFromStream(any(InputStream.class)))
+            .thenThrow(new IOException("Malformed file"));
+        MockMultipartFile file = new MockMultipartFile("file", "{".getBytes());
+
+        ResponseEntity<?> response = bunkerImportController.importUploadedBunkerData("Bearer token", file);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertTrue(response.getBody().toString().contains("Malformed file"));
+    }
+}
@@ -7,20 +7,38 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.ntnu.idatt2106.backend.dto.item.CatalogProductResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryChangesResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryTotalResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemAmountRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemAmountResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchOperation;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchResult;
 import org.ntnu.idatt2106.backend.dto.item.ItemCreateRequest;
 import org.ntnu.idatt2106.backend.dto.item.ItemGenericDTO;
+import org.ntnu.idatt2106.backend.dto.item.ItemPageResponse;
 import org.ntnu.idatt2106.backend.exceptions.UserNotFoundException;
+import org.ntnu.idatt2106.backend.model.Admin;
+import org.ntnu.idatt2106.backend.model.Item;
 import org.ntnu.idatt2106.backend.model.User;
 import org.ntnu.idatt2106.backend.repo.ItemRepo;
 import org.ntnu.idatt2106.backend.security.JWT_token;
 import org.ntnu.idatt2106.backend.service.CategoryService;
+import org.ntnu.idatt2106.backend.service.InventoryExporter;
 import org.ntnu.idatt2106.backend.service.ItemService;
 import org.ntnu.idatt2106.backend.service.UnitService;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -28,6 +46,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -53,6 +72,9 @@ public class InventoryControllerTest {
   @Mock
   private JWT_token jwtToken;
 
+  @Mock
+  private InventoryExporter inventoryExporter;
+
   private ItemGenericDTO itemGenericDTO;
   private String validAuthHeader;
   private User testUser;
@@ -88,7 +110,8 @@ public class InventoryControllerTest {
         1,
         1,
         new Date(),
-        householdIds
+        householdIds,
+        null
     );
   }
 
@@ -253,20 +276,47 @@ public class InventoryControllerTest {
   @DisplayName("getItemsByHousehold method returns items on success")
   void getItemsByHouseholdSuccess() {
     List<ItemGenericDTO> items = List.of(itemGenericDTO);
-    when(itemService.getItemsByHouseholdId(anyInt(), anyInt())).thenReturn(items);
+    when(itemService.getItemsByHouseholdId(anyInt(), anyInt(), eq("expiration"))).thenReturn(items);
 
-    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, validAuthHeader);
+    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, "expiration", null, null, validAuthHeader);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(items, response.getBody());
   }
 
+  @Test
+  @DisplayName("getItemsByHousehold method returns a page when a limit is given")
+  void getItemsByHouseholdPage() {
+    ItemPageResponse page = new ItemPageResponse(List.of(itemGenericDTO), "cursor");
+    when(itemService.getItemPageByHouseholdId(1, TEST_USER_ID, "name", null, 10)).thenReturn(page);
+
+    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, "name", null, 10, validAuthHeader);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  @DisplayName("getItemsByHousehold method returns bad request on invalid paging parameters")
+  void getItemsByHouseholdInvalidPage() {
+    doThrow(new IllegalArgumentException("Invalid cursor"))
+        .when(itemService).validatePageRequest("name", "bad", 20);
+
+    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, "name", "bad", null, validAuthHeader);
+    ResponseEntity<?> invalidSort = inventoryController.getInventoryForHousehold(1, "price", null, null, validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Invalid cursor", response.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, invalidSort.getStatusCode());
+    verify(itemService, never()).getItemPageByHouseholdId(anyInt(), anyInt(), any(), any(), anyInt());
+  }
+
   @Test
   @DisplayName("getItemsByHousehold method returns not found on no existing items")
   void getItemsByHouseholdNotFound() {
-    when(itemService.getItemsByHouseholdId(anyInt(), anyInt())).thenThrow(new UserNotFoundException("No items found for this household"));
+    when(itemService.getItemsByHouseholdId(anyInt(), anyInt(), any())).thenThrow(new UserNotFoundException("No items found for this household"));
 
-    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, validAuthHeader);
+    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, "expiration", null, null, validAuthHeader);
 
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     assertEquals("Error: No items found for this household", response.getBody());
@@ -277,9 +327,230 @@ public class InventoryControllerTest {
   void getItemsByHouseholdUnauthorized() {
     when(jwtToken.getUserByToken("invalid-token")).thenThrow(new IllegalArgumentException("Invalid token"));
 
-    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, "Bearer invalid-token");
+    ResponseEntity<?> response = inventoryController.getInventoryForHousehold(1, "expiration", null, null, "Bearer invalid-token");
 
     assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     assertEquals("Error: Unauthorized", response.getBody());
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("applyBatch method returns ok when the batch is applied")
+  void applyBatchSuccess() {
+    ItemBatchRequest request = new ItemBatchRequest(1, List.of(
+        new ItemBatchOperation(ItemBatchOperation.Type.CREATE, null, "Water", 1.0, 1, 1, new Date(), null)));
+    ItemBatchResponse batchResponse = new ItemBatchResponse(true,
+        List.of(new ItemBatchResult(0, ItemBatchOperation.Type.CREATE, 5, true, null)));
+    when(itemService.applyBatch(request, TEST_USER_ID)).thenReturn(batchResponse);
+
+    ResponseEntity<?> response = inventoryController.applyBatch(request, validAuthHeader);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(batchResponse, response.getBody());
+  }
+
+  @Test
+  @DisplayName("applyBatch method returns bad request with the results when an operation is invalid")
+  void applyBatchInvalidOperation() {
+    ItemBatchRequest request = new ItemBatchRequest(1, List.of());
+    ItemBatchResponse batchResponse = new ItemBatchResponse(false,
+        List.of(new ItemBatchResult(0, ItemBatchOperation.Type.CREATE, null, false, "Unit not found")));
+    when(itemService.applyBatch(request, TEST_USER_ID)).thenReturn(batchResponse);
+
+    ResponseEntity<?> response = inventoryController.applyBatch(request, validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals(batchResponse, response.getBody());
+  }
+
+  @Test
+  @DisplayName("applyBatch method returns bad request when the batch is rejected")
+  void applyBatchRejected() {
+    ItemBatchRequest request = new ItemBatchRequest(1, List.of());
+    when(itemService.applyBatch(request, TEST_USER_ID))
+        .thenThrow(new IllegalArgumentException("No operations given"));
+
+    ResponseEntity<?> response = inventoryController.applyBatch(request, validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: No operations given", response.getBody());
+  }
+
+  @Test
+  @DisplayName("getInventoryChanges method returns the changes since the revision")
+  void getInventoryChangesSuccess() {
+    InventoryChangesResponse changes = new InventoryChangesResponse(8, List.of(itemGenericDTO), List.of(3));
+    when(itemService.getChangesSince(1, TEST_USER_ID, 5)).thenReturn(changes);
+
+    ResponseEntity<?> response = inventoryController.getInventoryChanges(1, 5, validAuthHeader);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(changes, response.getBody());
+  }
+
+  @Test
+  @DisplayName("getInventoryChanges method returns bad request on an invalid revision")
+  void getInventoryChangesInvalidRevision() {
+    when(itemService.getChangesSince(1, TEST_USER_ID, 99))
+        .thenThrow(new IllegalArgumentException("Revision is ahead of the household"));
+
+    ResponseEntity<?> response = inventoryController.getInventoryChanges(1, 99, validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Revision is ahead of the household", response.getBody());
+  }
+
+  @Test
+  @DisplayName("getInventoryTotals method returns the totals of the household")
+  void getInventoryTotalsSuccess() {
+    List<InventoryTotalResponse> totals = List.of(new InventoryTotalResponse(1, 1, 2, 3.0, new Date()));
+    when(itemService.getTotalsByHouseholdId(1, TEST_USER_ID)).thenReturn(totals);
+
+    ResponseEntity<?> response = inventoryController.getInventoryTotals(1, validAuthHeader);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(totals, response.getBody());
+  }
+
+  @Test
+  @DisplayName("getInventoryTotals method returns bad request if the user is not in the household")
+  void getInventoryTotalsNotMember() {
+    when(itemService.getTotalsByHouseholdId(1, TEST_USER_ID))
+        .thenThrow(new IllegalArgumentException("User is not a member of the specified household"));
+
+    ResponseEntity<?> response = inventoryController.getInventoryTotals(1, validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: User is not a member of the specified household", response.getBody());
+  }
+
+  @Test
+  @DisplayName("updateItem method returns conflict when the item was changed since it was read")
+  void updateItemConflict() {
+    when(itemService.updateItem(itemGenericDTO, TEST_USER_ID))
+        .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1));
+
+    ResponseEntity<?> response = inventoryController.updateItem(itemGenericDTO, validAuthHeader);
+
+    assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    assertEquals("Error: Item was changed by another user", response.getBody());
+  }
+
+  @Test
+  @DisplayName("changeAmount method returns the new amount")
+  void changeAmountSuccess() {
+    ItemAmountResponse amount = new ItemAmountResponse(1, 9.5, 5);
+    when(itemService.changeAmount(1, -0.5, TEST_USER_ID)).thenReturn(amount);
+
+    ResponseEntity<?> response = inventoryController.changeAmount(1, new ItemAmountRequest(-0.5), validAuthHeader);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(amount, response.getBody());
+  }
+
+  @Test
+  @DisplayName("changeAmount method returns bad request when the amount would become negative")
+  void changeAmountNegative() {
+    when(itemService.changeAmount(1, -20, TEST_USER_ID))
+        .thenThrow(new IllegalArgumentException("Amount cannot be negative"));
+
+    ResponseEntity<?> response = inventoryController.changeAmount(1, new ItemAmountRequest(-20), validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Amount cannot be negative", response.getBody());
+  }
+
+  @Test
+  @DisplayName("exportHousehold method streams the inventory of the household as CSV")
+  void exportHouseholdSuccess() throws Exception {
+    doAnswer(invocation -> {
+      OutputStream out = invocation.getArgument(3);
+      out.write("householdId,id\n1,1\n".getBytes(StandardCharsets.UTF_8));
+      return 1L;
+    }).when(inventoryExporter).exportHousehold(eq(1), eq(TEST_USER_ID), eq(InventoryExporter.Format.CSV), any());
+
+    ResponseEntity<?> response = inventoryController.exportHousehold(1, "csv", validAuthHeader);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(out);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("text/csv", response.getHeaders().getContentType().toString());
+    assertEquals("householdId,id\n1,1\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("exportHousehold method returns bad request before streaming if the user is not in the household")
+  void exportHouseholdNotMember() throws Exception {
+    doThrow(new IllegalArgumentException("User is not a member of the specified household"))
+        .when(inventoryExporter).validateHouseholdExport(1, TEST_USER_ID);
+
+    ResponseEntity<?> response = inventoryController.exportHousehold(1, "ndjson", validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: User is not a member of the specified household", response.getBody());
+    verify(inventoryExporter, never()).exportHousehold(anyInt(), anyInt(), any(), any());
+  }
+
+  @Test
+  @DisplayName("exportHousehold method returns bad request on an unknown format")
+  void exportHouseholdInvalidFormat() {
+    ResponseEntity<?> response = inventoryController.exportHousehold(1, "xml", validAuthHeader);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Invalid format, must be ndjson or csv", response.getBody());
+  }
+
+  @Test
+  @DisplayName("exportAll method streams every inventory as NDJSON for an admin")
+  void exportAllSuccess() throws Exception {
+    when(jwtToken.getAdminUserByToken(any())).thenReturn(new Admin());
+    doAnswer(invocation -> {
+      OutputStream out = invocation.getArgument(1);
+      out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+      return 1L;
+    }).when(inventoryExporter).exportAll(eq(InventoryExporter.Format.NDJSON), any());
+
+    ResponseEntity<?> response = inventoryController.exportAll("ndjson", validAuthHeader);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(out);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+    assertEquals("{\"id\":1}\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("exportAll method returns unauthorized when the user is not an admin")
+  void exportAllUnauthorized() throws Exception {
+    when(jwtToken.getAdminUserByToken(any())).thenReturn(null);
+
+    ResponseEntity<?> response = inventoryController.exportAll("ndjson", validAuthHeader);
+
+    assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    assertEquals("Error: Unauthorized", response.getBody());
+    verify(inventoryExporter, never()).exportAll(any(), any());
+  }
+
+  @Test
+  @DisplayName("lookupProducts method returns the matching catalog products")
+  void lookupProductsSuccess() {
+    List<CatalogProductResponse> products = List.of(
+        new CatalogProductResponse("2001000000029", "Bottled Water 1.5 L", "Water", "L", null, 365));
+    when(itemService.lookupProducts("water", 10)).thenReturn(products);
+
+    ResponseEntity<?> response = inventoryController.lookupProducts("water", null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(products, response.getBody());
+  }
+
+  @Test
+  @DisplayName("lookupProducts method returns bad request on a blank query")
+  void lookupProductsBlankQuery() {
+    when(itemService.lookupProducts(" ", 10)).thenThrow(new IllegalArgumentException("Query must not be blank"));
+
+    ResponseEntity<?> response = inventoryController.lookupProducts(" ", null);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Query must not be blank", response.getBody());
+  }
+}
@@ -9,14 +9,21 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.ntnu.idatt2106.backend.dto.news.NewsCreateRequest;
 import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
 import org.ntnu.idatt2106.backend.exceptions.AlreadyInUseException;
 import org.ntnu.idatt2106.backend.model.Admin;
 import org.ntnu.idatt2106.backend.repo.NewsRepo;
 import org.ntnu.idatt2106.backend.security.JWT_token;
 import org.ntnu.idatt2106.backend.service.NewsService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 
@@ -52,31 +59,42 @@ class NewsControllerTest {
   }
 
   @Test
-  @DisplayName("getNews returns 200 - OK and list of news")
+  @DisplayName("getNews returns 200 - OK and a page of news")
   void testGetNewsSuccess() {
-    when(newsService.getAllNews()).thenReturn(List.of(newsResponse));
-    ResponseEntity<?> response = newsController.getNews();
+    NewsPageResponse page = new NewsPageResponse(List.of(newsResponse), "next");
+    when(newsService.getLatestNewsPerCase(null, 20)).thenReturn(page);
+    ResponseEntity<?> response = newsController.getNews(null, 20);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertInstanceOf(List.class, response.getBody());
+    assertEquals(page, response.getBody());
   }
 
   @Test
-  @DisplayName("getNews returns 404 - Not Found on exception")
-  void testGetNewsNotFound() {
-    when(newsService.getAllNews()).thenThrow(new EntityNotFoundException("No news found"));
-    when(newsService.groupNewsByCaseIdAndSort(anyList())).thenReturn(List.of());
-    ResponseEntity<?> response = newsController.getNews();
+  @DisplayName("getNews passes the cursor and limit to the service")
+  void testGetNewsWithCursor() {
+    NewsPageResponse page = new NewsPageResponse(List.of(), null);
+    when(newsService.getLatestNewsPerCase("cursor", 5)).thenReturn(page);
+    ResponseEntity<?> response = newsController.getNews("cursor", 5);
 
-    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-    assertEquals("Error: No news found", response.getBody());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  @DisplayName("getNews returns 400 - Bad Request on invalid cursor or limit")
+  void testGetNewsInvalidPage() {
+    when(newsService.getLatestNewsPerCase(any(), anyInt())).thenThrow(new IllegalArgumentException("Invalid cursor"));
+    ResponseEntity<?> response = newsController.getNews("bad", 20);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Invalid cursor", response.getBody());
   }
 
   @Test
   @DisplayName("getNews returns 500 - Internal Server Error on exception")
   void testGetNewsError() {
-    when(newsService.getAllNews()).thenThrow(new RuntimeException("boom"));
-    ResponseEntity<?> response = newsController.getNews();
+    when(newsService.getLatestNewsPerCase(any(), anyInt())).thenThrow(new RuntimeException("boom"));
+    ResponseEntity<?> response = newsController.getNews(null, 20);
 
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     assertEquals("Error: Error retrieving news", response.getBody());
@@ -103,62 +121,62 @@ class NewsControllerTest {
   }
 
   @Test
-  @DisplayName("getByDistrict returns 200 - OK and news list")
+  @DisplayName("getByDistrict returns 200 - OK and the cached page of news as JSON")
   void testGetByDistrictSuccess() {
-    when(newsService.getByDistrict("Oslo Politidistrikt")).thenReturn(List.of(newsResponse));
-    ResponseEntity<?> response = newsController.getByDistrict("Oslo");
+    byte[] page = "{\"items\":[],\"nextCursor\":null}".getBytes(StandardCharsets.UTF_8);
+    when(newsService.getByDistrictCached("Oslo Politidistrikt", null, 20)).thenReturn(page);
+    ResponseEntity<?> response = newsController.getByDistrict("Oslo", null, 20);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertInstanceOf(List.class, response.getBody());
+    assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    assertArrayEquals(page, (byte[]) response.getBody());
   }
 
   @Test
-  @DisplayName("getByDistrict returns 404 - Not Found for empty list")
-  void testGetByDistrictNotFound() {
-    when(newsService.getByDistrict("Oslo Politidistrikt")).thenThrow(new EntityNotFoundException("No news found for district: Oslo"));
-    when(newsService.groupNewsByCaseIdAndSort(anyList())).thenReturn(List.of());
-    ResponseEntity<?> response = newsController.getByDistrict("Oslo");
+  @DisplayName("getByDistrict returns 400 - Bad Request on invalid cursor")
+  void testGetByDistrictInvalidCursor() {
+    when(newsService.getByDistrictCached("Oslo Politidistrikt", "bad", 20)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+    ResponseEntity<?> response = newsController.getByDistrict("Oslo", "bad", 20);
 
-    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-    assertTrue(response.getBody().toString().contains("Error: No news found for district: Oslo"));
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Invalid cursor", response.getBody());
   }
 
   @Test
   @DisplayName("getByDistrict returns 500 on exception")
   void testGetByDistrictError() {
-    when(newsService.getByDistrict("Oslo Politidistrikt")).thenThrow(new RuntimeException("boom"));
-    ResponseEntity<?> response = newsController.getByDistrict("Oslo");
+    when(newsService.getByDistrictCached("Oslo Politidistrikt", null, 20)).thenThrow(new RuntimeException("boom"));
+    ResponseEntity<?> response = newsController.getByDistrict("Oslo", null, 20);
 
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     assertEquals("Error: Error retrieving news for district: Oslo", response.getBody());
   }
 
   @Test
-  @DisplayName("getByCaseId returns 200 - OK and list of news")
+  @DisplayName("getByCaseId returns 200 - OK and a page of news")
   void getByCaseIdSuccess() {
-    when(newsService.getByCaseId("CaseId")).thenReturn(List.of(newsResponse));
-    ResponseEntity<?> response = newsController.getByCaseId("CaseId");
+    NewsPageResponse page = new NewsPageResponse(List.of(newsResponse), null);
+    when(newsService.getByCaseId("CaseId", null, 20)).thenReturn(page);
+    ResponseEntity<?> response = newsController.getByCaseId("CaseId", null, 20);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertInstanceOf(List.class, response.getBody());
+    assertEquals(page, response.getBody());
   }
 
   @Test
-  @DisplayName("getByCaseId returns 404 - Not Found on empty list")
-  void getByCaseIdNotFound() {
-    when(newsService.getByCaseId("CaseId")).thenThrow(new EntityNotFoundException("No news found for case ID: CaseId"));
-    when(newsService.groupNewsByCaseIdAndSort(anyList())).thenReturn(List.of());
-    ResponseEntity<?> response = newsController.getByCaseId("CaseId");
+  @DisplayName("getByCaseId returns 400 - Bad Request on invalid limit")
+  void getByCaseIdInvalidLimit() {
+    when(newsService.getByCaseId("CaseId", null, 0)).thenThrow(new IllegalArgumentException("Limit must be between 1 and 100"));
+    ResponseEntity<?> response = newsController.getByCaseId("CaseId", null, 0);
 
-    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-    assertTrue(response.getBody().toString().contains("Error: No news found for case ID: CaseId"));
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
   }
 
   @Test
   @DisplayName("getByCaseId returns 500 - Internal Server Error on exception")
   void getByCaseIdError() {
-    when(newsService.getByCaseId("CaseId")).thenThrow(new RuntimeException("boom"));
-    ResponseEntity<?> response = newsController.getByCaseId("CaseId");
+    when(newsService.getByCaseId("CaseId", null, 20)).thenThrow(new RuntimeException("boom"));
+    ResponseEntity<?> response = newsController.getByCaseId("CaseId", null, 20);
 
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     assertEquals("Error: Error retrieving news for case ID: CaseId", response.getBody());
@@ -232,4 +250,109 @@ class NewsControllerTest {
     assertEquals("Error: Error adding news", response.getBody());
   }
 
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("getArchive returns 200 - OK and streams the archived period as NDJSON")
+  void testGetArchiveSuccess() throws Exception {
+    LocalDate from = LocalDate.of(2025, 5, 1);
+    LocalDate to = LocalDate.of(2025, 5, 7);
+    when(jwt.getAdminUserByToken(anyString())).thenReturn(new Admin());
+    doAnswer(invocation -> {
+      OutputStream out = invocation.getArgument(2);
+      out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+      return null;
+    }).when(newsService).streamArchive(eq(from), eq(to), any());
+
+    ResponseEntity<?> response = newsController.getArchive("Bearer valid-token", from, to);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(out);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+    assertEquals("{\"id\":1}\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("getArchive returns 400 - Bad Request on an invalid period")
+  void testGetArchiveInvalidPeriod() {
+    LocalDate from = LocalDate.of(2025, 5, 7);
+    LocalDate to = LocalDate.of(2025, 5, 1);
+    when(jwt.getAdminUserByToken(anyString())).thenReturn(new Admin());
+    doThrow(new IllegalArgumentException("From must not be after to"))
+        .when(newsService).validateArchivePeriod(from, to);
+
+    ResponseEntity<?> response = newsController.getArchive("Bearer valid-token", from, to);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: From must not be after to", response.getBody());
+  }
+
+  @Test
+  @DisplayName("getArchive returns 401 - Unauthorized when user is not admin")
+  void testGetArchiveUnauthorized() {
+    ResponseEntity<?> response = newsController.getArchive("Bearer invalid-token",
+        LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 7));
+
+    assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    assertEquals("Error: Unauthorized", response.getBody());
+    verifyNoInteractions(newsService);
+  }
+
+  @Test
+  @DisplayName("getNewsNear returns 200 - OK with news near the point")
+  void testGetNewsNearSuccess() {
+    when(newsService.getNewsNear(63.4305, 10.3951, 10)).thenReturn(List.of(newsResponse));
+    ResponseEntity<?> response = newsController.getNewsNear(63.4305, 10.3951, 10);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(List.of(newsResponse), response.getBody());
+  }
+
+  @Test
+  @DisplayName("getNewsNear returns 400 - Bad Request on invalid arguments")
+  void testGetNewsNearInvalid() {
+    when(newsService.getNewsNear(anyDouble(), anyDouble(), anyDouble()))
+        .thenThrow(new IllegalArgumentException("Invalid coordinates"));
+    ResponseEntity<?> response = newsController.getNewsNear(91, 10, 10);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Error: Invalid coordinates", response.getBody());
+  }
+
+  @Test
+  @DisplayName("getNewsNear returns 404 - Not Found when no news is near")
+  void testGetNewsNearNotFound() {
+    when(newsService.getNewsNear(anyDouble(), anyDouble(), anyDouble()))
+        .thenThrow(new EntityNotFoundException("No news found within 10.0 km"));
+    ResponseEntity<?> response = newsController.getNewsNear(60, 10, 10);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("searchNews returns 200 - OK with matching news")
+  void testSearchNewsSuccess() {
+    when(newsService.searchNews("brann", 20)).thenReturn(List.of(newsResponse));
+    ResponseEntity<?> response = newsController.searchNews("brann", 20);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(List.of(newsResponse), response.getBody());
+  }
+
+  @Test
+  @DisplayName("searchNews returns 400 - Bad Request on invalid query or limit")
+  void testSearchNewsInvalid() {
+    when(newsService.searchNews("og", 20)).thenThrow(new IllegalArgumentException("Search query must contain at least one searchable word"));
+
+    assertEquals(HttpStatus.BAD_REQUEST, newsController.searchNews("og", 20).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST, newsController.searchNews("brann", 0).getStatusCode());
+  }
+
+  @Test
+  @DisplayName("searchNews returns 404 - Not Found when nothing matches")
+  void testSearchNewsNotFound() {
+    when(newsService.searchNews("brann", 20)).thenThrow(new EntityNotFoundException("No news found matching: brann"));
+
+    assertEquals(HttpStatus.NOT_FOUND, newsController.searchNews("brann", 20).getStatusCode());
+  }
+}
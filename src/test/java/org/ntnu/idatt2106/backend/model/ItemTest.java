@@ -83,7 +83,7 @@ public class ItemTest {
     Item item = new Item();
     Household household1 = new Household();
     Household household2 = new Household();
-    item.setHousehold(java.util.List.of(household1, household2));
+    item.setHousehold(java.util.Set.of(household1, household2));
     assertEquals(2, item.getHousehold().size());
   }
 }
@@ -0,0 +1,215 @@
+package org.ntnu.idatt2106.backend.repo;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchOperation;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemCreateRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemGenericDTO;
+import org.ntnu.idatt2106.backend.model.Category;
+import org.ntnu.idatt2106.backend.model.Household;
+import org.ntnu.idatt2106.backend.model.HouseholdMembers;
+import org.ntnu.idatt2106.backend.model.HouseholdMembersId;
+import org.ntnu.idatt2106.backend.model.Item;
+import org.ntnu.idatt2106.backend.model.Unit;
+import org.ntnu.idatt2106.backend.model.User;
+import org.ntnu.idatt2106.backend.service.HouseholdMembershipIndex;
+import org.ntnu.idatt2106.backend.service.InventoryChangeLog;
+import org.ntnu.idatt2106.backend.service.ItemService;
+import org.ntnu.idatt2106.backend.service.ProductCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the statements written to the inventory join table,
+ * which is owned by Item.household alone. Statements are counted as prepared,
+ * so the rows of a JDBC batch count as one statement.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:inventory-join-table",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.ntnu.idatt2106.backend.repo.InventoryJoinTableTest$StatementRecorder"
+})
+@Import({ItemService.class, InventoryChangeLog.class, HouseholdMembershipIndex.class, ProductCatalog.class})
+class InventoryJoinTableTest {
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private ItemService itemService;
+
+  private User user;
+  private Household first;
+  private Household second;
+  private Unit unit;
+  private Category category;
+
+  /**
+   * Records the SQL of the statements prepared by Hibernate
+   */
+  public static class StatementRecorder implements StatementInspector {
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      synchronized (statements) {
+        statements.add(sql.toLowerCase(Locale.ROOT));
+      }
+      return sql;
+    }
+
+    static void clear() {
+      synchronized (statements) {
+        statements.clear();
+      }
+    }
+
+    static long count(String prefix) {
+      synchronized (statements) {
+        return statements.stream().filter(sql -> sql.startsWith(prefix)).count();
+      }
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    category = new Category("Water", "Vann", 0, false);
+    unit = new Unit("L", "L");
+    user = new User("test@example.com", "password", "Test", "User", "12345678");
+    first = new Household(0, "First", 63.4, 10.4);
+    second = new Household(0, "Second", 59.9, 10.7);
+    entityManager.persist(category);
+    entityManager.persist(unit);
+    entityManager.persist(user);
+    entityManager.persist(first);
+    entityManager.persist(second);
+    for (Household household : List.of(first, second)) {
+      HouseholdMembers member = new HouseholdMembers();
+      member.setId(new HouseholdMembersId(user.getId(), household.getId()));
+      member.setUser(user);
+      member.setHousehold(household);
+      entityManager.persist(member);
+    }
+    entityManager.flush();
+    StatementRecorder.clear();
+  }
+
+  private static long inserts() {
+    return StatementRecorder.count("insert into inventory ");
+  }
+
+  private static long deletes() {
+    return StatementRecorder.count("delete from inventory ");
+  }
+
+  private Item persistItem(String name, Household... households) {
+    Item item = new Item(name, 1.0, unit, new Date(), category);
+    item.getHousehold().addAll(List.of(households));
+    entityManager.persist(item);
+    entityManager.flush();
+    StatementRecorder.clear();
+    return item;
+  }
+
+  private ItemGenericDTO update(Item item, List<Integer> householdIds) {
+    return new ItemGenericDTO(item.getId(), item.getName(), 2.0, unit.getId(), category.getId(),
+        item.getExpirationDate(), householdIds, null);
+  }
+
+  @Test
+  @DisplayName("adding an item inserts the join rows of all its households in one batched statement")
+  void testAddItem() {
+    itemService.addItem(new ItemCreateRequest("Water", 1.0, unit.getId(), category.getId(), new Date(),
+        List.of(first.getId(), second.getId())), user.getId());
+    entityManager.flush();
+
+    assertEquals(1, inserts());
+    assertEquals(0, deletes());
+    assertEquals(2L, entityManager.createNativeQuery("SELECT COUNT(*) FROM inventory").getSingleResult());
+  }
+
+  @Test
+  @DisplayName("sharing an item with another household inserts only the new join row")
+  void testUpdateItemAddsHousehold() {
+    Item item = persistItem("Water", first);
+
+    itemService.updateItem(update(item, List.of(first.getId(), second.getId())), user.getId());
+    entityManager.flush();
+
+    assertEquals(1, inserts());
+    assertEquals(0, deletes());
+  }
+
+  @Test
+  @DisplayName("removing a household from an item deletes only its join row")
+  void testUpdateItemRemovesHousehold() {
+    Item item = persistItem("Water", first, second);
+
+    itemService.updateItem(update(item, List.of(first.getId())), user.getId());
+    entityManager.flush();
+
+    assertEquals(0, inserts());
+    assertEquals(1, deletes());
+  }
+
+  @Test
+  @DisplayName("updating an item without changing its households writes no join rows")
+  void testUpdateItemSameHouseholds() {
+    Item item = persistItem("Water", first, second);
+
+    itemService.updateItem(update(item, List.of(second.getId(), first.getId())), user.getId());
+    entityManager.flush();
+
+    assertEquals(0, inserts());
+    assertEquals(0, deletes());
+  }
+
+  @Test
+  @DisplayName("deleting a shared item deletes its join rows with one statement")
+  void testDeleteItem() {
+    Item item = persistItem("Water", first, second);
+
+    itemService.deleteItem(item.getId(), user.getId());
+    entityManager.flush();
+
+    assertEquals(0, inserts());
+    assertEquals(1, deletes());
+    assertEquals(0L, entityManager.createNativeQuery("SELECT COUNT(*) FROM inventory").getSingleResult());
+  }
+
+  @Test
+  @DisplayName("a batch deletes the join rows of all its deleted items with one statement")
+  void testApplyBatchDeletes() {
+    Item water = persistItem("Water", first, second);
+    Item rice = persistItem("Rice", first);
+    Item beans = persistItem("Beans", first);
+    Item kept = persistItem("Bread", first);
+
+    assertTrue(itemService.applyBatch(new ItemBatchRequest(first.getId(), List.of(
+        new ItemBatchOperation(ItemBatchOperation.Type.DELETE, water.getId(), null, 0, 0, 0, null, null),
+        new ItemBatchOperation(ItemBatchOperation.Type.DELETE, rice.getId(), null, 0, 0, 0, null, null),
+        new ItemBatchOperation(ItemBatchOperation.Type.DELETE, beans.getId(), null, 0, 0, 0, null, null))),
+        user.getId()).isApplied());
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals(0, inserts());
+    assertEquals(1, deletes());
+    assertEquals(List.of(kept.getId()), entityManager
+        .createQuery("SELECT i.id FROM Item i", Integer.class).getResultList());
+    assertEquals(1L, entityManager.createNativeQuery("SELECT COUNT(*) FROM inventory").getSingleResult());
+  }
+}
@@ -0,0 +1,150 @@
+package org.ntnu.idatt2106.backend.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.exceptions.UnauthorizedException;
+import org.ntnu.idatt2106.backend.service.ExpiryNotificationDispatcher;
+import org.ntnu.idatt2106.backend.service.HouseholdMembershipIndex;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the StompAuthorizationInterceptor
+ */
+class StompAuthorizationInterceptorTest {
+
+  private final JWT_token jwtToken = mock(JWT_token.class);
+  private final HouseholdMembershipIndex membershipIndex = mock(HouseholdMembershipIndex.class);
+  private final MessageChannel channel = mock(MessageChannel.class);
+  private final StompAuthorizationInterceptor interceptor =
+      new StompAuthorizationInterceptor(jwtToken, membershipIndex);
+
+  private static StompHeaderAccessor headers(StompCommand command, String destination, Integer userId) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+    accessor.setSessionId("session");
+    accessor.setDestination(destination);
+    if (userId != null) {
+      accessor.setUser(new UsernamePasswordAuthenticationToken(String.valueOf(userId), null, List.of()));
+    }
+    // Left mutable like the frames of a client session, so the interceptor can set the user
+    accessor.setLeaveMutable(true);
+    return accessor;
+  }
+
+  private static Message<byte[]> frame(StompHeaderAccessor accessor) {
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> connect(String authorization) {
+    StompHeaderAccessor accessor = headers(StompCommand.CONNECT, null, null);
+    accessor.setNativeHeader("Authorization", authorization);
+    return frame(accessor);
+  }
+
+  private static Message<byte[]> subscribe(String destination, Integer userId) {
+    return frame(headers(StompCommand.SUBSCRIBE, destination, userId));
+  }
+
+  private static Message<byte[]> send(String destination) {
+    return frame(headers(StompCommand.SEND, destination, 7));
+  }
+
+  @Test
+  @DisplayName("CONNECT with a valid token sets the user of the session")
+  void testConnectWithToken() {
+    when(jwtToken.extractIdFromJwt("token")).thenReturn("7");
+    Message<byte[]> connect = connect("Bearer token");
+
+    interceptor.preSend(connect, channel);
+
+    Principal user = StompHeaderAccessor.wrap(connect).getUser();
+    assertNotNull(user);
+    assertEquals("7", user.getName());
+  }
+
+  @Test
+  @DisplayName("CONNECT without a token is allowed as an anonymous session")
+  void testConnectWithoutToken() {
+    Message<byte[]> connect = connect(null);
+
+    interceptor.preSend(connect, channel);
+
+    assertNull(StompHeaderAccessor.wrap(connect).getUser());
+    verifyNoInteractions(jwtToken);
+  }
+
+  @Test
+  @DisplayName("CONNECT with an invalid token or header is rejected")
+  void testConnectWithInvalidToken() {
+    when(jwtToken.extractIdFromJwt("expired")).thenReturn(null);
+
+    assertThrows(UnauthorizedException.class, () -> interceptor.preSend(connect("Bearer expired"), channel));
+    assertThrows(UnauthorizedException.class, () -> interceptor.preSend(connect("token"), channel));
+  }
+
+  @Test
+  @DisplayName("a member may subscribe to the topic of the household")
+  void testSubscribeAsMember() {
+    when(membershipIndex.isMember(7, 3)).thenReturn(true);
+    Message<byte[]> subscribe = subscribe(ExpiryNotificationDispatcher.getHouseholdTopic(3), 7);
+
+    assertSame(subscribe, interceptor.preSend(subscribe, channel));
+  }
+
+  @Test
+  @DisplayName("a user that is not a member may not subscribe to the topic of the household")
+  void testSubscribeAsNonMember() {
+    when(membershipIndex.isMember(7, 3)).thenReturn(false);
+
+    assertThrows(UnauthorizedException.class, () -> interceptor.preSend(
+        subscribe(ExpiryNotificationDispatcher.getHouseholdTopic(3), 7), channel));
+  }
+
+  @Test
+  @DisplayName("an anonymous session may not subscribe to household topics")
+  void testSubscribeAnonymously() {
+    assertThrows(UnauthorizedException.class, () -> interceptor.preSend(
+        subscribe(ExpiryNotificationDispatcher.getHouseholdTopic(3), null), channel));
+    verifyNoInteractions(membershipIndex);
+  }
+
+  @Test
+  @DisplayName("subscriptions with destination patterns or invalid household ids are rejected")
+  void testSubscribeToPatterns() {
+    for (String destination : List.of("/topic/households/*/expiring", "/topic/households/**",
+        "/topic/*/3/expiring", "/topic/household?/3/expiring", "/topic/households/abc/expiring")) {
+      assertThrows(UnauthorizedException.class, () -> interceptor.preSend(subscribe(destination, 7), channel),
+          destination);
+    }
+    verifyNoInteractions(membershipIndex);
+  }
+
+  @Test
+  @DisplayName("anyone may subscribe to the news topics")
+  void testSubscribeToNews() {
+    Message<byte[]> subscribe = subscribe("/topic/news/oslo-politidistrikt", null);
+
+    assertSame(subscribe, interceptor.preSend(subscribe, channel));
+  }
+
+  @Test
+  @DisplayName("clients may only send to application destinations")
+  void testSend() {
+    assertThrows(UnauthorizedException.class, () -> interceptor.preSend(
+        send(ExpiryNotificationDispatcher.getHouseholdTopic(3)), channel));
+    assertThrows(UnauthorizedException.class, () -> interceptor.preSend(send("/topic/news"), channel));
+
+    Message<byte[]> send = send("/app/ping");
+    assertSame(send, interceptor.preSend(send, channel));
+  }
+}
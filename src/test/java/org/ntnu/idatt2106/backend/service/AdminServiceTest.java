@@ -53,6 +53,9 @@ public class AdminServiceTest {
   @Mock
   private UserRepo userRepo;
 
+  @Mock
+  private HouseholdMembershipIndex membershipIndex;
+
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
@@ -672,6 +675,7 @@ public class AdminServiceTest {
     when(userRepo.findById(1)).thenReturn(Optional.of(testUser));
 
     assertDoesNotThrow(() -> adminService.deleteUser("1", "Bearer valid-token"));
+    verify(membershipIndex).evict(testUser.getId());
   }
 
   @Test
@@ -2,17 +2,28 @@ package org.ntnu.idatt2106.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.ntnu.idatt2106.backend.dto.map.BunkerImportSummary;
+import org.ntnu.idatt2106.backend.model.map.Coordinate;
 import org.ntnu.idatt2106.backend.model.map.MapEntity;
 import org.ntnu.idatt2106.backend.model.map.MapMarkerType;
 import org.ntnu.idatt2106.backend.repo.map.MapEntityRepo;
 import org.ntnu.idatt2106.backend.repo.map.MapEntityTypeRepo;
 import org.ntnu.idatt2106.backend.repo.map.MapMarkerTypeRepo;
+import org.springframework.core.io.ClassPathResource;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +32,9 @@ import static org.mockito.Mockito.*;
 
 class BunkerImportServiceTest {
 
+    private static final String SOURCE_HASH =
+        BunkerImportService.computeContentHash("source", "", 0.0, 0.0);
+
     @InjectMocks
     private BunkerImportService bunkerImportService;
 
@@ -36,6 +50,12 @@ class BunkerImportServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private BunkerSnapshotService bunkerSnapshotService;
+
+    @Mock
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -81,18 +101,183 @@ class BunkerImportServiceTest {
         MapMarkerType bunkerMapMarkerType = new MapMarkerType("Bunker");
         when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(bunkerMapMarkerType));
 
-        // Mock repo to return empty so service will be saved
-        when(mapEntityRepo.findByLocalID("localID123")).thenReturn(null);
+        // Mock repo to return no stored bunkers so the bunker will be inserted
+        when(mapEntityRepo.findImportedHashesByMapMarkerType(bunkerMapMarkerType)).thenReturn(List.of());
 
         // Spy BunkerImportService for mocking file reading
         BunkerImportService spyService = Mockito.spy(bunkerImportService);
         doReturn(rootNode).when(spyService).readJsonFromFile(anyString());
 
         // Act
-        spyService.importBunkerDataFromJson("dummy-file.json");
+        BunkerImportSummary summary = spyService.importBunkerDataFromJson("dummy-file.json");
 
         // Assert
-        verify(mapEntityRepo, times(1)).save(any(MapEntity.class));
+        ArgumentCaptor<List<MapEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapEntityRepo, times(1)).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("localID123", captor.getValue().get(0).getLocalID());
+        assertNotNull(captor.getValue().get(0).getContentHash());
+        assertEquals(1, summary.getInserted());
+        assertEquals(0, summary.getUpdated());
+        assertEquals(0, summary.getDeleted());
+        assertEquals(0, summary.getUnchanged());
+    }
+
+    @Test
+    @DisplayName("Should only write changed and removed bunkers on re-import")
+    void testImportBunkerDataFromJsonAppliesDifferences() throws Exception {
+        JsonNode rootNode = new ObjectMapper().readTree("""
+            { "features": [
+              { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                "properties": { "lokalId": "same", "adresse": "Trimv. 09", "plasser": 400 } },
+              { "geometry": { "coordinates": [ 243812.0, 6595205.0 ] },
+                "properties": { "lokalId": "changed", "adresse": "Torget 6", "plasser": 450 } }
+            ] }
+            """);
+
+        MapMarkerType bunkerMapMarkerType = new MapMarkerType("Bunker");
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(bunkerMapMarkerType));
+
+        MapEntity same = storedBunker("same",
+            BunkerImportService.computeContentHash("Trimv. 09", "400", 242485.0, 6593925.0));
+        MapEntity changed = storedBunker("changed",
+            BunkerImportService.computeContentHash("Torget 6", "390", 243812.0, 6595205.0));
+        MapEntity removed = storedBunker("removed", "whatever");
+        when(mapEntityRepo.findImportedHashesByMapMarkerType(bunkerMapMarkerType))
+            .thenReturn(List.of(importedHash(same), importedHash(changed), importedHash(removed)));
+        when(mapEntityRepo.findAllByLocalIDIn(List.of("changed"))).thenReturn(List.of(changed));
+        when(mapEntityRepo.findAllByLocalIDIn(List.of("removed"))).thenReturn(List.of(removed));
+
+        BunkerImportService spyService = Mockito.spy(bunkerImportService);
+        doReturn(rootNode).when(spyService).readJsonFromFile(anyString());
+
+        BunkerImportSummary summary = spyService.importBunkerDataFromJson("dummy-file.json");
+
+        verify(mapEntityRepo).saveAll(List.of(changed));
+        verify(mapEntityRepo).deleteAll(List.of(removed));
+        verify(mapEntityRepo, never()).findAllByLocalIDIn(List.of("same"));
+        assertEquals("Bunker with capacity: 450", changed.getDescription());
+        assertEquals(0, summary.getInserted());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(1, summary.getDeleted());
+        assertEquals(1, summary.getUnchanged());
+    }
+
+    @Test
+    @DisplayName("Should compute different hashes when any bunker field changes")
+    void testComputeContentHash() {
+        String hash = BunkerImportService.computeContentHash("Torget 6", "390", 1.0, 2.0);
+
+        assertEquals(hash, BunkerImportService.computeContentHash("Torget 6", "390", 1.0, 2.0));
+        assertEquals(64, hash.length());
+        assertNotEquals(hash, BunkerImportService.computeContentHash("Torget 7", "390", 1.0, 2.0));
+        assertNotEquals(hash, BunkerImportService.computeContentHash("Torget 6", "391", 1.0, 2.0));
+        assertNotEquals(hash, BunkerImportService.computeContentHash("Torget 6", "390", 1.5, 2.0));
+    }
+
+    @Test
+    @DisplayName("Should write bunkers in chunks and clear the persistence context after each chunk")
+    void testImportBunkerDataWritesInChunks() throws Exception {
+        StringBuilder features = new StringBuilder();
+        for (int i = 0; i < 501; i++) {
+            features.append(i == 0 ? "" : ",").append("""
+                { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                  "properties": { "lokalId": "%d", "adresse": "Trimv. 09", "plasser": 400 } }
+                """.formatted(i));
+        }
+        BunkerImportService service = new BunkerImportService(mapEntityRepo,
+            mapMarkerTypeRepo, new ObjectMapper(), mapEntityTypeRepo, bunkerSnapshotService, entityManager);
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+
+        BunkerImportSummary summary = service.importBunkerDataFromStream(new ByteArrayInputStream(
+            ("{ \"features\": [" + features + "] }").getBytes(StandardCharsets.UTF_8)));
+
+        ArgumentCaptor<List<MapEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapEntityRepo, times(2)).saveAll(captor.capture());
+        assertEquals(500, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        assertEquals(501, summary.getInserted());
+    }
+
+    @Test
+    @DisplayName("Should leave the stream open after importing from it")
+    void testImportBunkerDataFromStreamLeavesStreamOpen() throws Exception {
+        BunkerImportService service = new BunkerImportService(mapEntityRepo,
+            mapMarkerTypeRepo, new ObjectMapper(), mapEntityTypeRepo, bunkerSnapshotService, entityManager);
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+        boolean[] closed = {false};
+        InputStream inputStream = new ByteArrayInputStream("{ \"features\": [] }".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        service.importBunkerDataFromStream(inputStream);
+
+        assertFalse(closed[0]);
+        verify(mapEntityRepo, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should import only the first feature of a local ID that occurs more than once")
+    void testImportBunkerDataSkipsDuplicateLocalIDs() throws Exception {
+        JsonNode rootNode = new ObjectMapper().readTree("""
+            { "features": [
+              { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                "properties": { "lokalId": "new", "adresse": "Trimv. 09", "plasser": 400 } },
+              { "geometry": { "coordinates": [ 243812.0, 6595205.0 ] },
+                "properties": { "lokalId": "changed", "adresse": "Torget 6", "plasser": 450 } },
+              { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                "properties": { "lokalId": "new", "adresse": "Trimv. 10", "plasser": 300 } },
+              { "geometry": { "coordinates": [ 243812.0, 6595205.0 ] },
+                "properties": { "lokalId": "changed", "adresse": "Torget 7", "plasser": 100 } }
+            ] }
+            """);
+        MapMarkerType bunkerMapMarkerType = new MapMarkerType("Bunker");
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(bunkerMapMarkerType));
+        MapEntity changed = storedBunker("changed", "whatever");
+        when(mapEntityRepo.findImportedHashesByMapMarkerType(bunkerMapMarkerType))
+            .thenReturn(List.of(importedHash(changed)));
+        when(mapEntityRepo.findAllByLocalIDIn(List.of("changed"))).thenReturn(List.of(changed));
+        BunkerImportService spyService = Mockito.spy(bunkerImportService);
+        doReturn(rootNode).when(spyService).readJsonFromFile(anyString());
+
+        BunkerImportSummary summary = spyService.importBunkerDataFromJson("dummy-file.json");
+
+        ArgumentCaptor<List<MapEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapEntityRepo).saveAll(captor.capture());
+        assertEquals(List.of("new", "changed"), captor.getValue().stream().map(MapEntity::getLocalID).toList());
+        assertEquals("Trimv. 09", captor.getValue().get(0).getAddress());
+        assertEquals("Torget 6", changed.getAddress());
+        assertEquals(1, summary.getInserted());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(0, summary.getDeleted());
+        assertEquals(0, summary.getUnchanged());
+    }
+
+    private static MapEntityRepo.ImportedHash importedHash(MapEntity entity) {
+        return new MapEntityRepo.ImportedHash() {
+            @Override
+            public String getLocalID() {
+                return entity.getLocalID();
+            }
+
+            @Override
+            public String getContentHash() {
+                return entity.getContentHash();
+            }
+        };
+    }
+
+    private MapEntity storedBunker(String localID, String contentHash) {
+        MapEntity entity = new MapEntity();
+        entity.setLocalID(localID);
+        entity.setContentHash(contentHash);
+        entity.setCoordinatePoint(new Coordinate(59.0, 10.0));
+        return entity;
     }
 
     @Test
@@ -133,7 +318,7 @@ class BunkerImportServiceTest {
 
         // Create a new BunkerImportService with the real ObjectMapper
         BunkerImportService service = new BunkerImportService(mapEntityRepo,
-            mapMarkerTypeRepo, realObjectMapper, mapEntityTypeRepo);
+            mapMarkerTypeRepo, realObjectMapper, mapEntityTypeRepo, bunkerSnapshotService, entityManager);
 
         String fileName = "testfile.json";
 
@@ -142,4 +327,153 @@ class BunkerImportServiceTest {
         assertNotNull(jsonNode);
         assertTrue(jsonNode.has("features"), "JSON root should have 'features' node");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should stream features from a local file")
+    void testImportBunkerDataFromFile() throws Exception {
+        Path file = Files.createTempFile("bunkers", ".json");
+        Files.writeString(file, """
+            { "type": "FeatureCollection",
+              "crs": { "properties": { "name": "EPSG:25833" } },
+              "features": [
+                { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                  "properties": { "lokalId": "a", "adresse": "Trimv. 09", "plasser": 400 } },
+                { "geometry": { "coordinates": [ 243812.0, 6595205.0 ] },
+                  "properties": { "lokalId": "b", "adresse": "Torget 6", "plasser": 390 } }
+              ] }
+            """);
+        BunkerImportService service = new BunkerImportService(mapEntityRepo,
+            mapMarkerTypeRepo, new ObjectMapper(), mapEntityTypeRepo, bunkerSnapshotService, entityManager);
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+
+        try {
+            BunkerImportSummary summary = service.importBunkerDataFromFile(file);
+
+            assertEquals(2, summary.getInserted());
+            ArgumentCaptor<List<MapEntity>> captor = ArgumentCaptor.forClass(List.class);
+            verify(mapEntityRepo).saveAll(captor.capture());
+            assertEquals(List.of("a", "b"), captor.getValue().stream().map(MapEntity::getLocalID).toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw IOException when local file has no features")
+    void testImportBunkerDataFromFileWithoutFeatures() throws Exception {
+        Path file = Files.createTempFile("bunkers", ".json");
+        Files.writeString(file, "{ \"type\": \"FeatureCollection\" }");
+        BunkerImportService service = new BunkerImportService(mapEntityRepo,
+            mapMarkerTypeRepo, new ObjectMapper(), mapEntityTypeRepo, bunkerSnapshotService, entityManager);
+
+        try {
+            assertThrows(IOException.class, () -> service.importBunkerDataFromFile(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Should import from snapshot without reading the JSON file")
+    void testImportBunkerDataFromSnapshot() throws Exception {
+        BunkerSnapshotService.BunkerRecord record = new BunkerSnapshotService.BunkerRecord(
+            "a", "Torget 6", "390", 59.4, 10.4,
+            BunkerImportService.computeContentHash("Torget 6", "390", 1.0, 2.0));
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+        when(bunkerSnapshotService.load(SOURCE_HASH)).thenReturn(Optional.of(List.of(record)));
+
+        BunkerImportService spyService = Mockito.spy(bunkerImportService);
+        doReturn(SOURCE_HASH).when(spyService).getSourceHash(anyString());
+
+        BunkerImportSummary summary = spyService.importBunkerDataFromJson("dummy-file.json");
+
+        verify(spyService, never()).readJsonFromFile(anyString());
+        verify(bunkerSnapshotService, never()).store(anyString(), any());
+        assertEquals(1, summary.getInserted());
+        ArgumentCaptor<List<MapEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapEntityRepo).saveAll(captor.capture());
+        MapEntity entity = captor.getValue().get(0);
+        assertEquals("Bunker with capacity: 390", entity.getDescription());
+        assertEquals(59.4, entity.getCoordinatePoint().getLatitude());
+        assertEquals(10.4, entity.getCoordinatePoint().getLongitude());
+    }
+
+    @Test
+    @DisplayName("Should write snapshot when none matches the JSON file")
+    void testImportBunkerDataWritesSnapshot() throws Exception {
+        JsonNode rootNode = new ObjectMapper().readTree("""
+            { "features": [
+              { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                "properties": { "lokalId": "a", "adresse": "Trimv. 09", "plasser": 400 } }
+            ] }
+            """);
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+        when(bunkerSnapshotService.load(SOURCE_HASH)).thenReturn(Optional.empty());
+
+        BunkerImportService spyService = Mockito.spy(bunkerImportService);
+        doReturn(SOURCE_HASH).when(spyService).getSourceHash(anyString());
+        doReturn(rootNode).when(spyService).readJsonFromFile(anyString());
+
+        spyService.importBunkerDataFromJson("dummy-file.json");
+
+        ArgumentCaptor<List<BunkerSnapshotService.BunkerRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bunkerSnapshotService).store(eq(SOURCE_HASH), captor.capture());
+        BunkerSnapshotService.BunkerRecord record = captor.getValue().get(0);
+        assertEquals("a", record.localID());
+        assertEquals("400", record.capacity());
+        assertEquals(BunkerImportService.computeContentHash("Trimv. 09", "400", 242485.0, 6593925.0),
+            record.contentHash());
+    }
+
+    @Test
+    @DisplayName("Should not use snapshots when the JSON file cannot be hashed")
+    void testImportBunkerDataWithoutFingerprint() throws Exception {
+        JsonNode rootNode = new ObjectMapper().readTree("{ \"features\": [] }");
+        BunkerImportService spyService = Mockito.spy(bunkerImportService);
+        doReturn(rootNode).when(spyService).readJsonFromFile(anyString());
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+
+        spyService.importBunkerDataFromJson("does-not-exist.json");
+
+        verify(bunkerSnapshotService, never()).load(anyString());
+        verify(bunkerSnapshotService, never()).store(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should hash the content of the JSON file")
+    void testGetSourceHash() throws Exception {
+        byte[] content;
+        try (var inputStream = new ClassPathResource("testfile.json").getInputStream()) {
+            content = inputStream.readAllBytes();
+        }
+
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)),
+            bunkerImportService.getSourceHash("testfile.json"));
+        assertNull(bunkerImportService.getSourceHash("does-not-exist.json"));
+    }
+
+    @Test
+    @DisplayName("Should keep a capacity that is not a number as text")
+    void testImportBunkerDataKeepsCapacityText() throws Exception {
+        JsonNode rootNode = new ObjectMapper().readTree("""
+            { "features": [
+              { "geometry": { "coordinates": [ 242485.0, 6593925.0 ] },
+                "properties": { "lokalId": "a", "adresse": "Trimv. 09", "plasser": "ca. 400" } },
+              { "geometry": { "coordinates": [ 243812.0, 6595205.0 ] },
+                "properties": { "lokalId": "b", "adresse": "Torget 6" } }
+            ] }
+            """);
+        when(mapMarkerTypeRepo.findByName("Bunker")).thenReturn(Optional.of(new MapMarkerType("Bunker")));
+        BunkerImportService spyService = Mockito.spy(bunkerImportService);
+        doReturn(rootNode).when(spyService).readJsonFromFile(anyString());
+
+        spyService.importBunkerDataFromJson("dummy-file.json");
+
+        ArgumentCaptor<List<MapEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapEntityRepo).saveAll(captor.capture());
+        assertEquals("Bunker with capacity: ca. 400", captor.getValue().get(0).getDescription());
+        assertEquals(BunkerImportService.computeContentHash("Trimv. 09", "ca. 400", 242485.0, 6593925.0),
+            captor.getValue().get(0).getContentHash());
+        assertEquals("Bunker with capacity: ", captor.getValue().get(1).getDescription());
+    }
+}
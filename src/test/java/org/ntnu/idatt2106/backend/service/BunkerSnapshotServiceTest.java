@@ -0,0 +1,106 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.service.BunkerSnapshotService.BunkerRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BunkerSnapshotServiceTest {
+
+  private static final String SOURCE = BunkerImportService.computeContentHash("source", "1", 0.0, 0.0);
+  private static final String OTHER_SOURCE = BunkerImportService.computeContentHash("source", "2", 0.0, 0.0);
+
+  private Path directory;
+  private Path snapshot;
+  private BunkerSnapshotService bunkerSnapshotService;
+
+  private final List<BunkerRecord> records = List.of(
+      new BunkerRecord("a", "Torget 6", "390", 59.41, 10.48,
+          BunkerImportService.computeContentHash("Torget 6", "390", 1.0, 2.0)),
+      new BunkerRecord("b", "Torget 6", "120", 59.42, 10.49,
+          BunkerImportService.computeContentHash("Torget 6", "120", 1.0, 2.0)),
+      new BunkerRecord("c", "Søndre gate 7", "0", 63.43, 10.39,
+          BunkerImportService.computeContentHash("Søndre gate 7", "0", 1.0, 2.0)));
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("snapshots");
+    snapshot = directory.resolve("nested").resolve("bunkers.bin");
+    bunkerSnapshotService = new BunkerSnapshotService(snapshot.toString());
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (var paths = Files.walk(directory)) {
+      for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should read back the records that were written")
+  void testRoundTrip() {
+    bunkerSnapshotService.store(SOURCE, records);
+
+    Optional<List<BunkerRecord>> loaded = bunkerSnapshotService.load(SOURCE);
+
+    assertTrue(loaded.isPresent());
+    assertEquals(records, loaded.get());
+  }
+
+  @Test
+  @DisplayName("Should share repeated strings in the string table")
+  void testStringTableIsDeduplicated() throws IOException {
+    bunkerSnapshotService.store(SOURCE, records);
+    long withSharedAddress = Files.size(snapshot);
+
+    bunkerSnapshotService.store(SOURCE, List.of(records.get(0), records.get(2)));
+
+    assertEquals(withSharedAddress - 60 - (4 + 1) - (4 + 3), Files.size(snapshot));
+  }
+
+  @Test
+  @DisplayName("Should ignore a snapshot written from another source")
+  void testSourceHashMismatch() {
+    bunkerSnapshotService.store(SOURCE, records);
+
+    assertTrue(bunkerSnapshotService.load(OTHER_SOURCE).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should return empty when no snapshot exists")
+  void testMissingSnapshot() {
+    assertTrue(bunkerSnapshotService.load(SOURCE).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should reject files that are not snapshots")
+  void testCorruptSnapshot() throws IOException {
+    Files.createDirectories(snapshot.getParent());
+    Files.writeString(snapshot, "{ \"features\": [] }");
+
+    assertThrows(IOException.class, () -> bunkerSnapshotService.read(snapshot, SOURCE));
+    assertTrue(bunkerSnapshotService.load(SOURCE).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should reject truncated snapshots")
+  void testTruncatedSnapshot() throws IOException {
+    bunkerSnapshotService.store(SOURCE, records);
+    byte[] bytes = Files.readAllBytes(snapshot);
+    Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 5));
+
+    assertThrows(IOException.class, () -> bunkerSnapshotService.read(snapshot, SOURCE));
+  }
+}
@@ -0,0 +1,102 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.map.CoordinatesDTO;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the CoordinatesService
+ */
+class CoordinatesServiceTest {
+
+  private static CoordinatesService coordinatesService;
+
+  @BeforeAll
+  static void setUp() {
+    coordinatesService = new CoordinatesService();
+  }
+
+  @Test
+  @DisplayName("geocode returns the district centroid when no municipality is named")
+  void testGeocodeDistrict() {
+    Optional<CoordinatesDTO> coordinates = coordinatesService.geocode("Oslo politidistrikt", "Trafikkuhell på E18");
+
+    assertTrue(coordinates.isPresent());
+    assertEquals(59.9139, coordinates.get().getLatitude());
+    assertEquals(10.7522, coordinates.get().getLongitude());
+  }
+
+  @Test
+  @DisplayName("geocode accepts district names with and without the politidistrikt suffix")
+  void testGeocodeDistrictName() {
+    assertTrue(coordinatesService.geocode("Sør-Øst Politidistrikt", "").isPresent());
+    assertTrue(coordinatesService.geocode("sør-øst", "").isPresent());
+    assertTrue(coordinatesService.geocode("Møre og Romsdal politidistrikt", "").isPresent());
+  }
+
+  @Test
+  @DisplayName("geocode prefers a municipality named in the text")
+  void testGeocodeMunicipality() {
+    CoordinatesDTO coordinates = coordinatesService
+        .geocode("Vest politidistrikt", "Brann i bolig. Nødetatene er på stedet i Bergen.").orElseThrow();
+
+    assertEquals(60.3913, coordinates.getLatitude());
+    assertEquals(5.3221, coordinates.getLongitude());
+  }
+
+  @Test
+  @DisplayName("geocode recognizes municipalities with two words")
+  void testGeocodeTwoWordMunicipality() {
+    CoordinatesDTO coordinates = coordinatesService
+        .geocode("Øst politidistrikt", "Innbrudd i Indre Østfold i natt").orElseThrow();
+
+    assertEquals(59.5850, coordinates.getLatitude());
+  }
+
+  @Test
+  @DisplayName("geocode ignores municipalities outside the known district")
+  void testGeocodeMunicipalityOtherDistrict() {
+    CoordinatesDTO coordinates = coordinatesService
+        .geocode("Oslo politidistrikt", "Bil på vei fra Bergen stanset").orElseThrow();
+
+    assertEquals(59.9139, coordinates.getLatitude());
+  }
+
+  @Test
+  @DisplayName("geocode uses any municipality when the district is unknown")
+  void testGeocodeUnknownDistrict() {
+    CoordinatesDTO coordinates = coordinatesService.geocode("Ukjent distrikt", "Ulykke i Tromsø").orElseThrow();
+
+    assertEquals(69.6492, coordinates.getLatitude());
+  }
+
+  @Test
+  @DisplayName("geocode returns empty when neither district nor municipality is known")
+  void testGeocodeUnknown() {
+    assertTrue(coordinatesService.geocode("Ukjent distrikt", "Ingen steder her").isEmpty());
+    assertTrue(coordinatesService.geocode(null, null).isEmpty());
+  }
+
+  @Test
+  @DisplayName("constructor rejects malformed gazetteer lines")
+  void testInvalidGazetteer() {
+    assertThrows(IOException.class, () -> new CoordinatesService(new StringReader("district;Oslo;59.9;10.7")));
+    assertThrows(IOException.class, () -> new CoordinatesService(new StringReader("city;Oslo;Oslo;59.9;10.7")));
+  }
+
+  @Test
+  @DisplayName("distanceKm calculates the great-circle distance")
+  void testDistanceKm() {
+    double osloToBergen = CoordinatesService.distanceKm(59.9139, 10.7522, 60.3913, 5.3221);
+
+    assertEquals(305, osloToBergen, 5);
+    assertEquals(0, CoordinatesService.distanceKm(60, 10, 60, 10));
+  }
+}
@@ -235,9 +235,9 @@ class DataSeederTest {
     dataSeeder.seedHouseholdOne();
 
     verify(userRepo, times(2)).save(any(User.class));
-    verify(householdRepo, times(4)).save(any(Household.class));
+    verify(householdRepo, times(2)).save(any(Household.class));
     verify(householdMembersRepo, times(3)).save(any(HouseholdMembers.class));
-    verify(itemRepo, times(2)).saveAll(anyList());
+    verify(itemRepo, times(4)).saveAll(anyList());
   }
 
   @Test
@@ -253,9 +253,9 @@ class DataSeederTest {
     dataSeeder.seedHouseholdTwo();
 
     verify(userRepo, times(1)).save(any(User.class));
-    verify(householdRepo, times(2)).save(any(Household.class));
+    verify(householdRepo, times(1)).save(any(Household.class));
     verify(householdMembersRepo, times(1)).save(any(HouseholdMembers.class));
-    verify(itemRepo, times(1)).saveAll(anyList());
+    verify(itemRepo, times(2)).saveAll(anyList());
   }
 
   @Test
@@ -271,9 +271,9 @@ class DataSeederTest {
     dataSeeder.seedHouseholdThree();
 
     verify(userRepo, times(1)).save(any(User.class));
-    verify(householdRepo, times(2)).save(any(Household.class));
+    verify(householdRepo, times(1)).save(any(Household.class));
     verify(householdMembersRepo, times(1)).save(any(HouseholdMembers.class));
-    verify(itemRepo, times(1)).saveAll(anyList());
+    verify(itemRepo, times(2)).saveAll(anyList());
   }
 
   @Test
@@ -289,9 +289,9 @@ class DataSeederTest {
     dataSeeder.seedHouseholdFour();
 
     verify(userRepo, times(1)).save(any(User.class));
-    verify(householdRepo, times(2)).save(any(Household.class));
+    verify(householdRepo, times(1)).save(any(Household.class));
     verify(householdMembersRepo, times(1)).save(any(HouseholdMembers.class));
-    verify(itemRepo, times(1)).saveAll(anyList());
+    verify(itemRepo, times(2)).saveAll(anyList());
   }
 
   @Test
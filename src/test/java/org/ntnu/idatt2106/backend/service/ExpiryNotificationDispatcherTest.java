@@ -0,0 +1,90 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.item.ExpiringItemsNotification;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the ExpiryNotificationDispatcher
+ */
+class ExpiryNotificationDispatcherTest {
+
+  private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+  private ExpiryNotificationDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.shutdown();
+    }
+  }
+
+  private static ExpiringItemsNotification notification(int householdId) {
+    return new ExpiringItemsNotification(householdId, List.of());
+  }
+
+  @Test
+  @DisplayName("dispatch sends the notification to the topic of the household")
+  void testDispatchSendsToHouseholdTopic() throws InterruptedException {
+    dispatcher = new ExpiryNotificationDispatcher(messagingTemplate, 10, 5, 1000);
+
+    dispatcher.dispatch(notification(7));
+
+    verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/households/7/expiring"),
+        argThat((ExpiringItemsNotification sent) -> sent.getHouseholdId() == 7));
+  }
+
+  @Test
+  @DisplayName("dispatch sends every notification when more are queued than fit in a batch")
+  void testDispatchSendsAllBatches() throws InterruptedException {
+    dispatcher = new ExpiryNotificationDispatcher(messagingTemplate, 100, 3, 10_000);
+
+    for (int i = 1; i <= 20; i++) {
+      dispatcher.dispatch(notification(i));
+    }
+
+    verify(messagingTemplate, timeout(2000).times(20)).convertAndSend(any(String.class), any(Object.class));
+    assertEquals(20, dispatcher.getSentCount());
+  }
+
+  @Test
+  @DisplayName("dispatch sends no more notifications per second than configured")
+  void testDispatchIsRateLimited() throws InterruptedException {
+    dispatcher = new ExpiryNotificationDispatcher(messagingTemplate, 100, 10, 20);
+
+    long start = System.nanoTime();
+    for (int i = 1; i <= 30; i++) {
+      dispatcher.dispatch(notification(i));
+    }
+    verify(messagingTemplate, timeout(5000).times(30)).convertAndSend(any(String.class), any(Object.class));
+
+    // The first batch of up to 10 is sent at once, the remaining 20 take at least half a second at 20 per second
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(450));
+  }
+
+  @Test
+  @DisplayName("a failed send is counted and the next notifications are still sent")
+  void testDispatchContinuesAfterFailure() throws InterruptedException {
+    doThrow(new RuntimeException("Broker unavailable"))
+        .when(messagingTemplate).convertAndSend(eq("/topic/households/1/expiring"), any(Object.class));
+    dispatcher = new ExpiryNotificationDispatcher(messagingTemplate, 10, 5, 1000);
+
+    dispatcher.dispatch(notification(1));
+    dispatcher.dispatch(notification(2));
+
+    verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/households/2/expiring"), any(Object.class));
+    assertEquals(1, dispatcher.getFailedCount());
+    assertEquals(1, dispatcher.getSentCount());
+  }
+}
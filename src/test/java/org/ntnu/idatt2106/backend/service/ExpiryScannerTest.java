@@ -0,0 +1,129 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.ntnu.idatt2106.backend.dto.item.ExpiringItemResponse;
+import org.ntnu.idatt2106.backend.dto.item.ExpiringItemsNotification;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
+import org.ntnu.idatt2106.backend.repo.ItemRepo.ExpiringItemRow;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the ExpiryScanner
+ */
+class ExpiryScannerTest {
+
+  private static final Date NOW = new Date(1746442184323L);
+  private static final Date TO = new Date(NOW.getTime() + TimeUnit.DAYS.toMillis(3));
+
+  @Mock
+  private ItemRepo itemRepo;
+
+  @Mock
+  private ExpiryNotificationDispatcher dispatcher;
+
+  private ExpiryScanner scanner;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    scanner = new ExpiryScanner(itemRepo, dispatcher, 3, 2);
+  }
+
+  private static ExpiringItemRow row(int householdId, int itemId, int daysLeft) {
+    Date expirationDate = new Date(NOW.getTime() + TimeUnit.DAYS.toMillis(daysLeft));
+    return new ExpiringItemRow() {
+      @Override
+      public int getHouseholdId() {
+        return householdId;
+      }
+
+      @Override
+      public int getItemId() {
+        return itemId;
+      }
+
+      @Override
+      public String getName() {
+        return "Item " + itemId;
+      }
+
+      @Override
+      public Date getExpirationDate() {
+        return expirationDate;
+      }
+    };
+  }
+
+  private List<ExpiringItemsNotification> dispatched(int times) throws InterruptedException {
+    ArgumentCaptor<ExpiringItemsNotification> captor = ArgumentCaptor.forClass(ExpiringItemsNotification.class);
+    verify(dispatcher, times(times)).dispatch(captor.capture());
+    return captor.getAllValues();
+  }
+
+  @Test
+  @DisplayName("scan sends one notification per household, soonest expiring item first")
+  void testScanGroupsByHousehold() throws InterruptedException {
+    when(itemRepo.findExpiring(eq(NOW), eq(TO), any(Pageable.class)))
+        .thenReturn(List.of(row(1, 4, 2), row(1, 5, 1)));
+    when(itemRepo.findExpiringAfter(eq(NOW), eq(TO), eq(1), eq(5), any(Pageable.class)))
+        .thenReturn(List.of(row(2, 3, 0)));
+
+    assertEquals(2, scanner.scan(NOW));
+
+    List<ExpiringItemsNotification> notifications = dispatched(2);
+    assertEquals(1, notifications.get(0).getHouseholdId());
+    assertEquals(List.of(5, 4), notifications.get(0).getItems().stream().map(ExpiringItemResponse::getId).toList());
+    assertEquals(2, notifications.get(1).getHouseholdId());
+    assertEquals(1, notifications.get(1).getItems().size());
+  }
+
+  @Test
+  @DisplayName("scan keeps a household together when its items span several chunks")
+  void testScanHouseholdAcrossChunks() throws InterruptedException {
+    when(itemRepo.findExpiring(eq(NOW), eq(TO), any(Pageable.class)))
+        .thenReturn(List.of(row(1, 1, 0), row(1, 2, 0)));
+    when(itemRepo.findExpiringAfter(eq(NOW), eq(TO), eq(1), eq(2), any(Pageable.class)))
+        .thenReturn(List.of(row(1, 3, 0), row(1, 4, 0)));
+    when(itemRepo.findExpiringAfter(eq(NOW), eq(TO), eq(1), eq(4), any(Pageable.class)))
+        .thenReturn(List.of());
+
+    assertEquals(1, scanner.scan(NOW));
+
+    List<ExpiringItemsNotification> notifications = dispatched(1);
+    assertEquals(List.of(1, 2, 3, 4), notifications.get(0).getItems().stream()
+        .map(ExpiringItemResponse::getId).toList());
+  }
+
+  @Test
+  @DisplayName("scan sends nothing when no items expire in the window")
+  void testScanWithoutExpiringItems() throws InterruptedException {
+    when(itemRepo.findExpiring(any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+    assertEquals(0, scanner.scan(NOW));
+
+    verify(dispatcher, never()).dispatch(any());
+    verify(itemRepo, never()).findExpiringAfter(any(), any(), anyInt(), anyInt(), any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("the constructor rejects a window or chunk size that is not positive")
+  void testConstructorRejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new ExpiryScanner(itemRepo, dispatcher, 0, 2));
+    assertThrows(IllegalArgumentException.class, () -> new ExpiryScanner(itemRepo, dispatcher, 3, 0));
+  }
+}
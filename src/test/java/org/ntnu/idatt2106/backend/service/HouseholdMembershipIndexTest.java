@@ -0,0 +1,99 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.ntnu.idatt2106.backend.repo.HouseholdMembersRepo;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the HouseholdMembershipIndex
+ */
+class HouseholdMembershipIndexTest {
+
+  @Mock
+  private HouseholdMembersRepo householdMembersRepo;
+
+  private HouseholdMembershipIndex index;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    index = new HouseholdMembershipIndex(householdMembersRepo);
+    when(householdMembersRepo.findHouseholdIdsByUserId(1)).thenReturn(List.of(7, 3, 5));
+  }
+
+  @Test
+  @DisplayName("isMember loads the households of a user once")
+  void testIsMemberLoadsOnce() {
+    assertTrue(index.isMember(1, 3));
+    assertTrue(index.isMember(1, 7));
+    assertFalse(index.isMember(1, 4));
+
+    verify(householdMembersRepo, times(1)).findHouseholdIdsByUserId(1);
+  }
+
+  @Test
+  @DisplayName("isMember returns false for users without households")
+  void testIsMemberWithoutHouseholds() {
+    when(householdMembersRepo.findHouseholdIdsByUserId(2)).thenReturn(List.of());
+
+    assertFalse(index.isMember(2, 3));
+  }
+
+  @Test
+  @DisplayName("add makes a loaded user a member of the household")
+  void testAdd() {
+    index.isMember(1, 3);
+
+    index.add(1, 4);
+    index.add(1, 9);
+    index.add(1, 1);
+
+    assertTrue(index.isMember(1, 1));
+    assertTrue(index.isMember(1, 4));
+    assertTrue(index.isMember(1, 9));
+    assertTrue(index.isMember(1, 5));
+    verify(householdMembersRepo, times(1)).findHouseholdIdsByUserId(1);
+  }
+
+  @Test
+  @DisplayName("add leaves users that are not loaded to be read from the database")
+  void testAddNotLoaded() {
+    index.add(1, 4);
+
+    assertFalse(index.isMember(1, 4));
+    verify(householdMembersRepo).findHouseholdIdsByUserId(1);
+  }
+
+  @Test
+  @DisplayName("remove ends the membership of a loaded user")
+  void testRemove() {
+    index.isMember(1, 3);
+
+    index.remove(1, 5);
+    index.remove(1, 6);
+
+    assertFalse(index.isMember(1, 5));
+    assertTrue(index.isMember(1, 3));
+    assertTrue(index.isMember(1, 7));
+  }
+
+  @Test
+  @DisplayName("evict makes the households of a user load again")
+  void testEvict() {
+    index.isMember(1, 3);
+
+    index.evict(1);
+    when(householdMembersRepo.findHouseholdIdsByUserId(1)).thenReturn(List.of(3));
+
+    assertFalse(index.isMember(1, 7));
+    verify(householdMembersRepo, times(2)).findHouseholdIdsByUserId(1);
+  }
+}
@@ -33,6 +33,9 @@ class HouseholdServiceTest {
   @Mock
   private UserRepo userRepo;
 
+  @Mock
+  private HouseholdMembershipIndex membershipIndex;
+
   private Household testHousehold;
   private User testUser;
 
@@ -157,6 +160,7 @@ class HouseholdServiceTest {
     householdService.joinHousehold("ABC123", testUser);
 
     verify(householdMembersRepo).save(any(HouseholdMembers.class));
+    verify(membershipIndex).add(testUser.getId(), testHousehold.getId());
   }
 
   @Test
@@ -173,6 +177,7 @@ class HouseholdServiceTest {
         "removeUserFromHousehold");
 
     verify(householdMembersRepo).delete(member);
+    verify(membershipIndex).remove(testUser.getId(), testHousehold.getId());
   }
 
   @Test
@@ -187,6 +192,7 @@ class HouseholdServiceTest {
         "removeUserFromHousehold");
 
     verify(householdMembersRepo, never()).delete(any());
+    verify(membershipIndex, never()).remove(anyInt(), anyInt());
   }
 
   @Test
@@ -484,6 +490,7 @@ class HouseholdServiceTest {
     householdService.leaveHousehold(testHousehold, testUser);
 
     verify(householdMembersRepo).delete(member);
+    verify(membershipIndex).remove(testUser.getId(), testHousehold.getId());
     verify(householdRepo).save(testHousehold);
   }
 
@@ -0,0 +1,128 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.ntnu.idatt2106.backend.model.InventoryChange;
+import org.ntnu.idatt2106.backend.model.InventoryChangeType;
+import org.ntnu.idatt2106.backend.repo.HouseholdRepo;
+import org.ntnu.idatt2106.backend.repo.InventoryChangeRepo;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the InventoryChangeLog
+ */
+class InventoryChangeLogTest {
+
+  @Mock
+  private HouseholdRepo householdRepo;
+
+  @Mock
+  private InventoryChangeRepo inventoryChangeRepo;
+
+  private InventoryChangeLog changeLog;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    changeLog = new InventoryChangeLog(householdRepo, inventoryChangeRepo);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<InventoryChange> saved() {
+    ArgumentCaptor<List<InventoryChange>> captor = ArgumentCaptor.forClass(List.class);
+    verify(inventoryChangeRepo).saveAll(captor.capture());
+    return captor.getValue();
+  }
+
+  private static InventoryChangeRepo.ChangeRow changeRow(int itemId, InventoryChangeType type) {
+    return new InventoryChangeRepo.ChangeRow() {
+      public int getItemId() {
+        return itemId;
+      }
+
+      public InventoryChangeType getType() {
+        return type;
+      }
+    };
+  }
+
+  @Test
+  @DisplayName("record gives the changes consecutive revisions after the previous revision")
+  void testRecordAssignsConsecutiveRevisions() {
+    when(householdRepo.incrementInventoryRevision(1, 2)).thenReturn(1);
+    when(householdRepo.findInventoryRevisionById(1)).thenReturn(Optional.of(7L));
+    Map<Integer, InventoryChangeType> changes = new LinkedHashMap<>();
+    changes.put(4, InventoryChangeType.UPSERT);
+    changes.put(3, InventoryChangeType.DELETE);
+
+    changeLog.record(1, changes);
+
+    List<InventoryChange> entries = saved();
+    assertEquals(2, entries.size());
+    assertEquals(4, entries.get(0).getItemId());
+    assertEquals(6, entries.get(0).getRevision());
+    assertEquals(3, entries.get(1).getItemId());
+    assertEquals(7, entries.get(1).getRevision());
+    assertEquals(InventoryChangeType.DELETE, entries.get(1).getType());
+    assertTrue(entries.stream().allMatch(entry -> entry.getHouseholdId() == 1));
+  }
+
+  @Test
+  @DisplayName("record writes one change to each household of the item")
+  void testRecordForEachHousehold() {
+    when(householdRepo.incrementInventoryRevision(anyInt(), anyLong())).thenReturn(1);
+    when(householdRepo.findInventoryRevisionById(anyInt())).thenReturn(Optional.of(1L));
+
+    changeLog.record(List.of(1, 2), 5, InventoryChangeType.UPSERT);
+
+    verify(householdRepo).incrementInventoryRevision(1, 1);
+    verify(householdRepo).incrementInventoryRevision(2, 1);
+    verify(inventoryChangeRepo, times(2)).saveAll(any());
+  }
+
+  @Test
+  @DisplayName("record does nothing without changes")
+  void testRecordWithoutChanges() {
+    changeLog.record(1, Map.of());
+    changeLog.record(List.of(), 5, InventoryChangeType.DELETE);
+
+    verify(householdRepo, never()).incrementInventoryRevision(anyInt(), anyLong());
+    verify(inventoryChangeRepo, never()).saveAll(any());
+  }
+
+  @Test
+  @DisplayName("record throws IllegalArgumentException if the household does not exist")
+  void testRecordUnknownHousehold() {
+    when(householdRepo.incrementInventoryRevision(9, 1)).thenReturn(0);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> changeLog.record(9, Map.of(5, InventoryChangeType.UPSERT)));
+    verify(inventoryChangeRepo, never()).saveAll(any());
+  }
+
+  @Test
+  @DisplayName("lastChangePerItem keeps the last change of each item in the order of the last changes")
+  void testLastChangePerItem() {
+    Map<Integer, InventoryChangeType> last = InventoryChangeLog.lastChangePerItem(List.of(
+        changeRow(1, InventoryChangeType.UPSERT),
+        changeRow(2, InventoryChangeType.UPSERT),
+        changeRow(1, InventoryChangeType.DELETE)));
+
+    assertEquals(List.of(2, 1), List.copyOf(last.keySet()));
+    assertEquals(InventoryChangeType.DELETE, last.get(1));
+  }
+}
@@ -0,0 +1,147 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
+import org.ntnu.idatt2106.backend.repo.ItemRepo.ExportRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the InventoryExporter
+ */
+class InventoryExporterTest {
+
+  @Mock
+  private ItemRepo itemRepo;
+
+  @Mock
+  private HouseholdMembershipIndex membershipIndex;
+
+  private InventoryExporter exporter;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    exporter = new InventoryExporter(itemRepo, membershipIndex, new ObjectMapper());
+  }
+
+  private static ExportRow row(Integer householdId, int id, String name) {
+    return new ExportRow() {
+      @Override
+      public Integer getHouseholdId() {
+        return householdId;
+      }
+
+      @Override
+      public int getId() {
+        return id;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public double getAmount() {
+        return 1.5;
+      }
+
+      @Override
+      public int getUnitId() {
+        return 2;
+      }
+
+      @Override
+      public int getCategoryId() {
+        return 3;
+      }
+
+      @Override
+      public Date getExpirationDate() {
+        return new Date(0);
+      }
+
+      @Override
+      public long getVersion() {
+        return 4;
+      }
+    };
+  }
+
+  @Test
+  @DisplayName("exportHousehold writes one JSON object per line and closes the stream of rows")
+  void testExportHouseholdNdjson() throws IOException {
+    AtomicBoolean closed = new AtomicBoolean(false);
+    when(membershipIndex.isMember(7, 1)).thenReturn(true);
+    when(itemRepo.streamExportRowsByHousehold(1))
+        .thenReturn(Stream.of(row(1, 10, "Water"), row(1, 11, "Rice")).onClose(() -> closed.set(true)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(2, exporter.exportHousehold(1, 7, InventoryExporter.Format.NDJSON, out));
+
+    assertEquals("{\"householdId\":1,\"id\":10,\"name\":\"Water\",\"amount\":1.5,\"unitId\":2,\"categoryId\":3,"
+        + "\"expirationDate\":0,\"version\":4}\n"
+        + "{\"householdId\":1,\"id\":11,\"name\":\"Rice\",\"amount\":1.5,\"unitId\":2,\"categoryId\":3,"
+        + "\"expirationDate\":0,\"version\":4}\n", out.toString(StandardCharsets.UTF_8));
+    assertTrue(closed.get());
+  }
+
+  @Test
+  @DisplayName("exportHousehold rejects a user that is not a member before reading any rows")
+  void testExportHouseholdNotMember() {
+    when(membershipIndex.isMember(7, 1)).thenReturn(false);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> exporter.exportHousehold(1, 7, InventoryExporter.Format.CSV, new ByteArrayOutputStream()));
+    verify(itemRepo, never()).streamExportRowsByHousehold(anyInt());
+  }
+
+  @Test
+  @DisplayName("exportAll writes a CSV header and quotes names containing separators or quotes")
+  void testExportAllCsv() throws IOException {
+    when(itemRepo.streamExportRows())
+        .thenReturn(Stream.of(row(1, 10, "Water, \"big\""), row(null, 11, "Rice")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(2, exporter.exportAll(InventoryExporter.Format.CSV, out));
+
+    assertEquals(InventoryExporter.CSV_HEADER + "\n"
+        + "1,10,\"Water, \"\"big\"\"\",1.5,2,3,1970-01-01T00:00:00Z,4\n"
+        + ",11,Rice,1.5,2,3,1970-01-01T00:00:00Z,4\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("exportAll writes only the CSV header when there are no items")
+  void testExportAllEmpty() throws IOException {
+    when(itemRepo.streamExportRows()).thenReturn(Stream.empty());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(0, exporter.exportAll(InventoryExporter.Format.CSV, out));
+
+    assertEquals(InventoryExporter.CSV_HEADER + "\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Format.parse ignores case and rejects unknown formats")
+  void testParseFormat() {
+    assertEquals(InventoryExporter.Format.CSV, InventoryExporter.Format.parse("CsV"));
+    assertEquals(InventoryExporter.Format.NDJSON, InventoryExporter.Format.parse("ndjson"));
+    assertThrows(IllegalArgumentException.class, () -> InventoryExporter.Format.parse("xml"));
+    assertThrows(IllegalArgumentException.class, () -> InventoryExporter.Format.parse(null));
+  }
+}
@@ -0,0 +1,52 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the ItemCursor
+ */
+class ItemCursorTest {
+
+  private static String encode(String raw) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("encode and decode round trip, also for names containing the separator")
+  void testRoundTrip() {
+    ItemCursor expiration = new ItemCursor(ItemCursor.Sort.EXPIRATION, "1745539200000", 42);
+    ItemCursor name = new ItemCursor(ItemCursor.Sort.NAME, "Water: 1.5 l", 7);
+
+    assertEquals(expiration, ItemCursor.decode(expiration.encode(), ItemCursor.Sort.EXPIRATION));
+    assertEquals(name, ItemCursor.decode(name.encode(), ItemCursor.Sort.NAME));
+    assertEquals(new Date(1745539200000L), expiration.toDate());
+    assertFalse(name.encode().contains("="));
+  }
+
+  @Test
+  @DisplayName("decode rejects malformed cursors and cursors of another sort")
+  void testDecodeInvalid() {
+    ItemCursor category = new ItemCursor(ItemCursor.Sort.CATEGORY, "3", 1);
+
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode("%%%", ItemCursor.Sort.NAME));
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(encode("NAME:1"), ItemCursor.Sort.NAME));
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(encode("PRICE:1:a"), ItemCursor.Sort.NAME));
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(encode("CATEGORY:1:x"), ItemCursor.Sort.CATEGORY));
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(category.encode(), ItemCursor.Sort.NAME));
+  }
+
+  @Test
+  @DisplayName("Sort.parse ignores case and rejects unknown sorts")
+  void testParseSort() {
+    assertEquals(ItemCursor.Sort.CATEGORY, ItemCursor.Sort.parse("Category"));
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.Sort.parse("price"));
+    assertThrows(IllegalArgumentException.class, () -> ItemCursor.Sort.parse(null));
+  }
+}
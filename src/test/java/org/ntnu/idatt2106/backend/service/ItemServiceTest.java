@@ -6,30 +6,53 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.ntnu.idatt2106.backend.dto.item.CatalogProductResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryChangesResponse;
+import org.ntnu.idatt2106.backend.dto.item.InventoryTotalResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemAmountResponse;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchOperation;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchRequest;
+import org.ntnu.idatt2106.backend.dto.item.ItemBatchResponse;
 import org.ntnu.idatt2106.backend.dto.item.ItemCreateRequest;
 import org.ntnu.idatt2106.backend.dto.item.ItemGenericDTO;
+import org.ntnu.idatt2106.backend.dto.item.ItemPageResponse;
 import org.ntnu.idatt2106.backend.model.Category;
 import org.ntnu.idatt2106.backend.model.Household;
 import org.ntnu.idatt2106.backend.model.HouseholdMembers;
 import org.ntnu.idatt2106.backend.model.HouseholdMembersId;
+import org.ntnu.idatt2106.backend.model.InventoryChangeType;
 import org.ntnu.idatt2106.backend.model.Item;
 import org.ntnu.idatt2106.backend.model.Unit;
 import org.ntnu.idatt2106.backend.model.User;
 import org.ntnu.idatt2106.backend.repo.CategoryRepo;
 import org.ntnu.idatt2106.backend.repo.HouseholdRepo;
+import org.ntnu.idatt2106.backend.repo.InventoryChangeRepo;
 import org.ntnu.idatt2106.backend.repo.ItemRepo;
 import org.ntnu.idatt2106.backend.repo.UnitRepo;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -57,6 +80,18 @@ public class ItemServiceTest {
   @Mock
   private HouseholdRepo householdRepo;
 
+  @Mock
+  private HouseholdMembershipIndex membershipIndex;
+
+  @Mock
+  private InventoryChangeLog changeLog;
+
+  @Mock
+  private InventoryChangeRepo inventoryChangeRepo;
+
+  @Mock
+  private ProductCatalog productCatalog;
+
   private Item testItem;
   private ItemGenericDTO testItemDTO;
   private List<Household> households;
@@ -90,7 +125,7 @@ public class ItemServiceTest {
 
     testItem = new Item("Water", 1.0, new Unit("Liter", "Liter"), new Date());
     testItem.setId(1);
-    testItem.setHousehold(households);
+    testItem.setHousehold(new LinkedHashSet<>(households));
 
     Unit testItemUnit = new Unit("Liters", "Liter");
     testItemUnit.setId(111);
@@ -113,10 +148,11 @@ public class ItemServiceTest {
         testItem.getUnit().getId(),
         testItem.getCategory().getId(),
         testItem.getExpirationDate(),
-        householdIds
+        householdIds,
+        null
     );
 
-    when(householdRepo.findById(TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(testHousehold));
+    when(membershipIndex.isMember(TEST_USER_ID, TEST_HOUSEHOLD_ID)).thenReturn(true);
   }
 
   @Test
@@ -151,34 +187,135 @@ public class ItemServiceTest {
     assertThrows(IllegalArgumentException.class, () -> itemService.getItemById(1, 999));
   }
 
+  private static ItemRepo.ItemRow itemRow(int id, String name, int categoryId, Date expirationDate) {
+    return new ItemRepo.ItemRow() {
+      public int getId() {
+        return id;
+      }
+
+      public String getName() {
+        return name;
+      }
+
+      public double getAmount() {
+        return 1.0;
+      }
+
+      public int getUnitId() {
+        return 111;
+      }
+
+      public int getCategoryId() {
+        return categoryId;
+      }
+
+      public Date getExpirationDate() {
+        return expirationDate;
+      }
+
+      public long getVersion() {
+        return 0;
+      }
+    };
+  }
+
+  private static ItemRepo.ItemHousehold itemHousehold(int itemId, int householdId) {
+    return new ItemRepo.ItemHousehold() {
+      public int getItemId() {
+        return itemId;
+      }
+
+      public int getHouseholdId() {
+        return householdId;
+      }
+    };
+  }
+
   @Test
   @DisplayName("getItemByHouseholdId should return list of items with requested household id")
   void testGetItemsByHouseholdIdSuccess() {
-    List<Item> itemList = new ArrayList<>();
-    itemList.add(testItem);
-
-    when(itemRepo.findByHousehold_Id(TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(itemList));
+    when(itemRepo.findRowsByHouseholdOrderByExpiration(eq(TEST_HOUSEHOLD_ID), any()))
+        .thenReturn(List.of(itemRow(1, "Water", 222, new Date())));
+    when(itemRepo.findHouseholdsOfItemsInHousehold(TEST_HOUSEHOLD_ID))
+        .thenReturn(List.of(itemHousehold(1, TEST_HOUSEHOLD_ID), itemHousehold(1, 2)));
 
-    List<ItemGenericDTO> result = itemService.getItemsByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID);
+    List<ItemGenericDTO> result = itemService.getItemsByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "expiration");
 
     assertEquals(1, result.size());
     assertEquals(testItemDTO.getId(), result.get(0).getId());
+    assertEquals(List.of(TEST_HOUSEHOLD_ID, 2), result.get(0).getHouseholdIds());
+    verify(itemRepo, never()).findById(anyInt());
   }
 
   @Test
-  @DisplayName("getItemsByHouseholdId should throw IllegalArgumentException if no items for given household exists")
+  @DisplayName("getItemsByHouseholdId should return an empty list if no items for given household exists")
   void getItemsByHouseholdIdNotFound() {
-    when(itemRepo.findByHousehold_Id(TEST_HOUSEHOLD_ID)).thenReturn(Optional.empty());
+    when(itemRepo.findRowsByHouseholdOrderByName(eq(TEST_HOUSEHOLD_ID), any())).thenReturn(List.of());
 
-    assertThrows(IllegalArgumentException.class, () ->
-        itemService.getItemsByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID));
+    assertTrue(itemService.getItemsByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "name").isEmpty());
+    verify(itemRepo, never()).findHouseholdsOfItemsInHousehold(anyInt());
   }
 
   @Test
   @DisplayName("getItemsByHouseholdId should throw IllegalArgumentException if user is not in household")
   void getItemsByHouseholdIdUnauthorized() {
     assertThrows(IllegalArgumentException.class, () ->
-        itemService.getItemsByHouseholdId(TEST_HOUSEHOLD_ID, 999));
+        itemService.getItemsByHouseholdId(TEST_HOUSEHOLD_ID, 999, "expiration"));
+  }
+
+  @Test
+  @DisplayName("getItemPageByHouseholdId should return a page and a cursor to the next page")
+  void getItemPageByHouseholdIdFirstPage() {
+    when(itemRepo.findRowsByHouseholdOrderByName(eq(TEST_HOUSEHOLD_ID), any())).thenReturn(List.of(
+        itemRow(1, "Bread", 222, new Date()), itemRow(2, "Milk", 222, new Date()), itemRow(3, "Water", 222, new Date())));
+    when(itemRepo.findHouseholdsByItemIds(List.of(1, 2)))
+        .thenReturn(List.of(itemHousehold(1, TEST_HOUSEHOLD_ID), itemHousehold(2, TEST_HOUSEHOLD_ID)));
+
+    ItemPageResponse page = itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "name", null, 2);
+
+    assertEquals(List.of("Bread", "Milk"), page.getItems().stream().map(ItemGenericDTO::getName).toList());
+    assertEquals(new ItemCursor(ItemCursor.Sort.NAME, "Milk", 2), ItemCursor.decode(page.getNextCursor(), ItemCursor.Sort.NAME));
+    verify(itemRepo).findRowsByHouseholdOrderByName(TEST_HOUSEHOLD_ID, PageRequest.ofSize(3));
+  }
+
+  @Test
+  @DisplayName("getItemPageByHouseholdId should continue after the cursor and end without a next cursor")
+  void getItemPageByHouseholdIdAfterCursor() {
+    Date expirationDate = new Date();
+    String cursor = new ItemCursor(ItemCursor.Sort.EXPIRATION, String.valueOf(expirationDate.getTime()), 4).encode();
+    when(itemRepo.findRowsByHouseholdOrderByExpirationAfter(eq(TEST_HOUSEHOLD_ID), eq(expirationDate), eq(4), any()))
+        .thenReturn(List.of(itemRow(5, "Water", 222, expirationDate)));
+    when(itemRepo.findHouseholdsByItemIds(List.of(5))).thenReturn(List.of(itemHousehold(5, TEST_HOUSEHOLD_ID)));
+
+    ItemPageResponse page = itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "expiration", cursor, 20);
+
+    assertEquals(1, page.getItems().size());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  @DisplayName("getItemPageByHouseholdId should throw IllegalArgumentException on invalid sort, cursor or limit")
+  void getItemPageByHouseholdIdInvalid() {
+    String nameCursor = new ItemCursor(ItemCursor.Sort.NAME, "Milk", 2).encode();
+
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "price", null, 20));
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "name", "not a cursor", 20));
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "category", nameCursor, 20));
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "name", null, 0));
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID, "name", null, 101));
+  }
+
+  @Test
+  @DisplayName("getItemPageByHouseholdId should throw IllegalArgumentException if user is not in household")
+  void getItemPageByHouseholdIdUnauthorized() {
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.getItemPageByHouseholdId(TEST_HOUSEHOLD_ID, 999, "name", null, 20));
+    verify(itemRepo, never()).findRowsByHouseholdOrderByName(anyInt(), any());
   }
 
   @Test
@@ -196,6 +333,34 @@ public class ItemServiceTest {
     assertEquals(testItemDTO.getId(), result.get(0).getId());
   }
 
+  @Test
+  @DisplayName("getItemsByCategoryId should check the membership once for members of the household")
+  void getItemsByCategoryIdChecksMembershipOnce() {
+    Item otherItem = new Item("Bread", 2.0, testItem.getUnit(), new Date());
+    otherItem.setId(2);
+    otherItem.setCategory(testItem.getCategory());
+    otherItem.setHousehold(new LinkedHashSet<>(households));
+
+    when(itemRepo.findByCategory_IdAndHousehold_Id(1, TEST_HOUSEHOLD_ID))
+        .thenReturn(Optional.of(List.of(testItem, otherItem)));
+    when(categoryRepo.existsById(1)).thenReturn(true);
+
+    List<ItemGenericDTO> result = itemService.getItemsByCategoryIdAndHouseholdId(1, TEST_HOUSEHOLD_ID, TEST_USER_ID);
+
+    assertEquals(2, result.size());
+    verify(membershipIndex, times(1)).isMember(anyInt(), anyInt());
+    verify(householdRepo, never()).findById(anyInt());
+  }
+
+  @Test
+  @DisplayName("getItemsByCategoryId should return no items to users outside the household")
+  void getItemsByCategoryIdUnauthorized() {
+    when(itemRepo.findByCategory_IdAndHousehold_Id(1, TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(List.of(testItem)));
+    when(categoryRepo.existsById(1)).thenReturn(true);
+
+    assertTrue(itemService.getItemsByCategoryIdAndHouseholdId(1, TEST_HOUSEHOLD_ID, 999).isEmpty());
+  }
+
   @Test
   @DisplayName("getItemsByCategoryId should throw IllegalArgumentException if no items for given category exists")
   void getItemsByCategoryIdNotFound() {
@@ -270,7 +435,7 @@ public class ItemServiceTest {
     savedItem.setUnit(mockUnit);
     savedItem.setCategory(mockCategory);
     savedItem.setExpirationDate(expirationDate);
-    savedItem.setHousehold(households);
+    savedItem.setHousehold(new LinkedHashSet<>(households));
 
     when(unitRepo.findById(111)).thenReturn(Optional.of(mockUnit));
     when(categoryRepo.findById(222)).thenReturn(Optional.of(mockCategory));
@@ -287,6 +452,7 @@ public class ItemServiceTest {
     assertEquals(expirationDate, result.getExpirationDate());
     assertEquals(1, result.getHouseholdIds().size());
     assertEquals(TEST_HOUSEHOLD_ID, result.getHouseholdIds().get(0));
+    verify(changeLog).record(householdIds, 1, InventoryChangeType.UPSERT);
   }
 
   @Test
@@ -346,6 +512,78 @@ public class ItemServiceTest {
     assertThrows(IllegalArgumentException.class, () -> itemService.addItem(itemCreateRequest, 999));
   }
 
+  @Test
+  @DisplayName("AddItem should prefill name, unit, category and expiration date from a catalog barcode")
+  void addItemPrefillsFromCatalogBarcode() {
+    List<Integer> householdIds = List.of(TEST_HOUSEHOLD_ID);
+    ItemCreateRequest itemCreateRequest = new ItemCreateRequest(
+        "2001000000029", 6, 0, 0, null, householdIds);
+    when(productCatalog.find("2001000000029")).thenReturn(Optional.of(
+        new ProductCatalog.Product("2001000000029", "Bottled Water 1.5 L", "Water", "L", null, 365)));
+    Unit liter = new Unit("L", "L");
+    liter.setId(3);
+    Category water = new Category(4, "Water", "Vann", 0, true);
+    when(unitRepo.findByEnglishName("L")).thenReturn(Optional.of(liter));
+    when(categoryRepo.findByEnglishName("Water")).thenReturn(Optional.of(water));
+    when(householdRepo.findAllById(householdIds)).thenReturn(households);
+    when(itemRepo.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    long before = System.currentTimeMillis();
+    ItemGenericDTO result = itemService.addItem(itemCreateRequest, TEST_USER_ID);
+
+    assertEquals("Bottled Water 1.5 L", result.getName());
+    assertEquals(3, result.getUnitId());
+    assertEquals(4, result.getCategoryId());
+    long days = TimeUnit.MILLISECONDS.toDays(result.getExpirationDate().getTime() - before);
+    assertEquals(365, days);
+    verify(unitRepo, never()).findById(anyInt());
+    verify(categoryRepo, never()).findById(anyInt());
+  }
+
+  @Test
+  @DisplayName("AddItem should keep the name, unit, category and expiration date given for a catalog product")
+  void addItemKeepsGivenValuesForCatalogProduct() {
+    Date expirationDate = new Date();
+    List<Integer> householdIds = List.of(TEST_HOUSEHOLD_ID);
+    ItemCreateRequest itemCreateRequest = new ItemCreateRequest(
+        "Rice", 1, 111, 222, expirationDate, householdIds);
+    when(productCatalog.find("Rice")).thenReturn(Optional.of(
+        new ProductCatalog.Product("2001000000234", "Rice", "Grains (Rice, Pasta)", "KG", 3600, 730)));
+    when(unitRepo.findById(111)).thenReturn(Optional.of(testItem.getUnit()));
+    when(categoryRepo.findById(222)).thenReturn(Optional.of(testItem.getCategory()));
+    when(householdRepo.findAllById(householdIds)).thenReturn(households);
+    when(itemRepo.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    ItemGenericDTO result = itemService.addItem(itemCreateRequest, TEST_USER_ID);
+
+    assertEquals("Rice", result.getName());
+    assertEquals(111, result.getUnitId());
+    assertEquals(222, result.getCategoryId());
+    assertEquals(expirationDate, result.getExpirationDate());
+    verify(unitRepo, never()).findByEnglishName(any());
+    verify(categoryRepo, never()).findByEnglishName(any());
+  }
+
+  @Test
+  @DisplayName("lookupProducts should look up a barcode and search anything else by prefix")
+  void lookupProducts() {
+    ProductCatalog.Product rice = new ProductCatalog.Product("2001000000234", "Rice", "Grains (Rice, Pasta)",
+        "KG", 3600, 730);
+    when(productCatalog.findByEan("2001000000234")).thenReturn(Optional.of(rice));
+    when(productCatalog.search("ri", 5)).thenReturn(List.of(rice));
+
+    List<CatalogProductResponse> byEan = itemService.lookupProducts("2001000000234", 5);
+    List<CatalogProductResponse> byPrefix = itemService.lookupProducts("ri", 5);
+
+    assertEquals(1, byEan.size());
+    assertEquals("Rice", byEan.get(0).getName());
+    assertEquals("KG", byEan.get(0).getUnit());
+    assertEquals(3600, byEan.get(0).getKcalPerUnit());
+    assertEquals(730, byEan.get(0).getShelfLifeDays());
+    assertEquals("2001000000234", byPrefix.get(0).getEan());
+    verify(productCatalog, never()).search("2001000000234", 5);
+  }
+
   @Test
   @DisplayName("UpdateItem should update an existing item successfully")
   void updateItemSuccess() {
@@ -357,7 +595,8 @@ public class ItemServiceTest {
         111,
         222,
         new Date(),
-        householdIds
+        householdIds,
+        null
     );
 
     Unit mockUnit = new Unit();
@@ -377,19 +616,52 @@ public class ItemServiceTest {
     updatedItem.setUnit(mockUnit);
     updatedItem.setCategory(mockCategory);
     updatedItem.setExpirationDate(new Date());
-    updatedItem.setHousehold(households);
+    updatedItem.setHousehold(new LinkedHashSet<>(households));
 
     when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
     when(unitRepo.findById(111)).thenReturn(Optional.of(mockUnit));
     when(categoryRepo.findById(222)).thenReturn(Optional.of(mockCategory));
     when(householdRepo.findAllById(householdIds)).thenReturn(households);
-    when(itemRepo.save(any(Item.class))).thenReturn(updatedItem);
+    when(itemRepo.saveAndFlush(any(Item.class))).thenReturn(updatedItem);
 
     ItemGenericDTO result = itemService.updateItem(newItemData, TEST_USER_ID);
 
     assertEquals("Hel Melk", result.getName());
     assertEquals(1, result.getHouseholdIds().size());
     assertEquals(TEST_HOUSEHOLD_ID, result.getHouseholdIds().get(0));
+    verify(changeLog).record(List.of(TEST_HOUSEHOLD_ID), 1, InventoryChangeType.UPSERT);
+    verify(changeLog).record(List.of(), 1, InventoryChangeType.DELETE);
+  }
+
+  @Test
+  @DisplayName("UpdateItem should record a removal for the households the item is moved out of")
+  void updateItemMovedToOtherHousehold() {
+    Household otherHousehold = new Household(2, "Other Household", 0, 0);
+    when(membershipIndex.isMember(TEST_USER_ID, 2)).thenReturn(true);
+    when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
+    when(unitRepo.findById(111)).thenReturn(Optional.of(testItem.getUnit()));
+    when(categoryRepo.findById(222)).thenReturn(Optional.of(testItem.getCategory()));
+    when(householdRepo.findAllById(List.of(2))).thenReturn(List.of(otherHousehold));
+    when(itemRepo.saveAndFlush(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    itemService.updateItem(new ItemGenericDTO(1, "Water", 1.0, 111, 222, new Date(), List.of(2), null), TEST_USER_ID);
+
+    verify(changeLog).record(List.of(2), 1, InventoryChangeType.UPSERT);
+    verify(changeLog).record(List.of(TEST_HOUSEHOLD_ID), 1, InventoryChangeType.DELETE);
+  }
+
+  @Test
+  @DisplayName("UpdateItem should reject an update based on an outdated version")
+  void updateItemOutdatedVersion() {
+    testItem.setVersion(3);
+    when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
+
+    ItemGenericDTO outdated = new ItemGenericDTO(1, "Water", 1.0, 111, 222, new Date(), List.of(TEST_HOUSEHOLD_ID), 2L);
+
+    assertThrows(ObjectOptimisticLockingFailureException.class, () -> itemService.updateItem(outdated, TEST_USER_ID));
+    assertEquals("Water", testItem.getName());
+    verify(itemRepo, never()).saveAndFlush(any());
+    verify(changeLog, never()).record(anyList(), anyInt(), any());
   }
 
   @Test
@@ -403,7 +675,8 @@ public class ItemServiceTest {
         111,
         222,
         new Date(),
-        householdIds
+        householdIds,
+        null
     );
 
     when(itemRepo.findById(1)).thenReturn(Optional.empty());
@@ -422,7 +695,8 @@ public class ItemServiceTest {
         111,
         222,
         new Date(),
-        householdIds
+        householdIds,
+        null
     );
 
     when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
@@ -441,7 +715,8 @@ public class ItemServiceTest {
         111,
         222,
         new Date(),
-        householdIds
+        householdIds,
+        null
     );
 
     when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
@@ -461,7 +736,8 @@ public class ItemServiceTest {
         111,
         222,
         new Date(),
-        householdIds
+        householdIds,
+        null
     );
 
     when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
@@ -481,6 +757,7 @@ public class ItemServiceTest {
     itemService.deleteItem(itemId, TEST_USER_ID);
 
     verify(itemRepo).delete(testItem);
+    verify(changeLog).record(List.of(TEST_HOUSEHOLD_ID), itemId, InventoryChangeType.DELETE);
   }
 
   @Test
@@ -498,4 +775,323 @@ public class ItemServiceTest {
 
     assertThrows(IllegalArgumentException.class, () -> itemService.deleteItem(1, 999));
   }
-}
\ No newline at end of file
+
+  private ItemBatchOperation batchOperation(ItemBatchOperation.Type type, Integer itemId) {
+    return new ItemBatchOperation(type, itemId, "Water", 2.0, 111, 222, new Date(), null);
+  }
+
+  private void stubBatchReferences() {
+    when(unitRepo.findAllById(any())).thenReturn(List.of(testItem.getUnit()));
+    when(categoryRepo.findAllById(any())).thenReturn(List.of(testItem.getCategory()));
+    when(itemRepo.findAllByIdInAndHousehold_Id(any(), anyInt())).thenReturn(List.of(testItem));
+  }
+
+  @Test
+  @DisplayName("applyBatch should create, update and delete items in order")
+  void applyBatchSuccess() {
+    stubBatchReferences();
+    Item other = new Item("Bread", 1.0, testItem.getUnit(), new Date(), testItem.getCategory());
+    other.setId(2);
+    when(itemRepo.findAllByIdInAndHousehold_Id(any(), anyInt())).thenReturn(List.of(testItem, other));
+    when(householdRepo.getReferenceById(TEST_HOUSEHOLD_ID)).thenReturn(households.get(0));
+    when(itemRepo.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Item> items = invocation.getArgument(0);
+      items.get(0).setId(10);
+      return items;
+    });
+
+    ItemBatchOperation update = batchOperation(ItemBatchOperation.Type.UPDATE, 1);
+    update.setName("Sparkling water");
+    ItemBatchResponse response = itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, List.of(
+        batchOperation(ItemBatchOperation.Type.CREATE, null),
+        update,
+        batchOperation(ItemBatchOperation.Type.DELETE, 2))), TEST_USER_ID);
+
+    assertTrue(response.isApplied());
+    assertEquals(3, response.getResults().size());
+    assertTrue(response.getResults().stream().allMatch(result -> result.isSuccess()));
+    assertEquals(10, response.getResults().get(0).getItemId());
+    assertEquals("Sparkling water", testItem.getName());
+    verify(itemRepo).deleteAllByIdInBatch(List.of(other.getId()));
+    verify(unitRepo, times(1)).findAllById(any());
+    verify(categoryRepo, times(1)).findAllById(any());
+    verify(membershipIndex, times(1)).isMember(TEST_USER_ID, TEST_HOUSEHOLD_ID);
+    verify(changeLog).record(TEST_HOUSEHOLD_ID, Map.of(
+        1, InventoryChangeType.UPSERT, 2, InventoryChangeType.DELETE, 10, InventoryChangeType.UPSERT));
+  }
+
+  @Test
+  @DisplayName("applyBatch should record changes of shared items in the other households too")
+  void applyBatchSharedItem() {
+    stubBatchReferences();
+    when(itemRepo.findHouseholdsByItemIds(any()))
+        .thenReturn(List.of(itemHousehold(1, TEST_HOUSEHOLD_ID), itemHousehold(1, 2)));
+    when(householdRepo.getReferenceById(TEST_HOUSEHOLD_ID)).thenReturn(households.get(0));
+
+    ItemBatchResponse response = itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, List.of(
+        batchOperation(ItemBatchOperation.Type.UPDATE, 1))), TEST_USER_ID);
+
+    assertTrue(response.isApplied());
+    verify(changeLog).record(TEST_HOUSEHOLD_ID, Map.of(1, InventoryChangeType.UPSERT));
+    verify(changeLog).record(2, Map.of(1, InventoryChangeType.UPSERT));
+  }
+
+  @Test
+  @DisplayName("applyBatch should apply nothing if an operation is invalid")
+  void applyBatchInvalidOperation() {
+    stubBatchReferences();
+    ItemBatchOperation badUnit = batchOperation(ItemBatchOperation.Type.CREATE, null);
+    badUnit.setUnitId(999);
+
+    ItemBatchResponse response = itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, List.of(
+        batchOperation(ItemBatchOperation.Type.UPDATE, 1),
+        badUnit,
+        batchOperation(ItemBatchOperation.Type.DELETE, 3))), TEST_USER_ID);
+
+    assertFalse(response.isApplied());
+    assertTrue(response.getResults().get(0).isSuccess());
+    assertEquals("Unit not found", response.getResults().get(1).getError());
+    assertEquals("Item not found", response.getResults().get(2).getError());
+    verify(itemRepo, never()).saveAll(any());
+    verify(itemRepo, never()).deleteAllByIdInBatch(any());
+    verify(changeLog, never()).record(anyInt(), any());
+  }
+
+  @Test
+  @DisplayName("applyBatch should reject operations on an item deleted earlier in the batch")
+  void applyBatchItemDeletedEarlier() {
+    stubBatchReferences();
+
+    ItemBatchResponse response = itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, List.of(
+        batchOperation(ItemBatchOperation.Type.DELETE, 1),
+        batchOperation(ItemBatchOperation.Type.UPDATE, 1))), TEST_USER_ID);
+
+    assertFalse(response.isApplied());
+    assertEquals("Item is deleted by an earlier operation", response.getResults().get(1).getError());
+  }
+
+  @Test
+  @DisplayName("applyBatch should reject updates of an item changed since the given version")
+  void applyBatchVersionMismatch() {
+    stubBatchReferences();
+    testItem.setVersion(4);
+    ItemBatchOperation stale = batchOperation(ItemBatchOperation.Type.UPDATE, 1);
+    stale.setVersion(3L);
+    stale.setName("Sparkling water");
+    ItemBatchOperation current = batchOperation(ItemBatchOperation.Type.UPDATE, 1);
+    current.setVersion(4L);
+
+    ItemBatchResponse response = itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, List.of(
+        current, stale)), TEST_USER_ID);
+
+    assertFalse(response.isApplied());
+    assertTrue(response.getResults().get(0).isSuccess());
+    assertEquals("Item was changed since it was read", response.getResults().get(1).getError());
+    assertEquals("Water", testItem.getName());
+    verify(changeLog, never()).record(anyInt(), any());
+  }
+
+  @Test
+  @DisplayName("applyBatch should throw IllegalArgumentException if user is not in household")
+  void applyBatchUnauthorized() {
+    ItemBatchRequest request = new ItemBatchRequest(TEST_HOUSEHOLD_ID,
+        List.of(batchOperation(ItemBatchOperation.Type.CREATE, null)));
+
+    assertThrows(IllegalArgumentException.class, () -> itemService.applyBatch(request, 999));
+    verify(unitRepo, never()).findAllById(any());
+  }
+
+  @Test
+  @DisplayName("applyBatch should throw IllegalArgumentException on empty or too large batches")
+  void applyBatchInvalidSize() {
+    List<ItemBatchOperation> tooMany = new ArrayList<>();
+    for (int i = 0; i <= ItemService.MAX_BATCH_OPERATIONS; i++) {
+      tooMany.add(batchOperation(ItemBatchOperation.Type.CREATE, null));
+    }
+
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, List.of()), TEST_USER_ID));
+    assertThrows(IllegalArgumentException.class, () ->
+        itemService.applyBatch(new ItemBatchRequest(TEST_HOUSEHOLD_ID, tooMany), TEST_USER_ID));
+  }
+
+  private static InventoryChangeRepo.ChangeRow changeRow(int itemId, InventoryChangeType type) {
+    return new InventoryChangeRepo.ChangeRow() {
+      public int getItemId() {
+        return itemId;
+      }
+
+      public InventoryChangeType getType() {
+        return type;
+      }
+    };
+  }
+
+  @Test
+  @DisplayName("getChangesSince should return the last state of each changed item and the removed items")
+  void getChangesSinceSuccess() {
+    when(householdRepo.findInventoryRevisionById(TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(9L));
+    when(inventoryChangeRepo.findChanges(TEST_HOUSEHOLD_ID, 5, 9)).thenReturn(List.of(
+        changeRow(1, InventoryChangeType.UPSERT),
+        changeRow(2, InventoryChangeType.UPSERT),
+        changeRow(1, InventoryChangeType.DELETE),
+        changeRow(3, InventoryChangeType.UPSERT)));
+    when(itemRepo.findRowsByHouseholdAndIdIn(TEST_HOUSEHOLD_ID, List.of(2, 3)))
+        .thenReturn(List.of(itemRow(2, "Bread", 222, new Date())));
+    when(itemRepo.findHouseholdsByItemIds(List.of(2))).thenReturn(List.of(itemHousehold(2, TEST_HOUSEHOLD_ID)));
+
+    InventoryChangesResponse response = itemService.getChangesSince(TEST_HOUSEHOLD_ID, TEST_USER_ID, 5);
+
+    assertEquals(9, response.getRevision());
+    assertEquals(1, response.getItems().size());
+    assertEquals(2, response.getItems().get(0).getId());
+    assertEquals(List.of(TEST_HOUSEHOLD_ID), response.getItems().get(0).getHouseholdIds());
+    assertEquals(List.of(1, 3), response.getDeletedItemIds());
+  }
+
+  @Test
+  @DisplayName("getChangesSince should return the whole inventory for revision 0")
+  void getChangesSinceZero() {
+    when(householdRepo.findInventoryRevisionById(TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(3L));
+    when(itemRepo.findRowsByHouseholdOrderByExpiration(eq(TEST_HOUSEHOLD_ID), any()))
+        .thenReturn(List.of(itemRow(1, "Water", 222, new Date())));
+    when(itemRepo.findHouseholdsOfItemsInHousehold(TEST_HOUSEHOLD_ID))
+        .thenReturn(List.of(itemHousehold(1, TEST_HOUSEHOLD_ID)));
+
+    InventoryChangesResponse response = itemService.getChangesSince(TEST_HOUSEHOLD_ID, TEST_USER_ID, 0);
+
+    assertEquals(3, response.getRevision());
+    assertEquals(1, response.getItems().size());
+    assertTrue(response.getDeletedItemIds().isEmpty());
+    verify(inventoryChangeRepo, never()).findChanges(anyInt(), anyLong(), anyLong());
+  }
+
+  @Test
+  @DisplayName("getChangesSince should return no changes for the current revision")
+  void getChangesSinceCurrentRevision() {
+    when(householdRepo.findInventoryRevisionById(TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(7L));
+
+    InventoryChangesResponse response = itemService.getChangesSince(TEST_HOUSEHOLD_ID, TEST_USER_ID, 7);
+
+    assertEquals(7, response.getRevision());
+    assertTrue(response.getItems().isEmpty());
+    assertTrue(response.getDeletedItemIds().isEmpty());
+    verify(inventoryChangeRepo, never()).findChanges(anyInt(), anyLong(), anyLong());
+  }
+
+  @Test
+  @DisplayName("getChangesSince should throw IllegalArgumentException on a negative or future revision")
+  void getChangesSinceInvalidRevision() {
+    when(householdRepo.findInventoryRevisionById(TEST_HOUSEHOLD_ID)).thenReturn(Optional.of(7L));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> itemService.getChangesSince(TEST_HOUSEHOLD_ID, TEST_USER_ID, -1));
+    assertThrows(IllegalArgumentException.class,
+        () -> itemService.getChangesSince(TEST_HOUSEHOLD_ID, TEST_USER_ID, 8));
+  }
+
+  @Test
+  @DisplayName("getChangesSince should throw IllegalArgumentException if user is not in household")
+  void getChangesSinceUnauthorized() {
+    assertThrows(IllegalArgumentException.class,
+        () -> itemService.getChangesSince(TEST_HOUSEHOLD_ID, 999, 0));
+    verify(householdRepo, never()).findInventoryRevisionById(anyInt());
+  }
+
+  @Test
+  @DisplayName("getTotalsByHouseholdId should return the totals of each category and unit")
+  void getTotalsByHouseholdIdSuccess() {
+    Date earliest = new Date();
+    ItemRepo.CategoryUnitTotal total = mock(ItemRepo.CategoryUnitTotal.class);
+    when(total.getCategoryId()).thenReturn(222);
+    when(total.getUnitId()).thenReturn(111);
+    when(total.getItemCount()).thenReturn(3L);
+    when(total.getTotalAmount()).thenReturn(7.5);
+    when(total.getEarliestExpirationDate()).thenReturn(earliest);
+    when(itemRepo.findTotalsByHousehold(TEST_HOUSEHOLD_ID)).thenReturn(List.of(total));
+
+    List<InventoryTotalResponse> totals = itemService.getTotalsByHouseholdId(TEST_HOUSEHOLD_ID, TEST_USER_ID);
+
+    assertEquals(1, totals.size());
+    assertEquals(222, totals.get(0).getCategoryId());
+    assertEquals(111, totals.get(0).getUnitId());
+    assertEquals(3, totals.get(0).getItemCount());
+    assertEquals(7.5, totals.get(0).getTotalAmount());
+    assertEquals(earliest, totals.get(0).getEarliestExpirationDate());
+    verify(itemRepo, never()).findAll();
+  }
+
+  @Test
+  @DisplayName("getTotalsByHouseholdId should throw IllegalArgumentException if user is not in household")
+  void getTotalsByHouseholdIdUnauthorized() {
+    assertThrows(IllegalArgumentException.class,
+        () -> itemService.getTotalsByHouseholdId(TEST_HOUSEHOLD_ID, 999));
+    verify(itemRepo, never()).findTotalsByHousehold(anyInt());
+  }
+
+  private static ItemRepo.ItemAmount itemAmount(int id, double amount, long version) {
+    return new ItemRepo.ItemAmount() {
+      public int getId() {
+        return id;
+      }
+
+      public double getAmount() {
+        return amount;
+      }
+
+      public long getVersion() {
+        return version;
+      }
+    };
+  }
+
+  @Test
+  @DisplayName("changeAmount should add to the amount with one update and record the change")
+  void changeAmountSuccess() {
+    when(itemRepo.addToAmount(1, TEST_USER_ID, -0.5)).thenReturn(1);
+    when(itemRepo.findAmountById(1)).thenReturn(Optional.of(itemAmount(1, 0.5, 4)));
+    when(itemRepo.findHouseholdsByItemIds(List.of(1)))
+        .thenReturn(List.of(itemHousehold(1, TEST_HOUSEHOLD_ID), itemHousehold(1, 2)));
+
+    ItemAmountResponse response = itemService.changeAmount(1, -0.5, TEST_USER_ID);
+
+    assertEquals(1, response.getId());
+    assertEquals(0.5, response.getAmount());
+    assertEquals(4, response.getVersion());
+    verify(itemRepo, never()).findById(anyInt());
+    verify(itemRepo, never()).save(any());
+    verify(changeLog).record(List.of(TEST_HOUSEHOLD_ID, 2), 1, InventoryChangeType.UPSERT);
+  }
+
+  @Test
+  @DisplayName("changeAmount should throw IllegalArgumentException if the amount would become negative")
+  void changeAmountNegative() {
+    when(itemRepo.addToAmount(1, TEST_USER_ID, -5)).thenReturn(0);
+    when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> itemService.changeAmount(1, -5, TEST_USER_ID));
+    assertEquals("Amount cannot be negative", exception.getMessage());
+    verify(changeLog, never()).record(anyList(), anyInt(), any());
+  }
+
+  @Test
+  @DisplayName("changeAmount should throw IllegalArgumentException if the item does not exist or the user is not authorized")
+  void changeAmountNotFoundOrUnauthorized() {
+    when(itemRepo.findById(1)).thenReturn(Optional.of(testItem));
+    when(itemRepo.findById(2)).thenReturn(Optional.empty());
+
+    assertEquals("Item not found", assertThrows(IllegalArgumentException.class,
+        () -> itemService.changeAmount(2, 1, TEST_USER_ID)).getMessage());
+    assertEquals("User is not authorized to perform operations on this item", assertThrows(
+        IllegalArgumentException.class, () -> itemService.changeAmount(1, 1, 999)).getMessage());
+  }
+
+  @Test
+  @DisplayName("changeAmount should throw IllegalArgumentException on a zero or invalid change")
+  void changeAmountInvalidDelta() {
+    assertThrows(IllegalArgumentException.class, () -> itemService.changeAmount(1, 0, TEST_USER_ID));
+    assertThrows(IllegalArgumentException.class, () -> itemService.changeAmount(1, Double.NaN, TEST_USER_ID));
+    verify(itemRepo, never()).addToAmount(anyInt(), anyInt(), anyDouble());
+  }
+}
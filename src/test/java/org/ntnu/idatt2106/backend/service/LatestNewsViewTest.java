@@ -0,0 +1,135 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the LatestNewsView
+ */
+class LatestNewsViewTest {
+
+  private LatestNewsView view;
+
+  @BeforeEach
+  void setUp() {
+    view = new LatestNewsView();
+  }
+
+  private static News news(int id, String caseId, long date) {
+    News news = new News("Title " + id, caseId, "Content", 60.0, 10.0, "Oslo", new Date(date));
+    news.setId(id);
+    return news;
+  }
+
+  private static List<Integer> ids(List<NewsGetResponse> responses) {
+    return responses.stream().map(NewsGetResponse::getId).toList();
+  }
+
+  @Test
+  @DisplayName("getLatest returns the latest news of each case, newest first")
+  void testGetLatestOrdering() {
+    view.rebuild(List.of(news(1, "a", 1000), news(2, "b", 3000), news(3, "c", 2000)));
+
+    assertEquals(List.of(2, 3, 1), ids(view.getLatest(10)));
+    assertEquals(3, view.size());
+  }
+
+  @Test
+  @DisplayName("getLatest respects the limit")
+  void testGetLatestLimit() {
+    view.rebuild(List.of(news(1, "a", 1000), news(2, "b", 3000), news(3, "c", 2000)));
+
+    assertEquals(List.of(2, 3), ids(view.getLatest(2)));
+  }
+
+  @Test
+  @DisplayName("accept replaces the news of a case with newer news")
+  void testAcceptNewerNewsReplacesOlder() {
+    view.accept(news(1, "a", 1000));
+    view.accept(news(2, "b", 2000));
+
+    view.accept(news(3, "a", 3000));
+
+    assertEquals(List.of(3, 2), ids(view.getLatest(10)));
+    assertEquals(2, view.size());
+  }
+
+  @Test
+  @DisplayName("accept ignores news older than the latest news of the case")
+  void testAcceptOlderNewsIgnored() {
+    view.accept(news(2, "a", 2000));
+
+    view.accept(news(1, "a", 1000));
+
+    assertEquals(List.of(2), ids(view.getLatest(10)));
+  }
+
+  @Test
+  @DisplayName("rebuild replaces the previous content of the view")
+  void testRebuildClearsView() {
+    view.accept(news(1, "a", 1000));
+
+    view.rebuild(List.of(news(2, "b", 2000)));
+
+    assertEquals(List.of(2), ids(view.getLatest(10)));
+    assertEquals(1, view.size());
+  }
+
+  @Test
+  @DisplayName("removeCase removes the case from the view")
+  void testRemoveCase() {
+    view.rebuild(List.of(news(1, "a", 1000), news(2, "b", 2000)));
+
+    view.removeCase("b");
+    view.removeCase("unknown");
+
+    assertEquals(List.of(1), ids(view.getLatest(10)));
+  }
+
+  @Test
+  @DisplayName("evictOlderThan removes only cases older than the cutoff")
+  void testEvictOlderThan() {
+    view.rebuild(List.of(news(1, "a", 1000), news(2, "b", 2000), news(3, "c", 3000)));
+
+    view.evictOlderThan(new Date(2000));
+
+    assertEquals(List.of(3, 2), ids(view.getLatest(10)));
+    assertEquals(2, view.size());
+  }
+
+  @Test
+  @DisplayName("getPage pages through the view with a cursor")
+  void testGetPage() {
+    view.rebuild(List.of(news(1, "a", 1000), news(2, "b", 3000), news(3, "c", 2000), news(4, "d", 2000)));
+
+    NewsPageResponse first = view.getPage(null, 2);
+    NewsPageResponse second = view.getPage(NewsCursor.decode(first.getNextCursor()), 2);
+
+    assertEquals(List.of(2, 4), ids(first.getItems()));
+    assertNotNull(first.getNextCursor());
+    assertEquals(List.of(3, 1), ids(second.getItems()));
+    assertNull(second.getNextCursor());
+  }
+
+  @Test
+  @DisplayName("getPage does not shift when newer news is added between pages")
+  void testGetPageStableUnderInserts() {
+    view.rebuild(List.of(news(1, "a", 1000), news(2, "b", 2000), news(3, "c", 3000)));
+    NewsPageResponse first = view.getPage(null, 1);
+
+    view.accept(news(4, "d", 4000));
+    NewsPageResponse second = view.getPage(NewsCursor.decode(first.getNextCursor()), 5);
+
+    assertEquals(List.of(3), ids(first.getItems()));
+    assertEquals(List.of(2, 1), ids(second.getItems()));
+  }
+}
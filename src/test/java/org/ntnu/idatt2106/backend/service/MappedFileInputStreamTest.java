@@ -0,0 +1,70 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileInputStreamTest {
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    file = Files.createTempFile("mapped", ".bin");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  @DisplayName("Should read the whole file across several windows")
+  void testReadAcrossWindows() throws IOException {
+    byte[] content = new byte[1000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    Files.write(file, content);
+
+    try (InputStream inputStream = new MappedFileInputStream(file, 64)) {
+      assertArrayEquals(content, inputStream.readAllBytes());
+      assertEquals(-1, inputStream.read());
+    }
+  }
+
+  @Test
+  @DisplayName("Should read single bytes as unsigned values")
+  void testReadSingleBytes() throws IOException {
+    Files.write(file, new byte[] {(byte) 0xFF, 1});
+
+    try (InputStream inputStream = new MappedFileInputStream(file, 1)) {
+      assertEquals(255, inputStream.read());
+      assertEquals(1, inputStream.read());
+      assertEquals(-1, inputStream.read());
+    }
+  }
+
+  @Test
+  @DisplayName("Should return end of stream for an empty file")
+  void testEmptyFile() throws IOException {
+    try (InputStream inputStream = new MappedFileInputStream(file)) {
+      assertEquals(-1, inputStream.read());
+      assertEquals(-1, inputStream.read(new byte[8], 0, 8));
+    }
+  }
+
+  @Test
+  @DisplayName("Should reject invalid window sizes")
+  void testInvalidWindowSize() {
+    assertThrows(IllegalArgumentException.class, () -> new MappedFileInputStream(file, 0));
+  }
+}
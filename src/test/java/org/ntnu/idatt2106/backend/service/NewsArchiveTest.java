@@ -0,0 +1,150 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NewsArchive
+ */
+class NewsArchiveTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @TempDir
+  Path directory;
+
+  private NewsArchive archive() throws IOException {
+    return new NewsArchive(directory.toString(), objectMapper);
+  }
+
+  private static News news(int id, String title, int day, int hour) {
+    Date date = Date.from(ZonedDateTime.of(2025, 5, day, hour, 0, 0, 0, NewsArchive.ZONE).toInstant());
+    News news = new News(title, "25" + id, "Content " + id, 59.91, 10.75, "Oslo politidistrikt", date);
+    news.setId(id);
+    return news;
+  }
+
+  private List<JsonNode> read(NewsArchive archive, LocalDate from, LocalDate to) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    archive.stream(from, to, out);
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+      if (!line.isEmpty()) {
+        lines.add(objectMapper.readTree(line));
+      }
+    }
+    return lines;
+  }
+
+  @Test
+  @DisplayName("append writes news to compressed segments per day of publication")
+  void testAppendWritesSegmentsPerDay() throws IOException {
+    NewsArchive archive = archive();
+
+    archive.append(List.of(news(1, "A", 1, 10), news(2, "B", 2, 10), news(3, "C", 2, 23)));
+
+    assertTrue(Files.exists(directory.resolve("news-2025-05-01.ndjson.gz")));
+    assertTrue(Files.exists(directory.resolve("news-2025-05-02.ndjson.gz")));
+    List<NewsArchive.Segment> segments = archive.getSegments();
+    assertEquals(2, segments.size());
+    assertEquals(LocalDate.of(2025, 5, 1), segments.get(0).day());
+    assertEquals(1, segments.get(0).count());
+    assertEquals(2, segments.get(1).count());
+  }
+
+  @Test
+  @DisplayName("stream returns the news of the period as NDJSON, oldest day first")
+  void testStreamPeriod() throws IOException {
+    NewsArchive archive = archive();
+    archive.append(List.of(news(3, "C", 3, 10), news(1, "A", 1, 10), news(2, "B", 2, 10)));
+
+    List<JsonNode> lines = read(archive, LocalDate.of(2025, 5, 2), LocalDate.of(2025, 5, 3));
+
+    assertEquals(List.of("B", "C"), lines.stream().map(line -> line.get("title").asText()).toList());
+    JsonNode first = lines.get(0);
+    assertEquals(2, first.get("id").asInt());
+    assertEquals("252", first.get("caseId").asText());
+    assertEquals("Oslo politidistrikt", first.get("district").asText());
+    assertEquals(news(2, "B", 2, 10).getDate().toInstant().toString(), first.get("date").asText());
+  }
+
+  @Test
+  @DisplayName("append adds later batches to an existing segment")
+  void testAppendToExistingSegment() throws IOException {
+    NewsArchive archive = archive();
+
+    archive.append(List.of(news(1, "A", 1, 10)));
+    archive.append(List.of(news(2, "B", 1, 11)));
+
+    assertEquals(List.of("A", "B"), read(archive, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 1)).stream()
+        .map(line -> line.get("title").asText()).toList());
+    assertEquals(2, archive.getSegments().get(0).count());
+  }
+
+  @Test
+  @DisplayName("a new archive loads the index written by an earlier one")
+  void testIndexIsPersisted() throws IOException {
+    archive().append(List.of(news(1, "A", 1, 10), news(2, "B", 2, 10)));
+
+    NewsArchive reopened = archive();
+
+    assertEquals(2, reopened.getSegments().size());
+    assertEquals(2, read(reopened, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 2)).size());
+  }
+
+  @Test
+  @DisplayName("a missing index is rebuilt from the segments")
+  void testIndexIsRebuilt() throws IOException {
+    archive().append(List.of(news(1, "A", 1, 10), news(2, "B", 1, 11)));
+    Files.delete(directory.resolve(NewsArchive.INDEX_FILE));
+
+    NewsArchive reopened = archive();
+
+    assertEquals(1, reopened.getSegments().size());
+    assertEquals(2, reopened.getSegments().get(0).count());
+    assertTrue(Files.exists(directory.resolve(NewsArchive.INDEX_FILE)));
+  }
+
+  @Test
+  @DisplayName("bytes past the indexed size of a segment are ignored and dropped on the next append")
+  void testInterruptedAppendIsIgnored() throws IOException {
+    NewsArchive archive = archive();
+    archive.append(List.of(news(1, "A", 1, 10)));
+    Path segment = directory.resolve("news-2025-05-01.ndjson.gz");
+    Files.write(segment, new byte[] {0x1f, (byte) 0x8b, 8, 0}, StandardOpenOption.APPEND);
+
+    assertEquals(1, read(archive, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 1)).size());
+
+    archive.append(List.of(news(2, "B", 1, 11)));
+    assertEquals(2, read(archive, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 1)).size());
+  }
+
+  @Test
+  @DisplayName("stream writes nothing for a period without archived news")
+  void testStreamEmptyPeriod() throws IOException {
+    NewsArchive archive = archive();
+    archive.append(List.of(news(1, "A", 1, 10)));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(0, archive.stream(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30), out));
+    assertEquals(0, out.size());
+  }
+}
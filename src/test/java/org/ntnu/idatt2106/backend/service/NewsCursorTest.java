@@ -0,0 +1,29 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NewsCursor
+ */
+class NewsCursorTest {
+
+  @Test
+  @DisplayName("encode and decode round trip")
+  void testRoundTrip() {
+    NewsCursor cursor = new NewsCursor(1746442184323L, 42);
+
+    assertEquals(cursor, NewsCursor.decode(cursor.encode()));
+    assertFalse(cursor.encode().contains("="));
+  }
+
+  @Test
+  @DisplayName("decode rejects malformed cursors")
+  void testDecodeInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> NewsCursor.decode("%%%"));
+    assertThrows(IllegalArgumentException.class, () -> NewsCursor.decode(new NewsCursor(1, 2).encode() + "x"));
+    assertThrows(IllegalArgumentException.class, () -> NewsCursor.decode("YWJj")); // "abc"
+  }
+}
@@ -0,0 +1,169 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NewsFeedFetcher, run against a local stub HTTP server
+ */
+class NewsFeedFetcherTest {
+
+  private static final String FEED = "<rss version=\"2.0\"><channel></channel></rss>";
+  private static final String ETAG = "\"v1\"";
+  private static final String LAST_MODIFIED = "Mon, 05 May 2025 10:49:44 GMT";
+
+  private HttpServer server;
+  private final List<HttpExchange> requests = new CopyOnWriteArrayList<>();
+  private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+  private volatile int failureStatus = 503;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/rss", exchange -> {
+      requests.add(exchange);
+      if (failuresBeforeSuccess.getAndDecrement() > 0) {
+        exchange.sendResponseHeaders(failureStatus, -1);
+      } else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        byte[] body = FEED.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+          outputStream.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  private NewsFeedFetcher createFetcher(int maxAttempts) {
+    return new NewsFeedFetcher("http://localhost:" + server.getAddress().getPort() + "/rss",
+        1000, 2000, maxAttempts, 10);
+  }
+
+  @Test
+  @DisplayName("fetch returns the feed body on the first request")
+  void testFetchReturnsBody() {
+    Optional<byte[]> body = createFetcher(3).fetch().join();
+
+    assertTrue(body.isPresent());
+    assertEquals(FEED, new String(body.get(), StandardCharsets.UTF_8));
+    assertNull(requests.get(0).getRequestHeaders().getFirst("If-None-Match"));
+  }
+
+  @Test
+  @DisplayName("fetch sends validators and returns empty when the feed is not modified")
+  void testFetchNotModified() {
+    NewsFeedFetcher fetcher = createFetcher(3);
+    fetcher.fetch().join();
+    fetcher.commitValidators();
+
+    Optional<byte[]> body = fetcher.fetch().join();
+
+    assertTrue(body.isEmpty());
+    assertEquals(2, requests.size());
+    assertEquals(ETAG, requests.get(1).getRequestHeaders().getFirst("If-None-Match"));
+    assertEquals(LAST_MODIFIED, requests.get(1).getRequestHeaders().getFirst("If-Modified-Since"));
+  }
+
+  @Test
+  @DisplayName("fetch returns the feed again when its validators were not committed")
+  void testFetchWithoutCommittedValidators() {
+    NewsFeedFetcher fetcher = createFetcher(3);
+    fetcher.fetch().join();
+
+    Optional<byte[]> body = fetcher.fetch().join();
+
+    assertTrue(body.isPresent());
+    assertNull(requests.get(1).getRequestHeaders().getFirst("If-None-Match"));
+    assertNull(requests.get(1).getRequestHeaders().getFirst("If-Modified-Since"));
+  }
+
+  @Test
+  @DisplayName("fetch retries server errors until the feed is returned")
+  void testFetchRetriesServerErrors() {
+    failuresBeforeSuccess.set(2);
+
+    Optional<byte[]> body = createFetcher(3).fetch().join();
+
+    assertTrue(body.isPresent());
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  @DisplayName("fetch fails after the maximum number of attempts")
+  void testFetchFailsAfterMaxAttempts() {
+    failuresBeforeSuccess.set(10);
+
+    CompletionException exception = assertThrows(CompletionException.class,
+        () -> createFetcher(3).fetch().join());
+
+    assertInstanceOf(IOException.class, exception.getCause());
+    assertEquals("Failed to load feed after 3 attempts", exception.getCause().getMessage());
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  @DisplayName("fetch does not retry client errors")
+  void testFetchDoesNotRetryClientErrors() {
+    failuresBeforeSuccess.set(10);
+    failureStatus = 404;
+
+    assertThrows(CompletionException.class, () -> createFetcher(3).fetch().join());
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  @DisplayName("fetch retries when the server cannot be reached")
+  void testFetchRetriesConnectionErrors() {
+    NewsFeedFetcher fetcher = createFetcher(2);
+    server.stop(0);
+
+    CompletionException exception = assertThrows(CompletionException.class, () -> fetcher.fetch().join());
+
+    assertEquals("Failed to load feed after 2 attempts", exception.getCause().getMessage());
+  }
+
+  @Test
+  @DisplayName("backoff doubles for every attempt and is capped")
+  void testBackoff() {
+    NewsFeedFetcher fetcher = createFetcher(3);
+
+    assertEquals(10, fetcher.getBackoffMillis(1));
+    assertEquals(20, fetcher.getBackoffMillis(2));
+    assertEquals(40, fetcher.getBackoffMillis(3));
+    assertEquals(60_000, fetcher.getBackoffMillis(40));
+  }
+
+  @Test
+  @DisplayName("constructor rejects less than one attempt")
+  void testInvalidMaxAttempts() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new NewsFeedFetcher("http://localhost/rss", 1000, 1000, 0, 10));
+  }
+}
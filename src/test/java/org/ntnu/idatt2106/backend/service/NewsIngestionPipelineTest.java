@@ -0,0 +1,241 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NewsIngestionPipeline
+ */
+class NewsIngestionPipelineTest {
+
+  /**
+   * Source that returns one item per title, or fails when it has no titles
+   */
+  private static class StubSource implements NewsSource {
+    private final String name;
+    private final List<String> titles;
+    private final CountDownLatch fetchLatch;
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicInteger ingested = new AtomicInteger();
+    private final List<Date> parsedSince = new ArrayList<>();
+
+    StubSource(String name, List<String> titles, CountDownLatch fetchLatch) {
+      this.name = name;
+      this.titles = titles;
+      this.fetchLatch = fetchLatch;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Optional<byte[]> fetch() throws IOException {
+      fetches.incrementAndGet();
+      if (fetchLatch != null) {
+        fetchLatch.countDown();
+        try {
+          // Every source waits for the others, so this only completes when they fetch concurrently
+          if (!fetchLatch.await(5, TimeUnit.SECONDS)) {
+            throw new IOException("Sources were not fetched concurrently");
+          }
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+      if (titles == null) {
+        throw new IOException("Feed unavailable");
+      }
+      return titles.isEmpty() ? Optional.empty() : Optional.of(new byte[0]);
+    }
+
+    @Override
+    public List<FeedItem> parse(byte[] body, Date since) {
+      parsedSince.add(since);
+      return IntStream.range(0, titles.size())
+          .mapToObj(i -> new FeedItem(titles.get(i), "Content", new Date(1_000L * i), name))
+          .toList();
+    }
+
+    @Override
+    public Optional<News> normalize(FeedItem item) {
+      return Optional.of(new News(item.title(), "", item.description(), 0.0, 0.0, item.category(), item.published()));
+    }
+
+    @Override
+    public void onIngested() {
+      ingested.incrementAndGet();
+    }
+  }
+
+  private static NewsIngestionPipeline pipeline(List<NewsSource> sources, int queueCapacity) {
+    return new NewsIngestionPipeline(sources, queueCapacity, 5_000, 60_000, 240_000);
+  }
+
+  private static List<String> titles(List<List<News>> batches) {
+    return batches.stream().flatMap(List::stream).map(News::getTitle).sorted().toList();
+  }
+
+  @Test
+  @DisplayName("run fetches all sources concurrently and delivers their news to the sink")
+  void testRunFetchesSourcesConcurrently() {
+    CountDownLatch latch = new CountDownLatch(2);
+    StubSource first = new StubSource("first", List.of("A", "B"), latch);
+    StubSource second = new StubSource("second", List.of("C"), latch);
+    List<List<News>> batches = new ArrayList<>();
+
+    pipeline(List.of(first, second), 16).run(batches::add);
+
+    assertEquals(List.of("A", "B", "C"), titles(batches));
+  }
+
+  @Test
+  @DisplayName("run delivers news from healthy sources when another source fails")
+  void testRunIsolatesFailingSource() {
+    StubSource failing = new StubSource("failing", null, null);
+    StubSource healthy = new StubSource("healthy", List.of("A"), null);
+    NewsIngestionPipeline pipeline = pipeline(List.of(failing, healthy), 16);
+    List<List<News>> batches = new ArrayList<>();
+
+    pipeline.run(batches::add);
+
+    assertEquals(List.of("A"), titles(batches));
+    assertEquals(1, pipeline.getConsecutiveFailures("failing"));
+    assertEquals(0, pipeline.getConsecutiveFailures("healthy"));
+  }
+
+  @Test
+  @DisplayName("run skips a failed source until its backoff has passed")
+  void testRunSkipsSourceInBackoff() {
+    StubSource failing = new StubSource("failing", null, null);
+    StubSource healthy = new StubSource("healthy", List.of("A"), null);
+    NewsIngestionPipeline pipeline = pipeline(List.of(failing, healthy), 16);
+
+    pipeline.run(batch -> { });
+    pipeline.run(batch -> { });
+
+    assertEquals(1, failing.fetches.get());
+    assertEquals(2, healthy.fetches.get());
+  }
+
+  @Test
+  @DisplayName("getBackoffMillis doubles with every failure up to the maximum")
+  void testBackoffMillis() {
+    NewsIngestionPipeline pipeline = pipeline(List.of(), 16);
+
+    assertEquals(60_000, pipeline.getBackoffMillis(1));
+    assertEquals(120_000, pipeline.getBackoffMillis(2));
+    assertEquals(240_000, pipeline.getBackoffMillis(3));
+    assertEquals(240_000, pipeline.getBackoffMillis(50));
+  }
+
+  @Test
+  @DisplayName("run delivers nothing when a source is not modified")
+  void testRunNotModified() {
+    StubSource source = new StubSource("unchanged", List.of(), null);
+    NewsIngestionPipeline pipeline = pipeline(List.of(source), 16);
+    List<List<News>> batches = new ArrayList<>();
+
+    pipeline.run(batches::add);
+
+    assertTrue(batches.isEmpty());
+    assertEquals(0, pipeline.getConsecutiveFailures("unchanged"));
+  }
+
+  @Test
+  @DisplayName("run delivers every news in batches through a small queue")
+  void testRunWithSmallQueue() {
+    List<String> many = IntStream.range(0, 350).mapToObj(i -> "News " + i).toList();
+    StubSource first = new StubSource("first", many, null);
+    StubSource second = new StubSource("second", many, null);
+    List<List<News>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    pipeline(List.of(first, second), 1).run(batches::add);
+
+    assertEquals(700, batches.stream().mapToInt(List::size).sum());
+    assertTrue(batches.stream().allMatch(batch -> batch.size() <= NewsIngestionPipeline.BATCH_SIZE));
+  }
+
+  @Test
+  @DisplayName("run continues with the next batch when the sink fails")
+  void testRunSinkFailure() {
+    StubSource first = new StubSource("first", List.of("A"), null);
+    StubSource second = new StubSource("second", List.of("B"), null);
+    List<List<News>> batches = new ArrayList<>();
+
+    pipeline(List.of(first, second), 16).run(batch -> {
+      batches.add(batch);
+      throw new IllegalStateException("Database unavailable");
+    });
+
+    assertEquals(List.of("A", "B"), titles(batches));
+  }
+
+  @Test
+  @DisplayName("run passes the date of the newest persisted news to the next parse")
+  void testRunPassesWatermark() {
+    StubSource source = new StubSource("source", List.of("A", "B", "C"), null);
+    NewsIngestionPipeline pipeline = pipeline(List.of(source), 16);
+
+    pipeline.run(batch -> { });
+    pipeline.run(batch -> { });
+
+    assertEquals(new Date(2_000L), pipeline.getWatermark("source"));
+    assertEquals(Arrays.asList(null, new Date(2_000L)), source.parsedSince);
+  }
+
+  @Test
+  @DisplayName("run does not advance the watermark when saving news of the source failed")
+  void testRunKeepsWatermarkOnSinkFailure() {
+    StubSource source = new StubSource("source", List.of("A"), null);
+    NewsIngestionPipeline pipeline = pipeline(List.of(source), 16);
+
+    pipeline.run(batch -> {
+      throw new IllegalStateException("Database unavailable");
+    });
+
+    assertNull(pipeline.getWatermark("source"));
+    assertEquals(0, source.ingested.get());
+  }
+
+  @Test
+  @DisplayName("run tells a source its feed is ingested only when it was fetched and saved")
+  void testRunNotifiesIngestedSources() {
+    StubSource healthy = new StubSource("healthy", List.of("A"), null);
+    StubSource unchanged = new StubSource("unchanged", List.of(), null);
+    StubSource failing = new StubSource("failing", null, null);
+
+    pipeline(List.of(healthy, unchanged, failing), 16).run(batch -> { });
+
+    assertEquals(1, healthy.ingested.get());
+    assertEquals(1, unchanged.ingested.get());
+    assertEquals(0, failing.ingested.get());
+  }
+
+  @Test
+  @DisplayName("runCycle completes after the cycle has run")
+  void testRunCycle() throws Exception {
+    StubSource source = new StubSource("source", List.of("A"), null);
+    List<List<News>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    pipeline(List.of(source), 16).runCycle(batches::add).get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of("A"), titles(batches));
+  }
+}
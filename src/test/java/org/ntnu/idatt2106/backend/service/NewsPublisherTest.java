@@ -0,0 +1,99 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.model.News;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the NewsPublisher
+ */
+class NewsPublisherTest {
+
+  private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+  private NewsPublisher newsPublisher;
+
+  @AfterEach
+  void tearDown() {
+    if (newsPublisher != null) {
+      newsPublisher.shutdown();
+    }
+  }
+
+  private static News news(int id, String district) {
+    News news = new News("Title", "abc123", "Content", 60.0, 10.0, district, new Date(1746442184323L));
+    news.setId(id);
+    return news;
+  }
+
+  @Test
+  @DisplayName("publish sends the news to the news topic and the district topic")
+  void testPublishSendsToTopics() {
+    newsPublisher = new NewsPublisher(messagingTemplate, 10);
+
+    newsPublisher.publish(news(1, "Oslo Politidistrikt"));
+
+    verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/news"),
+        argThat((NewsGetResponse response) -> response.getId() == 1));
+    verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/news/oslo-politidistrikt"),
+        argThat((NewsGetResponse response) -> response.getId() == 1));
+  }
+
+  @Test
+  @DisplayName("publish drops news when the queue is full instead of blocking")
+  void testPublishDropsWhenQueueIsFull() throws InterruptedException {
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      sending.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(messagingTemplate).convertAndSend(eq("/topic/news"), any(Object.class));
+    newsPublisher = new NewsPublisher(messagingTemplate, 1);
+
+    newsPublisher.publish(news(1, "Oslo"));
+    assertTrue(sending.await(1, TimeUnit.SECONDS));
+    newsPublisher.publish(news(2, "Oslo"));
+    newsPublisher.publish(news(3, "Oslo"));
+
+    assertEquals(1, newsPublisher.getDroppedCount());
+    release.countDown();
+    newsPublisher.shutdown();
+    verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/news"), any(Object.class));
+    verify(messagingTemplate, never()).convertAndSend(eq("/topic/news"),
+        argThat((Object response) -> ((NewsGetResponse) response).getId() == 3));
+  }
+
+  @Test
+  @DisplayName("publish keeps dispatching after a failed send")
+  void testPublishContinuesAfterFailure() {
+    doThrow(new RuntimeException("broker down")).doNothing()
+        .when(messagingTemplate).convertAndSend(eq("/topic/news"), any(Object.class));
+    newsPublisher = new NewsPublisher(messagingTemplate, 10);
+
+    newsPublisher.publish(news(1, "Oslo"));
+    newsPublisher.publish(news(2, "Oslo"));
+
+    verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/news/oslo"),
+        argThat((NewsGetResponse response) -> response.getId() == 2));
+  }
+
+  @Test
+  @DisplayName("getDistrictTopic lower-cases the district and replaces whitespace")
+  void testGetDistrictTopic() {
+    assertEquals("/topic/news/møre-og-romsdal-politidistrikt",
+        NewsPublisher.getDistrictTopic(" Møre og  Romsdal Politidistrikt"));
+  }
+}
@@ -0,0 +1,142 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NewsResponseCache
+ */
+class NewsResponseCacheTest {
+
+  private NewsResponseCache cache;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    cache = new NewsResponseCache(new ObjectMapper(), 3);
+  }
+
+  private Supplier<NewsPageResponse> loader(String title) {
+    return () -> {
+      loads.incrementAndGet();
+      NewsGetResponse news = new NewsGetResponse(1, "25a", title, "Content", 60.0, 10.0, "Oslo", "date");
+      return new NewsPageResponse(List.of(news), null);
+    };
+  }
+
+  private static String json(byte[] page) {
+    return new String(page, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  @DisplayName("get serializes the loaded page to JSON")
+  void testGetSerializesPage() {
+    String page = json(cache.get("Oslo", null, 20, loader("Brann")));
+
+    assertTrue(page.contains("\"title\":\"Brann\""));
+    assertTrue(page.contains("\"nextCursor\":null"));
+  }
+
+  @Test
+  @DisplayName("get loads a page once and serves it from the cache afterwards")
+  void testGetHitAndMiss() {
+    byte[] first = cache.get("Oslo", null, 20, loader("Brann"));
+    byte[] second = cache.get("Oslo", null, 20, loader("Brann"));
+
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  @DisplayName("get caches pages with different cursors and limits separately")
+  void testGetKeyedByCursorAndLimit() {
+    cache.get("Oslo", null, 20, loader("A"));
+    cache.get("Oslo", "cursor", 20, loader("B"));
+    cache.get("Oslo", null, 10, loader("C"));
+
+    assertEquals(3, loads.get());
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  @DisplayName("invalidate removes only the pages of the district")
+  void testInvalidateDistrict() {
+    cache.get("Oslo", null, 20, loader("A"));
+    cache.get("Oslo", "cursor", 20, loader("A"));
+    cache.get("Vest", null, 20, loader("B"));
+
+    cache.invalidate("Oslo");
+    cache.get("Vest", null, 20, loader("B"));
+    String reloaded = json(cache.get("Oslo", null, 20, loader("New")));
+
+    assertTrue(reloaded.contains("New"));
+    assertEquals(4, loads.get());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  @DisplayName("invalidateAll removes all pages")
+  void testInvalidateAll() {
+    cache.get("Oslo", null, 20, loader("A"));
+    cache.get("Vest", null, 20, loader("B"));
+
+    cache.invalidateAll();
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("get evicts the least recently used page when the cache is full")
+  void testEvictsLeastRecentlyUsed() {
+    cache.get("Oslo", null, 20, loader("A"));
+    cache.get("Vest", null, 20, loader("B"));
+    cache.get("Agder", null, 20, loader("C"));
+    cache.get("Oslo", null, 20, loader("A"));
+
+    cache.get("Øst", null, 20, loader("D"));
+    cache.get("Oslo", null, 20, loader("A"));
+    cache.get("Vest", null, 20, loader("B"));
+
+    assertEquals(3, cache.size());
+    assertEquals(5, loads.get());
+  }
+
+  @Test
+  @DisplayName("get does not cache a page loaded while the district was invalidated")
+  void testGetDoesNotCacheStalePage() {
+    cache.get("Oslo", null, 20, () -> {
+      cache.invalidate("Oslo");
+      return loader("Stale").get();
+    });
+    cache.get("Vest", null, 20, () -> {
+      cache.invalidateAll();
+      return loader("Stale").get();
+    });
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("get does not cache a failed load")
+  void testGetDoesNotCacheFailure() {
+    assertThrows(IllegalArgumentException.class, () -> cache.get("Oslo", "bad", 20, () -> {
+      throw new IllegalArgumentException("Invalid cursor");
+    }));
+
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getMissCount());
+  }
+}
@@ -0,0 +1,110 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NewsSearchIndex
+ */
+class NewsSearchIndexTest {
+
+  private NewsSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new NewsSearchIndex();
+  }
+
+  private static News news(int id, String title, String content, long date) {
+    News news = new News(title, "case" + id, content, 60.0, 10.0, "Oslo", new Date(date));
+    news.setId(id);
+    return news;
+  }
+
+  private static List<Integer> ids(List<NewsGetResponse> responses) {
+    return responses.stream().map(NewsGetResponse::getId).toList();
+  }
+
+  @Test
+  @DisplayName("tokenize lower-cases, removes stop words and stems Norwegian inflections")
+  void testTokenize() {
+    assertEquals(List.of("brann", "brann", "bil"), NewsSearchIndex.tokenize("Brannen i BRANNER og bilen"));
+    assertEquals(List.of("e18"), NewsSearchIndex.tokenize("på E18"));
+    assertTrue(NewsSearchIndex.tokenize("og i på").isEmpty());
+    assertTrue(NewsSearchIndex.tokenize(null).isEmpty());
+  }
+
+  @Test
+  @DisplayName("stem keeps a stem of at least three letters")
+  void testStem() {
+    assertEquals("brann", NewsSearchIndex.stem("brannen"));
+    assertEquals("bil", NewsSearchIndex.stem("bilene"));
+    assertEquals("ane", NewsSearchIndex.stem("ane"));
+  }
+
+  @Test
+  @DisplayName("search finds inflected forms and ranks better matches first")
+  void testSearchRanking() {
+    index.rebuild(List.of(
+        news(1, "Trafikkuhell", "To biler kolliderte. Ingen brann.", 1000),
+        news(2, "Brann i bolig", "Brannvesenet slukket brannen raskt.", 2000),
+        news(3, "Innbrudd", "Innbrudd i bolig i natt.", 3000)));
+
+    assertEquals(List.of(2, 1), ids(index.search("branner", 10)));
+    assertEquals(List.of(2, 3), ids(index.search("bolig", 10)));
+  }
+
+  @Test
+  @DisplayName("search respects the limit and breaks ties by newest first")
+  void testSearchLimit() {
+    index.rebuild(List.of(
+        news(1, "Brann", "Brann", 1000),
+        news(2, "Brann", "Brann", 3000),
+        news(3, "Brann", "Brann", 2000)));
+
+    assertEquals(List.of(2, 3), ids(index.search("brann", 2)));
+  }
+
+  @Test
+  @DisplayName("search returns nothing for unknown terms and stop words")
+  void testSearchNoMatch() {
+    index.accept(news(1, "Brann", "Brann i bolig", 1000));
+
+    assertTrue(index.search("innbrudd", 10).isEmpty());
+    assertTrue(index.search("og i", 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("accept replaces an earlier version of the same news")
+  void testAcceptReplaces() {
+    index.accept(news(1, "Brann", "Brann i bolig", 1000));
+    index.accept(news(1, "Innbrudd", "Innbrudd i bolig", 1000));
+
+    assertTrue(index.search("brann", 10).isEmpty());
+    assertEquals(List.of(1), ids(index.search("innbrudd", 10)));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  @DisplayName("removeAll and evictOlderThan remove news from the index")
+  void testRemoveAndEvict() {
+    index.rebuild(List.of(
+        news(1, "Brann", "Brann", 1000),
+        news(2, "Brann", "Brann", 2000),
+        news(3, "Brann", "Brann", 3000)));
+
+    index.removeAll(List.of(3, 4));
+    index.evictOlderThan(new Date(2000));
+
+    assertEquals(List.of(2), ids(index.search("brann", 10)));
+    assertEquals(1, index.size());
+  }
+}
@@ -1,30 +1,35 @@
 package org.ntnu.idatt2106.backend.service;
 
-import com.rometools.rome.feed.synd.SyndCategory;
-import com.rometools.rome.feed.synd.SyndContent;
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.ntnu.idatt2106.backend.dto.news.NewsCreateRequest;
 import org.ntnu.idatt2106.backend.dto.news.NewsGetResponse;
+import org.ntnu.idatt2106.backend.dto.news.NewsPageResponse;
 import org.ntnu.idatt2106.backend.exceptions.AlreadyInUseException;
 import org.ntnu.idatt2106.backend.model.News;
 import org.ntnu.idatt2106.backend.repo.NewsRepo;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.URL;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +51,24 @@ public class NewsServiceTest {
   @Mock
   private NewsRepo newsRepo;
 
+  @Mock
+  private NewsIngestionPipeline newsIngestionPipeline;
+
+  @Mock
+  private LatestNewsView latestNewsView;
+
+  @Mock
+  private NewsPublisher newsPublisher;
+
+  @Mock
+  private NewsSearchIndex newsSearchIndex;
+
+  @Mock
+  private NewsResponseCache newsResponseCache;
+
+  @Mock
+  private NewsArchive newsArchive;
+
   News testNews;
   NewsGetResponse testNewsGetResponse;
 
@@ -76,140 +99,164 @@ public class NewsServiceTest {
   }
 
   @Test
-  @DisplayName("getAllNews returns list of NewsGetResponse on success")
-  void testGetAllNewsSuccess() {
-    when(newsRepo.findAll()).thenReturn(List.of(testNews));
-    List<NewsGetResponse> result = newsService.getAllNews();
+  @DisplayName("getLatestNewsPerCase returns a page from the latest news view")
+  void testGetLatestNewsPerCase() {
+    NewsPageResponse page = new NewsPageResponse(List.of(testNewsGetResponse), null);
+    when(latestNewsView.getPage(new NewsCursor(1000L, 7), 10)).thenReturn(page);
 
-    assertEquals(1, result.size());
-    assertEquals(testNewsGetResponse.toString(), result.get(0).toString());
+    assertEquals(page, newsService.getLatestNewsPerCase(new NewsCursor(1000L, 7).encode(), 10));
+    verifyNoInteractions(newsRepo);
   }
 
   @Test
-  @DisplayName("getAllNews throws EntityNotFoundException when no news found")
-  void testGetAllNewsNoNewsFound() {
-    when(newsRepo.findAll()).thenReturn(List.of());
-
-    EntityNotFoundException ex = assertThrows(
-            EntityNotFoundException.class,
-            () -> newsService.getAllNews()
-    );
-
-    assertEquals("No news found", ex.getMessage());
+  @DisplayName("getLatestNewsPerCase rejects invalid cursors and limits")
+  void testGetLatestNewsPerCaseInvalidPage() {
+    assertThrows(IllegalArgumentException.class, () -> newsService.getLatestNewsPerCase("not a cursor", 10));
+    assertThrows(IllegalArgumentException.class, () -> newsService.getLatestNewsPerCase(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> newsService.getLatestNewsPerCase(null, 101));
   }
 
   @Test
-  @DisplayName("getByDistrict returns list of NewsGetResponse on success")
-  void testGetByDistrictSuccess() {
-    when(newsRepo.findByDistrict("Test District")).thenReturn(List.of(testNews));
-    List<NewsGetResponse> result = newsService.getByDistrict("Test District");
-
-    assertEquals(1, result.size());
-    assertEquals(testNewsGetResponse.toString(), result.get(0).toString());
+  @DisplayName("getByDistrict pages with one extra row and returns a cursor to the last news")
+  void testGetByDistrictPage() {
+    News first = new News("First", "a", "Content", 0, 0, "Oslo Politidistrikt", new Date(3000));
+    first.setId(3);
+    News second = new News("Second", "b", "Content", 0, 0, "Oslo Politidistrikt", new Date(2000));
+    second.setId(2);
+    News extra = new News("Extra", "c", "Content", 0, 0, "Oslo Politidistrikt", new Date(1000));
+    extra.setId(1);
+    when(newsRepo.findLatestPerCaseByDistrict("Oslo Politidistrikt", PageRequest.ofSize(3)))
+        .thenReturn(List.of(first, second, extra));
+
+    NewsPageResponse page = newsService.getByDistrict("Oslo Politidistrikt", null, 2);
+
+    assertEquals(List.of("First", "Second"), page.getItems().stream().map(NewsGetResponse::getTitle).toList());
+    assertEquals(new NewsCursor(2000, 2), NewsCursor.decode(page.getNextCursor()));
   }
 
   @Test
-  @DisplayName("getByDistrict throws EntityNotFoundException when no news found")
-  void testGetByDistrictNoNews() {
-    when(newsRepo.findByDistrict("Test District")).thenReturn(List.of());
+  @DisplayName("getByDistrict continues after the cursor and has no next cursor on the last page")
+  void testGetByDistrictLastPage() {
+    when(newsRepo.findLatestPerCaseByDistrictAfter("Oslo Politidistrikt", new Date(2000), 2, PageRequest.ofSize(3)))
+        .thenReturn(List.of(testNews));
 
-    EntityNotFoundException ex = assertThrows(
-            EntityNotFoundException.class,
-            () -> newsService.getByDistrict("Test District")
-    );
-    assertEquals("No news found in district: Test District", ex.getMessage());
+    NewsPageResponse page = newsService.getByDistrict("Oslo Politidistrikt", new NewsCursor(2000, 2).encode(), 2);
+
+    assertEquals(1, page.getItems().size());
+    assertNull(page.getNextCursor());
   }
 
   @Test
-  @DisplayName("getByDistrict throws EntityNotFoundException when district is null")
-  void testGetByDistrictNull() {
-    when(newsRepo.findByDistrict(null)).thenReturn(List.of());
+  @DisplayName("getByCaseId returns an empty page when the case has no news")
+  void testGetByCaseIdEmptyPage() {
+    when(newsRepo.findPageByCaseId("abc123", PageRequest.ofSize(21))).thenReturn(List.of());
 
-    EntityNotFoundException ex = assertThrows(
-            EntityNotFoundException.class,
-            () -> newsService.getByDistrict(null)
-    );
-    assertEquals("No news found in district: null", ex.getMessage());
+    NewsPageResponse page = newsService.getByCaseId("abc123", null, 20);
+
+    assertTrue(page.getItems().isEmpty());
+    assertNull(page.getNextCursor());
   }
 
   @Test
-  @DisplayName("addNews should save news when all fields are valid and not duplicate")
-  void testAddNewsSuccess() {
-    NewsCreateRequest validRequest = new NewsCreateRequest("Title", "def456", "Content", 10.0, 20.0, "Oslo Politidistrikt");
-
-    when(newsRepo.existsByTitleAndDate(anyString(), any(Date.class))).thenReturn(false);
+  @DisplayName("getByCaseId continues after the cursor")
+  void testGetByCaseIdAfterCursor() {
+    when(newsRepo.findPageByCaseIdAfter("abc123", new Date(5000), 4, PageRequest.ofSize(21)))
+        .thenReturn(List.of(testNews));
 
-    newsService.addNews(validRequest);
+    NewsPageResponse page = newsService.getByCaseId("abc123", new NewsCursor(5000, 4).encode(), 20);
 
-    verify(newsRepo).save(any(News.class));
+    assertEquals(1, page.getItems().size());
   }
 
-
   @Test
-  @DisplayName("getByCaseId returns list of NewsGetResponse on success")
-  void testGetByCaseIdSuccess() {
-    when(newsRepo.findByCaseId("abc123")).thenReturn(List.of(testNews));
-    List<NewsGetResponse> result = newsService.getByCaseId("abc123");
+  @DisplayName("searchNews returns results from the search index")
+  void testSearchNews() {
+    when(newsSearchIndex.search("brann", 20)).thenReturn(List.of(testNewsGetResponse));
 
-    assertEquals(1, result.size());
-    assertEquals(testNewsGetResponse.toString(), result.get(0).toString());
+    assertEquals(List.of(testNewsGetResponse), newsService.searchNews("brann", 20));
+    verifyNoInteractions(newsRepo);
   }
 
   @Test
-  @DisplayName("getByCaseId throws EntityNotFoundException when no news found")
-  void testGetByCaseIdThrowsOnEmpty() {
-    when(newsRepo.findByCaseId("abc123")).thenReturn(List.of());
+  @DisplayName("searchNews rejects queries without searchable words")
+  void testSearchNewsInvalidQuery() {
+    assertThrows(IllegalArgumentException.class, () -> newsService.searchNews("og i", 20));
+    assertThrows(IllegalArgumentException.class, () -> newsService.searchNews(null, 20));
+    verifyNoInteractions(newsSearchIndex);
+  }
 
-    EntityNotFoundException ex = assertThrows(
-            EntityNotFoundException.class,
-            () -> newsService.getByCaseId("abc123")
-    );
-    assertEquals("No news found with case ID: abc123", ex.getMessage());
+  @Test
+  @DisplayName("searchNews throws EntityNotFoundException when nothing matches")
+  void testSearchNewsNoMatch() {
+    when(newsSearchIndex.search("brann", 20)).thenReturn(List.of());
+
+    assertThrows(EntityNotFoundException.class, () -> newsService.searchNews("brann", 20));
   }
 
+  @Test
+  @DisplayName("getNewsNear queries the bounding box and returns news within the radius, closest first")
+  void testGetNewsNear() {
+    News close = new News("Close", "a", "Content", 63.4305, 10.3951, "Trøndelag", new Date());
+    News nearby = new News("Nearby", "b", "Content", 63.4700, 10.9170, "Trøndelag", new Date());
+    News corner = new News("Corner", "c", "Content", 63.6800, 10.9450, "Trøndelag", new Date());
+    when(newsRepo.findByLatitudeBetweenAndLongitudeBetween(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+        .thenReturn(List.of(nearby, corner, close));
+
+    List<NewsGetResponse> result = newsService.getNewsNear(63.4305, 10.3951, 30);
+
+    assertEquals(List.of("Close", "Nearby"), result.stream().map(NewsGetResponse::getTitle).toList());
+    verify(newsRepo).findByLatitudeBetweenAndLongitudeBetween(
+        doubleThat(min -> min < 63.4305 && min > 63.1), doubleThat(max -> max > 63.4305 && max < 63.8),
+        doubleThat(min -> min < 10.3951 && min > 9.7), doubleThat(max -> max > 10.3951 && max < 11.1));
+  }
 
   @Test
-  @DisplayName("groupNewsByCaseIdAndSort returns list of lists of NewsGetResponse on success")
-  void groupNewsByCaseIdAndSort_Success() {
-    List<NewsGetResponse> newsList = List.of(
-            new NewsGetResponse(1, "CaseId1", "Title1", "Content1", 10.0, 20.0, "Oslo Politidistrikt", new Date(1746442184323L).toString()),
-            new NewsGetResponse(2, "CaseId1", "Title2", "Content2", 10.0, 20.0, "Oslo Politidistrikt", new Date(1746442184323L).toString()),
-            new NewsGetResponse(3, "CaseId2", "Title3", "Content3", 10.0, 20.0, "Oslo Politidistrikt", new Date(1746442184323L).toString())
-    );
+  @DisplayName("getNewsNear throws EntityNotFoundException when no news is within the radius")
+  void testGetNewsNearNoNews() {
+    when(newsRepo.findByLatitudeBetweenAndLongitudeBetween(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+        .thenReturn(List.of());
 
-    List<List<NewsGetResponse>> groupedNews = newsService.groupNewsByCaseIdAndSort(newsList);
+    assertThrows(EntityNotFoundException.class, () -> newsService.getNewsNear(63.4305, 10.3951, 10));
+  }
 
-    assertEquals(2, groupedNews.size());
-    assertEquals(1, groupedNews.get(0).size());
-    assertEquals(2, groupedNews.get(1).size());
+  @Test
+  @DisplayName("getNewsNear rejects invalid coordinates and radius")
+  void testGetNewsNearInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> newsService.getNewsNear(91, 10, 10));
+    assertThrows(IllegalArgumentException.class, () -> newsService.getNewsNear(60, 181, 10));
+    assertThrows(IllegalArgumentException.class, () -> newsService.getNewsNear(60, 10, 0));
+    assertThrows(IllegalArgumentException.class, () -> newsService.getNewsNear(60, 10, 501));
+    verifyNoInteractions(newsRepo);
   }
 
   @Test
-  @DisplayName("groupNewsByCaseIdAndSort returns empty list when input is empty")
-  void groupNewsByCaseIdAndSort_EmptyInput() {
-    List<NewsGetResponse> newsList = List.of();
-    List<List<NewsGetResponse>> groupedNews = newsService.groupNewsByCaseIdAndSort(newsList);
+  @DisplayName("addNews should save news when all fields are valid and not duplicate")
+  void testAddNewsSuccess() {
+    NewsCreateRequest validRequest = new NewsCreateRequest("Title", "def456", "Content", 10.0, 20.0, "Oslo Politidistrikt");
+
+    when(newsRepo.existsByTitleAndDate(anyString(), any(Date.class))).thenReturn(false);
+    when(newsRepo.save(any(News.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    newsService.addNews(validRequest);
 
-    assertTrue(groupedNews.isEmpty());
+    verify(newsRepo).save(any(News.class));
   }
 
   @Test
-  @DisplayName("getRecentFromGroupedNews returns most recent news from grouped news")
-  void getRecentFromGroupedNews_Success() {
-    List<NewsGetResponse> newsList = List.of(
-            new NewsGetResponse(1, "CaseId1", "Title1", "Content1", 10.0, 20.0, "Oslo Politidistrikt", "2023-10-01"),
-            new NewsGetResponse(2, "CaseId1", "Title2", "Content2", 10.0, 20.0, "Oslo Politidistrikt", "2023-10-02"),
-            new NewsGetResponse(3, "CaseId2", "Title3", "Content3", 10.0, 20.0, "Oslo Politidistrikt", "2023-10-03")
-    );
+  @DisplayName("addNews updates the latest news view and publishes the stored news")
+  void testAddNewsPublishesStoredNews() {
+    NewsCreateRequest validRequest = new NewsCreateRequest("Title", "def456", "Content", 10.0, 20.0, "Oslo Politidistrikt");
+    when(newsRepo.existsByTitleAndDate(anyString(), any(Date.class))).thenReturn(false);
+    when(newsRepo.save(any(News.class))).thenReturn(testNews);
 
-    List<List<NewsGetResponse>> groupedNews = newsService.groupNewsByCaseIdAndSort(newsList);
-    List<NewsGetResponse> recentNews = newsService.getRecentFromGroupedNews(groupedNews);
+    newsService.addNews(validRequest);
 
-    assertEquals(2, recentNews.size());
-    assertEquals("Title3", recentNews.get(0).getTitle());
-    assertEquals("Title2", recentNews.get(1).getTitle());
+    verify(latestNewsView).accept(testNews);
+    verify(newsSearchIndex).accept(testNews);
+    verify(newsPublisher).publish(testNews);
   }
 
+
   @Test
   @DisplayName("addNews should throw AlreadyInUseException if title and date already exist")
   void testAddNews_DuplicateTitleAndDate() {
@@ -252,28 +299,6 @@ public class NewsServiceTest {
     verify(newsRepo, never()).save(any());
   }
 
-  @Test
-  void testLoadFeed_ThrowsAfterAllAttempts() throws Exception {
-    int maxAttempts = 3;
-    NewsService newsService = spy(new NewsService());
-
-    SyndFeedInput mockInput = mock(SyndFeedInput.class);
-    when(mockInput.build(any(XmlReader.class))).thenThrow(new RuntimeException("Feed loading failed"));
-
-    URL mockUrl = new URL("https://api.politiet.no/politiloggen/v1/rss");
-
-    doReturn(mockUrl).when(newsService).getFeedUrl();
-    doReturn(mockInput).when(newsService).getSyndFeedInput();
-
-    RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      newsService.loadFeed(maxAttempts);
-    });
-
-    assertEquals("Failed to load feed after " + maxAttempts + " attempts", exception.getMessage());
-
-    verify(mockInput, times(maxAttempts)).build(any(XmlReader.class));
-  }
-
   @Test
   @DisplayName("addNews should throw IllegalArgumentException if district is empty")
   void testAddNews_EmptyDistrict() {
@@ -289,194 +314,359 @@ public class NewsServiceTest {
   }
 
   @Test
-  @DisplayName("retrieveNewsFromAPIFeed saves new entries when not already in DB")
-  void testRetrieveNewsAddsNewEntry() throws Exception {
+  @DisplayName("saveNews saves news not already in DB")
+  void testSaveNewsAddsNewNews() {
     Date date = new Date(1746442184323L);
-    SyndEntry entry = mockSyndEntry("New Title", "Content", date, List.of("Oslo Politidistrikt"));
-    SyndFeed feed = mock(SyndFeed.class);
-    when(feed.getEntries()).thenReturn(List.of(entry));
-    doReturn(feed).when(newsService).loadFeed(10);
-    when(newsRepo.existsByTitleAndDate("New Title", date)).thenReturn(false);
-    newsService.retrieveNewsFromAPIFeed();
-    verify(newsRepo).save(argThat(news ->
-            news.getTitle().equals("New Title") &&
-                    news.getDistrict().equals("Oslo Politidistrikt")
+    when(newsRepo.findByDateGreaterThanEqual(date)).thenReturn(List.of());
+
+    newsService.saveNews(List.of(feedNews("New Title", "25a", date)));
+
+    verify(newsRepo).saveAll(argThat((List<News> news) ->
+            news.size() == 1 &&
+            news.get(0).getTitle().equals("New Title") &&
+                    news.get(0).getDistrict().equals("Oslo Politidistrikt")
     ));
   }
 
   @Test
-  @DisplayName("retrieveNewsFromAPIFeed does not save duplicate news")
-  void testRetrieveNewsSkipsDuplicate() throws Exception {
+  @DisplayName("saveNews publishes every stored news")
+  void testSaveNewsPublishesStoredNews() {
     Date date = new Date(1746442184323L);
-    SyndEntry entry = mockSyndEntry("Dup Title", "Dup content", date, List.of("Oslo Politidistrikt"));
-    SyndFeed feed = mock(SyndFeed.class);
-    when(feed.getEntries()).thenReturn(List.of(entry));
-    doReturn(feed).when(newsService).loadFeed(10);
-    when(newsRepo.existsByTitleAndDate("Dup Title", date)).thenReturn(true);
-    newsService.retrieveNewsFromAPIFeed();
-    verify(newsRepo, never()).save(any());
+    when(newsRepo.findByDateGreaterThanEqual(date)).thenReturn(List.of());
+    when(newsRepo.saveAll(any())).thenReturn(List.of(testNews));
+
+    newsService.saveNews(List.of(feedNews("New Title", "25a", date)));
+
+    verify(latestNewsView).accept(testNews);
+    verify(newsSearchIndex).accept(testNews);
+    verify(newsPublisher).publish(testNews);
   }
 
   @Test
-  @DisplayName("retrieveNewsFromAPIFeed uses fallback when category is missing")
-  void testRetrieveNewsFallbackDistrict() throws Exception {
+  @DisplayName("saveNews does not save duplicate news")
+  void testSaveNewsSkipsDuplicate() {
     Date date = new Date(1746442184323L);
-    SyndEntry entry = mockSyndEntry("Fallback Title", "No category", date, List.of());
-    SyndFeed feed = mock(SyndFeed.class);
-    when(feed.getEntries()).thenReturn(List.of(entry));
-    doReturn(feed).when(newsService).loadFeed(10);
-    when(newsRepo.existsByTitleAndDate("Fallback Title", date)).thenReturn(false);
-    newsService.retrieveNewsFromAPIFeed();
-    verify(newsRepo).save(argThat(news -> news.getDistrict().equals("Ukjent distrikt")));
+    when(newsRepo.findByDateGreaterThanEqual(date))
+        .thenReturn(List.of(titleAndDate("Dup Title", new Timestamp(date.getTime()))));
+
+    newsService.saveNews(List.of(feedNews("Dup Title", "25a", date)));
+
+    verify(newsRepo).findByDateGreaterThanEqual(date);
+    verifyNoMoreInteractions(newsRepo);
+    verifyNoInteractions(newsPublisher);
   }
 
-  private SyndEntry mockSyndEntry(String title, String content, Date date, List<String> categories) {
-    SyndEntry entry = mock(SyndEntry.class);
-    when(entry.getTitle()).thenReturn(title);
-    when(entry.getPublishedDate()).thenReturn(date);
-    SyndContent description = mock(SyndContent.class);
-    when(description.getValue()).thenReturn(content);
-    when(entry.getDescription()).thenReturn(description);
-    List<SyndCategory> categoryMocks = categories.stream().map(name -> {
-      SyndCategory cat = mock(SyndCategory.class);
-      when(cat.getName()).thenReturn(name);
-      return cat;
-    }).toList();
-    when(entry.getCategories()).thenReturn(categoryMocks);
-    return entry;
+  @Test
+  @DisplayName("saveNews loads existing keys once and saves only new news")
+  void testSaveNewsLoadsKeysOnce() {
+    Date older = new Date(1746442184323L);
+    Date newer = new Date(1746442284323L);
+    News existing = feedNews("Old", "25a", older);
+    News fresh = feedNews("New", "25b", newer);
+    News repeated = feedNews("New", "25b", newer);
+    when(newsRepo.findByDateGreaterThanEqual(older)).thenReturn(List.of(titleAndDate("Old", older)));
+
+    newsService.saveNews(List.of(fresh, existing, repeated));
+
+    verify(newsRepo, times(1)).findByDateGreaterThanEqual(older);
+    verify(newsRepo).saveAll(argThat((List<News> news) ->
+        news.size() == 1 && news.get(0).getTitle().equals("New") && news.get(0).getCaseId().equals("25b")));
+    verify(newsRepo, never()).existsByTitleAndDate(any(), any());
   }
 
   @Test
-  @DisplayName("loadFeed throws exception when feed cannot be loaded")
-  void testLoadFeedThrowsException() throws Exception {
-    doThrow(new Exception("Feed not found")).when(newsService).loadFeed(10);
-    assertThrows(Exception.class, () -> newsService.loadFeed(10));
+  @DisplayName("saveNews saves one by one when a concurrent writer stored the same news")
+  void testSaveNewsFallsBackOnConstraintViolation() {
+    Date date = new Date(1746442184323L);
+    when(newsRepo.findByDateGreaterThanEqual(date)).thenReturn(List.of());
+    when(newsRepo.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+    when(newsRepo.save(any(News.class))).thenAnswer(invocation -> {
+      News news = invocation.getArgument(0);
+      if (news.getTitle().equals("First")) {
+        throw new DataIntegrityViolationException("duplicate");
+      }
+      return news;
+    });
+
+    newsService.saveNews(List.of(feedNews("First", "25a", date), feedNews("Second", "25b", date)));
+
+    verify(newsRepo).save(argThat(news -> news.getTitle().equals("Second")));
   }
 
   @Test
-  void testLoadFeed_ThrowsAfterMaxAttempts() throws Exception {
-    // Arrange
-    int maxAttempts = 3;
-    NewsService newsService = spy(new NewsService());
+  @DisplayName("saveNews saves news as new again when the failed batch assigned ids")
+  void testSaveNewsFallbackClearsGeneratedIds() {
+    Date date = new Date(1746442184323L);
+    when(newsRepo.findByDateGreaterThanEqual(date)).thenReturn(List.of());
+    when(newsRepo.saveAll(any())).thenAnswer(invocation -> {
+      List<News> batch = invocation.getArgument(0);
+      batch.get(0).setId(41);
+      throw new DataIntegrityViolationException("duplicate");
+    });
+    when(newsRepo.save(any(News.class))).thenAnswer(invocation -> {
+      News news = invocation.getArgument(0);
+      assertEquals(0, news.getId());
+      news.setId(news.getTitle().equals("First") ? 42 : 43);
+      return news;
+    });
+
+    newsService.saveNews(List.of(feedNews("First", "25a", date), feedNews("Second", "25b", date)));
+
+    verify(newsRepo, times(2)).save(any(News.class));
+    verify(newsPublisher, times(2)).publish(any(News.class));
+  }
+
+  @Test
+  @DisplayName("saveNews does nothing for an empty batch")
+  void testSaveNewsEmptyBatch() {
+    newsService.saveNews(List.of());
 
-    // Mocking SyndFeedInput to always throw an IOException
-    SyndFeedInput mockInput = mock(SyndFeedInput.class);
-    when(mockInput.build(any(XmlReader.class))).thenThrow(new RuntimeException("Feed loading failed"));
+    verifyNoInteractions(newsRepo);
+  }
 
-    // Mocking the URL object
-    URL mockUrl = new URL("https://api.politiet.no/politiloggen/v1/rss");
+  private NewsRepo.TitleAndDate titleAndDate(String title, Date date) {
+    return new NewsRepo.TitleAndDate() {
+      @Override
+      public String getTitle() {
+        return title;
+      }
+
+      @Override
+      public Date getDate() {
+        return date;
+      }
+    };
+  }
 
-    // Use spy to replace internal method calls
-    doReturn(mockUrl).when(newsService).getFeedUrl();
-    doReturn(mockInput).when(newsService).getSyndFeedInput();
+  private News feedNews(String title, String caseId, Date date) {
+    return new News(title, caseId, "Content", 59.91, 10.75, "Oslo Politidistrikt", date);
+  }
 
-    // Act & Assert
-    Exception exception = assertThrows(RuntimeException.class, () -> {
-      newsService.loadFeed(maxAttempts);
+  @Test
+  @DisplayName("retrieveNewsFromAPIFeed runs an ingestion cycle that saves into the database")
+  void testRetrieveNewsRunsPipelineCycle() {
+    Date date = new Date(1746442184323L);
+    when(newsIngestionPipeline.runCycle(any())).thenAnswer(invocation -> {
+      Consumer<List<News>> sink = invocation.getArgument(0);
+      sink.accept(List.of(feedNews("New Title", "25a", date)));
+      return CompletableFuture.completedFuture(null);
     });
+    when(newsRepo.findByDateGreaterThanEqual(date)).thenReturn(List.of());
 
-    // Verify the exception message
-    assertEquals("Failed to load feed after 3 attempts", exception.getMessage());
+    newsService.retrieveNewsFromAPIFeed();
 
-    // Verify the number of attempts
-    verify(mockInput, times(maxAttempts)).build(any(XmlReader.class));
+    verify(newsService).saveNews(any());
+    verify(newsRepo).saveAll(any());
   }
 
   @Test
-  void testLoadFeed_SuccessWithDefaultAttempts() throws Exception {
-    // Arrange
-    NewsService newsService = spy(new NewsService());
+  @DisplayName("retrieveNewsFromAPIFeed handles a failed ingestion cycle")
+  void testRetrieveNewsCycleFailed() {
+    when(newsIngestionPipeline.runCycle(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Pipeline failed")));
 
-    // Mocking a successful feed
-    SyndFeed mockFeed = mock(SyndFeed.class);
-    SyndFeedInput mockInput = mock(SyndFeedInput.class);
-    when(mockInput.build(any(XmlReader.class))).thenReturn(mockFeed);
+    assertDoesNotThrow(() -> newsService.retrieveNewsFromAPIFeed());
+    newsService.retrieveNewsFromAPIFeed();
 
-    // Mocking the URL object
-    URL mockUrl = new URL("https://api.politiet.no/politiloggen/v1/rss");
+    verify(newsIngestionPipeline, times(2)).runCycle(any());
+    verifyNoInteractions(newsRepo);
+  }
 
-    // Use spy to replace internal method calls
-    doReturn(mockUrl).when(newsService).getFeedUrl();
-    doReturn(mockInput).when(newsService).getSyndFeedInput();
+  @Test
+  @DisplayName("retrieveNewsFromAPIFeed skips a retrieval while another is in progress")
+  void testRetrieveNewsSkipsWhileInProgress() {
+    CompletableFuture<Void> pending = new CompletableFuture<>();
+    when(newsIngestionPipeline.runCycle(any())).thenReturn(pending);
 
-    // Act
-    SyndFeed result = newsService.loadFeed();
+    newsService.retrieveNewsFromAPIFeed();
+    newsService.retrieveNewsFromAPIFeed();
+    verify(newsIngestionPipeline, times(1)).runCycle(any());
 
-    // Assert
-    assertNotNull(result, "Feed should not be null");
-    assertEquals(mockFeed, result, "Returned feed should match the mocked feed");
+    pending.complete(null);
+    newsService.retrieveNewsFromAPIFeed();
+    verify(newsIngestionPipeline, times(2)).runCycle(any());
+  }
 
-    // Verify the build method is called only once since the feed loads successfully
-    verify(mockInput, times(1)).build(any(XmlReader.class));
+  @Test
+  @DisplayName("getByDistrictCached serves the page through the response cache")
+  void testGetByDistrictCached() {
+    byte[] page = new byte[] {'{', '}'};
+    when(newsResponseCache.get(eq("Oslo Politidistrikt"), isNull(), eq(20), any())).thenReturn(page);
+
+    assertSame(page, newsService.getByDistrictCached("Oslo Politidistrikt", null, 20));
+    verifyNoInteractions(newsRepo);
   }
 
   @Test
-  void testLoadFeed_ThrowsAfterDefaultAttempts() throws Exception {
-    // Arrange
-    NewsService newsService = spy(new NewsService());
+  @DisplayName("getByDistrictCached loads the page from the database on a cache miss")
+  void testGetByDistrictCachedMiss() {
+    when(newsResponseCache.get(eq("Oslo Politidistrikt"), isNull(), eq(20), any())).thenAnswer(invocation -> {
+      Supplier<NewsPageResponse> loader = invocation.getArgument(3);
+      loader.get();
+      return new byte[0];
+    });
+    when(newsRepo.findLatestPerCaseByDistrict("Oslo Politidistrikt", PageRequest.ofSize(21))).thenReturn(List.of());
 
-    // Mocking SyndFeedInput to always throw an IOException
-    SyndFeedInput mockInput = mock(SyndFeedInput.class);
-    when(mockInput.build(any(XmlReader.class))).thenThrow(new RuntimeException("Feed loading failed"));
+    newsService.getByDistrictCached("Oslo Politidistrikt", null, 20);
 
-    // Mocking the URL object
-    URL mockUrl = new URL("https://api.politiet.no/politiloggen/v1/rss");
+    verify(newsRepo).findLatestPerCaseByDistrict("Oslo Politidistrikt", PageRequest.ofSize(21));
+  }
+
+  @Test
+  @DisplayName("saveNews invalidates the cached pages of the district of stored news")
+  void testSaveNewsInvalidatesDistrict() {
+    Date date = new Date(1746442184323L);
+    when(newsRepo.findByDateGreaterThanEqual(date)).thenReturn(List.of());
+    when(newsRepo.saveAll(any())).thenReturn(List.of(testNews));
 
-    // Use spy to replace internal method calls
-    doReturn(mockUrl).when(newsService).getFeedUrl();
-    doReturn(mockInput).when(newsService).getSyndFeedInput();
+    newsService.saveNews(List.of(feedNews("New Title", "25a", date)));
 
-    // Act & Assert
-    RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      newsService.loadFeed();
-    });
+    verify(newsResponseCache).invalidate("Test District");
+  }
 
-    // Check the exception message
-    assertEquals("Failed to load feed after 10 attempts", exception.getMessage());
+  @Test
+  @DisplayName("addNews invalidates the cached pages of the district")
+  void testAddNewsInvalidatesDistrict() {
+    when(newsRepo.save(any(News.class))).thenReturn(testNews);
 
-    // Verify that the build method was called the default 10 times
-    verify(mockInput, times(10)).build(any(XmlReader.class));
+    newsService.addNews(validRequest);
+
+    verify(newsResponseCache).invalidate(testNews.getDistrict());
   }
 
+  @Test
+  @DisplayName("deleteNews invalidates the cached pages of the districts of the deleted news")
+  void testDeleteNewsInvalidatesDistricts() {
+    when(newsRepo.findByCaseId("abc123")).thenReturn(List.of(testNews));
+
+    newsService.deleteNews("abc123");
+
+    verify(newsResponseCache).invalidate("Test District");
+  }
 
   @Test
-  @DisplayName("clearExpiredNews clears expired news (older than 1 days)")
-  void testClearExpiredNews() {
-    News expiredNews = new News(
-            "Expired",
-            "abc123",
-            "Old content",
-            12.34,
-            56.78,
-            "Expired District",
-            new Date(System.currentTimeMillis() - 1000L * 60 * 60 * 24 * 3)); // 3 days ago
+  @DisplayName("clearExpiredNews invalidates all cached pages only when news expired")
+  void testClearExpiredNewsInvalidatesCache() {
+    newsService.clearExpiredNews();
+    verify(newsResponseCache, never()).invalidateAll();
 
-    when(newsRepo.findAll()).thenReturn(List.of(expiredNews));
+    testNews.setId(7);
+    when(newsRepo.findExpired(any(Date.class), any())).thenReturn(List.of(testNews), List.of());
     newsService.clearExpiredNews();
-    verify(newsRepo).deleteAll(List.of(expiredNews));
+    verify(newsResponseCache).invalidateAll();
   }
 
   @Test
-  @DisplayName("clearExpiredNews does not clear news newer than 1 days")
-  void testClearExpiredNewsNotExpired() {
-    News freshNews = new News(
-            "Recent",
-            "abc123",
-            "Fresh content",
-            12.34,
-            56.78,
-            "Fresh District",
-            new Date(System.currentTimeMillis() - 1000L * 60 * 60 * 22)); // 22 hours ago
+  @DisplayName("clearExpiredNews moves news older than 1 day to the archive in batches")
+  void testClearExpiredNews() throws Exception {
+    long before = System.currentTimeMillis();
+    News older = new News("Older", "25a", "Content", 0.0, 0.0, "Oslo", new Date(1000));
+    older.setId(1);
+    testNews.setId(2);
+    when(newsRepo.findExpired(any(Date.class), eq(PageRequest.ofSize(500))))
+        .thenReturn(List.of(older), List.of(testNews), List.of());
+
+    newsService.clearExpiredNews();
+
+    verify(newsRepo, times(3)).findExpired(argThat(cutoff ->
+        cutoff.getTime() >= before - 86_400_000L
+            && cutoff.getTime() <= System.currentTimeMillis() - 86_400_000L), any());
+    InOrder order = inOrder(newsArchive, newsRepo);
+    order.verify(newsArchive).append(List.of(older));
+    order.verify(newsRepo).deleteAllByIdInBatch(List.of(1));
+    order.verify(newsArchive).append(List.of(testNews));
+    order.verify(newsRepo).deleteAllByIdInBatch(List.of(2));
+    verifyNoMoreInteractions(newsRepo);
+  }
+
+  @Test
+  @DisplayName("clearExpiredNews keeps news in the database when the archive cannot be written")
+  void testClearExpiredNewsArchiveFailure() throws Exception {
+    when(newsRepo.findExpired(any(Date.class), any())).thenReturn(List.of(testNews));
+    doThrow(new IOException("Disk full")).when(newsArchive).append(any());
+
+    assertDoesNotThrow(() -> newsService.clearExpiredNews());
+
+    verify(newsRepo, never()).deleteAllByIdInBatch(any());
+    verify(newsResponseCache, never()).invalidateAll();
+    verify(latestNewsView, never()).evictOlderThan(any());
+    verify(newsSearchIndex, never()).evictOlderThan(any());
+  }
+
+  @Test
+  @DisplayName("clearExpiredNews only evicts the news deleted before the archive failed")
+  void testClearExpiredNewsArchiveFailureEvictsDeletedNews() throws Exception {
+    News older = new News("Older", "25a", "Content", 0.0, 0.0, "Oslo", new Date(1000));
+    older.setId(1);
+    testNews.setId(2);
+    when(newsRepo.findExpired(any(Date.class), any())).thenReturn(List.of(older), List.of(testNews));
+    doNothing().doThrow(new IOException("Disk full")).when(newsArchive).append(any());
+
+    newsService.clearExpiredNews();
+
+    verify(newsRepo).deleteAllByIdInBatch(List.of(1));
+    verify(newsRepo, never()).deleteAllByIdInBatch(List.of(2));
+    verify(latestNewsView).evictOlderThan(new Date(1000));
+    verify(newsSearchIndex).evictOlderThan(new Date(1000));
+    verify(newsResponseCache).invalidateAll();
+  }
 
-    when(newsRepo.findAll()).thenReturn(List.of(freshNews));
+  @Test
+  @DisplayName("streamArchive streams the archived period")
+  void testStreamArchive() throws Exception {
+    OutputStream out = new ByteArrayOutputStream();
+
+    newsService.streamArchive(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 7), out);
+
+    verify(newsArchive).stream(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 7), out);
+  }
+
+  @Test
+  @DisplayName("streamArchive rejects reversed and too long periods")
+  void testStreamArchiveInvalidPeriod() {
+    OutputStream out = new ByteArrayOutputStream();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> newsService.streamArchive(LocalDate.of(2025, 5, 7), LocalDate.of(2025, 5, 1), out));
+    assertThrows(IllegalArgumentException.class,
+        () -> newsService.streamArchive(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 5, 1), out));
+    verifyNoInteractions(newsArchive);
+  }
+
+  @Test
+  @DisplayName("clearExpiredNews evicts expired news from the latest news view and the search index")
+  void testClearExpiredNewsEvictsInMemoryViews() {
     newsService.clearExpiredNews();
 
-    // Explicitly verify that only findAll was called, nothing else
-    verify(newsRepo).findAll();
-    verifyNoMoreInteractions(newsRepo); // Ensures deleteAll wasn't called at all
+    verify(latestNewsView).evictOlderThan(any(Date.class));
+    verify(newsSearchIndex).evictOlderThan(any(Date.class));
   }
 
+  @Test
+  @DisplayName("deleteNews removes the case from the latest news view and the search index")
+  void testDeleteNewsUpdatesInMemoryViews() {
+    testNews.setId(7);
+    when(newsRepo.findByCaseId("abc123")).thenReturn(List.of(testNews));
+
+    newsService.deleteNews("abc123");
 
+    verify(newsRepo).deleteAll(List.of(testNews));
+    verify(latestNewsView).removeCase("abc123");
+    verify(newsSearchIndex).removeAll(List.of(7));
+  }
+
+  @Test
+  @DisplayName("clearExpiredNews uses the configured retention window")
+  void testClearExpiredNewsConfiguredRetention() {
+    ReflectionTestUtils.setField(newsService, "retentionMillis", 3_600_000L);
+    long before = System.currentTimeMillis();
+
+    newsService.clearExpiredNews();
+
+    verify(newsRepo).findExpired(argThat(cutoff ->
+        cutoff.getTime() >= before - 3_600_000L
+            && cutoff.getTime() <= System.currentTimeMillis() - 3_600_000L), any());
+  }
 
   @Test
   @DisplayName("initOnStartup calls retrieveNewsFromAPIFeed")
@@ -0,0 +1,134 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ntnu.idatt2106.backend.dto.map.CoordinatesDTO;
+import org.ntnu.idatt2106.backend.model.News;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the PolitiloggenNewsSource
+ */
+class PolitiloggenNewsSourceTest {
+
+  private static final String RSS = """
+      <?xml version="1.0" encoding="UTF-8"?>
+      <rss version="2.0"><channel><title>Politiloggen</title>
+        <item>
+          <title>Trafikkulykke (ID: 25abc1)</title>
+          <description>To biler involvert</description>
+          <category>Oslo Politidistrikt</category>
+          <pubDate>Mon, 05 May 2025 10:49:44 GMT</pubDate>
+        </item>
+        <item>
+          <title>Brann</title>
+          <pubDate>Mon, 05 May 2025 11:00:00 GMT</pubDate>
+        </item>
+      </channel></rss>
+      """;
+
+  private final NewsFeedFetcher newsFeedFetcher = mock(NewsFeedFetcher.class);
+  private final CoordinatesService coordinatesService = mock(CoordinatesService.class);
+  private PolitiloggenNewsSource source;
+
+  @BeforeEach
+  void setUp() {
+    source = new PolitiloggenNewsSource(newsFeedFetcher, coordinatesService);
+  }
+
+  @Test
+  @DisplayName("parse turns the entries of the RSS feed into feed items")
+  void testParse() throws IOException {
+    List<FeedItem> items = source.parse(RSS.getBytes(StandardCharsets.UTF_8), null);
+
+    assertEquals(2, items.size());
+    assertEquals("Trafikkulykke (ID: 25abc1)", items.get(0).title());
+    assertEquals("To biler involvert", items.get(0).description());
+    assertEquals("Oslo Politidistrikt", items.get(0).category());
+    assertNotNull(items.get(0).published());
+    assertNull(items.get(1).category());
+  }
+
+  @Test
+  @DisplayName("parse throws IOException when the feed is not valid RSS")
+  void testParseInvalidFeed() {
+    assertThrows(IOException.class, () -> source.parse("not xml".getBytes(StandardCharsets.UTF_8), null));
+  }
+
+  @Test
+  @DisplayName("normalize splits the case ID off the title and geocodes the news")
+  void testNormalize() {
+    Date date = new Date(1746442184323L);
+    when(coordinatesService.geocode("Vest politidistrikt", "Brann Brann i Bergen sentrum"))
+        .thenReturn(Optional.of(new CoordinatesDTO(60.3913, 5.3221)));
+
+    News news = source.normalize(
+        new FeedItem("Brann (ID: 25b)", "Brann i Bergen sentrum", date, "Vest politidistrikt")).orElseThrow();
+
+    assertEquals("Brann", news.getTitle());
+    assertEquals("25b", news.getCaseId());
+    assertEquals("Vest politidistrikt", news.getDistrict());
+    assertEquals(date, news.getDate());
+    assertEquals(60.3913, news.getLatitude());
+    assertEquals(5.3221, news.getLongitude());
+  }
+
+  @Test
+  @DisplayName("normalize falls back to the unknown district and no coordinates")
+  void testNormalizeFallbacks() {
+    when(coordinatesService.geocode(any(), any())).thenReturn(Optional.empty());
+
+    News news = source.normalize(new FeedItem("Fallback Title", null, new Date(), null)).orElseThrow();
+
+    assertEquals(PolitiloggenNewsSource.UNKNOWN_DISTRICT, news.getDistrict());
+    assertEquals("", news.getContent());
+    assertEquals("", news.getCaseId());
+    assertEquals(0.0, news.getLatitude());
+    assertEquals(0.0, news.getLongitude());
+  }
+
+  @Test
+  @DisplayName("normalize skips items without title or date")
+  void testNormalizeSkipsIncompleteItems() {
+    assertTrue(source.normalize(new FeedItem(null, "Content", new Date(), "Oslo")).isEmpty());
+    assertTrue(source.normalize(new FeedItem("Title", "Content", null, "Oslo")).isEmpty());
+    verifyNoInteractions(coordinatesService);
+  }
+
+  @Test
+  @DisplayName("fetch returns empty when the feed is not modified")
+  void testFetchNotModified() throws IOException {
+    when(newsFeedFetcher.fetch()).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+    assertTrue(source.fetch().isEmpty());
+  }
+
+  @Test
+  @DisplayName("fetch throws the IOException of a failed fetch")
+  void testFetchFailed() {
+    when(newsFeedFetcher.fetch()).thenReturn(
+        CompletableFuture.failedFuture(new IOException("Failed to load feed after 5 attempts")));
+
+    IOException e = assertThrows(IOException.class, () -> source.fetch());
+    assertEquals("Failed to load feed after 5 attempts", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("onIngested commits the validators of the fetched feed")
+  void testOnIngested() {
+    source.onIngested();
+
+    verify(newsFeedFetcher).commitValidators();
+  }
+}
@@ -11,11 +11,18 @@ import org.ntnu.idatt2106.backend.dto.household.PreparednessStatus;
 import org.ntnu.idatt2106.backend.exceptions.UserNotFoundException;
 import org.ntnu.idatt2106.backend.model.*;
 import org.ntnu.idatt2106.backend.repo.HouseholdRepo;
+import org.ntnu.idatt2106.backend.repo.ItemRepo;
 import org.ntnu.idatt2106.backend.repo.UserRepo;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,6 +34,9 @@ class PreparednessServiceTest {
     @Mock
     private UserRepo userRepo;
 
+    @Mock
+    private ItemRepo itemRepo;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -207,49 +217,58 @@ class PreparednessServiceTest {
         assertEquals(0, myHouseholdStatusGetResponse.getStatus().getDaysOfWater());
     }
 
+    private static ItemRepo.CategoryUnitTotal total(String categoryName, Integer kcalPerUnit, String unitName, double amount) {
+        return new ItemRepo.CategoryUnitTotal() {
+            public int getCategoryId() {
+                return 1;
+            }
+
+            public String getCategoryName() {
+                return categoryName;
+            }
+
+            public Integer getKcalPerUnit() {
+                return kcalPerUnit;
+            }
+
+            public int getUnitId() {
+                return 1;
+            }
+
+            public String getUnitName() {
+                return unitName;
+            }
+
+            public long getItemCount() {
+                return 1;
+            }
+
+            public double getTotalAmount() {
+                return amount;
+            }
+
+            public Date getEarliestExpirationDate() {
+                return new Date();
+            }
+        };
+    }
+
     @Test
     @DisplayName("Should correctly calculate food and water with mixed inventory")
     void testMixedInventoryCalculation() {
         Household household = new Household();
+        household.setId(7);
 
         // 1 medlem
         household.setMembers(List.of(new HouseholdMembers()));
 
-        Calendar cal = Calendar.getInstance();
-
-        // Utgått vann (skal ignoreres)
-        Item expiredWater = new Item();
-        expiredWater.setAmount(10);
-        expiredWater.setUnit(new Unit("L", "L"));
-        expiredWater.setCategory(new Category(1, "Water", "Vann", null, false));
-        cal.setTime(new Date());
-        cal.add(Calendar.DAY_OF_YEAR, -1);
-        expiredWater.setExpirationDate(cal.getTime());
-
-        // Mat uten kcalPerUnit (skal ikke regnes som mat)
-        Item invalidFood = new Item();
-        invalidFood.setAmount(5);
-        invalidFood.setUnit(new Unit("PCS", "Stk"));
-        invalidFood.setCategory(new Category(2, "Snacks", "Snacks", null, false));
-        cal.setTime(new Date());
-        cal.add(Calendar.DAY_OF_YEAR, 10);
-        invalidFood.setExpirationDate(cal.getTime());
-
-        // Gyldig vann
-        Item validWater = new Item();
-        validWater.setAmount(6); // 6L
-        validWater.setUnit(new Unit("L", "L"));
-        validWater.setCategory(new Category(3, "Water", "Vann", null, false));
-        validWater.setExpirationDate(cal.getTime());
-
-        // Gyldig mat
-        Item validFood = new Item();
-        validFood.setAmount(4); // 4 * 500 = 2000 kcal = 1 dag
-        validFood.setUnit(new Unit("PCS", "Stk"));
-        validFood.setCategory(new Category(4, "Food", "Mat", 500, false));
-        validFood.setExpirationDate(cal.getTime());
-
-        household.setInventory(List.of(expiredWater, invalidFood, validWater, validFood));
+        when(itemRepo.findTotalsByHouseholdExpiringFrom(eq(7), any(Date.class))).thenReturn(List.of(
+            // Mat uten kcalPerUnit (skal ikke regnes som mat)
+            total("Snacks", null, "PCS", 5),
+            // Gyldig vann, 6L
+            total("Water", null, "L", 6),
+            // Gyldig mat, 4 * 500 = 2000 kcal = 1 dag
+            total("Food", 500, "PCS", 4)));
 
         MyHouseholdStatusGetResponse myHouseholdStatusGetResponse = preparednessService.calculatePreparednessStatus(household);
 
@@ -257,8 +276,27 @@ class PreparednessServiceTest {
         assertEquals(2, myHouseholdStatusGetResponse.getStatus().getDaysOfWater(), 0.01); // 6L / (1*3)
     }
 
+    @Test
+    @DisplayName("Should only sum items that expire today or later")
+    void testExpiredItemsAreLeftOut() {
+        Household household = new Household();
+        household.setId(7);
+        household.setMembers(List.of(new HouseholdMembers()));
 
+        preparednessService.calculatePreparednessStatus(household);
 
+        Date today = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+        verify(itemRepo).findTotalsByHouseholdExpiringFrom(7, today);
+    }
 
-}
+    @Test
+    @DisplayName("Should not query the inventory when household has no members")
+    void testNoMembersDoesNotQueryInventory() {
+        Household emptyHousehold = new Household();
+        emptyHousehold.setMembers(Collections.emptyList());
+
+        preparednessService.calculatePreparednessStatus(emptyHousehold);
 
+        verify(itemRepo, never()).findTotalsByHouseholdExpiringFrom(anyInt(), any());
+    }
+}
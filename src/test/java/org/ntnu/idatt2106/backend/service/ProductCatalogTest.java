@@ -0,0 +1,122 @@
+package org.ntnu.idatt2106.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the ProductCatalog
+ */
+class ProductCatalogTest {
+
+  private static final String CATALOG = """
+      # ean;name;category;unit;kcalPerUnit;shelfLifeDays
+      2001000000012;Bottled Water 0.5 L;Water;L;;365
+      2001000000029;Bottled Water 1.5 L;Water;L;;365
+      2001000000036;Sparkling Water 1.5 L;Water;L;;270
+      0012345678905;Canned Beans;Canned Food;KG;900;1095
+      96385074;Water Canister 10 L;Water;L;;365
+
+      2001000000043;Rice;Grains (Rice, Pasta);KG;3600;730
+      """;
+
+  private ProductCatalog catalog;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    catalog = new ProductCatalog(new StringReader(CATALOG));
+  }
+
+  private static List<String> names(List<ProductCatalog.Product> products) {
+    return products.stream().map(ProductCatalog.Product::name).toList();
+  }
+
+  @Test
+  @DisplayName("the catalog loads every product and skips comments and blank lines")
+  void testLoad() {
+    assertEquals(6, catalog.size());
+    ProductCatalog.Product beans = catalog.findByEan("0012345678905").orElseThrow();
+    assertEquals("Canned Food", beans.category());
+    assertEquals("KG", beans.unit());
+    assertEquals(900, beans.kcalPerUnit());
+    assertEquals(1095, beans.shelfLifeDays());
+    assertNull(catalog.findByEan("2001000000012").orElseThrow().kcalPerUnit());
+  }
+
+  @Test
+  @DisplayName("findByEan finds EAN-13, EAN-8 and UPC-A barcodes and nothing else")
+  void testFindByEan() {
+    assertEquals("Rice", catalog.findByEan("2001000000043").orElseThrow().name());
+    assertEquals("Water Canister 10 L", catalog.findByEan("96385074").orElseThrow().name());
+    assertEquals("Canned Beans", catalog.findByEan("012345678905").orElseThrow().name());
+    assertTrue(catalog.findByEan("2001000000050").isEmpty());
+    assertTrue(catalog.findByEan("rice").isEmpty());
+    assertTrue(catalog.findByEan(null).isEmpty());
+  }
+
+  @Test
+  @DisplayName("findByName matches the full name ignoring case and whitespace, not a later word")
+  void testFindByName() {
+    assertEquals("Canned Beans", catalog.findByName("  canned   BEANS ").orElseThrow().name());
+    assertTrue(catalog.findByName("Beans").isEmpty());
+    assertTrue(catalog.findByName("Canned").isEmpty());
+  }
+
+  @Test
+  @DisplayName("find reads a barcode as a barcode and anything else as a name")
+  void testFind() {
+    assertEquals("Rice", catalog.find("2001000000043").orElseThrow().name());
+    assertEquals("Rice", catalog.find("rice").orElseThrow().name());
+    assertTrue(catalog.find("Pasta").isEmpty());
+  }
+
+  @Test
+  @DisplayName("search finds products by the start of any word, names starting with the prefix first")
+  void testSearch() {
+    assertEquals(List.of("Water Canister 10 L", "Bottled Water 0.5 L", "Bottled Water 1.5 L",
+        "Sparkling Water 1.5 L"), names(catalog.search("wat", 10)));
+    assertEquals(List.of("Bottled Water 0.5 L", "Bottled Water 1.5 L"), names(catalog.search("Bottled w", 10)));
+    assertEquals(List.of("Canned Beans"), names(catalog.search("bea", 10)));
+    assertTrue(catalog.search("xyz", 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("search returns at most the limit")
+  void testSearchLimit() {
+    assertEquals(List.of("Water Canister 10 L", "Bottled Water 0.5 L"), names(catalog.search("water", 2)));
+  }
+
+  @Test
+  @DisplayName("search rejects a blank prefix or an invalid limit")
+  void testSearchInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> catalog.search(" ", 10));
+    assertThrows(IllegalArgumentException.class, () -> catalog.search(null, 10));
+    assertThrows(IllegalArgumentException.class, () -> catalog.search("water", 0));
+    assertThrows(IllegalArgumentException.class, () -> catalog.search("water", ProductCatalog.MAX_RESULTS + 1));
+  }
+
+  @Test
+  @DisplayName("the catalog rejects invalid lines and duplicate barcodes")
+  void testLoadInvalid() {
+    assertThrows(IOException.class, () -> new ProductCatalog(new StringReader("123;Water;Water;L;;365")));
+    assertThrows(IOException.class, () -> new ProductCatalog(new StringReader("2001000000012;Water;Water;L;365")));
+    assertThrows(IOException.class, () -> new ProductCatalog(new StringReader("2001000000012;Water;Water;L;;long")));
+    assertThrows(IOException.class, () -> new ProductCatalog(new StringReader(
+        "2001000000012;Water;Water;L;;365\n2001000000012;Rice;Water;L;;365")));
+  }
+
+  @Test
+  @DisplayName("the bundled catalog loads")
+  void testBundledCatalog() {
+    ProductCatalog bundled = new ProductCatalog();
+
+    assertTrue(bundled.size() > 0);
+    assertFalse(bundled.search("water", 10).isEmpty());
+  }
+}
@@ -0,0 +1,91 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compares the time and allocation of parsing a Politiloggen-sized feed with the streaming
+ * {@link RssFeedParser} and with Rome. Not run as part of the test suite; run the main method
+ * from the IDE, e.g. with {@code -Xmx256m}.
+ */
+public class RssFeedParserBenchmark {
+  private static final int ITEMS = 200;
+  private static final int WARMUP_ROUNDS = 2_000;
+  private static final int MEASURED_ROUNDS = 5_000;
+  private static final ZonedDateTime NEWEST = ZonedDateTime.of(2025, 5, 5, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @FunctionalInterface
+  private interface Parser {
+    int parse(byte[] feed) throws Exception;
+  }
+
+  public static void main(String[] args) throws Exception {
+    byte[] feed = createFeed();
+    Date newestIngested = Date.from(NEWEST.minusMinutes(10).toInstant());
+
+    run("Rome", feed, RssFeedParserBenchmark::parseWithRome);
+    run("StAX", feed, body -> RssFeedParser.parse(body, null).size());
+    run("StAX, early stop", feed, body -> RssFeedParser.parse(body, newestIngested).size());
+  }
+
+  private static int parseWithRome(byte[] body) throws Exception {
+    SyndFeed syndFeed = new SyndFeedInput().build(new XmlReader(new ByteArrayInputStream(body)));
+    List<FeedItem> items = new ArrayList<>(syndFeed.getEntries().size());
+    for (SyndEntry entry : syndFeed.getEntries()) {
+      items.add(new FeedItem(entry.getTitle(), entry.getDescription().getValue(), entry.getPublishedDate(),
+          entry.getCategories().isEmpty() ? null : entry.getCategories().get(0).getName()));
+    }
+    return items.size();
+  }
+
+  private static void run(String name, byte[] feed, Parser parser) throws Exception {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      parser.parse(feed);
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    int items = 0;
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      items = parser.parse(feed);
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    System.out.printf("%-18s %4d items  %8.1f us/op  %8.1f KB/op%n", name, items,
+        elapsed / 1_000.0 / MEASURED_ROUNDS, allocated / 1024.0 / MEASURED_ROUNDS);
+  }
+
+  /**
+   * Creates a feed with the shape of Politiloggen, one item per minute, newest first
+   */
+  private static byte[] createFeed() {
+    StringBuilder feed = new StringBuilder("""
+        <?xml version="1.0" encoding="UTF-8"?>
+        <rss version="2.0"><channel><title>Politiloggen</title>
+        """);
+    for (int i = 0; i < ITEMS; i++) {
+      feed.append("<item><title>Trafikkulykke på E6 ved Hamar (ID: 25").append(i).append(")</title>")
+          .append("<description>To biler er involvert i en trafikkulykke. Politiet er på stedet, ")
+          .append("og det er ingen meldinger om personskader. Trafikken går sakte forbi.</description>")
+          .append("<category>Innlandet politidistrikt</category>")
+          .append("<pubDate>").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(NEWEST.minusMinutes(i)))
+          .append("</pubDate></item>\n");
+    }
+    feed.append("</channel></rss>");
+    return feed.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
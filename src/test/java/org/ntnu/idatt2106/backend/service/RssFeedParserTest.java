@@ -0,0 +1,131 @@
+package org.ntnu.idatt2106.backend.service;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the RssFeedParser
+ */
+class RssFeedParserTest {
+
+  private static final String RSS = """
+      <?xml version="1.0" encoding="UTF-8"?>
+      <rss version="2.0" xmlns:atom="http://www.w3.org/2005/Atom">
+        <channel>
+          <title>Politiloggen</title>
+          <atom:link href="https://api.politiet.no/politiloggen/v1/rss" rel="self"/>
+          <item>
+            <title>Brann i bolig (ID: 25c)</title>
+            <description><![CDATA[Brann i <b>enebolig</b> på Lillehammer]]></description>
+            <category>Innlandet politidistrikt</category>
+            <category>Brann</category>
+            <pubDate>Mon, 05 May 2025 14:00:00 +0200</pubDate>
+            <guid isPermaLink="false">25c</guid>
+          </item>
+          <item>
+            <title>Trafikkulykke (ID: 25b)</title>
+            <description>To biler &amp; en buss involvert</description>
+            <category>Oslo politidistrikt</category>
+            <pubDate>Mon, 05 May 2025 10:49:44 GMT</pubDate>
+          </item>
+          <item>
+            <title>Innbrudd (ID: 25a)</title>
+            <description>Innbrudd i butikk</description>
+            <pubDate>Sun, 4 May 2025 08:00:00 GMT</pubDate>
+          </item>
+        </channel>
+      </rss>
+      """;
+
+  private static byte[] bytes(String feed) {
+    return feed.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  @DisplayName("parse produces the same items as Rome")
+  void testParseMatchesRome() throws Exception {
+    SyndFeed feed = new SyndFeedInput().build(new XmlReader(new ByteArrayInputStream(bytes(RSS))));
+
+    List<FeedItem> items = RssFeedParser.parse(bytes(RSS), null);
+
+    assertEquals(feed.getEntries().size(), items.size());
+    for (int i = 0; i < items.size(); i++) {
+      SyndEntry entry = feed.getEntries().get(i);
+      FeedItem item = items.get(i);
+      assertEquals(entry.getTitle(), item.title());
+      assertEquals(entry.getDescription().getValue(), item.description());
+      assertEquals(entry.getPublishedDate(), item.published());
+      assertEquals(entry.getCategories().isEmpty() ? null : entry.getCategories().get(0).getName(), item.category());
+    }
+  }
+
+  @Test
+  @DisplayName("parse stops at the first item published before the given date")
+  void testParseStopsAtSince() throws IOException {
+    Date since = RssFeedParser.parseDate("Mon, 05 May 2025 10:49:44 GMT");
+
+    List<FeedItem> items = RssFeedParser.parse(bytes(RSS), since);
+
+    assertEquals(List.of("Brann i bolig (ID: 25c)", "Trafikkulykke (ID: 25b)"),
+        items.stream().map(FeedItem::title).toList());
+  }
+
+  @Test
+  @DisplayName("parse returns no items when nothing is newer than the given date")
+  void testParseNothingNew() throws IOException {
+    assertTrue(RssFeedParser.parse(bytes(RSS), new Date()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("parse keeps items with an unparseable date without a date")
+  void testParseInvalidDate() throws IOException {
+    String feed = """
+        <rss version="2.0"><channel>
+          <item><title>Title</title><pubDate>yesterday</pubDate></item>
+        </channel></rss>
+        """;
+
+    List<FeedItem> items = RssFeedParser.parse(bytes(feed), new Date());
+
+    assertEquals(1, items.size());
+    assertNull(items.get(0).published());
+    assertNull(items.get(0).description());
+  }
+
+  @Test
+  @DisplayName("parse throws IOException when the feed is not well-formed XML")
+  void testParseMalformed() {
+    assertThrows(IOException.class, () -> RssFeedParser.parse(bytes("not xml"), null));
+    assertThrows(IOException.class, () -> RssFeedParser.parse(bytes("<rss><channel><item>"), null));
+  }
+
+  @Test
+  @DisplayName("parse throws IOException when the root element is not rss")
+  void testParseNotRss() {
+    assertThrows(IOException.class, () -> RssFeedParser.parse(bytes("<feed><entry/></feed>"), null));
+  }
+
+  @Test
+  @DisplayName("parse does not resolve external entities")
+  void testParseRejectsExternalEntities() {
+    String feed = """
+        <?xml version="1.0"?>
+        <!DOCTYPE rss [<!ENTITY secret SYSTEM "file:///etc/passwd">]>
+        <rss version="2.0"><channel><item><title>&secret;</title></item></channel></rss>
+        """;
+
+    assertThrows(IOException.class, () -> RssFeedParser.parse(bytes(feed), null));
+  }
+}